@@ -0,0 +1,98 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.allocation.AllocationStrategy;
+import com.ankitdevcode.example.parkinglot.floor.CompactParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.TicketArchive;
+import com.ankitdevcode.example.parkinglot.ticket.TicketHistory;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleFactory;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Builds a lot without display boards so benchmarks measure the core paths only
+final class LotFixture {
+    static final int FLOORS = 5;
+
+    private LotFixture() {
+    }
+
+    static ParkingLot build(int totalSpots, boolean compactFloors) {
+        return build("bench", GeoLocation.UNKNOWN, totalSpots, compactFloors);
+    }
+
+    static ParkingLot build(String lotId, GeoLocation location, int totalSpots, boolean compactFloors) {
+        ParkingLot parkingLot = new ParkingLot(lotId, "Benchmark Lot", "localhost", location);
+        parkingLot.setTicketHistory(new TicketHistory(ParkingLot.DEFAULT_HISTORY_CAPACITY,
+                TicketArchive.temporary(tempArchive())));
+
+        int perFloor = Math.max(1, totalSpots / FLOORS);
+        for (int floor = 0; floor < FLOORS; floor++) {
+            ParkingFloor parkingFloor = compactFloors
+                    ? new CompactParkingFloor(floor, perFloor)
+                    : new DefaultParkingFloor(floor);
+            int spotCounter = 1;
+            spotCounter = addSpots(parkingFloor, spotCounter, ParkingSpotType.MOTORCYCLE, perFloor * 15 / 100);
+            spotCounter = addSpots(parkingFloor, spotCounter, ParkingSpotType.LARGE, perFloor * 10 / 100);
+            spotCounter = addSpots(parkingFloor, spotCounter, ParkingSpotType.ELECTRIC, perFloor * 10 / 100);
+            spotCounter = addSpots(parkingFloor, spotCounter, ParkingSpotType.HANDICAPPED, perFloor * 5 / 100);
+            addSpots(parkingFloor, spotCounter, ParkingSpotType.COMPACT, perFloor - spotCounter + 1);
+            parkingLot.addFloor(parkingFloor);
+        }
+        return parkingLot;
+    }
+
+    // Parks a vehicle mix that matches the spot mix: every spot type is filled to the requested
+    // share by the vehicle type that prefers it, and only with that type, so no vehicle spills into
+    // another type's spots. HANDICAPPED spots have no such vehicle type and stay free.
+    // Fails if the lot cannot reach the target.
+    static void fill(ParkingLot parkingLot, double occupancy) {
+        AllocationStrategy strategy = parkingLot.getAllocationStrategy();
+        AllocationStrategy firstChoiceOnly = (floors, vehicle, spotTypes) ->
+                strategy.allocate(floors, vehicle, spotTypes.subList(0, Math.min(1, spotTypes.size())));
+        parkingLot.setAllocationStrategy(firstChoiceOnly);
+        try {
+            int plate = 0;
+            for (VehicleType vehicleType : VehicleType.values()) {
+                List<ParkingSpotType> preferences = parkingLot.getCompatibility().preferences(vehicleType);
+                if (preferences.isEmpty()) {
+                    continue;
+                }
+                ParkingSpotType spotType = preferences.get(0);
+                int target = (int) (parkingLot.getCapacity().get(spotType) * occupancy);
+                for (int i = 0; i < target; i++) {
+                    Vehicle vehicle = VehicleFactory.createVehicle(vehicleType, "FILL" + plate++, "Grey");
+                    if (parkingLot.parkVehicle(vehicle) == null) {
+                        throw new IllegalStateException("Filled only " + i + " of " + target + " "
+                                + spotType + " spots for occupancy " + occupancy);
+                    }
+                }
+            }
+        } finally {
+            parkingLot.setAllocationStrategy(strategy);
+        }
+    }
+
+    private static int addSpots(ParkingFloor parkingFloor, int spotCounter, ParkingSpotType type, int count) {
+        for (int i = 0; i < count; i++) {
+            parkingFloor.addParkingSpot(type, spotCounter / 10, spotCounter);
+            spotCounter++;
+        }
+        return spotCounter;
+    }
+
+    private static Path tempArchive() {
+        try {
+            return Files.createTempFile("parking-bench-archive", ".log");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
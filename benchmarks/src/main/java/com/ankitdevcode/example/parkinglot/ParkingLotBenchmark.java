@@ -0,0 +1,158 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hot paths across lot sizes and occupancy levels. Thread counts are covered by the
+// contended variants; any benchmark can also be rerun with -t <threads>.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingLotBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LotState {
+        @Param({"100", "1000", "10000", "100000"})
+        int lotSize;
+
+        // Share of the spots some vehicle type can use, filled with a matching vehicle mix
+        @Param({"0.0", "0.5", "0.95"})
+        double occupancy;
+
+        @Param({"default", "compact"})
+        String floorLayout;
+
+        ParkingLot parkingLot;
+        ParkingFloor firstFloor;
+        LocalDateTime reportStart;
+        LocalDateTime reportEnd;
+        final AtomicInteger threadIds = new AtomicInteger();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            parkingLot = LotFixture.build(lotSize, "compact".equals(floorLayout));
+            firstFloor = parkingLot.getFloors().get(0);
+
+            // Seed the revenue ledger with a day of completed exits
+            int exits = Math.min(lotSize, 10_000);
+            for (int i = 0; i < exits; i++) {
+                ParkingTicket ticket = parkingLot.parkVehicle(new Car("SEED" + i, "Grey"));
+                if (ticket != null) {
+                    unpark(parkingLot, ticket);
+                }
+            }
+            LotFixture.fill(parkingLot, occupancy);
+
+            reportEnd = LocalDateTime.now().plusMinutes(1);
+            reportStart = reportEnd.minusDays(30);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            parkingLot.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class GateState {
+        private Vehicle[] vehicles;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp(LotState lot) {
+            // Distinct plates per thread so concurrent gates never submit the same car
+            int gate = lot.threadIds.getAndIncrement();
+            vehicles = new Vehicle[1024];
+            for (int i = 0; i < vehicles.length; i++) {
+                vehicles[i] = new Car("G" + gate + "-" + i, "Blue");
+            }
+        }
+
+        Vehicle nextVehicle() {
+            Vehicle vehicle = vehicles[next];
+            next = (next + 1) & (vehicles.length - 1);
+            return vehicle;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean parkAndUnpark(LotState lot, GateState gate) {
+        return parkAndUnparkOnce(lot.parkingLot, gate);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean parkAndUnparkFourGates(LotState lot, GateState gate) {
+        return parkAndUnparkOnce(lot.parkingLot, gate);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean parkAndUnparkAllCores(LotState lot, GateState gate) {
+        return parkAndUnparkOnce(lot.parkingLot, gate);
+    }
+
+    @Benchmark
+    public ParkingSpot findAvailableSpot(LotState lot) {
+        return lot.firstFloor.findAvailableSpot(VehicleType.COMPACT);
+    }
+
+    @Benchmark
+    public Map<ParkingSpotType, Integer> availabilityByType(LotState lot) {
+        return lot.parkingLot.getAvailabilityByType();
+    }
+
+    @Benchmark
+    public int availableSpotsOfType(LotState lot) {
+        return lot.parkingLot.getAvailableSpots(ParkingSpotType.COMPACT);
+    }
+
+    @Benchmark
+    public double calculateRevenue(LotState lot) {
+        return lot.parkingLot.calculateRevenue(lot.reportStart, lot.reportEnd);
+    }
+
+    private static boolean parkAndUnparkOnce(ParkingLot parkingLot, GateState gate) {
+        ParkingTicket ticket = parkingLot.parkVehicle(gate.nextVehicle());
+        if (ticket == null) {
+            return false;
+        }
+        unpark(parkingLot, ticket);
+        return true;
+    }
+
+    private static void unpark(ParkingLot parkingLot, ParkingTicket ticket) {
+        // The default processor declines a share of payments; retry like a gate would
+        while (!parkingLot.unparkVehicle(ticket.getTicketId(), PaymentMethod.CREDIT_CARD)) {
+            Thread.onSpinWait();
+        }
+    }
+}
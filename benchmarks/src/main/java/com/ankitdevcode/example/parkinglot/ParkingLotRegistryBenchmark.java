@@ -0,0 +1,76 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Routing and cross-lot queries across deployment sizes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParkingLotRegistryBenchmark {
+    private static final int SPOTS_PER_LOT = 200;
+
+    @State(Scope.Benchmark)
+    public static class RegistryState {
+        @Param({"10", "100", "1000"})
+        int lots;
+
+        ParkingLotRegistry registry;
+        String[] lotIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            registry = new ParkingLotRegistry();
+            lotIds = new String[lots];
+            for (int i = 0; i < lots; i++) {
+                lotIds[i] = "LOT-" + i;
+                // Lots scattered over roughly a 50 km square
+                GeoLocation location = new GeoLocation(12.75 + (i * 7919 % 1000) / 2000.0,
+                        77.35 + (i * 104_729 % 1000) / 2000.0);
+                ParkingLot parkingLot = LotFixture.build(lotIds[i], location, SPOTS_PER_LOT, false);
+                LotFixture.fill(parkingLot, i % 10 == 0 ? 0.5 : 1.0);
+                registry.register(parkingLot);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            registry.shutdown();
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ParkingLotService route(RegistryState state) {
+        return state.registry.route(state.lotIds[ThreadLocalRandom.current().nextInt(state.lotIds.length)]);
+    }
+
+    @Benchmark
+    public ParkingLot nearestWithFreeElectric(RegistryState state) {
+        return state.registry.findNearest(new GeoLocation(13.0, 77.6), ParkingSpotType.ELECTRIC);
+    }
+
+    @Benchmark
+    public ParkingLot nearestForCompactCar(RegistryState state) {
+        return state.registry.findNearest(new GeoLocation(13.0, 77.6), VehicleType.COMPACT);
+    }
+}
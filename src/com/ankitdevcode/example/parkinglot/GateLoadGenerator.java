@@ -0,0 +1,149 @@
+package com.ankitdevcode.example.parkinglot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drives a GateServer with busy gates cycling PARK/EXIT plus a pool of idle kiosk connections.
+// Usage: GateLoadGenerator [host] [port] [gates] [idle connections] [seconds]
+class GateLoadGenerator {
+    private static final String[] VEHICLE_TYPES = {"COMPACT", "COMPACT", "COMPACT", "MOTORCYCLE", "LARGE", "ELECTRIC"};
+    private static final int SAMPLES_PER_GATE = 100_000;
+
+    private final String host;
+    private final int port;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    GateLoadGenerator(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GateServer.DEFAULT_PORT;
+        int gates = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int idle = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 30);
+        new GateLoadGenerator(host, port).run(gates, idle, duration);
+    }
+
+    void run(int gates, int idleConnections, Duration duration) throws Exception {
+        List<Socket> idle = openIdleConnections(idleConnections);
+        System.out.println("Holding " + idle.size() + " idle connections");
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[gates][];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int gate = 0; gate < gates; gate++) {
+                int gateId = gate;
+                executor.submit(() -> latencies[gateId] = driveGate(gateId, deadline));
+            }
+        }
+
+        long completed = requests.get();
+        System.out.printf("Requests: %d (%.0f/s), errors: %d%n",
+                completed, completed / (double) duration.toSeconds(), errors.get());
+        printPercentiles(latencies);
+
+        for (Socket socket : idle) {
+            socket.close();
+        }
+    }
+
+    private List<Socket> openIdleConnections(int count) {
+        List<Socket> sockets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                sockets.add(new Socket(host, port));
+            } catch (IOException e) {
+                System.err.println("Stopped opening idle connections at " + i + ": " + e.getMessage());
+                break;
+            }
+        }
+        return sockets;
+    }
+
+    // Parks a vehicle then exits it, over and over; returns the sampled round-trip latencies
+    private long[] driveGate(int gateId, long deadline) {
+        long[] samples = new long[SAMPLES_PER_GATE];
+        int sampled = 0;
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            long sequence = 0;
+            while (System.nanoTime() < deadline) {
+                String vehicleType = VEHICLE_TYPES[(int) (sequence % VEHICLE_TYPES.length)];
+                String plate = "G" + gateId + "-" + sequence++;
+
+                long start = System.nanoTime();
+                String parked = call(in, out, "PARK " + vehicleType + " " + plate);
+                if (sampled < samples.length) {
+                    samples[sampled++] = System.nanoTime() - start;
+                }
+                if (!parked.startsWith("OK")) {
+                    continue;
+                }
+
+                String ticketId = parked.split(" ")[1];
+                String exited;
+                do {
+                    // Payments can be declined; retry like a driver would
+                    start = System.nanoTime();
+                    exited = call(in, out, "EXIT " + ticketId + " CREDIT_CARD");
+                    if (sampled < samples.length) {
+                        samples[sampled++] = System.nanoTime() - start;
+                    }
+                } while (exited.equals("FAILED") && System.nanoTime() < deadline);
+            }
+            call(in, out, "QUIT");
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Gate " + gateId + " failed: " + e.getMessage());
+        }
+        return Arrays.copyOf(samples, sampled);
+    }
+
+    private String call(BufferedReader in, OutputStream out, String request) throws IOException {
+        out.write((request + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        String response = in.readLine();
+        if (response == null) {
+            throw new IOException("Connection closed by server");
+        }
+        requests.incrementAndGet();
+        if (response.startsWith("ERR")) {
+            errors.incrementAndGet();
+        }
+        return response;
+    }
+
+    private static void printPercentiles(long[][] latencies) {
+        long[] all = Arrays.stream(latencies)
+                .filter(samples -> samples != null)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        if (all.length == 0) {
+            System.out.println("No latency samples");
+            return;
+        }
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long nanos = all[Math.min(all.length - 1, (int) (all.length * percentile / 100))];
+            System.out.printf("p%s: %.1f us%n", percentile, nanos / 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Line protocol front end for gates and kiosks. Every connection gets its own virtual thread,
+// so idle connections only cost a parked thread and a small read buffer. WAIT holds the reply
+// until the vehicle is admitted from the waitlist or its wait runs out, instead of the gate
+// polling PARK.
+//
+//   PARK <vehicle type> <plate> [color]   -> OK <ticket id> <spot id> | FULL
+//   WAIT <vehicle type> <plate> <seconds> [color] -> OK <ticket id> <spot id> | FULL
+//   EXIT <ticket id> <payment method>     -> OK | FAILED
+//   LOST <plate> <payment method>         -> OK | FAILED
+//   RESERVE <vehicle type> <plate> <minutes> -> OK <reservation id> <spot id> | FULL
+//   ARRIVE <reservation id> [color]       -> OK <ticket id> <spot id>
+//   CANCEL <reservation id>               -> OK | NOT_FOUND
+//   TICKET <ticket id>                    -> OK <ticket id> <plate> <spot id> <entry> <exit|-> <ACTIVE|CLOSED> | NOT_FOUND
+//   FIND <plate>                          -> OK <ticket id> <spot id> | NOT_FOUND
+//   SEARCH <pattern> [mismatches]         -> OK <plate>:<spot id> ...
+//   AVAIL [spot type]                     -> OK <TYPE>=<free> ... | OK <free>
+//   METRICS                               -> OK <name>=<value> ... | OK disabled
+//   QUIT                                  -> BYE
+//
+// Malformed requests and requests that fail on the server get "ERR <message>"; the connection stays open.
+class GateServer implements AutoCloseable {
+    static final int DEFAULT_PORT = 7070;
+    private static final int MAX_LINE_LENGTH = 256;
+    private static final int READ_BUFFER_SIZE = 512;
+
+    private final ParkingLotService service;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private volatile boolean running;
+
+    GateServer(ParkingLotService service, int port) throws IOException {
+        this.service = service;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(port), 4096);
+    }
+
+    public void start() {
+        running = true;
+        Thread.ofPlatform().name("gate-acceptor").daemon(true).start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                openSockets.add(socket);
+                connections.submit(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Gate server accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        connectionCount.incrementAndGet();
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), READ_BUFFER_SIZE);
+            OutputStream out = socket.getOutputStream();
+            StringBuilder line = new StringBuilder();
+            while (readLine(in, line)) {
+                String request = line.toString().trim();
+                if (request.isEmpty()) {
+                    continue;
+                }
+                if (request.equalsIgnoreCase("QUIT")) {
+                    write(out, "BYE");
+                    break;
+                }
+                write(out, handle(request));
+            }
+        } catch (SocketException e) {
+            // Client went away
+        } catch (IOException e) {
+            System.err.println("Gate connection failed: " + e.getMessage());
+        } finally {
+            openSockets.remove(socket);
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    String handle(String request) {
+        String[] parts = request.split("\\s+");
+        try {
+            return switch (parts[0].toUpperCase()) {
+                case "PARK" -> park(parts);
+                case "WAIT" -> parkOrWait(parts);
+                case "EXIT" -> exit(parts);
+                case "LOST" -> lostTicketExit(parts);
+                case "RESERVE" -> reserve(parts);
+                case "ARRIVE" -> arrive(parts);
+                case "CANCEL" -> service.cancelReservation(requireArguments(parts, 2, "CANCEL <reservation id>")[1])
+                        ? "OK" : "NOT_FOUND";
+                case "TICKET" -> ticket(parts);
+                case "FIND" -> find(parts);
+                case "SEARCH" -> search(parts);
+                case "AVAIL" -> availability(parts);
+                case "METRICS" -> "OK " + ParkingMetrics.get().getReport();
+                default -> "ERR unknown command " + parts[0];
+            };
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        } catch (RuntimeException e) {
+            // Anything else is a server fault; answer it so the gate is not left waiting on a dead line
+            System.err.println("Gate request failed: " + request + ": " + e);
+            return "ERR " + describe(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    // One line, even for exceptions without a message or with a multi-line one
+    private static String describe(Throwable e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.replaceAll("[\\r\\n]+", " ");
+    }
+
+    private String park(String[] parts) {
+        requireArguments(parts, 3, "PARK <vehicle type> <plate> [color]");
+        VehicleType vehicleType = parse(VehicleType.class, parts[1], "vehicle type");
+        String color = parts.length > 3 ? parts[3] : "Unknown";
+        ParkingTicket ticket = service.parkVehicle(vehicleType, parts[2], color);
+        if (ticket == null) {
+            return "FULL";
+        }
+        return "OK " + ticket.getTicketId() + " " + ticket.getAssignedSpot().getSpotId();
+    }
+
+    private String parkOrWait(String[] parts) {
+        requireArguments(parts, 4, "WAIT <vehicle type> <plate> <seconds> [color]");
+        VehicleType vehicleType = parse(VehicleType.class, parts[1], "vehicle type");
+        long seconds;
+        try {
+            seconds = Long.parseLong(parts[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid seconds " + parts[3]);
+        }
+        String color = parts.length > 4 ? parts[4] : "Unknown";
+        // Blocking only parks this connection's virtual thread
+        ParkingTicket ticket = service.parkVehicleOrWait(vehicleType, parts[2], color, Duration.ofSeconds(seconds)).join();
+        if (ticket == null) {
+            return "FULL";
+        }
+        return "OK " + ticket.getTicketId() + " " + ticket.getAssignedSpot().getSpotId();
+    }
+
+    private String exit(String[] parts) {
+        requireArguments(parts, 3, "EXIT <ticket id> <payment method>");
+        PaymentMethod paymentMethod = parse(PaymentMethod.class, parts[2], "payment method");
+        return service.exitVehicle(parts[1], paymentMethod) ? "OK" : "FAILED";
+    }
+
+    private String lostTicketExit(String[] parts) {
+        requireArguments(parts, 3, "LOST <plate> <payment method>");
+        PaymentMethod paymentMethod = parse(PaymentMethod.class, parts[2], "payment method");
+        return service.exitVehicleByPlate(parts[1], paymentMethod) ? "OK" : "FAILED";
+    }
+
+    private String find(String[] parts) {
+        requireArguments(parts, 2, "FIND <plate>");
+        ParkingTicket ticket = service.findVehicle(parts[1]);
+        if (ticket == null) {
+            return "NOT_FOUND";
+        }
+        return "OK " + ticket.getTicketId() + " " + ticket.getAssignedSpot().getSpotId();
+    }
+
+    private String search(String[] parts) {
+        requireArguments(parts, 2, "SEARCH <pattern> [mismatches]");
+        int mismatches;
+        try {
+            mismatches = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid mismatches " + parts[2]);
+        }
+        StringBuilder response = new StringBuilder("OK");
+        for (ParkingTicket ticket : service.searchPlates(parts[1], mismatches)) {
+            response.append(' ').append(ticket.getLicensePlate()).append(':').append(ticket.getAssignedSpot().getSpotId());
+        }
+        return response.toString();
+    }
+
+    private String reserve(String[] parts) {
+        requireArguments(parts, 4, "RESERVE <vehicle type> <plate> <minutes>");
+        VehicleType vehicleType = parse(VehicleType.class, parts[1], "vehicle type");
+        long minutes;
+        try {
+            minutes = Long.parseLong(parts[3]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid minutes " + parts[3]);
+        }
+        Reservation reservation = service.reserveSpot(vehicleType, parts[2], Duration.ofMinutes(minutes));
+        if (reservation == null) {
+            return "FULL";
+        }
+        return "OK " + reservation.getReservationId() + " " + reservation.getSpot().getSpotId();
+    }
+
+    private String arrive(String[] parts) {
+        requireArguments(parts, 2, "ARRIVE <reservation id> [color]");
+        ParkingTicket ticket = service.parkWithReservation(parts[1], parts.length > 2 ? parts[2] : "Unknown");
+        return "OK " + ticket.getTicketId() + " " + ticket.getAssignedSpot().getSpotId();
+    }
+
+    private String ticket(String[] parts) {
+        requireArguments(parts, 2, "TICKET <ticket id>");
+        ParkingTicket ticket = service.getTicketInfo(parts[1]);
+        if (ticket == null) {
+            return "NOT_FOUND";
+        }
+        return "OK " + ticket.getTicketId()
+                + " " + ticket.getLicensePlate()
+                + " " + ticket.getAssignedSpot().getSpotId()
+                + " " + ticket.getEntryTime()
+                + " " + (ticket.getExitTime() != null ? ticket.getExitTime() : "-")
+                + " " + (ticket.isActive() ? "ACTIVE" : "CLOSED");
+    }
+
+    private String availability(String[] parts) {
+        if (parts.length > 1) {
+            return "OK " + service.getAvailability(parse(ParkingSpotType.class, parts[1], "spot type"));
+        }
+        StringBuilder response = new StringBuilder("OK");
+        for (Map.Entry<ParkingSpotType, Integer> entry : service.getAvailability().entrySet()) {
+            response.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return response.toString();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String what) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown " + what + " " + value);
+        }
+    }
+
+    private static String[] requireArguments(String[] parts, int count, String usage) {
+        if (parts.length < count) {
+            throw new IllegalArgumentException("usage: " + usage);
+        }
+        return parts;
+    }
+
+    // Reads one \n-terminated line into the builder; false at end of stream
+    private static boolean readLine(InputStream in, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return true;
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new IOException("Request line too long");
+            }
+            line.append((char) b);
+        }
+        return line.length() > 0;
+    }
+
+    private static void write(OutputStream out, String response) throws IOException {
+        out.write((response + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        for (Socket socket : openSockets) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+        connections.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        ParkingLot parkingLot = new ParkingLotBuilder()
+                .setName("Gate Server Lot")
+                .setAddress("localhost")
+                .setFloors(5)
+                .addSpotConfiguration(ParkingSpotType.MOTORCYCLE, 200)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 1000)
+                .addSpotConfiguration(ParkingSpotType.LARGE, 200)
+                .addSpotConfiguration(ParkingSpotType.ELECTRIC, 100)
+                .addSpotConfiguration(ParkingSpotType.HANDICAPPED, 50)
+                .setDisplayRefreshInterval(Duration.ofSeconds(10))
+                .enableMetrics()
+                .build();
+        GateServer server = new GateServer(new ParkingLotService(parkingLot), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            parkingLot.shutdown();
+        }));
+        server.start();
+        System.out.println("Gate server listening on port " + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ankitdevcode.example.parkinglot;
+
+// Where a lot is; distances are great-circle kilometres
+record GeoLocation(double latitude, double longitude) {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    static final GeoLocation UNKNOWN = new GeoLocation(0.0, 0.0);
+
+    GeoLocation {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+    }
+
+    // Lower bound on distanceKm, without trigonometry
+    double latitudeGapKm(GeoLocation other) {
+        return Math.toRadians(Math.abs(other.latitude - latitude)) * EARTH_RADIUS_KM;
+    }
+
+    double distanceKm(GeoLocation other) {
+        double dLat = Math.toRadians(other.latitude - latitude);
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(other.latitude))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
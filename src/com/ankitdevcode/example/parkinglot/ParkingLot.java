@@ -1,205 +1,934 @@
 package com.ankitdevcode.example.parkinglot;
 
+import com.ankitdevcode.example.parkinglot.admission.AdmissionQueue;
+import com.ankitdevcode.example.parkinglot.allocation.AllocationStrategy;
+import com.ankitdevcode.example.parkinglot.allocation.FillFirstStrategy;
+import com.ankitdevcode.example.parkinglot.allocation.PlacementTracker;
+import com.ankitdevcode.example.parkinglot.allocation.SpotBuffer;
+import com.ankitdevcode.example.parkinglot.allocation.SpotRebalancer;
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
 import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.id.SnowflakeIdGenerator;
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.observer.ParkingEvent;
+import com.ankitdevcode.example.parkinglot.observer.ParkingEventBus;
 import com.ankitdevcode.example.parkinglot.observer.ParkingObserver;
+import com.ankitdevcode.example.parkinglot.payment.AsyncPaymentProcessor;
 import com.ankitdevcode.example.parkinglot.payment.DefaultPaymentProcessor;
 import com.ankitdevcode.example.parkinglot.payment.Payment;
 import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
 import com.ankitdevcode.example.parkinglot.payment.PaymentProcessor;
 import com.ankitdevcode.example.parkinglot.payment.pricing.HourlyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
 import com.ankitdevcode.example.parkinglot.payment.pricing.PricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.revenue.RevenueLedger;
+import com.ankitdevcode.example.parkinglot.persistence.JournalEvent;
+import com.ankitdevcode.example.parkinglot.persistence.ParkingJournal;
+import com.ankitdevcode.example.parkinglot.persistence.SnapshotStore;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.reservation.ReservationManager;
+import com.ankitdevcode.example.parkinglot.reservation.ReservationStatus;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ArchivedTicket;
 import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.ticket.PlateIndex;
+import com.ankitdevcode.example.parkinglot.ticket.TicketArchive;
+import com.ankitdevcode.example.parkinglot.ticket.TicketHistory;
 import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleFactory;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 @Getter
 class ParkingLot {
-    private static ParkingLot instance; // Singleton Pattern
-    private static final ReentrantLock instanceLock = new ReentrantLock();
+    static final int DEFAULT_HISTORY_CAPACITY = 10_000;
+    private static final CompletableFuture<Long> NOT_JOURNALED = CompletableFuture.completedFuture(0L);
+    // Routing key in a ParkingLotRegistry; also keeps per-lot files and metric names apart
+    private final String lotId;
     private final String name;
     private final String address;
+    private final GeoLocation location;
     private final List<ParkingFloor> floors;
-    private final Map<String, ParkingTicket> activeTickets;
-    private final Map<String, ParkingTicket> ticketHistory;
-    private final List<ParkingObserver> observers;
+    // Keyed by the numeric ticket ID; strings are decoded once where callers hand them in
+    private final Map<Long, ParkingTicket> activeTickets;
+    // Plates inside the lot; updated alongside activeTickets
+    private final PlateIndex plateIndex;
     @Setter
-    private PricingStrategy pricingStrategy;
-    private final PaymentProcessor paymentProcessor;
-    private final ReentrantLock parkingLock = new ReentrantLock();
+    private volatile TicketHistory ticketHistory;
+    @Setter
+    private volatile ParkingEventBus eventBus;
+    // Lot-wide free counts, maintained alongside the floor counters
+    private final AvailabilityCounters availability;
+    // Lot-wide spot counts per type; floors are added before any vehicle parks
+    private final AvailabilityCounters capacity;
+    @Setter
+    private volatile AllocationStrategy allocationStrategy;
+    // Which spot types each vehicle type may use in this lot; shared with its floors
+    private volatile CompatibilityMatrix compatibility;
+    // Placements by vehicle and spot type, and the spots holding a vehicle that prefers another type
+    private final PlacementTracker placements;
+    // Large spots held back for large vehicles; sized by hand or by the rebalancer
+    private final SpotBuffer largeSpotBuffer;
+    private SpotRebalancer rebalancer;
+    // Read once per exit, so a switch never changes the price of an exit already being quoted
+    @Setter
+    private volatile PricingStrategy pricingStrategy;
+    @Setter
+    private volatile PaymentProcessor paymentProcessor;
+    private final RevenueLedger revenueLedger;
+    private final ReservationManager reservations;
+    // Vehicles waiting for a full lot; served whenever a spot is freed
+    private final AdmissionQueue admissions;
+    @Setter
+    private volatile SnowflakeIdGenerator idGenerator;
+    // Set for a node ID chosen by the builder; a registry otherwise picks one no other lot uses
+    @Setter
+    private volatile boolean nodeIdPinned;
+    // Source of entry, exit and payment times; a simulation swaps in a clock it advances itself
+    @Setter
+    private volatile Clock clock;
+    private ParkingJournal journal;
+    private SnapshotStore snapshotStore;
+    private ScheduledExecutorService snapshotScheduler;
+    // What this lot put in the process-wide metrics registry, taken out again on shutdown
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
 
-    private ParkingLot(String name, String address) {
+    ParkingLot(String lotId, String name, String address, GeoLocation location) {
+        if (lotId == null || lotId.isBlank()) {
+            throw new IllegalArgumentException("Lot ID cannot be null or blank");
+        }
+        this.lotId = lotId;
         this.name = name;
         this.address = address;
-        this.floors = new ArrayList<>();
+        this.location = location;
+        this.floors = new CopyOnWriteArrayList<>();
         this.activeTickets = new ConcurrentHashMap<>();
-        this.ticketHistory = new ConcurrentHashMap<>();
-        this.observers = new ArrayList<>();
+        this.plateIndex = new PlateIndex();
+        this.ticketHistory = new TicketHistory(DEFAULT_HISTORY_CAPACITY, defaultArchive(lotId));
+        this.eventBus = new ParkingEventBus();
+        this.availability = new AvailabilityCounters();
+        this.capacity = new AvailabilityCounters();
+        this.allocationStrategy = new FillFirstStrategy();
+        this.compatibility = CompatibilityMatrix.defaults();
+        this.placements = new PlacementTracker(this::getCompatibility);
+        this.largeSpotBuffer = new SpotBuffer(ParkingSpotType.LARGE, 0);
         this.pricingStrategy = new HourlyPricingStrategy();
         this.paymentProcessor = new DefaultPaymentProcessor();
+        this.revenueLedger = new RevenueLedger();
+        this.idGenerator = new SnowflakeIdGenerator(0);
+        this.clock = Clock.systemDefaultZone();
+        this.reservations = new ReservationManager(this::holdSpot, floors, availability,
+                () -> SnowflakeIdGenerator.format("RSV", idGenerator.nextId()), this::getClock);
+        this.admissions = new AdmissionQueue(this::getClock);
+        reservations.setReleaseListener(this::reservationReleased);
+        registerGauges();
     }
 
-    // Singleton Pattern Implementation
-    public static ParkingLot getInstance(String name, String address) {
-        if (instance == null) {
-            instanceLock.lock();
-            try {
-                if (instance == null) {
-                    instance = new ParkingLot(name, address);
-                }
-            } finally {
-                instanceLock.unlock();
-            }
-        }
-        return instance;
+    // Scratch archive for a lot without an archive path: one file per lot and process, removed on exit
+    static TicketArchive defaultArchive(String lotId) {
+        return TicketArchive.temporary(Path.of(System.getProperty("java.io.tmpdir"),
+                "parking-ticket-archive-" + lotId + "-" + ProcessHandle.current().pid() + ".log"));
     }
 
     public void addFloor(ParkingFloor floor) {
+        floor.setCompatibility(compatibility);
         floors.add(floor);
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            availability.add(type, floor.getAvailableSpots(type));
+            capacity.add(type, floor.getAvailableSpots(type));
+        }
+        registerFloorGauges(floor);
+    }
+
+    // Takes effect for every placement in this lot that starts after the call; other lots keep theirs
+    public void setCompatibility(CompatibilityMatrix compatibility) {
+        this.compatibility = compatibility;
+        for (ParkingFloor floor : floors) {
+            floor.setCompatibility(compatibility);
+        }
+    }
+
+    // Occupancy and queue gauges are sampled when metrics are read, so they cost nothing in between.
+    // Registered from the start whether or not metrics are on, so enabling them later shows this lot.
+    private void registerGauges() {
+        gauge("tickets.active", activeTickets::size);
+        gauge("event.dropped", () -> eventBus.getDroppedEvents());
+        gauge("reservations.held", reservations::getHeldCount);
+        gauge("admission.waiting", admissions::getWaitingCount);
+        gauge("placement.mismatched", placements::getMismatched);
+        gauge("buffer.large", largeSpotBuffer::getSize);
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            gauge("free." + type, () -> availability.get(type));
+        }
+    }
+
+    private void registerFloorGauges(ParkingFloor floor) {
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            gauge("floor." + floor.getFloorNumber() + ".free." + type, () -> floor.getAvailableSpots(type));
+        }
+    }
+
+    private void gauge(String name, LongSupplier supplier) {
+        String fullName = metricPrefix() + name;
+        gauges.put(fullName, supplier);
+        ParkingMetrics.registerGauge(fullName, supplier);
+    }
+
+    private String metricPrefix() {
+        return "lot." + lotId + ".";
     }
 
     public void addObserver(ParkingObserver observer) {
-        observers.add(observer);
+        eventBus.subscribe(observer);
+    }
+
+    // The observer only receives events for spots on this floor plus lot-wide events
+    public void addFloorObserver(int floor, ParkingObserver observer) {
+        eventBus.subscribe(floor, observer);
     }
 
     // Core parking functionality
+    // No lot-wide lock: floors are independent and each spot is claimed with a CAS,
+    // so gates working on different floors or spot types never block each other.
+    // Vehicles of a type with a waitlist do not jump it: they are turned away like on a full lot.
+    // A plate that is already inside gets null as well, without taking a spot.
     public ParkingTicket parkVehicle(Vehicle vehicle) {
-        parkingLock.lock();
-        try {
-            ParkingSpot spot = findAvailableSpot(vehicle.getType());
-            if (spot == null) {
-                notifyObservers(ParkingObserver::onParkingLotFull);
-                return null;
-            }
+        if (!plateIndex.reserve(vehicle.getLicensePlate())) {
+            ParkingMetrics.get().increment(ParkingMetrics.PARK_REJECTED);
+            return null;
+        }
+        ParkingMetrics metrics = ParkingMetrics.get();
+        long start = metrics.startTimer();
+        ParkingTicket ticket = admissions.hasWaiters(vehicle.getType()) ? null : placeVehicle(vehicle);
+        if (ticket == null) {
+            plateIndex.cancel(vehicle.getLicensePlate());
+            placements.rejected(vehicle.getType());
+            metrics.increment(ParkingMetrics.PARK_REJECTED);
+            eventBus.publish(ParkingEvent.lotFull());
+            return null;
+        }
+        metrics.recordLatency(ParkingMetrics.PARK_LATENCY, start);
+        return ticket;
+    }
 
-            if (!spot.parkVehicle(vehicle)) {
-                return null;
+    // Like parkVehicle, but a full lot puts the vehicle on the waitlist for its type instead of
+    // turning it away. The future completes with the ticket once an exit frees a spot it fits, or
+    // with null if the waitlist is full or maxWait passes first, or at once if the plate is already inside.
+    public CompletableFuture<ParkingTicket> parkVehicleOrWait(Vehicle vehicle, Duration maxWait) {
+        if (!plateIndex.reserve(vehicle.getLicensePlate())) {
+            ParkingMetrics.get().increment(ParkingMetrics.PARK_REJECTED);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!admissions.hasWaiters(vehicle.getType())) {
+            ParkingTicket ticket = placeVehicle(vehicle);
+            if (ticket != null) {
+                return CompletableFuture.completedFuture(ticket);
             }
+        }
+        placements.rejected(vehicle.getType());
+        eventBus.publish(ParkingEvent.lotFull());
+        CompletableFuture<ParkingTicket> admission;
+        try {
+            admission = admissions.enqueue(vehicle, maxWait);
+        } catch (RuntimeException e) {
+            plateIndex.cancel(vehicle.getLicensePlate());
+            throw e;
+        }
+        ParkingMetrics.get().increment(ParkingMetrics.PARK_QUEUED);
+        admission.whenComplete((ticket, error) -> {
+            if (ticket == null) {
+                plateIndex.cancel(vehicle.getLicensePlate());
+                ParkingMetrics.get().increment(ParkingMetrics.PARK_REJECTED);
+            }
+        });
+        // A spot freed between the failed claim and joining the queue would otherwise wait for the next exit
+        admitWaiting();
+        return admission;
+    }
 
-            String ticketId = generateTicketId();
-            ParkingTicket ticket = new ParkingTicket(ticketId, vehicle.getLicensePlate(), spot);
-            activeTickets.put(ticketId, ticket);
+    // Holds a spot for a booking, chosen by the allocation strategy and subject to the large-spot
+    // buffer like a park. As with parkVehicle, a type with a waitlist is turned away rather than
+    // jumping it. Returns once the hold is in the journal; null if nothing is free.
+    public Reservation reserveSpot(VehicleType vehicleType, String licensePlate, Duration holdFor) {
+        Reservation reservation = reservations.reserve(vehicleType, licensePlate, holdFor);
+        if (reservation != null) {
+            awaitDurable(List.of(journalEvent(toReservedEvent(reservation))));
+        }
+        return reservation;
+    }
 
-            // Update floor statistics
-            ParkingFloor floor = floors.get(spot.getFloor());
-            floor.updateAvailableSpots(spot.getType(), true);
+    public boolean cancelReservation(String reservationId) {
+        return reservations.cancel(reservationId);
+    }
 
-            // Notify observers
-            notifyObservers(obs -> obs.onSpotOccupied(spot, vehicle));
+    private ParkingSpot holdSpot(VehicleType vehicleType) {
+        if (admissions.hasWaiters(vehicleType)) {
+            return null;
+        }
+        return claimSpot(vehicleType, (floor, spotTypes) -> floor.reserveSpot(vehicleType, spotTypes));
+    }
 
-            return ticket;
+    // Cancelled, expired, or given back by an arrival that no longer fits: the spot is free again.
+    // Expiries call this on the reservation manager's executor, never on its timing wheel.
+    private void reservationReleased(Reservation reservation) {
+        try {
+            awaitDurable(List.of(journalEvent(
+                    new JournalEvent.ReservationEnded(reservation.getReservationId(), reservation.getStatus()))));
         } finally {
-            parkingLock.unlock();
+            admitWaiting();
         }
     }
 
-    public boolean unparkVehicle(String ticketId, PaymentMethod paymentMethod) {
-        parkingLock.lock();
+    // Claims a spot for a vehicle whose plate is already reserved; null if none is free
+    private ParkingTicket placeVehicle(Vehicle vehicle) {
+        ParkingSpot spot = claimSpot(vehicle);
+        if (spot == null) {
+            return null;
+        }
+        return issueTicket(vehicle, spot);
+    }
+
+    // Runs on the thread that freed the spot
+    private void admitWaiting() {
+        admissions.admit(this::placeVehicle);
+    }
+
+    // Arrival with a booking: the vehicle takes the spot held for it, which was already counted as taken.
+    // Like a bad reservation ID, a plate that is already inside is an error here; the hold is kept.
+    public ParkingTicket parkReservedVehicle(String reservationId, Vehicle vehicle) {
+        if (!plateIndex.reserve(vehicle.getLicensePlate())) {
+            throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate() + " is already parked");
+        }
+        ParkingSpot spot;
         try {
-            ParkingTicket ticket = activeTickets.get(ticketId);
-            if (ticket == null || !ticket.isActive()) {
-                return false;
+            spot = reservations.fulfill(reservationId, vehicle);
+        } catch (RuntimeException e) {
+            plateIndex.cancel(vehicle.getLicensePlate());
+            throw e;
+        }
+        // The end of the hold is journaled before the park, so replay never sees the spot taken twice
+        List<CompletableFuture<Long>> writes = new ArrayList<>(2);
+        writes.add(journalEvent(new JournalEvent.ReservationEnded(reservationId, ReservationStatus.FULFILLED)));
+        ParkingTicket ticket = issueTicket(vehicle, spot, writes);
+        awaitDurable(writes);
+        return ticket;
+    }
+
+    // Bulk ingestion: one counter update per spot type for the whole batch.
+    // The result lines up with the input; vehicles that could not be placed or are already
+    // inside get null. As with parkVehicle, a type with a waitlist is turned away.
+    public List<ParkingTicket> parkVehicles(List<Vehicle> vehicles) {
+        List<Vehicle> admitted = new ArrayList<>(vehicles.size());
+        int[] positions = new int[vehicles.size()];
+        int turnedAway = 0;
+        for (int i = 0; i < vehicles.size(); i++) {
+            Vehicle vehicle = vehicles.get(i);
+            if (admissions.hasWaiters(vehicle.getType())) {
+                placements.rejected(vehicle.getType());
+                turnedAway++;
+            } else if (plateIndex.reserve(vehicle.getLicensePlate())) {
+                positions[admitted.size()] = i;
+                admitted.add(vehicle);
+            }
+        }
+
+        ParkingSpot[] assigned = new ParkingSpot[admitted.size()];
+        int remaining = admitted.size() - allocateAll(admitted, assigned) + turnedAway;
+
+        List<ParkingTicket> tickets = new ArrayList<>(Collections.nCopies(vehicles.size(), null));
+        List<CompletableFuture<Long>> writes = new ArrayList<>(assigned.length);
+        for (int i = 0; i < assigned.length; i++) {
+            if (assigned[i] != null) {
+                tickets.set(positions[i], issueTicket(admitted.get(i), assigned[i], writes));
+            } else {
+                plateIndex.cancel(admitted.get(i).getLicensePlate());
+                placements.rejected(admitted.get(i).getType());
             }
+        }
+        if (remaining > 0) {
+            eventBus.publish(ParkingEvent.lotFull());
+        }
+        // The whole batch shares one or two group commits
+        awaitDurable(writes);
+        return tickets;
+    }
+
+    // Returns once the ticket is in the journal
+    private ParkingTicket issueTicket(Vehicle vehicle, ParkingSpot spot) {
+        List<CompletableFuture<Long>> writes = new ArrayList<>(1);
+        ParkingTicket ticket = issueTicket(vehicle, spot, writes);
+        awaitDurable(writes);
+        return ticket;
+    }
+
+    private ParkingTicket issueTicket(Vehicle vehicle, ParkingSpot spot, List<CompletableFuture<Long>> writes) {
+        ParkingTicket ticket = new ParkingTicket(idGenerator.nextId(), vehicle.getLicensePlate(), spot, LocalDateTime.now(clock));
+        activeTickets.put(ticket.getId(), ticket);
+        plateIndex.bind(ticket);
+        placements.placed(vehicle.getType(), spot);
+        writes.add(journalEvent(toParkedEvent(ticket, vehicle)));
+
+        // Notify observers
+        eventBus.publish(new ParkingEvent.SpotOccupied(spot, vehicle));
+
+        return ticket;
+    }
+
+    public boolean unparkVehicle(String ticketId, PaymentMethod paymentMethod) {
+        // Reserving the ticket is the exit claim: only one caller can win it
+        ParkingTicket ticket = findActive(ticketId);
+        if (ticket == null || !ticket.tryReserveExit()) {
+            return false;
+        }
+
+        ParkingMetrics metrics = ParkingMetrics.get();
+        long start = metrics.startTimer();
+        VehicleType vehicleType = ticket.getAssignedSpot().getParkedVehicle().getType();
+        Payment payment = createPayment(ticket, vehicleType, paymentMethod);
+        boolean paid = paymentProcessor.processPayment(payment);
+        metrics.recordLatency(ParkingMetrics.PAYMENT_LATENCY, start);
+        List<CompletableFuture<Long>> writes = new ArrayList<>(2);
+        if (settlePayment(ticket, payment, paid, writes)) {
+            releaseSpot(ticket, payment, vehicleType, writes);
+        }
+        awaitDurable(writes);
+        if (paid) {
+            metrics.recordLatency(ParkingMetrics.EXIT_LATENCY, start);
+        }
+        return paid;
+    }
 
-            // Calculate payment
-            double amount = pricingStrategy.calculatePrice(
-                    ticket.getEntryTime(),
-                    LocalDateTime.now(),
-                    ticket.getAssignedSpot().getParkedVehicle().getType()
-            );
+    // Lost-ticket exit: the plate identifies the active ticket
+    public boolean unparkVehicleByPlate(String licensePlate, PaymentMethod paymentMethod) {
+        ParkingTicket ticket = plateIndex.find(licensePlate);
+        return ticket != null && unparkVehicle(ticket.getTicketId(), paymentMethod);
+    }
 
-            Payment payment = new Payment(
-                    generatePaymentId(),
-                    amount,
-                    paymentMethod
-            );
+    // Same exit flow, but the payment is settled on the processor's threads and the spot is
+    // freed when it completes. The ticket stays reserved (and visible) while the payment is in flight.
+    public CompletableFuture<Boolean> unparkVehicleAsync(String ticketId, PaymentMethod paymentMethod) {
+        ParkingTicket ticket = findActive(ticketId);
+        if (ticket == null || !ticket.tryReserveExit()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        ParkingMetrics metrics = ParkingMetrics.get();
+        long start = metrics.startTimer();
+        VehicleType vehicleType = ticket.getAssignedSpot().getParkedVehicle().getType();
+        Payment payment = createPayment(ticket, vehicleType, paymentMethod);
+        return paymentProcessor.processPaymentAsync(payment)
+                .exceptionally(error -> false)
+                .thenCompose(paid -> {
+                    metrics.recordLatency(ParkingMetrics.PAYMENT_LATENCY, start);
+                    List<CompletableFuture<Long>> writes = new ArrayList<>(2);
+                    if (settlePayment(ticket, payment, paid, writes)) {
+                        releaseSpot(ticket, payment, vehicleType, writes);
+                    }
+                    // Completes on the journal writer rather than blocking a processor thread
+                    return whenDurable(writes).thenApply(durable -> {
+                        if (paid) {
+                            metrics.recordLatency(ParkingMetrics.EXIT_LATENCY, start);
+                        }
+                        return paid;
+                    });
+                });
+    }
 
-            if (paymentProcessor.processPayment(payment)) {
-                return false;
+    private void releaseSpot(ParkingTicket ticket, Payment payment, VehicleType vehicleType,
+                             List<CompletableFuture<Long>> writes) {
+        ParkingSpot spot = ticket.getAssignedSpot();
+        // Before the spot is freed, so a vehicle parking there next is not forgotten
+        placements.released(vehicleType, spot);
+        floors.get(spot.getFloor()).removeVehicle(spot);
+        availability.increment(spot.getType());
+        completeExit(ticket, payment, vehicleType, writes);
+        admitWaiting();
+    }
+
+    // Bulk exits: payments are settled in one call and spots are released with one
+    // counter update per floor and spot type. The result lines up with the input.
+    public List<Boolean> unparkVehicles(List<String> ticketIds, PaymentMethod paymentMethod) {
+        int size = ticketIds.size();
+        ParkingTicket[] tickets = new ParkingTicket[size];
+        VehicleType[] vehicleTypes = new VehicleType[size];
+        Payment[] payments = new Payment[size];
+        List<Payment> pending = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ParkingTicket ticket = findActive(ticketIds.get(i));
+            if (ticket == null || !ticket.tryReserveExit()) {
+                continue;
             }
+            tickets[i] = ticket;
+            vehicleTypes[i] = ticket.getAssignedSpot().getParkedVehicle().getType();
+            payments[i] = createPayment(ticket, vehicleTypes[i], paymentMethod);
+            pending.add(payments[i]);
+        }
 
-            // Complete parking process
-            ParkingSpot spot = ticket.getAssignedSpot();
-            spot.removeVehicle();
-            ticket.completeParking(payment);
+        List<Boolean> settled = paymentProcessor.processPayments(pending);
+        List<CompletableFuture<Long>> writes = new ArrayList<>(2 * pending.size());
+        Map<Integer, List<ParkingSpot>> freedByFloor = new HashMap<>();
+        List<Boolean> results = new ArrayList<>(size);
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (tickets[i] == null) {
+                results.add(false);
+                continue;
+            }
+            boolean paid = settlePayment(tickets[i], payments[i], settled.get(next++), writes);
+            if (paid) {
+                ParkingSpot spot = tickets[i].getAssignedSpot();
+                placements.released(vehicleTypes[i], spot);
+                freedByFloor.computeIfAbsent(spot.getFloor(), f -> new ArrayList<>()).add(spot);
+            }
+            results.add(paid);
+        }
 
-            // Update records
-            activeTickets.remove(ticketId);
-            ticketHistory.put(ticketId, ticket);
+        int[] freedByType = new int[ParkingSpotType.values().length];
+        for (Map.Entry<Integer, List<ParkingSpot>> entry : freedByFloor.entrySet()) {
+            floors.get(entry.getKey()).removeVehicles(entry.getValue());
+            for (ParkingSpot spot : entry.getValue()) {
+                freedByType[spot.getType().ordinal()]++;
+            }
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (freedByType[type.ordinal()] > 0) {
+                availability.add(type, freedByType[type.ordinal()]);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (results.get(i)) {
+                completeExit(tickets[i], payments[i], vehicleTypes[i], writes);
+            }
+        }
+        if (!freedByFloor.isEmpty()) {
+            admitWaiting();
+        }
+        awaitDurable(writes);
+        return results;
+    }
 
-            // Update floor statistics
-            ParkingFloor floor = floors.get(spot.getFloor());
-            floor.updateAvailableSpots(spot.getType(), false);
+    private Payment createPayment(ParkingTicket ticket, VehicleType vehicleType, PaymentMethod paymentMethod) {
+        // Calculate payment
+        double amount = pricingStrategy.calculatePrice(
+                ticket.getEntryTime(),
+                LocalDateTime.now(clock),
+                vehicleType,
+                ticket.getAssignedSpot().getType()
+        );
 
-            // Notify observers
-            notifyObservers(obs -> obs.onSpotFreed(spot));
+        return new Payment(
+                generatePaymentId(),
+                amount,
+                paymentMethod,
+                clock
+        );
+    }
 
-            return true;
-        } finally {
-            parkingLock.unlock();
+    private boolean settlePayment(ParkingTicket ticket, Payment payment, boolean paid,
+                                  List<CompletableFuture<Long>> writes) {
+        writes.add(journalEvent(new JournalEvent.PaymentSettled(ticket.getTicketId(), payment.getPaymentId(),
+                payment.getAmount(), payment.getMethod(), paid)));
+        ParkingMetrics.get().increment(paid ? ParkingMetrics.PAYMENT_SUCCESS : ParkingMetrics.PAYMENT_FAILURE);
+        if (paid) {
+            activeTickets.remove(ticket.getId());
+            plateIndex.remove(ticket);
+        } else {
+            // Drop the reservation so the exit can be retried
+            ticket.releaseExit();
         }
+        return paid;
     }
 
-    private ParkingSpot findAvailableSpot(VehicleType vehicleType) {
-        for (ParkingFloor floor : floors) {
-            ParkingSpot spot = floor.findAvailableSpot(vehicleType);
+    private void completeExit(ParkingTicket ticket, Payment payment, VehicleType vehicleType,
+                              List<CompletableFuture<Long>> writes) {
+        ticket.completeParking(payment, LocalDateTime.now(clock));
+
+        // Update records
+        ticketHistory.put(ticket);
+        revenueLedger.record(ticket.getExitTime(), payment.getAmount(), vehicleType, payment.getMethod());
+        writes.add(journalEvent(new JournalEvent.Unparked(ticket.getTicketId(), ticket.getExitTime())));
+
+        // Notify observers
+        eventBus.publish(new ParkingEvent.SpotFreed(ticket.getAssignedSpot()));
+    }
+
+    // Completes once the event is durable; at once for a lot without a journal
+    private CompletableFuture<Long> journalEvent(JournalEvent event) {
+        ParkingJournal current = journal;
+        return current != null ? current.append(event) : NOT_JOURNALED;
+    }
+
+    // An operation appends everything it journals, then waits once, so a batch rides one group commit.
+    // A failed write is rethrown: the change is applied in memory but not durable, and the caller must
+    // not report it as done.
+    private static void awaitDurable(List<CompletableFuture<Long>> writes) {
+        try {
+            for (CompletableFuture<Long> write : writes) {
+                write.join();
+            }
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Journal write failed; the change is not durable", e.getCause());
+        }
+    }
+
+    private static CompletableFuture<Void> whenDurable(List<CompletableFuture<Long>> writes) {
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(error -> {
+                    throw new IllegalStateException("Journal write failed; the change is not durable",
+                            error instanceof CompletionException ? error.getCause() : error);
+                });
+    }
+
+    // Claims a spot and takes it off the lot's free count. A spot of the buffered type is taken off
+    // the count first, in the same CAS that checks the buffer, so concurrent claims can never leave
+    // fewer free than the vehicle must keep for others; the count is restored if no floor has one.
+    private ParkingSpot claimSpot(Vehicle vehicle) {
+        return claimSpot(vehicle.getType(), (floor, spotTypes) -> floor.parkVehicle(vehicle, spotTypes));
+    }
+
+    // The claim either parks the vehicle or holds the spot for a reservation
+    private ParkingSpot claimSpot(VehicleType vehicleType, AllocationStrategy.SpotClaim claim) {
+        CompatibilityMatrix matrix = compatibility;
+        AllocationStrategy strategy = allocationStrategy;
+        ParkingSpot spot = claimCounted(strategy, largeSpotBuffer.preferredOver(matrix, vehicleType), claim);
+        if (spot != null) {
+            return spot;
+        }
+        List<ParkingSpotType> buffered = largeSpotBuffer.buffered(matrix, vehicleType);
+        if (!buffered.isEmpty()
+                && availability.tryDecrement(largeSpotBuffer.getSpotType(), largeSpotBuffer.keepFree(matrix, vehicleType))) {
+            spot = strategy.allocate(floors, buffered, claim);
             if (spot != null) {
                 return spot;
             }
+            availability.increment(largeSpotBuffer.getSpotType());
+        }
+        return claimCounted(strategy, largeSpotBuffer.fallbacks(matrix, vehicleType), claim);
+    }
+
+    private ParkingSpot claimCounted(AllocationStrategy strategy, List<ParkingSpotType> spotTypes,
+                                     AllocationStrategy.SpotClaim claim) {
+        if (spotTypes.isEmpty()) {
+            return null;
+        }
+        ParkingSpot spot = strategy.allocate(floors, spotTypes, claim);
+        if (spot != null) {
+            availability.decrement(spot.getType());
+        }
+        return spot;
+    }
+
+    // Fills the null entries of assigned and takes the claimed spots off the lot's free count.
+    // The strategy's single pass over the floors knows nothing of the buffer, so with a buffer set
+    // every vehicle goes through claimSpot and the buffer is checked again for each claim.
+    private int allocateAll(List<Vehicle> vehicles, ParkingSpot[] assigned) {
+        if (largeSpotBuffer.getSize() > 0) {
+            int placed = 0;
+            for (int i = 0; i < assigned.length; i++) {
+                if (assigned[i] == null && (assigned[i] = claimSpot(vehicles.get(i))) != null) {
+                    placed++;
+                }
+            }
+            return placed;
+        }
+        int placed = allocationStrategy.allocateAll(floors, vehicles, assigned, compatibility);
+        int[] claimedByType = new int[ParkingSpotType.values().length];
+        for (ParkingSpot spot : assigned) {
+            if (spot != null) {
+                claimedByType[spot.getType().ordinal()]++;
+            }
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (claimedByType[type.ordinal()] > 0) {
+                availability.add(type, -claimedByType[type.ordinal()]);
+            }
+        }
+        return placed;
+    }
+
+    // Lets the buffer follow demand: it grows while large vehicles are turned away, up to maxSize,
+    // and shrinks back to its configured size once they stop
+    public void enableRebalancing(int maxSize, Duration interval) {
+        if (rebalancer != null) {
+            throw new IllegalStateException("Rebalancing already enabled");
+        }
+        rebalancer = new SpotRebalancer(placements, largeSpotBuffer, availability, maxSize, interval);
+    }
+
+    // Durability: journal every event and restore state from the latest snapshot plus the journal tail
+    public void enableJournal(Path directory, Duration snapshotInterval) {
+        if (journal != null) {
+            throw new IllegalStateException("Journal already enabled");
+        }
+        snapshotStore = new SnapshotStore(directory);
+        long lastSequence = recover(directory);
+        journal = new ParkingJournal(directory, lastSequence);
+
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "parking-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotScheduler.scheduleAtFixedRate(this::takeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void takeSnapshot() {
+        if (journal == null) {
+            return;
+        }
+        // Every event up to this sequence is already reflected in activeTickets;
+        // later events may or may not be, and replay tolerates both.
+        long sequence = journal.getLastWrittenSequence();
+        List<JournalEvent.Parked> active = new ArrayList<>();
+        for (ParkingTicket ticket : activeTickets.values()) {
+            Vehicle vehicle = ticket.getAssignedSpot().getParkedVehicle();
+            if (vehicle != null) {
+                active.add(toParkedEvent(ticket, vehicle));
+            }
+        }
+        List<JournalEvent.Reserved> held = new ArrayList<>();
+        for (Reservation reservation : reservations.getHeld()) {
+            if (reservation.isHeld()) {
+                held.add(toReservedEvent(reservation));
+            }
+        }
+        // write returns only once the snapshot and its directory entry are on disk; until then
+        // the journal segments it covers are the only durable copy
+        snapshotStore.write(sequence, active, held);
+        journal.compact(sequence);
+    }
+
+    // Work that can still journal or publish (waiters, exits with a payment in flight, a snapshot
+    // being written) is finished first; the event bus, archive and journal close last
+    public void shutdown() {
+        admissions.close();
+        if (paymentProcessor instanceof AsyncPaymentProcessor asyncProcessor) {
+            asyncProcessor.close();
+        }
+        reservations.close();
+        if (rebalancer != null) {
+            rebalancer.close();
+        }
+        if (pricingStrategy instanceof OccupancyPricingStrategy occupancyPricing) {
+            occupancyPricing.close();
+        }
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            try {
+                snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        eventBus.close();
+        ticketHistory.close();
+        if (journal != null) {
+            journal.close();
+        }
+        // The registry is process-wide; a lot left in it would be kept reachable by its gauges
+        gauges.forEach(ParkingMetrics::unregisterGauge);
+        gauges.clear();
+    }
+
+    private long recover(Path directory) {
+        Map<String, JournalEvent.Parked> active = new LinkedHashMap<>();
+        Map<String, JournalEvent.Reserved> held = new LinkedHashMap<>();
+        Optional<SnapshotStore.Snapshot> snapshot = snapshotStore.load();
+        snapshot.ifPresent(s -> s.activeTickets().forEach(parked -> active.put(parked.ticketId(), parked)));
+        snapshot.ifPresent(s -> s.reservations().forEach(reserved -> held.put(reserved.reservationId(), reserved)));
+        long snapshotSequence = snapshot.map(SnapshotStore.Snapshot::sequence).orElse(0L);
+        long lastSequence = snapshotSequence;
+
+        // Replay is idempotent: parks already in the snapshot and exits of unknown tickets are skipped
+        for (ParkingJournal.Entry entry : ParkingJournal.readAll(directory)) {
+            if (entry.sequence() <= snapshotSequence) {
+                continue;
+            }
+            lastSequence = entry.sequence();
+            if (entry.event() instanceof JournalEvent.Parked parked) {
+                active.putIfAbsent(parked.ticketId(), parked);
+            } else if (entry.event() instanceof JournalEvent.Unparked unparked) {
+                active.remove(unparked.ticketId());
+            } else if (entry.event() instanceof JournalEvent.Reserved reserved) {
+                held.putIfAbsent(reserved.reservationId(), reserved);
+            } else if (entry.event() instanceof JournalEvent.ReservationEnded ended) {
+                held.remove(ended.reservationId());
+            }
+        }
+
+        // Spots are claimed per floor in one call, so each free index is rebuilt once
+        Map<Integer, List<JournalEvent.Parked>> byFloor = new HashMap<>();
+        for (JournalEvent.Parked parked : active.values()) {
+            byFloor.computeIfAbsent(parked.floor(), f -> new ArrayList<>()).add(parked);
+        }
+        for (Map.Entry<Integer, List<JournalEvent.Parked>> entry : byFloor.entrySet()) {
+            restoreFloor(floors.get(entry.getKey()), entry.getValue());
+        }
+        // Holds go back after the parked vehicles, whose spots they can never share
+        Map<Integer, List<JournalEvent.Reserved>> heldByFloor = new HashMap<>();
+        for (JournalEvent.Reserved reserved : held.values()) {
+            heldByFloor.computeIfAbsent(reserved.floor(), f -> new ArrayList<>()).add(reserved);
+        }
+        for (Map.Entry<Integer, List<JournalEvent.Reserved>> entry : heldByFloor.entrySet()) {
+            restoreReservations(floors.get(entry.getKey()), entry.getValue());
+        }
+        return lastSequence;
+    }
+
+    private void restoreReservations(ParkingFloor floor, List<JournalEvent.Reserved> heldOnFloor) {
+        List<ParkingSpot> spots = new ArrayList<>(heldOnFloor.size());
+        for (JournalEvent.Reserved reserved : heldOnFloor) {
+            ParkingSpot spot = floor.getSpotById(reserved.spotId());
+            if (spot == null) {
+                throw new IllegalStateException("Cannot restore reservation " + reserved.reservationId() + " to spot " + reserved.spotId());
+            }
+            spots.add(spot);
+        }
+        int held = floor.reserveSpots(spots);
+        if (held < spots.size()) {
+            JournalEvent.Reserved failed = heldOnFloor.get(held);
+            throw new IllegalStateException("Cannot restore reservation " + failed.reservationId() + " to spot " + failed.spotId());
+        }
+        for (int i = 0; i < spots.size(); i++) {
+            JournalEvent.Reserved reserved = heldOnFloor.get(i);
+            availability.decrement(spots.get(i).getType());
+            reservations.restore(reserved.reservationId(), reserved.licensePlate(), reserved.vehicleType(),
+                    spots.get(i), reserved.createdAt(), reserved.expiresAt());
         }
-        return null;
     }
 
-    private void notifyObservers(java.util.function.Consumer<ParkingObserver> action) {
-        for (ParkingObserver observer : observers) {
-            action.accept(observer);
+    private void restoreFloor(ParkingFloor floor, List<JournalEvent.Parked> parkedOnFloor) {
+        List<ParkingSpot> spots = new ArrayList<>(parkedOnFloor.size());
+        List<Vehicle> vehicles = new ArrayList<>(parkedOnFloor.size());
+        for (JournalEvent.Parked parked : parkedOnFloor) {
+            ParkingSpot spot = floor.getSpotById(parked.spotId());
+            if (spot == null) {
+                throw new IllegalStateException("Cannot restore ticket " + parked.ticketId() + " to spot " + parked.spotId());
+            }
+            spots.add(spot);
+            vehicles.add(VehicleFactory.createVehicle(parked.vehicleType(), parked.licensePlate(), parked.color()));
+        }
+        int claimed = floor.occupySpots(spots, vehicles);
+        if (claimed < spots.size()) {
+            JournalEvent.Parked failed = parkedOnFloor.get(claimed);
+            throw new IllegalStateException("Cannot restore ticket " + failed.ticketId() + " to spot " + failed.spotId());
+        }
+        for (int i = 0; i < spots.size(); i++) {
+            JournalEvent.Parked parked = parkedOnFloor.get(i);
+            ParkingSpot spot = spots.get(i);
+            availability.decrement(spot.getType());
+            ParkingTicket ticket = new ParkingTicket(ParkingTicket.parseId(parked.ticketId()), parked.licensePlate(),
+                    spot, parked.entryTime());
+            activeTickets.put(ticket.getId(), ticket);
+            plateIndex.bind(ticket);
+            placements.placed(parked.vehicleType(), spot);
         }
     }
 
+    private static JournalEvent.Reserved toReservedEvent(Reservation reservation) {
+        ParkingSpot spot = reservation.getSpot();
+        return new JournalEvent.Reserved(reservation.getReservationId(), reservation.getLicensePlate(),
+                reservation.getVehicleType(), spot.getFloor(), spot.getSpotId(),
+                reservation.getCreatedAt(), reservation.getExpiresAt());
+    }
+
+    private JournalEvent.Parked toParkedEvent(ParkingTicket ticket, Vehicle vehicle) {
+        ParkingSpot spot = ticket.getAssignedSpot();
+        return new JournalEvent.Parked(ticket.getTicketId(), ticket.getLicensePlate(), vehicle.getType(),
+                vehicle.getColor(), spot.getFloor(), spot.getSpotId(), ticket.getEntryTime());
+    }
+
     // Utility methods
-    private String generateTicketId() {
-        return "TKT" + System.currentTimeMillis() + "_" + new Random().nextInt(1000);
+    public int getNodeId() {
+        return idGenerator.getNodeId();
+    }
+
+    private ParkingTicket findActive(String ticketId) {
+        long id = decodeTicketId(ticketId);
+        return id < 0 ? null : activeTickets.get(id);
+    }
+
+    // A string that is not a ticket ID matches no ticket; -1 is never issued
+    private static long decodeTicketId(String ticketId) {
+        try {
+            return ticketId != null ? ParkingTicket.parseId(ticketId) : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
     }
 
     private String generatePaymentId() {
-        return "PAY" + System.currentTimeMillis() + "_" + new Random().nextInt(1000);
+        return SnowflakeIdGenerator.format("PAY", idGenerator.nextId());
     }
 
     // Administrative methods
+    public ParkingTicket findTicketByPlate(String licensePlate) {
+        return plateIndex.find(licensePlate);
+    }
+
     public ParkingTicket getTicket(String ticketId) {
-        ParkingTicket ticket = activeTickets.get(ticketId);
-        return ticket != null ? ticket : ticketHistory.get(ticketId);
+        long id = decodeTicketId(ticketId);
+        if (id < 0) {
+            return null;
+        }
+        ParkingTicket ticket = activeTickets.get(id);
+        if (ticket != null) {
+            return ticket;
+        }
+        ticket = ticketHistory.get(id);
+        if (ticket != null) {
+            return ticket;
+        }
+        return ticketHistory.findArchived(ticketId)
+                .map(this::restoreTicket)
+                .orElse(null);
+    }
+
+    private ParkingTicket restoreTicket(ArchivedTicket archived) {
+        ParkingSpot spot = floors.get(archived.floor()).getSpotById(archived.spotId());
+        Payment payment = new Payment(archived.paymentId(), archived.amount(),
+                archived.paymentMethod(), archived.exitTime());
+        return new ParkingTicket(ParkingTicket.parseId(archived.ticketId()), archived.licensePlate(), spot,
+                archived.entryTime(), archived.exitTime(), payment);
     }
 
+    // Live read-only view over the lot-wide counters: the same instance on every call, no copy
     public Map<ParkingSpotType, Integer> getAvailabilityByType() {
-        Map<ParkingSpotType, Integer> totalAvailable = new HashMap<>();
-        for (ParkingSpotType type : ParkingSpotType.values()) {
-            totalAvailable.put(type, 0);
-        }
+        return availability.asMap();
+    }
 
-        for (ParkingFloor floor : floors) {
-            for (ParkingSpotType type : ParkingSpotType.values()) {
-                totalAvailable.put(type,
-                        totalAvailable.get(type) + floor.getAvailableSpots(type));
-            }
-        }
-        return totalAvailable;
+    // Allocation-free, lock-free read for signage polling
+    public int getAvailableSpots(ParkingSpotType type) {
+        return availability.get(type);
     }
 
     public double calculateRevenue(LocalDateTime startDate, LocalDateTime endDate) {
-        return ticketHistory.values().stream()
-                .filter(ticket -> ticket.getExitTime() != null)
-                .filter(ticket -> ticket.getExitTime().isAfter(startDate) &&
-                        ticket.getExitTime().isBefore(endDate))
-                .mapToDouble(ticket -> ticket.getPayment().getAmount())
-                .sum();
+        return revenueLedger.total(startDate, endDate);
+    }
+
+    public Map<VehicleType, Double> calculateRevenueByVehicleType(LocalDateTime startDate, LocalDateTime endDate) {
+        return revenueLedger.byVehicleType(startDate, endDate);
+    }
+
+    public Map<PaymentMethod, Double> calculateRevenueByPaymentMethod(LocalDateTime startDate, LocalDateTime endDate) {
+        return revenueLedger.byPaymentMethod(startDate, endDate);
     }
 }
@@ -1,23 +1,68 @@
 package com.ankitdevcode.example.parkinglot;
 
+import com.ankitdevcode.example.parkinglot.admission.AdmissionQueue;
+import com.ankitdevcode.example.parkinglot.allocation.AllocationStrategy;
+import com.ankitdevcode.example.parkinglot.allocation.FillFirstStrategy;
+import com.ankitdevcode.example.parkinglot.floor.CompactParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
 import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.id.SnowflakeIdGenerator;
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.observer.BackpressurePolicy;
 import com.ankitdevcode.example.parkinglot.observer.DisplayBoard;
-import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.observer.ParkingEventBus;
+import com.ankitdevcode.example.parkinglot.observer.RefreshingDisplayBoard;
+import com.ankitdevcode.example.parkinglot.payment.PaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.TicketArchive;
+import com.ankitdevcode.example.parkinglot.ticket.TicketHistory;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 class ParkingLotBuilder {
+    private String lotId;
     private String name;
     private String address;
+    private GeoLocation location = GeoLocation.UNKNOWN;
     private int floors;
     private final Map<ParkingSpotType, Integer> spotsPerFloor;
+    private int historyCapacity = ParkingLot.DEFAULT_HISTORY_CAPACITY;
+    private Path archivePath;
+    private Path journalDirectory;
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+    private int eventQueueCapacity = ParkingEventBus.DEFAULT_CAPACITY;
+    private int eventBatchSize = ParkingEventBus.DEFAULT_BATCH_SIZE;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.DROP;
+    private Duration displayRefreshInterval;
+    private Integer nodeId;
+    private Clock clock;
+    private int waitlistDepth = AdmissionQueue.DEFAULT_MAX_DEPTH;
+    private int largeSpotBuffer;
+    private int maxLargeSpotBuffer;
+    private Duration rebalanceInterval;
+    private boolean compactFloors;
+    private AllocationStrategy allocationStrategy = new FillFirstStrategy();
+    private CompatibilityMatrix compatibility = CompatibilityMatrix.defaults();
+    private PaymentProcessor paymentProcessor;
+    private OccupancyPricingStrategy.Builder occupancyPricing;
+    private boolean metricsEnabled;
 
     public ParkingLotBuilder() {
         spotsPerFloor = new HashMap<>();
     }
 
+    // Defaults to the name; must be unique within a ParkingLotRegistry
+    public ParkingLotBuilder setLotId(String lotId) {
+        this.lotId = lotId;
+        return this;
+    }
+
     public ParkingLotBuilder setName(String name) {
         this.name = name;
         return this;
@@ -28,6 +73,11 @@ class ParkingLotBuilder {
         return this;
     }
 
+    public ParkingLotBuilder setLocation(double latitude, double longitude) {
+        this.location = new GeoLocation(latitude, longitude);
+        return this;
+    }
+
     public ParkingLotBuilder setFloors(int floors) {
         this.floors = floors;
         return this;
@@ -38,11 +88,150 @@ class ParkingLotBuilder {
         return this;
     }
 
+    public ParkingLotBuilder setHistoryCapacity(int historyCapacity) {
+        this.historyCapacity = historyCapacity;
+        return this;
+    }
+
+    public ParkingLotBuilder setArchivePath(Path archivePath) {
+        this.archivePath = archivePath;
+        return this;
+    }
+
+    public ParkingLotBuilder enableJournal(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
+        return this;
+    }
+
+    public ParkingLotBuilder setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+        return this;
+    }
+
+    public ParkingLotBuilder setEventQueueCapacity(int eventQueueCapacity) {
+        this.eventQueueCapacity = eventQueueCapacity;
+        return this;
+    }
+
+    public ParkingLotBuilder setEventBatchSize(int eventBatchSize) {
+        this.eventBatchSize = eventBatchSize;
+        return this;
+    }
+
+    // DROP (the default), COALESCE or BLOCK for observers that need every event; display boards
+    // coalesce regardless
+    public ParkingLotBuilder setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+        return this;
+    }
+
+    // Switches display boards to dirty tracking with at most one render per interval
+    public ParkingLotBuilder setDisplayRefreshInterval(Duration displayRefreshInterval) {
+        this.displayRefreshInterval = displayRefreshInterval;
+        return this;
+    }
+
+    // Vehicles per type that may wait for a full lot before parkVehicleOrWait turns them away
+    public ParkingLotBuilder setWaitlistDepth(int waitlistDepth) {
+        this.waitlistDepth = waitlistDepth;
+        return this;
+    }
+
+    // Free LARGE spots that only vehicles preferring LARGE may take
+    public ParkingLotBuilder setLargeSpotBuffer(int largeSpotBuffer) {
+        this.largeSpotBuffer = largeSpotBuffer;
+        return this;
+    }
+
+    // Grows the large-spot buffer up to maxBuffer while large vehicles are turned away
+    public ParkingLotBuilder setSpotRebalancing(int maxBuffer, Duration interval) {
+        this.maxLargeSpotBuffer = maxBuffer;
+        this.rebalanceInterval = interval;
+        return this;
+    }
+
+    // Entry, exit and payment times come from this clock; defaults to the system clock
+    public ParkingLotBuilder setClock(Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    // Distinguishes ticket and payment IDs issued by different lots and processes. Without one a
+    // ParkingLotRegistry assigns a node ID no other registered lot uses.
+    public ParkingLotBuilder setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+        return this;
+    }
+
+    // Stores spot state in primitive arrays; intended for floors with tens of thousands of spots
+    public ParkingLotBuilder setCompactFloors(boolean compactFloors) {
+        this.compactFloors = compactFloors;
+        return this;
+    }
+
+    public ParkingLotBuilder setAllocationStrategy(AllocationStrategy allocationStrategy) {
+        this.allocationStrategy = allocationStrategy;
+        return this;
+    }
+
+    // Which spot types each vehicle type may use in this lot only
+    public ParkingLotBuilder setCompatibility(CompatibilityMatrix compatibility) {
+        if (compatibility == null) {
+            throw new IllegalArgumentException("CompatibilityMatrix cannot be null");
+        }
+        this.compatibility = compatibility;
+        return this;
+    }
+
+    // e.g. an AsyncPaymentProcessor in front of the card gateway; the lot closes it on shutdown
+    public ParkingLotBuilder setPaymentProcessor(PaymentProcessor paymentProcessor) {
+        this.paymentProcessor = paymentProcessor;
+        return this;
+    }
+
+    // Prices exits with surge multipliers over the lot's live occupancy
+    public ParkingLotBuilder setOccupancyPricing(OccupancyPricingStrategy.Builder occupancyPricing) {
+        this.occupancyPricing = occupancyPricing;
+        return this;
+    }
+
+    // Turns on the process-wide metrics registry (also published over JMX)
+    public ParkingLotBuilder enableMetrics() {
+        this.metricsEnabled = true;
+        return this;
+    }
+
     public ParkingLot build() {
-        ParkingLot parkingLot = ParkingLot.getInstance(name, address);
+        if (metricsEnabled) {
+            ParkingMetrics.enable();
+        }
+        // Every build is a new, independent lot; use a ParkingLotRegistry to run several
+        ParkingLot parkingLot = new ParkingLot(lotId != null ? lotId : name, name, address, location);
+        if (nodeId != null) {
+            parkingLot.setIdGenerator(new SnowflakeIdGenerator(nodeId));
+            parkingLot.setNodeIdPinned(true);
+        }
+        if (clock != null) {
+            parkingLot.setClock(clock);
+        }
+        parkingLot.setTicketHistory(new TicketHistory(historyCapacity, archive()));
+        parkingLot.setEventBus(new ParkingEventBus(eventQueueCapacity, eventBatchSize, backpressurePolicy));
+        parkingLot.setAllocationStrategy(allocationStrategy);
+        parkingLot.setCompatibility(compatibility);
+        parkingLot.getAdmissions().setMaxDepth(waitlistDepth);
+        parkingLot.getLargeSpotBuffer().setSize(largeSpotBuffer);
+        if (rebalanceInterval != null) {
+            parkingLot.enableRebalancing(maxLargeSpotBuffer, rebalanceInterval);
+        }
+        if (paymentProcessor != null) {
+            parkingLot.setPaymentProcessor(paymentProcessor);
+        }
 
+        int spotsOnFloor = spotsPerFloor.values().stream().mapToInt(Integer::intValue).sum();
         for (int floor = 0; floor < floors; floor++) {
-            ParkingFloor parkingFloor = new ParkingFloor(floor);
+            ParkingFloor parkingFloor = compactFloors
+                    ? new CompactParkingFloor(floor, spotsOnFloor, allocationStrategy.spotOrdering())
+                    : new DefaultParkingFloor(floor, allocationStrategy.spotOrdering());
 
             int spotCounter = 1;
             for (Map.Entry<ParkingSpotType, Integer> entry : spotsPerFloor.entrySet()) {
@@ -50,17 +239,39 @@ class ParkingLotBuilder {
                 int count = entry.getValue();
 
                 for (int i = 0; i < count; i++) {
-                    String spotId = "F" + floor + "R" + (spotCounter / 10) + "S" + spotCounter;
-                    ParkingSpot spot = new ParkingSpot(spotId, type, floor, spotCounter / 10, spotCounter);
-                    parkingFloor.addParkingSpot(spot);
+                    parkingFloor.addParkingSpot(type, spotCounter / 10, spotCounter);
                     spotCounter++;
                 }
             }
 
             parkingLot.addFloor(parkingFloor);
-            parkingLot.addObserver(new DisplayBoard(floor));
+            parkingLot.addFloorObserver(floor, displayRefreshInterval != null
+                    ? new RefreshingDisplayBoard(parkingFloor, displayRefreshInterval)
+                    : new DisplayBoard(floor));
+        }
+
+        // Utilization is measured against the capacity of the floors just added
+        if (occupancyPricing != null) {
+            parkingLot.setPricingStrategy(occupancyPricing.build(parkingLot.getAvailability(), parkingLot.getCapacity(),
+                    parkingLot::getCompatibility, parkingLot::getClock));
+        }
+
+        // Recovery needs the floors in place to put vehicles back into their spots
+        if (journalDirectory != null) {
+            parkingLot.enableJournal(journalDirectory, snapshotInterval);
         }
 
         return parkingLot;
     }
-}
\ No newline at end of file
+
+    // A journaled lot keeps its archive next to the journal, so old tickets survive a restart
+    private TicketArchive archive() {
+        if (archivePath != null) {
+            return new TicketArchive(archivePath);
+        }
+        if (journalDirectory != null) {
+            return new TicketArchive(journalDirectory.resolve("ticket-archive.log"));
+        }
+        return ParkingLot.defaultArchive(lotId != null ? lotId : name);
+    }
+}
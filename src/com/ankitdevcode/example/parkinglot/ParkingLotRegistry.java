@@ -0,0 +1,218 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.id.SnowflakeIdGenerator;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+// Many independent lots in one process, routed by lot ID. Lots are spread over shards by ID hash;
+// each shard publishes an immutable map, so routing is a lock-free read and only registration
+// takes the shard's lock. Cross-lot queries read each lot's free-spot counters and never
+// touch floors. Every registered lot mints IDs under its own Snowflake node ID.
+class ParkingLotRegistry {
+    private final Shard[] shards;
+    private final int shardMask;
+    // Node IDs held by registered lots; taken after a shard lock, never before one
+    private final BitSet nodeIds = new BitSet(SnowflakeIdGenerator.MAX_NODE_ID + 1);
+    private final ReentrantLock nodeLock = new ReentrantLock();
+
+    ParkingLotRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    ParkingLotRegistry(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        int shardCount = Integer.highestOneBit(concurrency - 1) << 1;
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+        shardMask = shards.length - 1;
+    }
+
+    public ParkingLotService register(ParkingLot parkingLot) {
+        ParkingLotService service = new ParkingLotService(parkingLot);
+        Shard shard = shardFor(parkingLot.getLotId());
+        shard.lock.lock();
+        try {
+            if (shard.lots.containsKey(parkingLot.getLotId())) {
+                throw new IllegalStateException("Lot already registered: " + parkingLot.getLotId());
+            }
+            claimNodeId(parkingLot);
+            Map<String, ParkingLotService> lots = new HashMap<>(shard.lots);
+            lots.put(parkingLot.getLotId(), service);
+            shard.lots = Map.copyOf(lots);
+        } finally {
+            shard.lock.unlock();
+        }
+        return service;
+    }
+
+    // The caller owns the returned lot and should shut it down
+    public ParkingLot unregister(String lotId) {
+        Shard shard = shardFor(lotId);
+        shard.lock.lock();
+        try {
+            ParkingLotService service = shard.lots.get(lotId);
+            if (service == null) {
+                return null;
+            }
+            Map<String, ParkingLotService> lots = new HashMap<>(shard.lots);
+            lots.remove(lotId);
+            shard.lots = Map.copyOf(lots);
+            releaseNodeId(service.parkingLot());
+            return service.parkingLot();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // A pinned node ID must be free; any other lot gets the highest free one, away from the low
+    // numbers people tend to pin
+    private void claimNodeId(ParkingLot parkingLot) {
+        nodeLock.lock();
+        try {
+            int nodeId = parkingLot.getNodeId();
+            if (parkingLot.isNodeIdPinned()) {
+                if (nodeIds.get(nodeId)) {
+                    throw new IllegalStateException("Node ID " + nodeId + " is already used by another lot");
+                }
+            } else {
+                nodeId = nodeIds.previousClearBit(SnowflakeIdGenerator.MAX_NODE_ID);
+                if (nodeId < 0) {
+                    throw new IllegalStateException("All " + (SnowflakeIdGenerator.MAX_NODE_ID + 1) + " node IDs are in use");
+                }
+                parkingLot.setIdGenerator(new SnowflakeIdGenerator(nodeId));
+            }
+            nodeIds.set(nodeId);
+        } finally {
+            nodeLock.unlock();
+        }
+    }
+
+    private void releaseNodeId(ParkingLot parkingLot) {
+        nodeLock.lock();
+        try {
+            nodeIds.clear(parkingLot.getNodeId());
+        } finally {
+            nodeLock.unlock();
+        }
+    }
+
+    public ParkingLotService route(String lotId) {
+        ParkingLotService service = shardFor(lotId).lots.get(lotId);
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown lot: " + lotId);
+        }
+        return service;
+    }
+
+    public ParkingLot getLot(String lotId) {
+        ParkingLotService service = shardFor(lotId).lots.get(lotId);
+        return service != null ? service.parkingLot() : null;
+    }
+
+    public List<ParkingLot> getLots() {
+        List<ParkingLot> lots = new ArrayList<>();
+        for (Shard shard : shards) {
+            for (ParkingLotService service : shard.lots.values()) {
+                lots.add(service.parkingLot());
+            }
+        }
+        return lots;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.lots.size();
+        }
+        return size;
+    }
+
+    // Nearest lot with at least one free spot of the type, or null if none has one
+    public ParkingLot findNearest(GeoLocation from, ParkingSpotType spotType) {
+        return findNearest(from, parkingLot -> parkingLot.getAvailableSpots(spotType) > 0);
+    }
+
+    // Nearest lot with a free spot of any type the vehicle may use there, or null
+    public ParkingLot findNearest(GeoLocation from, VehicleType vehicleType) {
+        return findNearest(from, parkingLot -> hasFreeSpot(parkingLot, parkingLot.getCompatibility().preferences(vehicleType)));
+    }
+
+    private ParkingLot findNearest(GeoLocation from, Predicate<ParkingLot> hasSpace) {
+        ParkingLot nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Shard shard : shards) {
+            for (ParkingLotService service : shard.lots.values()) {
+                ParkingLot parkingLot = service.parkingLot();
+                // The latitude gap alone rules out most far lots before any trigonometry
+                if (from.latitudeGapKm(parkingLot.getLocation()) >= nearestDistance || !hasSpace.test(parkingLot)) {
+                    continue;
+                }
+                double distance = from.distanceKm(parkingLot.getLocation());
+                if (distance < nearestDistance) {
+                    nearest = parkingLot;
+                    nearestDistance = distance;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private static boolean hasFreeSpot(ParkingLot parkingLot, List<ParkingSpotType> spotTypes) {
+        for (int i = 0; i < spotTypes.size(); i++) {
+            if (parkingLot.getAvailableSpots(spotTypes.get(i)) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Free spots per type summed over every lot
+    public Map<ParkingSpotType, Integer> getAvailability() {
+        int[] free = new int[ParkingSpotType.values().length];
+        for (Shard shard : shards) {
+            for (ParkingLotService service : shard.lots.values()) {
+                for (ParkingSpotType type : ParkingSpotType.values()) {
+                    free[type.ordinal()] += service.parkingLot().getAvailableSpots(type);
+                }
+            }
+        }
+        Map<ParkingSpotType, Integer> availability = new EnumMap<>(ParkingSpotType.class);
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            availability.put(type, free[type.ordinal()]);
+        }
+        return availability;
+    }
+
+    public void shutdown() {
+        for (ParkingLot parkingLot : getLots()) {
+            parkingLot.shutdown();
+        }
+    }
+
+    private Shard shardFor(String lotId) {
+        if (lotId == null) {
+            throw new IllegalArgumentException("Lot ID cannot be null");
+        }
+        int hash = lotId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Replaced wholesale under the lock; readers never lock
+        private volatile Map<String, ParkingLotService> lots = Map.of();
+    }
+}
@@ -1,17 +1,26 @@
 package com.ankitdevcode.example.parkinglot;
 
+import com.ankitdevcode.example.parkinglot.allocation.AllocationStrategy;
+import com.ankitdevcode.example.parkinglot.allocation.SpotRebalancer;
 import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
 import com.ankitdevcode.example.parkinglot.payment.pricing.PricingStrategy;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
 import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
 import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleFactory;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 record ParkingLotService(ParkingLot parkingLot) {
+    static final int PLATE_SEARCH_LIMIT = 20;
 
     public ParkingTicket parkVehicle(VehicleType vehicleType, String licensePlate, String color) {
         if (vehicleType == null) {
@@ -21,23 +30,152 @@ record ParkingLotService(ParkingLot parkingLot) {
         return parkingLot.parkVehicle(vehicle);
     }
 
+    public List<ParkingTicket> parkVehicles(List<Vehicle> vehicles) {
+        if (vehicles == null) {
+            throw new IllegalArgumentException("Vehicles cannot be null");
+        }
+        return parkingLot.parkVehicles(vehicles);
+    }
+
+    // Waits up to maxWait for a spot when the lot is full; see ParkingLot.parkVehicleOrWait
+    public CompletableFuture<ParkingTicket> parkVehicleOrWait(VehicleType vehicleType, String licensePlate,
+                                                              String color, Duration maxWait) {
+        if (vehicleType == null) {
+            throw new IllegalArgumentException("VehicleType cannot be null");
+        }
+        Vehicle vehicle = VehicleFactory.createVehicle(vehicleType, licensePlate, color);
+        return parkingLot.parkVehicleOrWait(vehicle, maxWait);
+    }
+
+    public int getWaitingVehicles(VehicleType vehicleType) {
+        return parkingLot.getAdmissions().getWaitingCount(vehicleType);
+    }
+
+    // Pre-booking: the spot is held until the driver arrives, the booking is cancelled or holdFor
+    // elapses. Returns null when no compatible spot is free.
+    public Reservation reserveSpot(VehicleType vehicleType, String licensePlate, Duration holdFor) {
+        return parkingLot.reserveSpot(vehicleType, licensePlate, holdFor);
+    }
+
+    public boolean cancelReservation(String reservationId) {
+        return parkingLot.cancelReservation(reservationId);
+    }
+
+    // Fails with IllegalStateException once the hold has expired or been cancelled
+    public ParkingTicket parkWithReservation(String reservationId, String color) {
+        Reservation reservation = parkingLot.getReservations().getReservation(reservationId);
+        if (reservation == null) {
+            throw new IllegalStateException("No held reservation " + reservationId);
+        }
+        Vehicle vehicle = VehicleFactory.createVehicle(reservation.getVehicleType(), reservation.getLicensePlate(), color);
+        return parkingLot.parkReservedVehicle(reservationId, vehicle);
+    }
+
     public boolean exitVehicle(String ticketId, PaymentMethod paymentMethod) {
         return parkingLot.unparkVehicle(ticketId, paymentMethod);
     }
 
+    public CompletableFuture<Boolean> exitVehicleAsync(String ticketId, PaymentMethod paymentMethod) {
+        return parkingLot.unparkVehicleAsync(ticketId, paymentMethod);
+    }
+
+    public List<Boolean> exitVehicles(List<String> ticketIds, PaymentMethod paymentMethod) {
+        if (ticketIds == null) {
+            throw new IllegalArgumentException("Ticket IDs cannot be null");
+        }
+        return parkingLot.unparkVehicles(ticketIds, paymentMethod);
+    }
+
     public ParkingTicket getTicketInfo(String ticketId) {
         return parkingLot.getTicket(ticketId);
     }
 
+    // "Where is my car": the active ticket, and with it the spot, or null if the plate is not inside
+    public ParkingTicket findVehicle(String licensePlate) {
+        return parkingLot.findTicketByPlate(licensePlate);
+    }
+
+    public boolean exitVehicleByPlate(String licensePlate, PaymentMethod paymentMethod) {
+        return parkingLot.unparkVehicleByPlate(licensePlate, paymentMethod);
+    }
+
+    // Camera reads: '?' for unreadable characters, plus up to maxMismatches other misreads
+    public List<ParkingTicket> searchPlates(String pattern, int maxMismatches) {
+        return parkingLot.getPlateIndex().search(pattern, maxMismatches, PLATE_SEARCH_LIMIT);
+    }
+
+    public List<ParkingTicket> searchPlatesByPrefix(String prefix) {
+        return parkingLot.getPlateIndex().searchPrefix(prefix, PLATE_SEARCH_LIMIT);
+    }
+
+    // Vehicles parked in a spot type other than their first choice
+    public int getMismatchedPlacements() {
+        return parkingLot.getPlacements().getMismatched();
+    }
+
+    // Moves that would free large spots for turned-away large vehicles; empty without rebalancing
+    public List<SpotRebalancer.Move> getRebalanceSuggestions() {
+        SpotRebalancer rebalancer = parkingLot.getRebalancer();
+        return rebalancer != null ? rebalancer.getSuggestions() : List.of();
+    }
+
     public Map<ParkingSpotType, Integer> getAvailability() {
         return parkingLot.getAvailabilityByType();
     }
 
+    public int getAvailability(ParkingSpotType type) {
+        return parkingLot.getAvailableSpots(type);
+    }
+
     public double getRevenue(LocalDateTime startDate, LocalDateTime endDate) {
         return parkingLot.calculateRevenue(startDate, endDate);
     }
 
+    public Map<VehicleType, Double> getRevenueByVehicleType(LocalDateTime startDate, LocalDateTime endDate) {
+        return parkingLot.calculateRevenueByVehicleType(startDate, endDate);
+    }
+
+    public Map<PaymentMethod, Double> getRevenueByPaymentMethod(LocalDateTime startDate, LocalDateTime endDate) {
+        return parkingLot.calculateRevenueByPaymentMethod(startDate, endDate);
+    }
+
     public void switchPricingStrategy(PricingStrategy newStrategy) {
+        if (newStrategy == null) {
+            throw new IllegalArgumentException("PricingStrategy cannot be null");
+        }
+        PricingStrategy previous = parkingLot.getPricingStrategy();
         parkingLot.setPricingStrategy(newStrategy);
+        if (previous instanceof OccupancyPricingStrategy occupancyPricing && previous != newStrategy) {
+            occupancyPricing.close();
+        }
+    }
+
+    // Surge pricing over the lot's live occupancy, e.g. builder(TariffPricingStrategy.standard())
+    public OccupancyPricingStrategy enableOccupancyPricing(OccupancyPricingStrategy.Builder pricing) {
+        OccupancyPricingStrategy strategy = pricing.build(parkingLot.getAvailability(), parkingLot.getCapacity(),
+                parkingLot::getCompatibility, parkingLot::getClock);
+        switchPricingStrategy(strategy);
+        return strategy;
+    }
+
+    // Floor selection changes immediately; the in-floor spot ordering stays as the floors were built
+    public void switchAllocationStrategy(AllocationStrategy newStrategy) {
+        if (newStrategy == null) {
+            throw new IllegalArgumentException("AllocationStrategy cannot be null");
+        }
+        parkingLot.setAllocationStrategy(newStrategy);
+    }
+
+    public CompatibilityMatrix getCompatibility() {
+        return parkingLot.getCompatibility();
+    }
+
+    // e.g. getCompatibility().toBuilder().allow(ELECTRIC, ELECTRIC, COMPACT, LARGE, HANDICAPPED) for overnight
+    // EV overflow
+    public void switchCompatibility(CompatibilityMatrix matrix) {
+        if (matrix == null) {
+            throw new IllegalArgumentException("CompatibilityMatrix cannot be null");
+        }
+        parkingLot.setCompatibility(matrix);
     }
 }
\ No newline at end of file
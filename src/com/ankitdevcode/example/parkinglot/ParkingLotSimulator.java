@@ -0,0 +1,386 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.DefaultPaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.payment.pricing.HourlyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.TariffPricingStrategy;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.reservation.ReservationManager;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Discrete-event replay of bookings, arrivals and departures through ParkingLotService. Events run
+// in time order on the calling thread and the lot's clock jumps straight to each one, so a week of
+// traffic takes seconds instead of a week, and with a seeded traffic model and payment processor
+// every run is identical. Reservation holds, waitlist timeouts and occupancy pricing all follow the
+// lot's clock: the timing wheels hand what falls due to queues that this thread drains after every
+// move of the clock, and occupancy pricing weighs occupancy by simulated time.
+class ParkingLotSimulator {
+    // A declined exit pays again after this long
+    static final Duration PAYMENT_RETRY_DELAY = Duration.ofMinutes(1);
+    // The lot's timing wheels fire within one tick of a deadline; the coarsest is the reservations'
+    static final Duration TIMER_SLACK = ReservationManager.DEFAULT_TICK;
+
+    private final ParkingLot parkingLot;
+    private final ParkingLotService service;
+    private final SimulatedClock clock;
+    // Filled by the wheel threads, run here in the order each wheel found them due
+    private final Queue<Runnable> expiredHolds = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> expiredWaits = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<Event> events = new PriorityQueue<>(
+            Comparator.comparing(Event::at).thenComparingLong(Event::sequence));
+    private long sequence;
+
+    private long arrivals;
+    private long parked;
+    private long rejected;
+    private long bookings;
+    private long missedBookings;
+    private long queued;
+    private long waitTimeouts;
+    private long exits;
+    private long declinedPayments;
+    private int occupied;
+    private int peakOccupied;
+    private double revenue;
+
+    // Takes over the lot's clock and where its expired holds and waits are processed
+    ParkingLotSimulator(ParkingLot parkingLot, SimulatedClock clock) {
+        parkingLot.setClock(clock);
+        parkingLot.getReservations().setExpiryExecutor(expiredHolds::add);
+        parkingLot.getAdmissions().setTimeoutExecutor(expiredWaits::add);
+        this.parkingLot = parkingLot;
+        this.service = new ParkingLotService(parkingLot);
+        this.clock = clock;
+    }
+
+    public void addArrival(Arrival arrival) {
+        Instant first = arrival.booking() != null ? arrival.booking().at() : arrival.at();
+        if (first.isBefore(clock.instant())) {
+            throw new IllegalArgumentException("Arrival at " + first + " is before the simulation time " + clock.instant());
+        }
+        // A booked arrival is scheduled when its booking is made
+        schedule(first, arrival.booking() != null ? new Book(arrival) : arrival);
+    }
+
+    public void addArrivals(List<Arrival> arrivals) {
+        for (Arrival arrival : arrivals) {
+            addArrival(arrival);
+        }
+    }
+
+    // Runs every event up to the given time; vehicles still inside stay parked
+    public Report run(Instant until) {
+        Instant start = clock.instant();
+        long startNanos = System.nanoTime();
+        long processed = 0;
+        Event event;
+        while ((event = events.peek()) != null && !event.at().isAfter(until)) {
+            events.poll();
+            moveClock(event.at());
+            if (event.action() instanceof Arrival arrival) {
+                arrive(arrival, null);
+            } else if (event.action() instanceof Book book) {
+                book(book.arrival());
+            } else if (event.action() instanceof BookedArrival booked) {
+                arrive(booked.arrival(), booked.reservationId());
+            } else if (event.action() instanceof Departure departure) {
+                depart(departure);
+            }
+            processed++;
+        }
+        moveClock(until);
+        return new Report(Duration.between(start, until), Duration.ofNanos(System.nanoTime() - startNanos),
+                processed, arrivals, parked, rejected, bookings, missedBookings, queued, waitTimeouts,
+                exits, declinedPayments, peakOccupied, revenue);
+    }
+
+    // Expired holds go first: the spots they free can still admit a wait that runs out at the same moment
+    private void moveClock(Instant to) {
+        clock.advanceTo(to);
+        parkingLot.getReservations().expireDue();
+        parkingLot.getAdmissions().expireDue();
+        Runnable task;
+        while ((task = expiredHolds.poll()) != null) {
+            task.run();
+        }
+        while ((task = expiredWaits.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void book(Arrival arrival) {
+        Reservation reservation = service.reserveSpot(arrival.vehicleType(), arrival.licensePlate(),
+                arrival.booking().holdFor());
+        String reservationId = null;
+        if (reservation != null) {
+            bookings++;
+            reservationId = reservation.getReservationId();
+            // Wakes the simulation when the hold runs out, even with no other event near
+            schedule(clock.instant().plus(arrival.booking().holdFor()).plus(TIMER_SLACK), new Timers());
+        }
+        schedule(arrival.at(), new BookedArrival(arrival, reservationId));
+    }
+
+    // A booked vehicle takes its held spot; one whose booking failed or ran out arrives as a walk-up
+    private void arrive(Arrival arrival, String reservationId) {
+        arrivals++;
+        if (reservationId != null) {
+            if (parkingLot.getReservations().getReservation(reservationId) != null) {
+                try {
+                    parked(arrival, service.parkWithReservation(reservationId, "Unknown"));
+                    return;
+                } catch (IllegalStateException e) {
+                    // Recorded traffic can repeat a plate that is still inside
+                    service.cancelReservation(reservationId);
+                }
+            } else {
+                missedBookings++;
+            }
+        }
+        if (arrival.maxWait().isZero()) {
+            parked(arrival, service.parkVehicle(arrival.vehicleType(), arrival.licensePlate(), "Unknown"));
+            return;
+        }
+        CompletableFuture<ParkingTicket> admission = service.parkVehicleOrWait(arrival.vehicleType(),
+                arrival.licensePlate(), "Unknown", arrival.maxWait());
+        if (admission.isDone()) {
+            parked(arrival, admission.join());
+            return;
+        }
+        // Completes on this thread: admitted by an exit or a released hold, or turned away by moveClock
+        queued++;
+        schedule(clock.instant().plus(arrival.maxWait()).plus(TIMER_SLACK), new Timers());
+        admission.thenAccept(ticket -> {
+            if (ticket == null) {
+                waitTimeouts++;
+            }
+            parked(arrival, ticket);
+        });
+    }
+
+    private void parked(Arrival arrival, ParkingTicket ticket) {
+        if (ticket == null) {
+            rejected++;
+            return;
+        }
+        parked++;
+        peakOccupied = Math.max(peakOccupied, ++occupied);
+        schedule(clock.instant().plus(arrival.stay()), new Departure(ticket.getTicketId(), arrival.paymentMethod()));
+    }
+
+    private void depart(Departure departure) {
+        if (!service.exitVehicle(departure.ticketId(), departure.paymentMethod())) {
+            declinedPayments++;
+            schedule(clock.instant().plus(PAYMENT_RETRY_DELAY), departure);
+            return;
+        }
+        exits++;
+        occupied--;
+        revenue += service.getTicketInfo(departure.ticketId()).getPayment().getAmount();
+    }
+
+    private void schedule(Instant at, Object action) {
+        events.add(new Event(at, sequence++, action));
+    }
+
+    // One vehicle per line: arrival,vehicle type,plate,departure[,payment method[,booked at,hold
+    // minutes[,max wait minutes]]], with ISO local date-times in the given zone. Optional fields may
+    // be left empty. Blank lines, '#' comments and a header line are skipped.
+    static List<Arrival> readCsv(Path path, ZoneId zone) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read traffic from " + path, e);
+        }
+        List<Arrival> arrivals = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#") || line.toLowerCase().startsWith("arrival")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 4) {
+                throw new IllegalArgumentException(path + ":" + (i + 1) + ": expected arrival,vehicle type,plate,departure");
+            }
+            try {
+                Instant arrival = LocalDateTime.parse(fields[0].trim()).atZone(zone).toInstant();
+                Instant departure = LocalDateTime.parse(fields[3].trim()).atZone(zone).toInstant();
+                PaymentMethod method = field(fields, 4).isEmpty()
+                        ? PaymentMethod.CREDIT_CARD : PaymentMethod.valueOf(field(fields, 4).toUpperCase());
+                Booking booking = null;
+                if (!field(fields, 5).isEmpty()) {
+                    booking = new Booking(LocalDateTime.parse(field(fields, 5)).atZone(zone).toInstant(),
+                            Duration.ofMinutes(Long.parseLong(field(fields, 6))));
+                }
+                Duration maxWait = field(fields, 7).isEmpty()
+                        ? Duration.ZERO : Duration.ofMinutes(Long.parseLong(field(fields, 7)));
+                arrivals.add(new Arrival(arrival, VehicleType.valueOf(fields[1].trim().toUpperCase()),
+                        fields[2].trim(), Duration.between(arrival, departure), method, booking, maxWait));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(path + ":" + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        arrivals.sort(Comparator.comparing(Arrival::at));
+        return arrivals;
+    }
+
+    private static String field(String[] fields, int index) {
+        return fields.length > index ? fields[index].trim() : "";
+    }
+
+    // booking is null for a walk-up; a zero maxWait is turned away at once when the lot is full
+    public record Arrival(Instant at, VehicleType vehicleType, String licensePlate, Duration stay,
+                          PaymentMethod paymentMethod, Booking booking, Duration maxWait) {
+        public Arrival {
+            if (stay.isNegative()) {
+                throw new IllegalArgumentException("Departure is before arrival for " + licensePlate);
+            }
+            if (booking != null && booking.at().isAfter(at)) {
+                throw new IllegalArgumentException("Booking is after the arrival for " + licensePlate);
+            }
+            if (maxWait == null || maxWait.isNegative()) {
+                throw new IllegalArgumentException("Wait cannot be negative for " + licensePlate);
+            }
+        }
+
+        public Arrival(Instant at, VehicleType vehicleType, String licensePlate, Duration stay,
+                       PaymentMethod paymentMethod) {
+            this(at, vehicleType, licensePlate, stay, paymentMethod, null, Duration.ZERO);
+        }
+    }
+
+    // A spot held from at for holdFor; a vehicle that comes after the hold ran out parks as a walk-up
+    public record Booking(Instant at, Duration holdFor) {
+        public Booking {
+            if (holdFor.isNegative() || holdFor.isZero()) {
+                throw new IllegalArgumentException("Hold must be positive");
+            }
+        }
+    }
+
+    private record Departure(String ticketId, PaymentMethod paymentMethod) {
+    }
+
+    private record Book(Arrival arrival) {
+    }
+
+    private record BookedArrival(Arrival arrival, String reservationId) {
+    }
+
+    // Nothing to do beyond moving the clock, which runs whatever fell due
+    private record Timers() {
+    }
+
+    private record Event(Instant at, long sequence, Object action) {
+    }
+
+    public record Report(Duration simulated, Duration wallTime, long events, long arrivals, long parked,
+                         long rejected, long bookings, long missedBookings, long queued, long waitTimeouts,
+                         long exits, long declinedPayments, int peakOccupied, double revenue) {
+
+        public double rejectionRate() {
+            return arrivals == 0 ? 0 : (double) rejected / arrivals;
+        }
+
+        public double parksPerHour() {
+            return simulated.isZero() ? 0 : parked * 3600.0 / simulated.toSeconds();
+        }
+
+        // Engine speed: simulated events per wall-clock second
+        public double eventsPerSecond() {
+            return wallTime.isZero() ? 0 : events * 1e9 / wallTime.toNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("simulated %s in %d ms (%.0f events/s)%n"
+                            + "arrivals %d, parked %d, rejected %d (%.1f%%), exits %d, declined payments %d%n"
+                            + "bookings %d, missed %d, queued %d, gave up waiting %d%n"
+                            + "throughput %.1f parks/hour, peak occupancy %d, revenue $%.2f",
+                    simulated, wallTime.toMillis(), eventsPerSecond(), arrivals, parked, rejected,
+                    rejectionRate() * 100, exits, declinedPayments, bookings, missedBookings, queued, waitTimeouts,
+                    parksPerHour(), peakOccupied, revenue);
+        }
+    }
+
+    // Replays a week, from a CSV given as the first argument or from the synthetic model,
+    // once per pricing strategy so their revenue can be compared on identical traffic
+    public static void main(String[] args) {
+        ZoneId zone = ZoneOffset.UTC;
+        List<Arrival> traffic;
+        Instant start;
+        Instant end;
+        if (args.length > 0) {
+            traffic = readCsv(Path.of(args[0]), zone);
+            if (traffic.isEmpty()) {
+                throw new IllegalArgumentException("No traffic in " + args[0]);
+            }
+            start = traffic.get(0).at();
+            end = start;
+            for (Arrival arrival : traffic) {
+                if (arrival.booking() != null && arrival.booking().at().isBefore(start)) {
+                    start = arrival.booking().at();
+                }
+                // A vehicle that waits the longest leaves that much later
+                Instant departure = arrival.at().plus(arrival.maxWait()).plus(arrival.stay());
+                end = departure.isAfter(end) ? departure : end;
+            }
+        } else {
+            start = LocalDateTime.of(2025, 1, 6, 0, 0).atZone(zone).toInstant();
+            end = start.plus(Duration.ofDays(7));
+            traffic = new TrafficModel(42).generate(start, end, zone);
+        }
+
+        Map<String, Consumer<ParkingLotService>> strategies = new LinkedHashMap<>();
+        strategies.put("Hourly", service -> service.switchPricingStrategy(new HourlyPricingStrategy()));
+        strategies.put("Tariff", service -> service.switchPricingStrategy(TariffPricingStrategy.standard()));
+        strategies.put("Occupancy surge on tariff", service ->
+                service.enableOccupancyPricing(OccupancyPricingStrategy.builder(TariffPricingStrategy.standard())));
+        for (Map.Entry<String, Consumer<ParkingLotService>> strategy : strategies.entrySet()) {
+            SimulatedClock clock = new SimulatedClock(start, zone);
+            ParkingLot parkingLot = new ParkingLotBuilder()
+                    .setName("Simulated Lot")
+                    .setAddress("Nowhere")
+                    .setFloors(2)
+                    .addSpotConfiguration(ParkingSpotType.MOTORCYCLE, 20)
+                    .addSpotConfiguration(ParkingSpotType.COMPACT, 80)
+                    .addSpotConfiguration(ParkingSpotType.LARGE, 10)
+                    .addSpotConfiguration(ParkingSpotType.ELECTRIC, 10)
+                    .setDisplayRefreshInterval(Duration.ofHours(1))
+                    .setPaymentProcessor(new DefaultPaymentProcessor(new Random(7)))
+                    .setClock(clock)
+                    .build();
+            strategy.getValue().accept(new ParkingLotService(parkingLot));
+
+            ParkingLotSimulator simulator = new ParkingLotSimulator(parkingLot, clock);
+            simulator.addArrivals(traffic);
+            System.out.println(strategy.getKey() + ": " + simulator.run(end));
+            parkingLot.shutdown();
+        }
+    }
+}
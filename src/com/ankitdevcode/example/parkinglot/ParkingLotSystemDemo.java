@@ -3,14 +3,22 @@ package com.ankitdevcode.example.parkinglot;
 import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
 import com.ankitdevcode.example.parkinglot.payment.pricing.FlatRatePricingStrategy;
 import com.ankitdevcode.example.parkinglot.payment.pricing.HourlyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.TariffPricingStrategy;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
 import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
 
 public class ParkingLotSystemDemo {
+    // Parking time passes on this clock instead of in real time
+    private static final SimulatedClock CLOCK = new SimulatedClock(Instant.now(), ZoneId.systemDefault());
+
     public static void main(String[] args) {
 
         ParkingLot parkingLot = setupParkingLot();
@@ -22,6 +30,8 @@ public class ParkingLotSystemDemo {
         demonstrateFullCapacity(service);
         demonstratePricingStrategies(service);
         demonstrateRevenueReport(service);
+
+        parkingLot.shutdown();
     }
 
 
@@ -35,6 +45,7 @@ public class ParkingLotSystemDemo {
                 .addSpotConfiguration(ParkingSpotType.LARGE, 3)
                 .addSpotConfiguration(ParkingSpotType.ELECTRIC, 2)
                 .addSpotConfiguration(ParkingSpotType.HANDICAPPED, 2)
+                .setClock(CLOCK)
                 .build();
     }
 
@@ -50,7 +61,7 @@ public class ParkingLotSystemDemo {
         printAvailability(service, "After parking 3 vehicles");
 
         // Exit one vehicle
-        simulateTimePass(2000);
+        simulateTimePass(Duration.ofHours(2));
         if (carTicket != null) {
             System.out.println("\nExiting vehicle: " + carTicket.getLicensePlate());
             boolean exitSuccess = service.exitVehicle(carTicket.getTicketId(), PaymentMethod.CREDIT_CARD);
@@ -69,20 +80,28 @@ public class ParkingLotSystemDemo {
         System.out.println("\nHourly Pricing:");
         service.switchPricingStrategy(new HourlyPricingStrategy());
         ParkingTicket ticket1 = service.parkVehicle(VehicleType.COMPACT, "HOUR001", "Blue");
-        simulateTimePass(3000);
+        simulateTimePass(Duration.ofHours(3));
         service.exitVehicle(ticket1.getTicketId(), PaymentMethod.CREDIT_CARD);
 
         System.out.println("\nFlat Rate Pricing:");
         service.switchPricingStrategy(new FlatRatePricingStrategy());
         ParkingTicket ticket2 = service.parkVehicle(VehicleType.COMPACT, "FLAT001", "Green");
-        simulateTimePass(3000);
+        simulateTimePass(Duration.ofHours(3));
         service.exitVehicle(ticket2.getTicketId(), PaymentMethod.MOBILE_PAYMENT);
 
-        System.out.println("\nHourly Pricing (Peak Hours):");
-        service.switchPricingStrategy(new HourlyPricingStrategy());
+        System.out.println("\nTariff Pricing (Peak Hours):");
+        service.switchPricingStrategy(TariffPricingStrategy.standard());
         ParkingTicket ticket3 = service.parkVehicle(VehicleType.COMPACT, "DYN001", "Yellow");
-        simulateTimePass(3000);
+        simulateTimePass(Duration.ofHours(3));
         service.exitVehicle(ticket3.getTicketId(), PaymentMethod.CASH);
+
+        System.out.println("\nOccupancy Pricing (Surge):");
+        OccupancyPricingStrategy occupancyPricing = service.enableOccupancyPricing(
+                OccupancyPricingStrategy.builder(new HourlyPricingStrategy()));
+        System.out.println("Current rates: " + occupancyPricing.getSnapshot());
+        ParkingTicket ticket4 = service.parkVehicle(VehicleType.COMPACT, "SURGE001", "White");
+        simulateTimePass(Duration.ofHours(3));
+        service.exitVehicle(ticket4.getTicketId(), PaymentMethod.CREDIT_CARD);
     }
 
     private static void demonstrateFullCapacity(ParkingLotService service) {
@@ -100,7 +119,7 @@ public class ParkingLotSystemDemo {
 
     private static void demonstrateRevenueReport(ParkingLotService service) {
         System.out.println("\n=== Revenue Report Demonstration ===");
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(CLOCK);
         double todayRevenue = service.getRevenue(now.withHour(0), now);
         System.out.printf("Today's Revenue: $%.2f%n", todayRevenue);
     }
@@ -112,11 +131,7 @@ public class ParkingLotSystemDemo {
                 System.out.println(type + ": " + count + " spots available"));
     }
 
-    private static void simulateTimePass(long milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private static void simulateTimePass(Duration duration) {
+        CLOCK.advance(duration);
     }
-}
\ No newline at end of file
+}
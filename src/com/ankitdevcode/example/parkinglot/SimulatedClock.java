@@ -0,0 +1,73 @@
+package com.ankitdevcode.example.parkinglot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+// A clock that only moves when told to. Lets demos and simulations cover hours of parking
+// without sleeping; time never goes backwards.
+class SimulatedClock extends Clock {
+    private final ZoneId zone;
+    private volatile Instant now;
+
+    SimulatedClock(Instant start, ZoneId zone) {
+        this.now = start;
+        this.zone = zone;
+    }
+
+    public void advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Cannot move the clock backwards");
+        }
+        now = now.plus(duration);
+    }
+
+    public void advanceTo(Instant instant) {
+        if (instant.isBefore(now)) {
+            throw new IllegalArgumentException("Cannot move the clock back to " + instant);
+        }
+        now = instant;
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // Shares this clock's time, so advancing either view advances both
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new ZoneView(this, zone);
+    }
+
+    private static final class ZoneView extends Clock {
+        private final SimulatedClock source;
+        private final ZoneId zone;
+
+        private ZoneView(SimulatedClock source, ZoneId zone) {
+            this.source = source;
+            this.zone = zone;
+        }
+
+        @Override
+        public Instant instant() {
+            return source.instant();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return source.withZone(zone);
+        }
+    }
+}
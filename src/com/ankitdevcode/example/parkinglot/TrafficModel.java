@@ -0,0 +1,190 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Synthetic arrivals for ParkingLotSimulator. Arrivals follow a Poisson process whose hourly rate
+// comes from a weekday or weekend profile; each vehicle gets a type and payment method from
+// weighted mixes and a log-normal stay around its type's mean. Some vehicles book ahead, and some
+// of those come too late for their hold; some walk-ups queue for a while when the lot is full.
+// The same seed always produces the same traffic.
+class TrafficModel {
+    // Arrivals per hour, midnight first: morning and evening commuter peaks on weekdays
+    private static final double[] WEEKDAY_PROFILE = {
+            4, 2, 1, 1, 2, 8, 30, 80, 120, 90, 60, 55, 70, 65, 55, 60, 80, 100, 70, 40, 25, 15, 10, 6};
+    // A single broad shopping peak at weekends
+    private static final double[] WEEKEND_PROFILE = {
+            6, 4, 2, 1, 1, 2, 5, 12, 25, 50, 80, 95, 100, 95, 90, 85, 75, 60, 45, 35, 25, 18, 12, 8};
+    private static final Duration MINIMUM_STAY = Duration.ofMinutes(5);
+    private static final double STAY_SIGMA = 0.8;
+    // A booking is made up to this long ahead and holds until the grace after the expected arrival
+    private static final Duration MAXIMUM_LEAD = Duration.ofHours(4);
+    private static final Duration BOOKING_GRACE = Duration.ofMinutes(15);
+
+    private final Random random;
+    private double scale = 1.0;
+    private final double[] vehicleMix = new double[VehicleType.values().length];
+    private final double[] meanStayMinutes = new double[VehicleType.values().length];
+    private final double[] paymentMix = new double[PaymentMethod.values().length];
+    private double bookingShare = 0.10;
+    private double lateShare = 0.20;
+    private double waitShare = 0.30;
+    private Duration maxWait = Duration.ofMinutes(10);
+
+    TrafficModel(long seed) {
+        this.random = new Random(seed);
+        vehicleMix[VehicleType.MOTORCYCLE.ordinal()] = 0.20;
+        vehicleMix[VehicleType.COMPACT.ordinal()] = 0.60;
+        vehicleMix[VehicleType.LARGE.ordinal()] = 0.10;
+        vehicleMix[VehicleType.ELECTRIC.ordinal()] = 0.10;
+        meanStayMinutes[VehicleType.MOTORCYCLE.ordinal()] = 90;
+        meanStayMinutes[VehicleType.COMPACT.ordinal()] = 150;
+        meanStayMinutes[VehicleType.LARGE.ordinal()] = 120;
+        meanStayMinutes[VehicleType.ELECTRIC.ordinal()] = 180;
+        for (PaymentMethod method : PaymentMethod.values()) {
+            paymentMix[method.ordinal()] = 1.0;
+        }
+    }
+
+    // Multiplies every hourly rate, e.g. 2.0 for twice the traffic
+    public TrafficModel setScale(double scale) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("Scale must be positive");
+        }
+        this.scale = scale;
+        return this;
+    }
+
+    // Relative weights; they need not add up to one
+    public TrafficModel setVehicleShare(VehicleType vehicleType, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        vehicleMix[vehicleType.ordinal()] = weight;
+        return this;
+    }
+
+    public TrafficModel setMeanStay(VehicleType vehicleType, Duration meanStay) {
+        if (meanStay.compareTo(MINIMUM_STAY) < 0) {
+            throw new IllegalArgumentException("Mean stay must be at least " + MINIMUM_STAY);
+        }
+        meanStayMinutes[vehicleType.ordinal()] = meanStay.toSeconds() / 60.0;
+        return this;
+    }
+
+    public TrafficModel setPaymentShare(PaymentMethod method, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative");
+        }
+        paymentMix[method.ordinal()] = weight;
+        return this;
+    }
+
+    // Share of arrivals that book ahead, and share of those that miss their hold
+    public TrafficModel setBookings(double share, double lateShare) {
+        if (share < 0 || share > 1 || lateShare < 0 || lateShare > 1) {
+            throw new IllegalArgumentException("Shares must be between 0 and 1");
+        }
+        this.bookingShare = share;
+        this.lateShare = lateShare;
+        return this;
+    }
+
+    // Share of walk-ups that queue for up to maxWait when the lot is full
+    public TrafficModel setWaiting(double share, Duration maxWait) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Share must be between 0 and 1");
+        }
+        if (maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("Wait must be positive");
+        }
+        this.waitShare = share;
+        this.maxWait = maxWait;
+        return this;
+    }
+
+    public List<ParkingLotSimulator.Arrival> generate(Instant start, Instant end, ZoneId zone) {
+        List<ParkingLotSimulator.Arrival> arrivals = new ArrayList<>();
+        ZonedDateTime hour = start.atZone(zone).truncatedTo(ChronoUnit.HOURS);
+        long vehicleNumber = 0;
+        while (hour.toInstant().isBefore(end)) {
+            Instant hourEnd = hour.plusHours(1).toInstant();
+            double perSecond = rate(hour) / 3600.0;
+            // Exponential gaps within the hour; the process restarts at each hour boundary
+            Instant at = hour.toInstant();
+            while (true) {
+                at = at.plusMillis((long) (-Math.log(1 - random.nextDouble()) / perSecond * 1000));
+                if (!at.isBefore(hourEnd) || !at.isBefore(end)) {
+                    break;
+                }
+                if (at.isBefore(start)) {
+                    continue;
+                }
+                VehicleType vehicleType = VehicleType.values()[pick(vehicleMix)];
+                Duration stay = stay(vehicleType);
+                PaymentMethod paymentMethod = PaymentMethod.values()[pick(paymentMix)];
+                ParkingLotSimulator.Booking booking = booking(at, start);
+                Duration wait = booking == null && random.nextDouble() < waitShare ? maxWait : Duration.ZERO;
+                arrivals.add(new ParkingLotSimulator.Arrival(at, vehicleType, "SIM" + vehicleNumber++,
+                        stay, paymentMethod, booking, wait));
+            }
+            hour = hour.plusHours(1);
+        }
+        return arrivals;
+    }
+
+    private double rate(ZonedDateTime hour) {
+        boolean weekend = hour.getDayOfWeek() == DayOfWeek.SATURDAY || hour.getDayOfWeek() == DayOfWeek.SUNDAY;
+        return (weekend ? WEEKEND_PROFILE : WEEKDAY_PROFILE)[hour.getHour()] * scale;
+    }
+
+    // Log-normal with the configured mean
+    private Duration stay(VehicleType vehicleType) {
+        double minutes = meanStayMinutes[vehicleType.ordinal()]
+                * Math.exp(STAY_SIGMA * random.nextGaussian() - STAY_SIGMA * STAY_SIGMA / 2);
+        Duration stay = Duration.ofSeconds((long) (minutes * 60));
+        return stay.compareTo(MINIMUM_STAY) < 0 ? MINIMUM_STAY : stay;
+    }
+
+    // Null for a walk-up. A late vehicle comes after the grace and finds its hold gone.
+    private ParkingLotSimulator.Booking booking(Instant at, Instant start) {
+        if (random.nextDouble() >= bookingShare) {
+            return null;
+        }
+        Duration lead = Duration.ofSeconds((long) (random.nextDouble() * MAXIMUM_LEAD.toSeconds()));
+        Duration late = random.nextDouble() < lateShare
+                ? BOOKING_GRACE.plusSeconds(1 + (long) (random.nextDouble() * 1800)) : Duration.ZERO;
+        Instant expected = at.minus(late);
+        Instant bookedAt = expected.minus(lead);
+        // Nobody could have booked before the simulation starts
+        if (bookedAt.isBefore(start)) {
+            return null;
+        }
+        return new ParkingLotSimulator.Booking(bookedAt, lead.plus(BOOKING_GRACE));
+    }
+
+    private int pick(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
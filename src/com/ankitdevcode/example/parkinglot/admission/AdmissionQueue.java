@@ -0,0 +1,265 @@
+package com.ankitdevcode.example.parkinglot.admission;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.reservation.HashedTimingWheel;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Waitlist for a full lot. Vehicles queue per vehicle type instead of retrying the gate, and each
+// freed spot goes to the vehicle that has waited longest among those that fit. Waits complete
+// through a future: with the ticket once placed, or with null when the waitlist is at its depth
+// or the wait runs out. The lock only guards the queues; parking happens outside it. Waits run
+// out by the lot's clock.
+public class AdmissionQueue implements AutoCloseable {
+    public static final int DEFAULT_MAX_DEPTH = 1_000;
+    private static final Duration TICK = Duration.ofMillis(100);
+    private static final int WHEEL_SIZE = 1024;
+
+    private static final int WAITING = 0;
+    private static final int ADMITTING = 1;
+    private static final int DONE = 2;
+
+    private final List<ArrayDeque<Waiter>> waitlists;
+    // Per type and total, readable without the lock
+    private final AtomicIntegerArray depth;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final HashedTimingWheel timeouts;
+    // Timeouts only leave the queue, so by default they run on the wheel thread
+    private volatile Executor timeoutExecutor = Runnable::run;
+    private volatile int maxDepth = DEFAULT_MAX_DEPTH;
+    private long sequence;
+
+    public AdmissionQueue(Supplier<Clock> clock) {
+        timeouts = new HashedTimingWheel("admission-timeout", TICK, WHEEL_SIZE, clock,
+                task -> timeoutExecutor.execute(task));
+        waitlists = new ArrayList<>(VehicleType.values().length);
+        for (int i = 0; i < VehicleType.values().length; i++) {
+            waitlists.add(new ArrayDeque<>());
+        }
+        depth = new AtomicIntegerArray(waitlists.size());
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Waitlist depth must be positive");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    // Where waits that ran out are turned away; a simulation can queue them and run them in its own order
+    public void setTimeoutExecutor(Executor timeoutExecutor) {
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    // Turns away the waits that have run out by the clock's current time; see ReservationManager.expireDue
+    public void expireDue() {
+        timeouts.advance();
+    }
+
+    public boolean hasWaiters(VehicleType vehicleType) {
+        return depth.get(vehicleType.ordinal()) > 0;
+    }
+
+    public int getWaitingCount(VehicleType vehicleType) {
+        return depth.get(vehicleType.ordinal());
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    // Completes with the ticket once admit places the vehicle, or with null if the waitlist for its
+    // type is full or maxWait passes first. Cancelling the future leaves the queue; a vehicle
+    // already being placed at that moment still gets its ticket.
+    public CompletableFuture<ParkingTicket> enqueue(Vehicle vehicle, Duration maxWait) {
+        if (maxWait == null || maxWait.isNegative() || maxWait.isZero()) {
+            throw new IllegalArgumentException("Wait must be positive");
+        }
+        Waiter waiter = new Waiter(vehicle);
+        waiter.timeout = timeouts.schedule(() -> {
+            if (leave(waiter)) {
+                waiter.future.complete(null);
+            }
+        }, maxWait);
+        int type = vehicle.getType().ordinal();
+        ParkingMetrics.lock(lock, "admission.lock");
+        try {
+            if (waitlists.get(type).size() >= maxDepth) {
+                waiter.state.set(DONE);
+                waiter.timeout.cancel();
+                return CompletableFuture.completedFuture(null);
+            }
+            // A wait shorter than a tick may already have run out
+            if (waiter.state.get() == WAITING) {
+                waiter.sequence = sequence++;
+                waitlists.get(type).addLast(waiter);
+                depth.incrementAndGet(type);
+                waiting.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        waiter.future.whenComplete((ticket, error) -> {
+            if (waiter.future.isCancelled() && leave(waiter)) {
+                waiter.timeout.cancel();
+            }
+        });
+        return waiter.future;
+    }
+
+    // Offers free spots to waiting vehicles, oldest first. park returns null when no compatible spot
+    // is free; that vehicle keeps its place and its type is skipped for the rest of the pass.
+    // Returns how many vehicles were placed.
+    public int admit(Function<Vehicle, ParkingTicket> park) {
+        if (waiting.get() == 0) {
+            return 0;
+        }
+        boolean[] blocked = new boolean[waitlists.size()];
+        int admitted = 0;
+        Waiter waiter;
+        while ((waiter = pollOldest(blocked)) != null) {
+            ParkingTicket ticket;
+            try {
+                ticket = park.apply(waiter.vehicle);
+            } catch (RuntimeException e) {
+                finish(waiter);
+                waiter.future.completeExceptionally(e);
+                continue;
+            }
+            if (ticket == null) {
+                blocked[waiter.vehicle.getType().ordinal()] = true;
+                requeue(waiter);
+                continue;
+            }
+            finish(waiter);
+            waiter.future.complete(ticket);
+            ParkingMetrics.get().recordLatency(ParkingMetrics.PARK_WAIT, waiter.startNanos);
+            admitted++;
+        }
+        return admitted;
+    }
+
+    private Waiter pollOldest(boolean[] blocked) {
+        ParkingMetrics.lock(lock, "admission.lock");
+        try {
+            int oldest = -1;
+            for (int type = 0; type < waitlists.size(); type++) {
+                Waiter head = waitlists.get(type).peekFirst();
+                if (!blocked[type] && head != null
+                        && (oldest < 0 || head.sequence < waitlists.get(oldest).peekFirst().sequence)) {
+                    oldest = type;
+                }
+            }
+            if (oldest < 0) {
+                return null;
+            }
+            Waiter waiter = waitlists.get(oldest).pollFirst();
+            depth.decrementAndGet(oldest);
+            waiting.decrementAndGet();
+            // Timeouts and cancellations remove their waiter under the lock, so the head is live
+            waiter.state.set(ADMITTING);
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Back to the front of its queue, unless the wait ran out or was cancelled while it was out.
+    // Checked under the lock: a timeout that fires after this sees WAITING and removes it itself.
+    private void requeue(Waiter waiter) {
+        int type = waiter.vehicle.getType().ordinal();
+        ParkingMetrics.lock(lock, "admission.lock");
+        try {
+            if (!waiter.timeout.isExpired() && !waiter.future.isDone()) {
+                waitlists.get(type).addFirst(waiter);
+                depth.incrementAndGet(type);
+                waiting.incrementAndGet();
+                waiter.state.set(WAITING);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        finish(waiter);
+        waiter.future.complete(null);
+    }
+
+    private boolean leave(Waiter waiter) {
+        ParkingMetrics.lock(lock, "admission.lock");
+        try {
+            if (!waiter.state.compareAndSet(WAITING, DONE)) {
+                return false;
+            }
+            int type = waiter.vehicle.getType().ordinal();
+            if (waitlists.get(type).remove(waiter)) {
+                depth.decrementAndGet(type);
+                waiting.decrementAndGet();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void finish(Waiter waiter) {
+        waiter.state.set(DONE);
+        waiter.timeout.cancel();
+    }
+
+    // Everyone still waiting is turned away
+    @Override
+    public void close() {
+        timeouts.close();
+        List<Waiter> remaining = new ArrayList<>();
+        ParkingMetrics.lock(lock, "admission.lock");
+        try {
+            for (int type = 0; type < waitlists.size(); type++) {
+                for (Waiter waiter : waitlists.get(type)) {
+                    waiter.state.set(DONE);
+                    remaining.add(waiter);
+                }
+                waitlists.get(type).clear();
+                depth.set(type, 0);
+            }
+            waiting.set(0);
+        } finally {
+            lock.unlock();
+        }
+        for (Waiter waiter : remaining) {
+            waiter.future.complete(null);
+        }
+    }
+
+    private static final class Waiter {
+        private final Vehicle vehicle;
+        private final CompletableFuture<ParkingTicket> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final long startNanos = ParkingMetrics.get().startTimer();
+        // Set under the lock on enqueue
+        private long sequence;
+        private HashedTimingWheel.Timeout timeout;
+
+        private Waiter(Vehicle vehicle) {
+            this.vehicle = vehicle;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.spot.SpotOrdering;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+
+import java.util.List;
+
+public interface AllocationStrategy {
+
+    // How a chosen floor hands over a spot of the first of spotTypes it has free: by parking a
+    // vehicle in it, or by holding it for a reservation; null if the floor has none
+    @FunctionalInterface
+    interface SpotClaim {
+        ParkingSpot claim(ParkingFloor floor, List<ParkingSpotType> spotTypes);
+    }
+
+    // Chooses the floor(s) to try and claims a spot of the first of spotTypes that has one there;
+    // null when no floor has room
+    ParkingSpot allocate(List<ParkingFloor> floors, List<ParkingSpotType> spotTypes, SpotClaim claim);
+
+    default ParkingSpot allocate(List<ParkingFloor> floors, Vehicle vehicle, List<ParkingSpotType> spotTypes) {
+        return allocate(floors, spotTypes, (floor, types) -> floor.parkVehicle(vehicle, types));
+    }
+
+    // Fills the null entries of assigned and returns how many were placed
+    default int allocateAll(List<ParkingFloor> floors, List<Vehicle> vehicles, ParkingSpot[] assigned,
+                            CompatibilityMatrix compatibility) {
+        int placed = 0;
+        for (int i = 0; i < assigned.length; i++) {
+            Vehicle vehicle = vehicles.get(i);
+            if (assigned[i] == null
+                    && (assigned[i] = allocate(floors, vehicle, compatibility.preferences(vehicle.getType()))) != null) {
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    // Order in which a floor hands out its free spots of one type; null keeps insertion order.
+    // Floors are built with this ordering, so it must be set before the floors are created.
+    default SpotOrdering spotOrdering() {
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+
+import java.util.List;
+
+// Lowest floor first; upper floors only take traffic once the ones below are full
+public class FillFirstStrategy implements AllocationStrategy {
+
+    @Override
+    public ParkingSpot allocate(List<ParkingFloor> floors, List<ParkingSpotType> spotTypes, SpotClaim claim) {
+        for (ParkingFloor floor : floors) {
+            ParkingSpot spot = claim.claim(floor, spotTypes);
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    // One pass per floor for the whole batch; the floors carry the same matrix as the lot
+    @Override
+    public int allocateAll(List<ParkingFloor> floors, List<Vehicle> vehicles, ParkingSpot[] assigned,
+                           CompatibilityMatrix compatibility) {
+        int placed = 0;
+        for (ParkingFloor floor : floors) {
+            if (placed == assigned.length) {
+                break;
+            }
+            placed += floor.parkVehicles(vehicles, assigned);
+        }
+        return placed;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Sends each vehicle to the floor with the most free spots of its most preferred type that is
+// free anywhere; less preferred types are only tried once no floor has the better one.
+// Each spot type keeps its floors ordered by free count, updated lock-free from the floors' own
+// counters on every claim and release, so picking a floor reads the head of that ordering
+// instead of scanning every floor. Holds per-floor state: use one instance per lot.
+public class LeastLoadedStrategy implements AllocationStrategy {
+    private static final ParkingSpotType[] TYPES = ParkingSpotType.values();
+    private static final List<List<ParkingSpotType>> SINGLE_TYPE = Arrays.stream(TYPES)
+            .map(List::of)
+            .toList();
+    // Key layout: free count, then floor slot inverted so ties go to the lower floor, then a
+    // version that makes every key a floor takes unique
+    private static final int VERSION_BITS = 20;
+    private static final int SLOT_BITS = 20;
+    private static final long VERSION_MASK = (1L << VERSION_BITS) - 1;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int MAX_FREE = (1 << (63 - VERSION_BITS - SLOT_BITS)) - 1;
+
+    // Per spot type, one key per floor; iterated from the top
+    private final List<ConcurrentSkipListSet<Long>> byFree = new ArrayList<>(TYPES.length);
+    private final ReentrantLock attachLock = new ReentrantLock();
+    // Indexed by slot; replaced as a whole when floors are attached
+    private volatile FloorEntry[] entries = new FloorEntry[0];
+    // The lot's floor list, fixed on first use
+    private volatile List<ParkingFloor> attachedTo;
+
+    public LeastLoadedStrategy() {
+        for (int i = 0; i < TYPES.length; i++) {
+            byFree.add(new ConcurrentSkipListSet<>());
+        }
+    }
+
+    @Override
+    public ParkingSpot allocate(List<ParkingFloor> floors, List<ParkingSpotType> spotTypes, SpotClaim claim) {
+        FloorEntry[] current = attach(floors);
+        for (int t = 0; t < spotTypes.size(); t++) {
+            ParkingSpotType spotType = spotTypes.get(t);
+            for (Long key : byFree.get(spotType.ordinal()).descendingSet()) {
+                if (freeOf(key) == 0) {
+                    break;
+                }
+                int slot = slotOf(key);
+                if (slot >= current.length) {
+                    continue; // attached by another thread since this call started
+                }
+                // Counters can be stale under contention, and a floor briefly has two keys while
+                // it is re-ranked; either way fall through to the next best floor
+                ParkingSpot spot = claim.claim(current[slot].floor, SINGLE_TYPE.get(spotType.ordinal()));
+                if (spot != null) {
+                    return spot;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Floors are only ever appended to a lot, so only the new tail needs indexing
+    private FloorEntry[] attach(List<ParkingFloor> floors) {
+        FloorEntry[] current = entries;
+        if (current.length == floors.size() && attachedTo == floors) {
+            return current;
+        }
+        ParkingMetrics.lock(attachLock, "allocation.attach.lock");
+        try {
+            if (attachedTo == null) {
+                attachedTo = floors;
+            } else if (attachedTo != floors) {
+                throw new IllegalStateException("LeastLoadedStrategy already serves another lot");
+            }
+            current = entries;
+            if (current.length < floors.size()) {
+                FloorEntry[] grown = Arrays.copyOf(current, floors.size());
+                for (int slot = current.length; slot < grown.length; slot++) {
+                    grown[slot] = new FloorEntry(floors.get(slot), slot);
+                }
+                entries = grown;
+                for (int slot = current.length; slot < grown.length; slot++) {
+                    FloorEntry entry = grown[slot];
+                    entry.floor.addAvailabilityListener(type -> refresh(entry, type));
+                    for (ParkingSpotType type : TYPES) {
+                        refresh(entry, type);
+                    }
+                }
+                current = grown;
+            }
+            return current;
+        } finally {
+            attachLock.unlock();
+        }
+    }
+
+    // Re-ranks the floor to its current free count. Each caller reads the count after the key it
+    // replaces and loops until the two agree, so whichever update runs last leaves the key right
+    // however the notifications interleave.
+    private void refresh(FloorEntry entry, ParkingSpotType type) {
+        int t = type.ordinal();
+        ConcurrentSkipListSet<Long> ranking = byFree.get(t);
+        while (true) {
+            long old = entry.keys.get(t);
+            int free = Math.min(MAX_FREE, Math.max(0, entry.floor.getAvailableSpots(type)));
+            if (freeOf(old) == free && ranking.contains(old)) {
+                return;
+            }
+            long key = key(free, entry.slot, (old & VERSION_MASK) + 1);
+            if (entry.keys.compareAndSet(t, old, key)) {
+                ranking.add(key);
+                ranking.remove(old);
+                // Superseded before it was added: whoever replaced it could not remove it yet
+                if (entry.keys.get(t) != key) {
+                    ranking.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long key(int free, int slot, long version) {
+        return ((long) free << (SLOT_BITS + VERSION_BITS)) | ((SLOT_MASK - slot) << VERSION_BITS) | (version & VERSION_MASK);
+    }
+
+    private static int freeOf(long key) {
+        return (int) (key >>> (SLOT_BITS + VERSION_BITS));
+    }
+
+    private static int slotOf(long key) {
+        return (int) (SLOT_MASK - ((key >>> VERSION_BITS) & SLOT_MASK));
+    }
+
+    private static final class FloorEntry {
+        private final ParkingFloor floor;
+        private final int slot;
+        // The floor's current key per spot type
+        private final AtomicLongArray keys = new AtomicLongArray(TYPES.length);
+
+        private FloorEntry(ParkingFloor floor, int slot) {
+            if (slot > SLOT_MASK) {
+                throw new IllegalArgumentException("Too many floors for LeastLoadedStrategy");
+            }
+            this.floor = floor;
+            this.slot = slot;
+            for (int t = 0; t < TYPES.length; t++) {
+                keys.set(t, key(0, slot, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.spot.SpotOrdering;
+
+// Lowest floor first and, within a floor, the free spot closest to the entrance by row then number.
+// Floors keep their free spots in a priority queue ordered this way, so each pick is O(log n).
+public class NearestToEntranceStrategy extends FillFirstStrategy {
+    private static final SpotOrdering BY_DISTANCE = (rowA, numberA, rowB, numberB) ->
+            rowA != rowB ? Integer.compare(rowA, rowB) : Integer.compare(numberA, numberB);
+
+    @Override
+    public SpotOrdering spotOrdering() {
+        return BY_DISTANCE;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Who is parked where, by vehicle type and spot type, kept up to date on every park and exit.
+// Spots holding a vehicle other than their type's first choice (a motorcycle in a LARGE bay) are
+// also indexed individually, so mismatch counts and move suggestions never scan a floor.
+public class PlacementTracker {
+    private static final int SPOT_TYPES = ParkingSpotType.values().length;
+
+    // [vehicle type][spot type], flattened
+    private final AtomicIntegerArray placements = new AtomicIntegerArray(VehicleType.values().length * SPOT_TYPES);
+    private final AtomicLongArray rejections = new AtomicLongArray(VehicleType.values().length);
+    private final Map<ParkingSpot, VehicleType> mismatched = new ConcurrentHashMap<>();
+    // The owning lot's current matrix decides what counts as a mismatch
+    private final Supplier<CompatibilityMatrix> compatibility;
+
+    public PlacementTracker(Supplier<CompatibilityMatrix> compatibility) {
+        this.compatibility = compatibility;
+    }
+
+    public CompatibilityMatrix getCompatibility() {
+        return compatibility.get();
+    }
+
+    public void placed(VehicleType vehicleType, ParkingSpot spot) {
+        placements.incrementAndGet(vehicleType.ordinal() * SPOT_TYPES + spot.getType().ordinal());
+        if (isMismatch(vehicleType, spot.getType())) {
+            mismatched.put(spot, vehicleType);
+        }
+    }
+
+    public void released(VehicleType vehicleType, ParkingSpot spot) {
+        placements.decrementAndGet(vehicleType.ordinal() * SPOT_TYPES + spot.getType().ordinal());
+        mismatched.remove(spot);
+    }
+
+    // An arrival that found no spot it may use
+    public void rejected(VehicleType vehicleType) {
+        rejections.incrementAndGet(vehicleType.ordinal());
+    }
+
+    public int getPlacements(VehicleType vehicleType, ParkingSpotType spotType) {
+        return placements.get(vehicleType.ordinal() * SPOT_TYPES + spotType.ordinal());
+    }
+
+    public long getRejections(VehicleType vehicleType) {
+        return rejections.get(vehicleType.ordinal());
+    }
+
+    // Spots of this type holding a vehicle that prefers another type
+    public int getMismatched(ParkingSpotType spotType) {
+        int count = 0;
+        for (VehicleType vehicleType : VehicleType.values()) {
+            if (isMismatch(vehicleType, spotType)) {
+                count += getPlacements(vehicleType, spotType);
+            }
+        }
+        return count;
+    }
+
+    public int getMismatched() {
+        int count = 0;
+        for (ParkingSpotType spotType : ParkingSpotType.values()) {
+            count += getMismatched(spotType);
+        }
+        return count;
+    }
+
+    // The individually indexed mismatches; a spot maps to the type of the vehicle in it
+    public Map<ParkingSpot, VehicleType> getMismatchedSpots() {
+        return mismatched;
+    }
+
+    boolean isMismatch(VehicleType vehicleType, ParkingSpotType spotType) {
+        List<ParkingSpotType> preferences = compatibility.get().preferences(vehicleType);
+        return !preferences.isEmpty() && preferences.get(0) != spotType;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Each arrival starts at the next floor in turn, spreading ramp and elevator traffic evenly
+public class RoundRobinStrategy implements AllocationStrategy {
+    private final AtomicInteger nextFloor = new AtomicInteger();
+
+    @Override
+    public ParkingSpot allocate(List<ParkingFloor> floors, List<ParkingSpotType> spotTypes, SpotClaim claim) {
+        int floorCount = floors.size();
+        if (floorCount == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextFloor.getAndIncrement(), floorCount);
+        for (int i = 0; i < floorCount; i++) {
+            ParkingSpot spot = claim.claim(floors.get((start + i) % floorCount), spotTypes);
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
+}
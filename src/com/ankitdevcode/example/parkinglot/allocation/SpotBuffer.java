@@ -0,0 +1,89 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Holds back the last few free spots of one type (LARGE by default) for the vehicles whose first
+// choice it is. Other vehicles may only take a spot of that type while more than the buffer size
+// are free; the lot checks this in the same step that takes the spot off its free count.
+public final class SpotBuffer {
+    private final ParkingSpotType spotType;
+    private final List<ParkingSpotType> spotTypeOnly;
+    private volatile int size;
+    // Preferences split around the buffered type, rebuilt when the compatibility matrix is swapped
+    private volatile Segments segments;
+
+    public SpotBuffer(ParkingSpotType spotType, int size) {
+        if (spotType == null) {
+            throw new IllegalArgumentException("Spot type cannot be null");
+        }
+        this.spotType = spotType;
+        this.spotTypeOnly = List.of(spotType);
+        setSize(size);
+    }
+
+    public ParkingSpotType getSpotType() {
+        return spotType;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Buffer size cannot be negative");
+        }
+        this.size = size;
+    }
+
+    // Free spots of the buffered type the vehicle must leave when it takes one
+    public int keepFree(CompatibilityMatrix matrix, VehicleType vehicleType) {
+        List<ParkingSpotType> preferences = matrix.preferences(vehicleType);
+        return !preferences.isEmpty() && preferences.get(0) == spotType ? 0 : size;
+    }
+
+    // The vehicle's preferences ahead of the buffered type; all of them if it may not use that type
+    public List<ParkingSpotType> preferredOver(CompatibilityMatrix matrix, VehicleType vehicleType) {
+        return segments(matrix).before.get(vehicleType.ordinal());
+    }
+
+    // The buffered type on its own, for the vehicles that may use it
+    public List<ParkingSpotType> buffered(CompatibilityMatrix matrix, VehicleType vehicleType) {
+        return matrix.canFit(vehicleType, spotType) ? spotTypeOnly : List.of();
+    }
+
+    // The vehicle's preferences after the buffered type
+    public List<ParkingSpotType> fallbacks(CompatibilityMatrix matrix, VehicleType vehicleType) {
+        return segments(matrix).after.get(vehicleType.ordinal());
+    }
+
+    private Segments segments(CompatibilityMatrix matrix) {
+        Segments current = segments;
+        if (current == null || current.matrix != matrix) {
+            current = new Segments(matrix, spotType);
+            segments = current;
+        }
+        return current;
+    }
+
+    private static final class Segments {
+        private final CompatibilityMatrix matrix;
+        private final List<List<ParkingSpotType>> before = new ArrayList<>();
+        private final List<List<ParkingSpotType>> after = new ArrayList<>();
+
+        private Segments(CompatibilityMatrix matrix, ParkingSpotType split) {
+            this.matrix = matrix;
+            for (VehicleType vehicleType : VehicleType.values()) {
+                List<ParkingSpotType> preferences = matrix.preferences(vehicleType);
+                int at = preferences.indexOf(split);
+                before.add(at < 0 ? preferences : List.copyOf(preferences.subList(0, at)));
+                after.add(at < 0 ? List.of() : List.copyOf(preferences.subList(at + 1, preferences.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Background tuning of a SpotBuffer. Each pass compares the rejections of the vehicles that need
+// the buffered type with the previous pass: the buffer grows by the number turned away, up to
+// maxSize, and after a few quiet passes shrinks one spot at a time back to minSize. While it is
+// under pressure it also lists mismatched vehicles that could move to a free spot of their
+// preferred type. A pass reads counters and the mismatch index only.
+public final class SpotRebalancer implements AutoCloseable {
+    public static final int SUGGESTION_LIMIT = 20;
+    // Passes without a rejection before the buffer gives a spot back
+    private static final int QUIET_PASSES = 3;
+
+    private final PlacementTracker tracker;
+    private final SpotBuffer buffer;
+    private final AvailabilityCounters availability;
+    private final int minSize;
+    private final int maxSize;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock passLock = new ReentrantLock();
+    // Guarded by passLock
+    private long lastRejections;
+    private int quietPasses;
+    private volatile List<Move> suggestions = List.of();
+
+    public SpotRebalancer(PlacementTracker tracker, SpotBuffer buffer, AvailabilityCounters availability,
+                          int maxSize, Duration interval) {
+        if (maxSize < buffer.getSize()) {
+            throw new IllegalArgumentException("Maximum buffer cannot be below the current buffer of " + buffer.getSize());
+        }
+        this.tracker = tracker;
+        this.buffer = buffer;
+        this.availability = availability;
+        this.minSize = buffer.getSize();
+        this.maxSize = maxSize;
+        this.lastRejections = ownerRejections();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spot-rebalancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::rebalance, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // One pass; also runs on its own every interval
+    public void rebalance() {
+        passLock.lock();
+        try {
+            long rejections = ownerRejections();
+            long turnedAway = rejections - lastRejections;
+            lastRejections = rejections;
+
+            int size = buffer.getSize();
+            if (turnedAway > 0) {
+                buffer.setSize((int) Math.min(maxSize, size + turnedAway));
+                quietPasses = 0;
+            } else if (++quietPasses >= QUIET_PASSES && size > minSize) {
+                buffer.setSize(size - 1);
+                quietPasses = 0;
+            }
+
+            boolean underPressure = turnedAway > 0 || availability.get(buffer.getSpotType()) < buffer.getSize();
+            suggestions = underPressure ? suggestMoves(SUGGESTION_LIMIT) : List.of();
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    // Latest moves that would hand buffered spots back; empty while there is no pressure
+    public List<Move> getSuggestions() {
+        return suggestions;
+    }
+
+    // Vehicles in the buffered type that fit a free spot of their first choice, at most one per free spot
+    public List<Move> suggestMoves(int limit) {
+        int[] free = new int[ParkingSpotType.values().length];
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            free[type.ordinal()] = availability.get(type);
+        }
+        CompatibilityMatrix matrix = tracker.getCompatibility();
+        List<Move> moves = new ArrayList<>();
+        for (Map.Entry<ParkingSpot, VehicleType> entry : tracker.getMismatchedSpots().entrySet()) {
+            if (moves.size() >= limit) {
+                break;
+            }
+            ParkingSpot spot = entry.getKey();
+            if (spot.getType() != buffer.getSpotType()) {
+                continue;
+            }
+            List<ParkingSpotType> preferences = matrix.preferences(entry.getValue());
+            Vehicle vehicle = spot.getParkedVehicle();
+            if (vehicle == null || preferences.isEmpty() || free[preferences.get(0).ordinal()] <= 0) {
+                continue;
+            }
+            free[preferences.get(0).ordinal()]--;
+            moves.add(new Move(spot.getSpotId(), vehicle.getLicensePlate(), entry.getValue(), spot.getType(), preferences.get(0)));
+        }
+        return moves;
+    }
+
+    // Rejections of the vehicle types whose first choice is the buffered type
+    private long ownerRejections() {
+        CompatibilityMatrix matrix = tracker.getCompatibility();
+        long rejections = 0;
+        for (VehicleType vehicleType : VehicleType.values()) {
+            List<ParkingSpotType> preferences = matrix.preferences(vehicleType);
+            if (!preferences.isEmpty() && preferences.get(0) == buffer.getSpotType()) {
+                rejections += tracker.getRejections(vehicleType);
+            }
+        }
+        return rejections;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    public record Move(String spotId, String licensePlate, VehicleType vehicleType,
+                       ParkingSpotType from, ParkingSpotType to) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Lock-free free-spot counts indexed by ParkingSpotType ordinal
+public class AvailabilityCounters {
+    private static final ParkingSpotType[] TYPES = ParkingSpotType.values();
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(TYPES.length);
+    private final Map<ParkingSpotType, Integer> view = new CountsView();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Told which type changed after every update; reads the count itself, as notifications
+    // from concurrent updates can arrive in any order
+    @FunctionalInterface
+    public interface Listener {
+        void countChanged(ParkingSpotType type);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void increment(ParkingSpotType type) {
+        counts.incrementAndGet(type.ordinal());
+        changed(type);
+    }
+
+    public void decrement(ParkingSpotType type) {
+        counts.decrementAndGet(type.ordinal());
+        changed(type);
+    }
+
+    // Takes one spot off the count unless that would leave fewer than keepFree; a single CAS,
+    // so concurrent callers can never take the count below keepFree together
+    public boolean tryDecrement(ParkingSpotType type, int keepFree) {
+        int index = type.ordinal();
+        int current;
+        do {
+            current = counts.get(index);
+            if (current <= keepFree) {
+                return false;
+            }
+        } while (!counts.compareAndSet(index, current, current - 1));
+        changed(type);
+        return true;
+    }
+
+    public void add(ParkingSpotType type, int delta) {
+        counts.addAndGet(type.ordinal(), delta);
+        changed(type);
+    }
+
+    private void changed(ParkingSpotType type) {
+        for (Listener listener : listeners) {
+            listener.countChanged(type);
+        }
+    }
+
+    public int get(ParkingSpotType type) {
+        return counts.get(type.ordinal());
+    }
+
+    // Read-only live view, created once: every read goes straight to the counters, so polling
+    // it neither locks nor copies
+    public Map<ParkingSpotType, Integer> asMap() {
+        return view;
+    }
+
+    // Point-in-time copy, for callers that compare or keep the counts
+    public Map<ParkingSpotType, Integer> toMap() {
+        Map<ParkingSpotType, Integer> snapshot = new EnumMap<>(ParkingSpotType.class);
+        for (ParkingSpotType type : TYPES) {
+            snapshot.put(type, counts.get(type.ordinal()));
+        }
+        return snapshot;
+    }
+
+    private final class CountsView extends AbstractMap<ParkingSpotType, Integer> {
+        private final Set<Entry<ParkingSpotType, Integer>> entries = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<ParkingSpotType, Integer>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < TYPES.length;
+                    }
+
+                    @Override
+                    public Entry<ParkingSpotType, Integer> next() {
+                        if (next >= TYPES.length) {
+                            throw new NoSuchElementException();
+                        }
+                        ParkingSpotType type = TYPES[next++];
+                        return new SimpleImmutableEntry<>(type, counts.get(type.ordinal()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TYPES.length;
+            }
+        };
+
+        @Override
+        public Integer get(Object key) {
+            return key instanceof ParkingSpotType type ? counts.get(type.ordinal()) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof ParkingSpotType;
+        }
+
+        @Override
+        public int size() {
+            return TYPES.length;
+        }
+
+        @Override
+        public Set<Entry<ParkingSpotType, Integer>> entrySet() {
+            return entries;
+        }
+    }
+}
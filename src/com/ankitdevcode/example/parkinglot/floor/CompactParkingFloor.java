@@ -0,0 +1,692 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotStatus;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.spot.SpotOrdering;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+// Floor for very large lots. Spot state lives in parallel primitive arrays indexed by spot
+// position instead of one object (with its own lock and ID string) per spot. ParkingSpot
+// instances handed out by this floor are lightweight views over an index.
+public class CompactParkingFloor implements ParkingFloor {
+    private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle VEHICLE = MethodHandles.arrayElementVarHandle(Vehicle[].class);
+    private static final ParkingSpotType[] TYPES = ParkingSpotType.values();
+    private static final ParkingSpotStatus[] STATUSES = ParkingSpotStatus.values();
+    private static final byte AVAILABLE = (byte) ParkingSpotStatus.AVAILABLE.ordinal();
+    private static final byte OCCUPIED = (byte) ParkingSpotStatus.OCCUPIED.ordinal();
+    private static final byte RESERVED = (byte) ParkingSpotStatus.RESERVED.ordinal();
+    private static final String FREE_INDEX_LOCK = "floor.freeIndex.lock";
+
+    private final int floorNumber;
+    private final byte[] typeCodes;
+    private final byte[] statuses;
+    private final int[] rows;
+    private final int[] numbers;
+    private final Vehicle[] vehicles;
+    private final IndexQueue[] freeSpots;
+    private final AvailabilityCounters availableSpots = new AvailabilityCounters();
+    private final ReentrantLock addLock = new ReentrantLock();
+    private volatile int size;
+    private boolean numbersAscending = true;
+    private volatile CompatibilityMatrix compatibility = CompatibilityMatrix.defaults();
+
+    public CompactParkingFloor(int floorNumber, int capacity) {
+        this(floorNumber, capacity, null);
+    }
+
+    // With a spot ordering, free indexes are kept in a binary heap instead of a FIFO ring
+    public CompactParkingFloor(int floorNumber, int capacity, SpotOrdering spotOrdering) {
+        this.floorNumber = floorNumber;
+        this.typeCodes = new byte[capacity];
+        this.statuses = new byte[capacity];
+        this.rows = new int[capacity];
+        this.numbers = new int[capacity];
+        this.vehicles = new Vehicle[capacity];
+        this.freeSpots = new IndexQueue[TYPES.length];
+        for (int i = 0; i < freeSpots.length; i++) {
+            freeSpots[i] = spotOrdering != null ? new IndexHeap(spotOrdering) : new IndexRing();
+        }
+    }
+
+    @Override
+    public ParkingSpot addParkingSpot(ParkingSpotType type, int row, int number) {
+        return view(add(type, row, number, ParkingSpotStatus.AVAILABLE));
+    }
+
+    // Copies the spot's layout and status; the object itself is not retained
+    @Override
+    public void addParkingSpot(ParkingSpot spot) {
+        add(spot.getType(), spot.getRow(), spot.getNumber(), spot.getStatus());
+    }
+
+    private int add(ParkingSpotType type, int row, int number, ParkingSpotStatus status) {
+        addLock.lock();
+        try {
+            int index = size;
+            if (index == typeCodes.length) {
+                throw new IllegalStateException("Floor " + floorNumber + " is full: capacity " + typeCodes.length);
+            }
+            typeCodes[index] = (byte) type.ordinal();
+            rows[index] = row;
+            numbers[index] = number;
+            statuses[index] = (byte) status.ordinal();
+            if (index > 0 && numbers[index - 1] >= number) {
+                numbersAscending = false;
+            }
+            size = index + 1;
+            if (status == ParkingSpotStatus.AVAILABLE) {
+                freeSpots[type.ordinal()].offer(index);
+                availableSpots.increment(type);
+            }
+            return index;
+        } finally {
+            addLock.unlock();
+        }
+    }
+
+    @Override
+    public CompatibilityMatrix getCompatibility() {
+        return compatibility;
+    }
+
+    @Override
+    public void setCompatibility(CompatibilityMatrix compatibility) {
+        this.compatibility = compatibility;
+    }
+
+    @Override
+    public ParkingSpot findAvailableSpot(VehicleType vehicleType) {
+        List<ParkingSpotType> compatibleSpots = compatibility.preferences(vehicleType);
+        for (int i = 0; i < compatibleSpots.size(); i++) {
+            int index = freeSpots[compatibleSpots.get(i).ordinal()].peek();
+            if (index >= 0) {
+                return view(index);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ParkingSpot parkVehicle(Vehicle vehicle, List<ParkingSpotType> spotTypes) {
+        CompatibilityMatrix matrix = compatibility;
+        for (int i = 0; i < spotTypes.size(); i++) {
+            ParkingSpotType spotType = spotTypes.get(i);
+            int index = pollAndClaim(matrix, spotType, vehicle);
+            if (index >= 0) {
+                availableSpots.decrement(spotType);
+                return view(index);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int parkVehicles(List<Vehicle> vehicles, ParkingSpot[] assigned) {
+        CompatibilityMatrix matrix = compatibility;
+        int[] claimedByType = new int[TYPES.length];
+        int placed = 0;
+        for (int i = 0; i < assigned.length; i++) {
+            if (assigned[i] != null) {
+                continue;
+            }
+            Vehicle vehicle = vehicles.get(i);
+            List<ParkingSpotType> compatibleSpots = matrix.preferences(vehicle.getType());
+            for (int j = 0; j < compatibleSpots.size(); j++) {
+                ParkingSpotType spotType = compatibleSpots.get(j);
+                int index = pollAndClaim(matrix, spotType, vehicle);
+                if (index >= 0) {
+                    assigned[i] = view(index);
+                    claimedByType[spotType.ordinal()]++;
+                    placed++;
+                    break;
+                }
+            }
+        }
+        for (ParkingSpotType type : TYPES) {
+            if (claimedByType[type.ordinal()] > 0) {
+                availableSpots.add(type, -claimedByType[type.ordinal()]);
+            }
+        }
+        return placed;
+    }
+
+    private int pollAndClaim(CompatibilityMatrix matrix, ParkingSpotType spotType, Vehicle vehicle) {
+        // Every index in the queue has this type, so one fit check covers them all
+        if (!matrix.canFit(vehicle.getType(), spotType)) {
+            return -1;
+        }
+        IndexQueue free = freeSpots[spotType.ordinal()];
+        int index;
+        while ((index = free.poll()) >= 0) {
+            if (claim(index, vehicle)) {
+                return index;
+            }
+            // Spot changed status outside the index (e.g. out of order); drop it
+            ParkingMetrics.get().increment(ParkingMetrics.SPOT_CLAIM_CONFLICT);
+        }
+        return -1;
+    }
+
+    @Override
+    public int occupySpots(List<ParkingSpot> spots, List<Vehicle> vehicles) {
+        CompatibilityMatrix matrix = compatibility;
+        int[] claimedByType = new int[TYPES.length];
+        int claimed = 0;
+        for (; claimed < spots.size(); claimed++) {
+            int index = indexOf(spots.get(claimed));
+            Vehicle vehicle = vehicles.get(claimed);
+            if (index < 0 || !matrix.canFit(vehicle.getType(), TYPES[typeCodes[index]]) || !claim(index, vehicle)) {
+                break;
+            }
+            claimedByType[typeCodes[index]]++;
+        }
+        // One pass per queue instead of an O(n) remove per restored spot
+        for (ParkingSpotType type : TYPES) {
+            if (claimedByType[type.ordinal()] > 0) {
+                freeSpots[type.ordinal()].retain(index -> (byte) STATUS.getVolatile(statuses, index) == AVAILABLE);
+                availableSpots.add(type, -claimedByType[type.ordinal()]);
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public Vehicle removeVehicle(ParkingSpot spot) {
+        int index = indexOf(spot);
+        if (index < 0) {
+            return null;
+        }
+        Vehicle vehicle = release(index);
+        if (vehicle != null) {
+            freeSpots[typeCodes[index]].offer(index);
+            availableSpots.increment(TYPES[typeCodes[index]]);
+        }
+        return vehicle;
+    }
+
+    @Override
+    public void removeVehicles(List<ParkingSpot> spots) {
+        int[] freedByType = new int[TYPES.length];
+        for (ParkingSpot spot : spots) {
+            int index = indexOf(spot);
+            if (index >= 0 && release(index) != null) {
+                freeSpots[typeCodes[index]].offer(index);
+                freedByType[typeCodes[index]]++;
+            }
+        }
+        for (ParkingSpotType type : TYPES) {
+            if (freedByType[type.ordinal()] > 0) {
+                availableSpots.add(type, freedByType[type.ordinal()]);
+            }
+        }
+    }
+
+    @Override
+    public ParkingSpot reserveSpot(VehicleType vehicleType, List<ParkingSpotType> spotTypes) {
+        CompatibilityMatrix matrix = compatibility;
+        for (int i = 0; i < spotTypes.size(); i++) {
+            ParkingSpotType spotType = spotTypes.get(i);
+            if (!matrix.canFit(vehicleType, spotType)) {
+                continue;
+            }
+            IndexQueue free = freeSpots[spotType.ordinal()];
+            int index;
+            while ((index = free.poll()) >= 0) {
+                if (STATUS.compareAndSet(statuses, index, AVAILABLE, RESERVED)) {
+                    availableSpots.decrement(spotType);
+                    return view(index);
+                }
+                ParkingMetrics.get().increment(ParkingMetrics.SPOT_CLAIM_CONFLICT);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int reserveSpots(List<ParkingSpot> spots) {
+        int[] heldByType = new int[TYPES.length];
+        int held = 0;
+        for (; held < spots.size(); held++) {
+            int index = indexOf(spots.get(held));
+            if (index < 0 || !STATUS.compareAndSet(statuses, index, AVAILABLE, RESERVED)) {
+                break;
+            }
+            heldByType[typeCodes[index]]++;
+        }
+        for (ParkingSpotType type : TYPES) {
+            if (heldByType[type.ordinal()] > 0) {
+                freeSpots[type.ordinal()].retain(index -> (byte) STATUS.getVolatile(statuses, index) == AVAILABLE);
+                availableSpots.add(type, -heldByType[type.ordinal()]);
+            }
+        }
+        return held;
+    }
+
+    @Override
+    public boolean releaseReservation(ParkingSpot spot) {
+        int index = indexOf(spot);
+        if (index < 0 || !STATUS.compareAndSet(statuses, index, RESERVED, AVAILABLE)) {
+            return false;
+        }
+        freeSpots[typeCodes[index]].offer(index);
+        availableSpots.increment(TYPES[typeCodes[index]]);
+        return true;
+    }
+
+    @Override
+    public boolean occupyReservedSpot(ParkingSpot spot, Vehicle vehicle) {
+        int index = indexOf(spot);
+        return index >= 0 && compatibility.canFit(vehicle.getType(), TYPES[typeCodes[index]])
+                && claimReserved(index, vehicle);
+    }
+
+    @Override
+    public int getAvailableSpots(ParkingSpotType type) {
+        return availableSpots.get(type);
+    }
+
+    @Override
+    public void addAvailabilityListener(AvailabilityCounters.Listener listener) {
+        availableSpots.addListener(listener);
+    }
+
+    @Override
+    public int getFloorNumber() {
+        return floorNumber;
+    }
+
+    @Override
+    public ParkingSpot getSpotById(String spotId) {
+        int separator = spotId.lastIndexOf('S');
+        if (separator < 0) {
+            return null;
+        }
+        int number;
+        try {
+            number = Integer.parseInt(spotId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        int index = indexOfNumber(number);
+        if (index < 0 || !ParkingSpot.formatId(floorNumber, rows[index], number).equals(spotId)) {
+            return null;
+        }
+        return view(index);
+    }
+
+    public int getCapacity() {
+        return typeCodes.length;
+    }
+
+    private int indexOfNumber(int number) {
+        int count = size;
+        if (numbersAscending) {
+            int index = Arrays.binarySearch(numbers, 0, count, number);
+            return index >= 0 ? index : -1;
+        }
+        for (int i = 0; i < count; i++) {
+            if (numbers[i] == number) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(ParkingSpot spot) {
+        if (spot instanceof SpotView view && view.floor() == this) {
+            return view.index;
+        }
+        return spot.getFloor() == floorNumber ? indexOfNumber(spot.getNumber()) : -1;
+    }
+
+    private boolean claim(int index, Vehicle vehicle) {
+        if (!STATUS.compareAndSet(statuses, index, AVAILABLE, OCCUPIED)) {
+            return false;
+        }
+        VEHICLE.setVolatile(vehicles, index, vehicle);
+        return true;
+    }
+
+    private boolean claimReserved(int index, Vehicle vehicle) {
+        if (!STATUS.compareAndSet(statuses, index, RESERVED, OCCUPIED)) {
+            return false;
+        }
+        VEHICLE.setVolatile(vehicles, index, vehicle);
+        return true;
+    }
+
+    private Vehicle release(int index) {
+        if ((byte) STATUS.getVolatile(statuses, index) != OCCUPIED) {
+            return null;
+        }
+        // Clear the vehicle before publishing AVAILABLE so a new claimant is never overwritten
+        Vehicle vehicle = (Vehicle) VEHICLE.getVolatile(vehicles, index);
+        VEHICLE.setVolatile(vehicles, index, null);
+        STATUS.compareAndSet(statuses, index, OCCUPIED, AVAILABLE);
+        return vehicle;
+    }
+
+    private ParkingSpot view(int index) {
+        return new SpotView(index);
+    }
+
+    private final class SpotView implements ParkingSpot {
+        private final int index;
+
+        private SpotView(int index) {
+            this.index = index;
+        }
+
+        private CompactParkingFloor floor() {
+            return CompactParkingFloor.this;
+        }
+
+        @Override
+        public String getSpotId() {
+            return ParkingSpot.formatId(floorNumber, rows[index], numbers[index]);
+        }
+
+        @Override
+        public ParkingSpotType getType() {
+            return TYPES[typeCodes[index]];
+        }
+
+        @Override
+        public int getFloor() {
+            return floorNumber;
+        }
+
+        @Override
+        public int getRow() {
+            return rows[index];
+        }
+
+        @Override
+        public int getNumber() {
+            return numbers[index];
+        }
+
+        @Override
+        public ParkingSpotStatus getStatus() {
+            return STATUSES[(byte) STATUS.getVolatile(statuses, index)];
+        }
+
+        @Override
+        public Vehicle getParkedVehicle() {
+            return (Vehicle) VEHICLE.getVolatile(vehicles, index);
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return (byte) STATUS.getVolatile(statuses, index) == AVAILABLE;
+        }
+
+        @Override
+        public boolean parkVehicle(Vehicle vehicle) {
+            return claim(index, vehicle);
+        }
+
+        @Override
+        public Vehicle removeVehicle() {
+            return release(index);
+        }
+
+        @Override
+        public boolean tryReserve() {
+            return STATUS.compareAndSet(statuses, index, AVAILABLE, RESERVED);
+        }
+
+        @Override
+        public boolean releaseReservation() {
+            return STATUS.compareAndSet(statuses, index, RESERVED, AVAILABLE);
+        }
+
+        @Override
+        public boolean parkReservedVehicle(Vehicle vehicle) {
+            return claimReserved(index, vehicle);
+        }
+
+        @Override
+        public void setStatus(ParkingSpotStatus status) {
+            STATUS.setVolatile(statuses, index, (byte) status.ordinal());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SpotView view && view.floor() == floor() && view.index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return floorNumber * 31 + index;
+        }
+
+        @Override
+        public String toString() {
+            return getSpotId();
+        }
+    }
+
+    // Free spot indexes for one spot type
+    private abstract static class IndexQueue {
+        final ReentrantLock lock = new ReentrantLock();
+        int[] items = new int[16];
+        int count;
+
+        abstract void offer(int index);
+
+        abstract int poll();
+
+        abstract int peek();
+
+        // Drops every index that fails the test, keeping the order of the rest
+        void retain(IntPredicate keep) {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                int[] kept = new int[items.length];
+                int keptCount = 0;
+                for (int i = 0; i < count; i++) {
+                    int index = items[slot(i)];
+                    if (keep.test(index)) {
+                        kept[keptCount++] = index;
+                    }
+                }
+                items = kept;
+                count = keptCount;
+                reset();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Array position of the i-th queued index
+        abstract int slot(int i);
+
+        // Restores the queue invariant after retain has compacted items from position 0
+        abstract void reset();
+
+        void ensureCapacity() {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+        }
+    }
+
+    private static final class IndexRing extends IndexQueue {
+        private int head;
+
+        @Override
+        void offer(int index) {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                if (count == items.length) {
+                    // Unwrap so the grown array starts at head
+                    int[] grown = new int[items.length * 2];
+                    for (int i = 0; i < count; i++) {
+                        grown[i] = items[(head + i) % items.length];
+                    }
+                    items = grown;
+                    head = 0;
+                }
+                items[(head + count) % items.length] = index;
+                count++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int poll() {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                if (count == 0) {
+                    return -1;
+                }
+                int index = items[head];
+                head = (head + 1) % items.length;
+                count--;
+                return index;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int peek() {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                return count == 0 ? -1 : items[head];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int slot(int i) {
+            return (head + i) % items.length;
+        }
+
+        @Override
+        void reset() {
+            head = 0;
+        }
+    }
+
+    // Binary min-heap of indexes, compared on the row and number arrays
+    private final class IndexHeap extends IndexQueue {
+        private final SpotOrdering ordering;
+
+        private IndexHeap(SpotOrdering ordering) {
+            this.ordering = ordering;
+        }
+
+        @Override
+        void offer(int index) {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                ensureCapacity();
+                items[count] = index;
+                siftUp(count++);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int poll() {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                if (count == 0) {
+                    return -1;
+                }
+                return removeAt(0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int peek() {
+            ParkingMetrics.lock(lock, FREE_INDEX_LOCK);
+            try {
+                return count == 0 ? -1 : items[0];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int slot(int i) {
+            return i;
+        }
+
+        @Override
+        void reset() {
+            for (int position = count / 2 - 1; position >= 0; position--) {
+                siftDown(position);
+            }
+        }
+
+        private int removeAt(int position) {
+            int removed = items[position];
+            items[position] = items[--count];
+            if (position < count) {
+                siftDown(position);
+                siftUp(position);
+            }
+            return removed;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (!less(items[position], items[parent])) {
+                    return;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int smallest = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if (left < count && less(items[left], items[smallest])) {
+                    smallest = left;
+                }
+                if (right < count && less(items[right], items[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == position) {
+                    return;
+                }
+                swap(position, smallest);
+                position = smallest;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return ordering.compare(rows[a], numbers[a], rows[b], numbers[b]) < 0;
+        }
+
+        private void swap(int a, int b) {
+            int tmp = items[a];
+            items[a] = items[b];
+            items[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.DefaultParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.spot.SpotOrdering;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class DefaultParkingFloor implements ParkingFloor {
+    private final int floorNumber;
+    private final Map<ParkingSpotType, List<ParkingSpot>> spotsByType;
+    private final Map<String, ParkingSpot> spotsById;
+    // Free-spot index: every AVAILABLE spot sits in the queue of its type, in allocation order
+    private final Map<ParkingSpotType, Queue<ParkingSpot>> freeSpots;
+    private final AvailabilityCounters availableSpots;
+    private final ReentrantLock floorLock = new ReentrantLock();
+    private volatile CompatibilityMatrix compatibility = CompatibilityMatrix.defaults();
+
+    public DefaultParkingFloor(int floorNumber) {
+        this(floorNumber, null);
+    }
+
+    // With a spot ordering, free spots are handed out best-first from a priority queue
+    // instead of in the order they were added or freed
+    public DefaultParkingFloor(int floorNumber, SpotOrdering spotOrdering) {
+        this.floorNumber = floorNumber;
+        this.spotsByType = new ConcurrentHashMap<>();
+        this.spotsById = new ConcurrentHashMap<>();
+        this.freeSpots = new EnumMap<>(ParkingSpotType.class);
+        this.availableSpots = new AvailabilityCounters();
+
+        // Initialize maps
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            spotsByType.put(type, new ArrayList<>());
+            freeSpots.put(type, spotOrdering != null
+                    ? new PriorityBlockingQueue<>(11, spotOrdering.toComparator())
+                    : new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public ParkingSpot addParkingSpot(ParkingSpotType type, int row, int number) {
+        ParkingSpot spot = new DefaultParkingSpot(ParkingSpot.formatId(floorNumber, row, number), type, floorNumber, row, number);
+        addParkingSpot(spot);
+        return spot;
+    }
+
+    @Override
+    public void addParkingSpot(ParkingSpot spot) {
+        floorLock.lock();
+        try {
+            spotsByType.get(spot.getType()).add(spot);
+            spotsById.put(spot.getSpotId(), spot);
+            if (spot.isAvailable()) {
+                freeSpots.get(spot.getType()).offer(spot);
+                availableSpots.increment(spot.getType());
+            }
+        } finally {
+            floorLock.unlock();
+        }
+    }
+
+    @Override
+    public CompatibilityMatrix getCompatibility() {
+        return compatibility;
+    }
+
+    @Override
+    public void setCompatibility(CompatibilityMatrix compatibility) {
+        this.compatibility = compatibility;
+    }
+
+    @Override
+    public ParkingSpot findAvailableSpot(VehicleType vehicleType) {
+        List<ParkingSpotType> compatibleSpots = compatibility.preferences(vehicleType);
+
+        for (int i = 0; i < compatibleSpots.size(); i++) {
+            ParkingSpot spot = freeSpots.get(compatibleSpots.get(i)).peek();
+            if (spot != null) {
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    // Takes a spot out of the free index and claims it for the vehicle
+    @Override
+    public ParkingSpot parkVehicle(Vehicle vehicle, List<ParkingSpotType> spotTypes) {
+        CompatibilityMatrix matrix = compatibility;
+        for (int i = 0; i < spotTypes.size(); i++) {
+            ParkingSpotType spotType = spotTypes.get(i);
+            if (!matrix.canFit(vehicle.getType(), spotType)) {
+                continue;
+            }
+            ParkingSpot spot = pollAndClaim(freeSpots.get(spotType), vehicle);
+            if (spot != null) {
+                availableSpots.decrement(spotType);
+                return spot;
+            }
+        }
+        return null;
+    }
+
+    private ParkingSpot pollAndClaim(Queue<ParkingSpot> free, Vehicle vehicle) {
+        ParkingSpot spot;
+        while ((spot = free.poll()) != null) {
+            if (spot.parkVehicle(vehicle)) {
+                return spot;
+            }
+            // Spot changed status outside the index (e.g. out of order); drop it
+            ParkingMetrics.get().increment(ParkingMetrics.SPOT_CLAIM_CONFLICT);
+        }
+        return null;
+    }
+
+    // Places as many of the unassigned vehicles as this floor can in a single pass;
+    // counters are adjusted once per spot type. Returns the number placed.
+    @Override
+    public int parkVehicles(List<Vehicle> vehicles, ParkingSpot[] assigned) {
+        CompatibilityMatrix matrix = compatibility;
+        int[] claimedByType = new int[ParkingSpotType.values().length];
+        int placed = 0;
+        for (int i = 0; i < assigned.length; i++) {
+            if (assigned[i] != null) {
+                continue;
+            }
+            Vehicle vehicle = vehicles.get(i);
+            List<ParkingSpotType> compatibleSpots = matrix.preferences(vehicle.getType());
+            for (int j = 0; j < compatibleSpots.size(); j++) {
+                ParkingSpotType spotType = compatibleSpots.get(j);
+                ParkingSpot spot = pollAndClaim(freeSpots.get(spotType), vehicle);
+                if (spot != null) {
+                    assigned[i] = spot;
+                    claimedByType[spotType.ordinal()]++;
+                    placed++;
+                    break;
+                }
+            }
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (claimedByType[type.ordinal()] > 0) {
+                availableSpots.add(type, -claimedByType[type.ordinal()]);
+            }
+        }
+        return placed;
+    }
+
+    @Override
+    public int occupySpots(List<ParkingSpot> spots, List<Vehicle> vehicles) {
+        CompatibilityMatrix matrix = compatibility;
+        int[] claimedByType = new int[ParkingSpotType.values().length];
+        int claimed = 0;
+        floorLock.lock();
+        try {
+            for (; claimed < spots.size(); claimed++) {
+                ParkingSpot spot = spots.get(claimed);
+                Vehicle vehicle = vehicles.get(claimed);
+                if (spotsById.get(spot.getSpotId()) != spot || !vehicle.canFitInSpot(spot, matrix)
+                        || !spot.parkVehicle(vehicle)) {
+                    break;
+                }
+                claimedByType[spot.getType().ordinal()]++;
+            }
+            // One pass per queue instead of an O(n) remove per restored spot
+            for (ParkingSpotType type : ParkingSpotType.values()) {
+                if (claimedByType[type.ordinal()] > 0) {
+                    freeSpots.get(type).removeIf(spot -> !spot.isAvailable());
+                    availableSpots.add(type, -claimedByType[type.ordinal()]);
+                }
+            }
+        } finally {
+            floorLock.unlock();
+        }
+        return claimed;
+    }
+
+    @Override
+    public Vehicle removeVehicle(ParkingSpot spot) {
+        Vehicle vehicle = spot.removeVehicle();
+        if (vehicle != null) {
+            freeSpots.get(spot.getType()).offer(spot);
+            availableSpots.increment(spot.getType());
+        }
+        return vehicle;
+    }
+
+    @Override
+    public void removeVehicles(List<ParkingSpot> spots) {
+        int[] freedByType = new int[ParkingSpotType.values().length];
+        for (ParkingSpot spot : spots) {
+            if (spot.removeVehicle() != null) {
+                freeSpots.get(spot.getType()).offer(spot);
+                freedByType[spot.getType().ordinal()]++;
+            }
+        }
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            if (freedByType[type.ordinal()] > 0) {
+                availableSpots.add(type, freedByType[type.ordinal()]);
+            }
+        }
+    }
+
+    @Override
+    public ParkingSpot reserveSpot(VehicleType vehicleType, List<ParkingSpotType> spotTypes) {
+        CompatibilityMatrix matrix = compatibility;
+        for (int i = 0; i < spotTypes.size(); i++) {
+            ParkingSpotType spotType = spotTypes.get(i);
+            if (!matrix.canFit(vehicleType, spotType)) {
+                continue;
+            }
+            Queue<ParkingSpot> free = freeSpots.get(spotType);
+            ParkingSpot spot;
+            while ((spot = free.poll()) != null) {
+                if (spot.tryReserve()) {
+                    availableSpots.decrement(spotType);
+                    return spot;
+                }
+                ParkingMetrics.get().increment(ParkingMetrics.SPOT_CLAIM_CONFLICT);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int reserveSpots(List<ParkingSpot> spots) {
+        int[] heldByType = new int[ParkingSpotType.values().length];
+        int held = 0;
+        floorLock.lock();
+        try {
+            for (; held < spots.size(); held++) {
+                ParkingSpot spot = spots.get(held);
+                if (spotsById.get(spot.getSpotId()) != spot || !spot.tryReserve()) {
+                    break;
+                }
+                heldByType[spot.getType().ordinal()]++;
+            }
+            for (ParkingSpotType type : ParkingSpotType.values()) {
+                if (heldByType[type.ordinal()] > 0) {
+                    freeSpots.get(type).removeIf(spot -> !spot.isAvailable());
+                    availableSpots.add(type, -heldByType[type.ordinal()]);
+                }
+            }
+        } finally {
+            floorLock.unlock();
+        }
+        return held;
+    }
+
+    @Override
+    public boolean releaseReservation(ParkingSpot spot) {
+        if (!spot.releaseReservation()) {
+            return false;
+        }
+        freeSpots.get(spot.getType()).offer(spot);
+        availableSpots.increment(spot.getType());
+        return true;
+    }
+
+    @Override
+    public boolean occupyReservedSpot(ParkingSpot spot, Vehicle vehicle) {
+        return vehicle.canFitInSpot(spot, compatibility) && spot.parkReservedVehicle(vehicle);
+    }
+
+    @Override
+    public int getAvailableSpots(ParkingSpotType type) {
+        return availableSpots.get(type);
+    }
+
+    @Override
+    public void addAvailabilityListener(AvailabilityCounters.Listener listener) {
+        availableSpots.addListener(listener);
+    }
+
+    @Override
+    public int getFloorNumber() {
+        return floorNumber;
+    }
+
+    @Override
+    public ParkingSpot getSpotById(String spotId) {
+        return spotsById.get(spotId);
+    }
+}
@@ -1,91 +1,67 @@
 package com.ankitdevcode.example.parkinglot.floor;
 
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
-
-public class ParkingFloor {
-    private final int floorNumber;
-    private final Map<ParkingSpotType, List<ParkingSpot>> spotsByType;
-    private final Map<String, ParkingSpot> spotsById;
-    private final Map<ParkingSpotType, Integer> availableSpots;
-    private final ReentrantLock floorLock = new ReentrantLock();
-
-    public ParkingFloor(int floorNumber) {
-        this.floorNumber = floorNumber;
-        this.spotsByType = new ConcurrentHashMap<>();
-        this.spotsById = new ConcurrentHashMap<>();
-        this.availableSpots = new ConcurrentHashMap<>();
-
-        // Initialize maps
-        for (ParkingSpotType type : ParkingSpotType.values()) {
-            spotsByType.put(type, new ArrayList<>());
-            availableSpots.put(type, 0);
-        }
-    }
 
-    public void addParkingSpot(ParkingSpot spot) {
-        floorLock.lock();
-        try {
-            spotsByType.get(spot.getType()).add(spot);
-            spotsById.put(spot.getSpotId(), spot);
-            if (spot.isAvailable()) {
-                availableSpots.put(spot.getType(), availableSpots.get(spot.getType()) + 1);
-            }
-        } finally {
-            floorLock.unlock();
-        }
-    }
+public interface ParkingFloor {
 
-    public ParkingSpot findAvailableSpot(VehicleType vehicleType) {
-        List<ParkingSpotType> compatibleSpots = getCompatibleSpotTypes(vehicleType);
-
-        for (ParkingSpotType spotType : compatibleSpots) {
-            List<ParkingSpot> spots = spotsByType.get(spotType);
-            for (ParkingSpot spot : spots) {
-                if (spot.isAvailable()) {
-                    return spot;
-                }
-            }
-        }
-        return null;
-    }
+    ParkingSpot addParkingSpot(ParkingSpotType type, int row, int number);
 
-    private List<ParkingSpotType> getCompatibleSpotTypes(VehicleType vehicleType) {
-        return switch (vehicleType) {
-            case MOTORCYCLE ->
-                    Arrays.asList(ParkingSpotType.MOTORCYCLE, ParkingSpotType.COMPACT, ParkingSpotType.LARGE);
-            case COMPACT -> Arrays.asList(ParkingSpotType.COMPACT, ParkingSpotType.LARGE);
-            case LARGE -> List.of(ParkingSpotType.LARGE);
-            case ELECTRIC -> Arrays.asList(ParkingSpotType.ELECTRIC, ParkingSpotType.COMPACT, ParkingSpotType.LARGE);
-        };
-    }
+    void addParkingSpot(ParkingSpot spot);
 
-    public void updateAvailableSpots(ParkingSpotType type, boolean isParking) {
-        floorLock.lock();
-        try {
-            availableSpots.compute(type, (k, current) -> isParking ? current - 1 : current + 1);
-        } finally {
-            floorLock.unlock();
-        }
-    }
+    ParkingSpot findAvailableSpot(VehicleType vehicleType);
 
-    public int getAvailableSpots(ParkingSpotType type) {
-        return availableSpots.get(type);
-    }
+    // The owning lot's matrix; every placement and fit check on this floor uses it
+    CompatibilityMatrix getCompatibility();
+
+    void setCompatibility(CompatibilityMatrix compatibility);
 
-    public int getFloorNumber() {
-        return floorNumber;
+    default ParkingSpot parkVehicle(Vehicle vehicle) {
+        return parkVehicle(vehicle, getCompatibility().preferences(vehicle.getType()));
     }
 
-    public ParkingSpot getSpotById(String spotId) {
-        return spotsById.get(spotId);
+    // Claims a free spot of the first of spotTypes that has one
+    ParkingSpot parkVehicle(Vehicle vehicle, List<ParkingSpotType> spotTypes);
+
+    int parkVehicles(List<Vehicle> vehicles, ParkingSpot[] assigned);
+
+    // Claims specific spots in order, e.g. when restoring state after a restart, and rebuilds the
+    // free index once at the end. Stops at the first spot that cannot be claimed; returns the number claimed.
+    int occupySpots(List<ParkingSpot> spots, List<Vehicle> vehicles);
+
+    Vehicle removeVehicle(ParkingSpot spot);
+
+    void removeVehicles(List<ParkingSpot> spots);
+
+    // Takes a compatible spot out of the free pool and marks it RESERVED, or returns null
+    default ParkingSpot reserveSpot(VehicleType vehicleType) {
+        return reserveSpot(vehicleType, getCompatibility().preferences(vehicleType));
     }
+
+    // Holds a spot of the first of spotTypes that has one free and fits the vehicle type
+    ParkingSpot reserveSpot(VehicleType vehicleType, List<ParkingSpotType> spotTypes);
+
+    // Holds specific spots in order, e.g. when restoring reservations after a restart; stops at the
+    // first spot that is not free and returns the number held
+    int reserveSpots(List<ParkingSpot> spots);
+
+    // Puts a RESERVED spot back into the free pool
+    boolean releaseReservation(ParkingSpot spot);
+
+    // Parks the vehicle in a spot this floor reserved; the spot was already counted as taken
+    boolean occupyReservedSpot(ParkingSpot spot, Vehicle vehicle);
+
+    int getAvailableSpots(ParkingSpotType type);
+
+    // Called with the spot type after every change to this floor's free counts
+    void addAvailabilityListener(AvailabilityCounters.Listener listener);
+
+    int getFloorNumber();
+
+    ParkingSpot getSpotById(String spotId);
 }
@@ -0,0 +1,61 @@
+package com.ankitdevcode.example.parkinglot.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 64-bit IDs: 41 bits of milliseconds since EPOCH_MILLIS, 10 bits of node ID, 12 bits of sequence.
+// IDs are strictly increasing per node and generation is a single CAS with no allocation.
+// When a millisecond's sequence runs out, or the wall clock steps back, the generator keeps
+// counting from its last timestamp instead of waiting or repeating values.
+public class SnowflakeIdGenerator {
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final int nodeId;
+    private final long nodeBits;
+    // Packed (timestamp << SEQUENCE_BITS | sequence) of the last issued ID
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            next = (previous >>> SEQUENCE_BITS) < now ? now << SEQUENCE_BITS : previous + 1;
+        } while (!state.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    public static String format(String prefix, long id) {
+        return prefix + Long.toString(id, Character.MAX_RADIX).toUpperCase();
+    }
+
+    public static long parse(String prefix, String value) {
+        if (!value.startsWith(prefix)) {
+            throw new IllegalArgumentException("ID " + value + " does not start with " + prefix);
+        }
+        return Long.parseLong(value.substring(prefix.length()), Character.MAX_RADIX);
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
@@ -0,0 +1,199 @@
+package com.ankitdevcode.example.parkinglot.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Process-wide metrics registry. Disabled by default: the installed instance is then a no-op and
+// instrumented code pays one volatile read and a branch. enable() swaps in a recording instance
+// and exposes it over JMX.
+public final class ParkingMetrics implements ParkingMetricsMXBean {
+    public static final String PARK_LATENCY = "park.latency";
+    public static final String PARK_REJECTED = "park.rejected";
+    public static final String PARK_QUEUED = "park.queued";
+    public static final String PARK_WAIT = "park.wait";
+    public static final String EXIT_LATENCY = "exit.latency";
+    public static final String PAYMENT_LATENCY = "payment.latency";
+    public static final String PAYMENT_SUCCESS = "payment.success";
+    public static final String PAYMENT_FAILURE = "payment.failure";
+    public static final String PAYMENT_RETRY = "payment.retry";
+    public static final String PAYMENT_TIMEOUT = "payment.timeout";
+    public static final String SPOT_CLAIM_CONFLICT = "spot.claim.conflict";
+    public static final String EVENT_DISPATCH = "event.dispatch";
+    public static final String EVENT_FAILURE = "event.failure";
+
+    static final String OBJECT_NAME = "com.ankitdevcode.example.parkinglot:type=ParkingMetrics";
+    private static final ParkingMetrics DISABLED = new ParkingMetrics(false);
+    private static final ReentrantLock installLock = new ReentrantLock();
+    private static volatile ParkingMetrics current = DISABLED;
+    // Gauges are registered whether or not metrics are enabled, and sampled only by an enabled
+    // instance, so a lot built before enable() still shows up; owners unregister them when done
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private ParkingMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static ParkingMetrics get() {
+        return current;
+    }
+
+    // Idempotent; returns the recording instance
+    public static ParkingMetrics enable() {
+        installLock.lock();
+        try {
+            if (!current.enabled) {
+                ParkingMetrics metrics = new ParkingMetrics(true);
+                metrics.registerMBean();
+                current = metrics;
+            }
+            return current;
+        } finally {
+            installLock.unlock();
+        }
+    }
+
+    public static void disable() {
+        installLock.lock();
+        try {
+            if (current.enabled) {
+                current.unregisterMBean();
+                current = DISABLED;
+            }
+        } finally {
+            installLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Pair with recordLatency; returns 0 without reading the clock when disabled
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void recordLatency(String name, long startNanos) {
+        if (enabled) {
+            histogram(name).record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void increment(String name) {
+        if (enabled) {
+            counters.computeIfAbsent(name, n -> new LongAdder()).increment();
+        }
+    }
+
+    // Sampled on read; registering again under the same name replaces the supplier
+    public static void registerGauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    // Only removes the gauge if it is still this supplier, so an owner cannot drop a successor's
+    public static void unregisterGauge(String name, LongSupplier supplier) {
+        gauges.remove(name, supplier);
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // Locks, counting "<name>.contended" and recording "<name>.wait" when the lock was already held
+    public static void lock(ReentrantLock lock, String name) {
+        ParkingMetrics metrics = current;
+        if (!metrics.enabled) {
+            lock.lock();
+            return;
+        }
+        if (lock.tryLock()) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        metrics.recordLatency(name + ".wait", start);
+        metrics.increment(name + ".contended");
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        if (!enabled) {
+            return snapshot;
+        }
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Double> getLatenciesMicros() {
+        Map<String, Double> snapshot = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            snapshot.put(name + ".count", (double) histogram.getCount());
+            snapshot.put(name + ".mean", histogram.getMean() / 1_000.0);
+            snapshot.put(name + ".p50", histogram.percentile(50) / 1_000.0);
+            snapshot.put(name + ".p99", histogram.percentile(99) / 1_000.0);
+            snapshot.put(name + ".p999", histogram.percentile(99.9) / 1_000.0);
+            snapshot.put(name + ".max", histogram.getMax() / 1_000.0);
+        });
+        return snapshot;
+    }
+
+    // One line, space separated name=value pairs
+    @Override
+    public String getReport() {
+        if (!enabled) {
+            return "disabled";
+        }
+        StringBuilder report = new StringBuilder();
+        getCounters().forEach((name, value) -> report.append(name).append('=').append(value).append(' '));
+        getGauges().forEach((name, value) -> report.append(name).append('=').append(value).append(' '));
+        getLatenciesMicros().forEach((name, value) ->
+                report.append(name).append('=').append(String.format("%.1f", value)).append(' '));
+        return report.toString().trim();
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister metrics MBean", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.ankitdevcode.example.parkinglot.metrics;
+
+import java.util.Map;
+
+public interface ParkingMetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    // "<histogram>.p50", ".p99", ".max" and so on, in microseconds
+    Map<String, Double> getLatenciesMicros();
+
+    String getReport();
+}
@@ -0,0 +1,11 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+public enum BackpressurePolicy {
+    // Discard the new event when the subscriber's queue is full (the default)
+    DROP,
+    // Replace a queued event for the same spot with the newer one; drop the oldest when full.
+    // Observers that render current state get this whatever the policy; this applies it to all
+    COALESCE,
+    // Wait for space in the subscriber's queue; stalls gates behind the slowest observer
+    BLOCK
+}
@@ -0,0 +1,74 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+
+public sealed interface ParkingEvent {
+
+    int LOT_WIDE = -1;
+
+    void dispatch(ParkingObserver observer);
+
+    // Floor the event belongs to, or LOT_WIDE for events every subscriber should see
+    int floor();
+
+    // Events with the same key describe the same piece of state; only the latest matters
+    Object coalesceKey();
+
+    record SpotOccupied(ParkingSpot spot, Vehicle vehicle) implements ParkingEvent {
+        @Override
+        public void dispatch(ParkingObserver observer) {
+            observer.onSpotOccupied(spot, vehicle);
+        }
+
+        @Override
+        public int floor() {
+            return spot.getFloor();
+        }
+
+        @Override
+        public Object coalesceKey() {
+            return spot.getSpotId();
+        }
+    }
+
+    record SpotFreed(ParkingSpot spot) implements ParkingEvent {
+        @Override
+        public void dispatch(ParkingObserver observer) {
+            observer.onSpotFreed(spot);
+        }
+
+        @Override
+        public int floor() {
+            return spot.getFloor();
+        }
+
+        @Override
+        public Object coalesceKey() {
+            return spot.getSpotId();
+        }
+    }
+
+    record LotFull() implements ParkingEvent {
+        static final LotFull INSTANCE = new LotFull();
+
+        @Override
+        public void dispatch(ParkingObserver observer) {
+            observer.onParkingLotFull();
+        }
+
+        @Override
+        public int floor() {
+            return LOT_WIDE;
+        }
+
+        @Override
+        public Object coalesceKey() {
+            return LotFull.class;
+        }
+    }
+
+    static ParkingEvent lotFull() {
+        return LotFull.INSTANCE;
+    }
+}
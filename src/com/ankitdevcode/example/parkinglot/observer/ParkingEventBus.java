@@ -0,0 +1,304 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Asynchronous fan-out from ParkingLot to its observers. Each subscriber has its own
+// bounded queue and a virtual consumer thread, so a slow observer only delays itself, a lot
+// with many boards does not pin a platform thread per board, and the publishing gate thread
+// never waits on observer I/O (unless the policy is BLOCK, which has to be asked for).
+// Observers that render current state always get a coalescing queue, whatever the policy.
+public class ParkingEventBus implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final int capacity;
+    private final int batchSize;
+    private final BackpressurePolicy policy;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Floor-scoped subscribers only receive events for their floor plus lot-wide events
+    private final Map<Integer, List<Subscription>> floorSubscriptions = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    public ParkingEventBus() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE, BackpressurePolicy.DROP);
+    }
+
+    public ParkingEventBus(int capacity, int batchSize, BackpressurePolicy policy) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.policy = policy;
+    }
+
+    public void subscribe(ParkingObserver observer) {
+        Subscription subscription = newSubscription(observer);
+        subscriptions.add(subscription);
+        subscription.start();
+    }
+
+    public void subscribe(int floor, ParkingObserver observer) {
+        Subscription subscription = newSubscription(observer);
+        floorSubscriptions.computeIfAbsent(floor, f -> new CopyOnWriteArrayList<>()).add(subscription);
+        subscription.start();
+    }
+
+    public void publish(ParkingEvent event) {
+        if (!running) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+        if (event.floor() == ParkingEvent.LOT_WIDE) {
+            for (List<Subscription> floorSubscribers : floorSubscriptions.values()) {
+                for (Subscription subscription : floorSubscribers) {
+                    subscription.offer(event);
+                }
+            }
+            return;
+        }
+        List<Subscription> floorSubscribers = floorSubscriptions.get(event.floor());
+        if (floorSubscribers != null) {
+            for (Subscription subscription : floorSubscribers) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    // Events an observer never saw: shed by backpressure, or thrown back by the observer itself
+    public long getDroppedEvents() {
+        long dropped = 0;
+        for (Subscription subscription : allSubscriptions()) {
+            dropped += subscription.dropped.sum() + subscription.failed.sum();
+        }
+        return dropped;
+    }
+
+    // Callbacks, and closes at shutdown, that threw
+    public long getFailedEvents() {
+        long failed = 0;
+        for (Subscription subscription : allSubscriptions()) {
+            failed += subscription.failed.sum();
+        }
+        return failed;
+    }
+
+    private Subscription newSubscription(ParkingObserver observer) {
+        return observer.rendersCurrentState() || policy == BackpressurePolicy.COALESCE
+                ? new CoalescingSubscription(observer)
+                : new QueueSubscription(observer);
+    }
+
+    private List<Subscription> allSubscriptions() {
+        List<Subscription> all = new ArrayList<>(subscriptions);
+        floorSubscriptions.values().forEach(all::addAll);
+        return all;
+    }
+
+    // Stops accepting events, waits for queued ones to be delivered and then closes observers
+    // that hold resources of their own (e.g. a board's refresh task)
+    @Override
+    public void close() {
+        running = false;
+        for (Subscription subscription : allSubscriptions()) {
+            subscription.stop();
+        }
+    }
+
+    private abstract class Subscription implements Runnable {
+        final ParkingObserver observer;
+        final LongAdder dropped = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        private final Thread consumer;
+
+        Subscription(ParkingObserver observer) {
+            this.observer = observer;
+            this.consumer = Thread.ofVirtual().name("parking-events-" + observer.getClass().getSimpleName()).unstarted(this);
+        }
+
+        void start() {
+            consumer.start();
+        }
+
+        void stop() {
+            consumer.interrupt();
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (observer instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    fail();
+                }
+            }
+        }
+
+        abstract void offer(ParkingEvent event);
+
+        // Moves up to batchSize events into batch, waiting briefly if none are queued
+        abstract void take(List<ParkingEvent> batch) throws InterruptedException;
+
+        abstract void drainRemaining(List<ParkingEvent> batch);
+
+        @Override
+        public void run() {
+            List<ParkingEvent> batch = new ArrayList<>(batchSize);
+            try {
+                while (running) {
+                    take(batch);
+                    deliver(batch);
+                }
+            } catch (InterruptedException e) {
+                // Closing: fall through and flush what is left
+            }
+            drainRemaining(batch);
+            deliver(batch);
+        }
+
+        private void deliver(List<ParkingEvent> batch) {
+            ParkingMetrics metrics = ParkingMetrics.get();
+            for (ParkingEvent event : batch) {
+                long start = metrics.startTimer();
+                try {
+                    event.dispatch(observer);
+                    metrics.recordLatency(ParkingMetrics.EVENT_DISPATCH, start);
+                } catch (RuntimeException e) {
+                    // One failing observer callback must not stop its consumer, nor flood stderr
+                    // from the consumer thread; it shows up in event.dropped and event.failure
+                    fail();
+                }
+            }
+            batch.clear();
+        }
+
+        private void fail() {
+            failed.increment();
+            ParkingMetrics.get().increment(ParkingMetrics.EVENT_FAILURE);
+        }
+    }
+
+    private final class QueueSubscription extends Subscription {
+        private final BlockingQueue<ParkingEvent> queue = new ArrayBlockingQueue<>(capacity);
+
+        QueueSubscription(ParkingObserver observer) {
+            super(observer);
+        }
+
+        @Override
+        void offer(ParkingEvent event) {
+            if (policy == BackpressurePolicy.BLOCK) {
+                try {
+                    // Give up once the bus closes, as the consumer will not make room again
+                    while (!queue.offer(event, 100, TimeUnit.MILLISECONDS)) {
+                        if (!running) {
+                            dropped.increment();
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+            } else if (!queue.offer(event)) {
+                dropped.increment();
+            }
+        }
+
+        @Override
+        void take(List<ParkingEvent> batch) throws InterruptedException {
+            ParkingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            }
+        }
+
+        @Override
+        void drainRemaining(List<ParkingEvent> batch) {
+            queue.drainTo(batch);
+        }
+    }
+
+    private final class CoalescingSubscription extends Subscription {
+        private final Map<Object, ParkingEvent> pending = new LinkedHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        CoalescingSubscription(ParkingObserver observer) {
+            super(observer);
+        }
+
+        @Override
+        void offer(ParkingEvent event) {
+            ParkingMetrics.lock(lock, "event.coalesce.lock");
+            try {
+                Object key = event.coalesceKey();
+                if (pending.containsKey(key)) {
+                    // Newer state for the same spot supersedes the queued one; nothing is lost
+                    pending.put(key, event);
+                    return;
+                }
+                if (pending.size() >= capacity) {
+                    Iterator<Object> oldest = pending.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.increment();
+                }
+                pending.put(key, event);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void take(List<ParkingEvent> batch) throws InterruptedException {
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    notEmpty.await(100, TimeUnit.MILLISECONDS);
+                }
+                moveTo(batch, batchSize);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void drainRemaining(List<ParkingEvent> batch) {
+            lock.lock();
+            try {
+                moveTo(batch, Integer.MAX_VALUE);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void moveTo(List<ParkingEvent> batch, int max) {
+            Iterator<ParkingEvent> events = pending.values().iterator();
+            while (events.hasNext() && batch.size() < max) {
+                batch.add(events.next());
+                events.remove();
+            }
+        }
+    }
+}
@@ -10,4 +10,10 @@ public interface ParkingObserver {
     void onSpotFreed(ParkingSpot spot);
 
     void onParkingLotFull();
+
+    // True for observers that only show the latest state, such as free counts on a board. The
+    // event bus coalesces their queued events per spot; every other observer sees every event.
+    default boolean rendersCurrentState() {
+        return false;
+    }
 }
\ No newline at end of file
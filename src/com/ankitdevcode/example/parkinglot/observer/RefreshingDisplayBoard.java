@@ -0,0 +1,85 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Display board that only marks its floor dirty on events and renders the
+// floor's current counts at most once per tick, so the refresh cost stays
+// fixed no matter how many cars arrive.
+public class RefreshingDisplayBoard implements ParkingObserver, AutoCloseable {
+    private static final ScheduledExecutorService TICKER = newTicker();
+
+    private final ParkingFloor floor;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean lotFull = new AtomicBoolean();
+    private final ScheduledFuture<?> refreshTask;
+
+    public RefreshingDisplayBoard(ParkingFloor floor, Duration refreshInterval) {
+        this.floor = floor;
+        long intervalMillis = refreshInterval.toMillis();
+        this.refreshTask = TICKER.scheduleAtFixedRate(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Cancelled refresh tasks leave the queue at once instead of holding their board and floor
+    // until their next run
+    private static ScheduledExecutorService newTicker() {
+        ScheduledThreadPoolExecutor ticker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "display-board-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.setRemoveOnCancelPolicy(true);
+        return ticker;
+    }
+
+    @Override
+    public void onSpotOccupied(ParkingSpot spot, Vehicle vehicle) {
+        dirty.set(true);
+    }
+
+    @Override
+    public void onSpotFreed(ParkingSpot spot) {
+        lotFull.set(false);
+        dirty.set(true);
+    }
+
+    @Override
+    public void onParkingLotFull() {
+        lotFull.set(true);
+        dirty.set(true);
+    }
+
+    @Override
+    public boolean rendersCurrentState() {
+        return true;
+    }
+
+    private void refresh() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        StringBuilder line = new StringBuilder("Display Board Floor ").append(floor.getFloorNumber()).append(':');
+        for (ParkingSpotType type : ParkingSpotType.values()) {
+            line.append(' ').append(type).append('=').append(floor.getAvailableSpots(type));
+        }
+        if (lotFull.get()) {
+            line.append(" | PARKING LOT FULL");
+        }
+        System.out.println(line);
+    }
+
+    @Override
+    public void close() {
+        refreshTask.cancel(false);
+        refresh();
+    }
+}
@@ -0,0 +1,228 @@
+package com.ankitdevcode.example.parkinglot.payment;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Settles payments against a PaymentGateway on its own thread pool. Each gateway call is bounded
+// by a timeout; timeouts and gateway errors are retried with exponential backoff, declines are not.
+// Retries reuse the payment ID so a real gateway can treat it as an idempotency key.
+// Only payments in flight and the most recently settled ones are kept, for status checks and refunds.
+public class AsyncPaymentProcessor implements PaymentProcessor, AutoCloseable {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(2);
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+    public static final int SETTLED_CAPACITY = 10_000;
+
+    private final PaymentGateway gateway;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    // Oldest first; guarded by settledLock
+    private final Map<String, Payment> settled = new LinkedHashMap<>();
+    private final ReentrantLock settledLock = new ReentrantLock();
+    private volatile boolean closing;
+
+    public AsyncPaymentProcessor(PaymentGateway gateway) {
+        this(gateway, Runtime.getRuntime().availableProcessors() * 4,
+                DEFAULT_TIMEOUT, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF);
+    }
+
+    public AsyncPaymentProcessor(PaymentGateway gateway, int threads, Duration timeout,
+                                 int maxAttempts, Duration initialBackoff) {
+        if (gateway == null) {
+            throw new IllegalArgumentException("PaymentGateway cannot be null");
+        }
+        if (threads < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Threads and attempts must be positive");
+        }
+        this.gateway = gateway;
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean processPayment(Payment payment) {
+        return processPaymentAsync(payment).join();
+    }
+
+    // Completes with false when the charge is declined or every attempt failed
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(Payment payment) {
+        if (payment == null) {
+            throw new IllegalArgumentException("Payment cannot be null");
+        }
+        if (closing) {
+            payment.setStatus(PaymentStatus.FAILED);
+            return CompletableFuture.completedFuture(false);
+        }
+        InFlight entry = new InFlight(payment, new CompletableFuture<>(), new CompletableFuture<>());
+        inFlight.put(payment.getPaymentId(), entry);
+        settle(payment, 1).whenComplete((paid, error) -> {
+            boolean completed = error == null && paid;
+            payment.setStatus(completed ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+            // Runs the caller's callbacks (e.g. freeing the spot) before the payment counts as drained
+            entry.result().complete(completed);
+            remember(payment);
+            inFlight.remove(payment.getPaymentId());
+            entry.drained().complete(null);
+        });
+        return entry.result();
+    }
+
+    private void remember(Payment payment) {
+        ParkingMetrics.lock(settledLock, "payment.settled.lock");
+        try {
+            settled.put(payment.getPaymentId(), payment);
+            if (settled.size() > SETTLED_CAPACITY) {
+                settled.remove(settled.keySet().iterator().next());
+            }
+        } finally {
+            settledLock.unlock();
+        }
+    }
+
+    private CompletableFuture<Boolean> settle(Payment payment, int attempt) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        charge(payment).whenComplete((paid, error) -> {
+            if (error == null) {
+                result.complete(paid);
+            } else if (attempt >= maxAttempts || executor.isShutdown()) {
+                result.completeExceptionally(error);
+            } else {
+                ParkingMetrics.get().increment(ParkingMetrics.PAYMENT_RETRY);
+                long backoff = initialBackoff.toMillis() << (attempt - 1);
+                try {
+                    timer.schedule(() -> settle(payment, attempt + 1).whenComplete((retried, retryError) -> {
+                        if (retryError == null) {
+                            result.complete(retried);
+                        } else {
+                            result.completeExceptionally(retryError);
+                        }
+                    }), backoff, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Processor closed before the retry could be scheduled
+                    result.completeExceptionally(error);
+                }
+            }
+        });
+        return result;
+    }
+
+    // One gateway call; on timeout the worker is interrupted so it does not hold a pool thread
+    private CompletableFuture<Boolean> charge(Payment payment) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            Future<?> call = executor.submit(() -> {
+                try {
+                    result.complete(gateway.charge(payment));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+            ScheduledFuture<?> deadline = timer.schedule(() -> {
+                if (result.completeExceptionally(new TimeoutException("Payment " + payment.getPaymentId() + " timed out"))) {
+                    ParkingMetrics.get().increment(ParkingMetrics.PAYMENT_TIMEOUT);
+                    call.cancel(true);
+                }
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+            result.whenComplete((paid, error) -> deadline.cancel(false));
+        } catch (RejectedExecutionException e) {
+            // Processor closed
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public PaymentStatus checkStatus(String paymentId) {
+        return findPayment(paymentId).getStatus();
+    }
+
+    @Override
+    public void refund(String paymentId) {
+        Payment payment = findPayment(paymentId);
+        if (payment.getStatus() != PaymentStatus.COMPLETED) {
+            throw new IllegalStateException("Payment " + paymentId + " is " + payment.getStatus());
+        }
+        try {
+            gateway.refund(payment);
+        } catch (Exception e) {
+            throw new IllegalStateException("Refund failed for " + paymentId, e);
+        }
+        payment.setStatus(PaymentStatus.REFUNDED);
+    }
+
+    private Payment findPayment(String paymentId) {
+        if (paymentId == null || paymentId.isBlank()) {
+            throw new IllegalArgumentException("Payment ID cannot be null or blank");
+        }
+        InFlight entry = inFlight.get(paymentId);
+        Payment payment = entry != null ? entry.payment() : null;
+        if (payment == null) {
+            ParkingMetrics.lock(settledLock, "payment.settled.lock");
+            try {
+                payment = settled.get(paymentId);
+            } finally {
+                settledLock.unlock();
+            }
+        }
+        if (payment == null) {
+            throw new IllegalArgumentException("Payment not found: " + paymentId);
+        }
+        return payment;
+    }
+
+    // Turns away new payments, lets the ones in flight finish (retries included) and then stops
+    // the threads; payments still unsettled after the longest possible retry sequence are failed
+    @Override
+    public void close() {
+        closing = true;
+        CompletableFuture<?>[] drained = inFlight.values().stream()
+                .map(InFlight::drained)
+                .toArray(CompletableFuture<?>[]::new);
+        long drainMillis = timeout.toMillis() * maxAttempts + (initialBackoff.toMillis() << (maxAttempts - 1));
+        try {
+            CompletableFuture.allOf(drained).get(drainMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Shutting down regardless; the remaining payments fail as their calls are rejected
+        }
+        executor.shutdown();
+        timer.shutdown();
+    }
+
+    private record InFlight(Payment payment, CompletableFuture<Boolean> result, CompletableFuture<Void> drained) {
+    }
+}
@@ -1,11 +1,22 @@
 package com.ankitdevcode.example.parkinglot.payment;
 
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultPaymentProcessor implements PaymentProcessor {
 
     private final Map<String, Payment> payments = new ConcurrentHashMap<>();
+    private final Random random;
+
+    public DefaultPaymentProcessor() {
+        this(new Random());
+    }
+
+    // A seeded Random makes the declines repeatable, e.g. in simulations
+    public DefaultPaymentProcessor(Random random) {
+        this.random = random;
+    }
 
     @Override
     public boolean processPayment(Payment payment) {
@@ -14,7 +25,9 @@ public class DefaultPaymentProcessor implements PaymentProcessor {
         }
         payments.put(payment.getPaymentId(), payment);
         // Simulate payment processing
-        return Math.random() > 0.1;
+        boolean paid = random.nextDouble() > 0.1;
+        payment.setStatus(paid ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+        return paid;
     }
 
     @Override
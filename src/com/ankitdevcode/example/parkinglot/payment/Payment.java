@@ -1,7 +1,10 @@
 package com.ankitdevcode.example.parkinglot.payment;
 
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.Setter;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 
 @Getter
@@ -9,15 +12,30 @@ public class Payment {
     private final String paymentId;
     private final double amount;
     private final PaymentMethod method;
-    private final PaymentStatus status;
+    @Setter(AccessLevel.PACKAGE)
+    private volatile PaymentStatus status;
     private final LocalDateTime timestamp;
 
     public Payment(String paymentId, double amount, PaymentMethod method) {
+        this(paymentId, amount, method, Clock.systemDefaultZone());
+    }
+
+    // Pending payment stamped with the lot's clock
+    public Payment(String paymentId, double amount, PaymentMethod method, Clock clock) {
         this.paymentId = paymentId;
         this.amount = amount;
         this.method = method;
         this.status = PaymentStatus.PENDING;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = LocalDateTime.now(clock);
+    }
+
+    // Rebuilds a settled payment, e.g. from the ticket archive
+    public Payment(String paymentId, double amount, PaymentMethod method, LocalDateTime timestamp) {
+        this.paymentId = paymentId;
+        this.amount = amount;
+        this.method = method;
+        this.status = PaymentStatus.COMPLETED;
+        this.timestamp = timestamp;
     }
 }
 
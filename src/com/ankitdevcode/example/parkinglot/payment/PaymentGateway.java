@@ -0,0 +1,11 @@
+package com.ankitdevcode.example.parkinglot.payment;
+
+// The external system that actually moves money, e.g. a card acquirer
+public interface PaymentGateway {
+
+    // Returns false when the charge is declined; throws when the outcome is unknown
+    // (network error, gateway unavailable), in which case the caller may retry
+    boolean charge(Payment payment) throws Exception;
+
+    void refund(Payment payment) throws Exception;
+}
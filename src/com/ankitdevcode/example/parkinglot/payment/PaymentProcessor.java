@@ -1,8 +1,26 @@
 package com.ankitdevcode.example.parkinglot.payment;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface PaymentProcessor {
     boolean processPayment(Payment payment);
 
+    // Results line up with the input; processors that can settle in bulk should override
+    default List<Boolean> processPayments(List<Payment> payments) {
+        List<Boolean> results = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            results.add(processPayment(payment));
+        }
+        return results;
+    }
+
+    // Settles without blocking the caller; processors talking to a remote gateway should override
+    default CompletableFuture<Boolean> processPaymentAsync(Payment payment) {
+        return CompletableFuture.supplyAsync(() -> processPayment(payment));
+    }
+
     PaymentStatus checkStatus(String paymentId);
 
     void refund(String paymentId);
@@ -1,5 +1,5 @@
 package com.ankitdevcode.example.parkinglot.payment;
 
-enum PaymentStatus {
+public enum PaymentStatus {
     PENDING, COMPLETED, FAILED, REFUNDED
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.ankitdevcode.example.parkinglot.payment;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Local stand-in for a card gateway with configurable latency, declines and transient errors
+public class StubPaymentGateway implements PaymentGateway {
+    private final Duration latency;
+    private final double declineRate;
+    private final double errorRate;
+
+    public StubPaymentGateway() {
+        this(Duration.ZERO, 0.0, 0.0);
+    }
+
+    public StubPaymentGateway(Duration latency, double declineRate, double errorRate) {
+        if (declineRate < 0 || declineRate > 1 || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Rates must be between 0 and 1");
+        }
+        this.latency = latency;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public boolean charge(Payment payment) throws Exception {
+        simulateCall();
+        return ThreadLocalRandom.current().nextDouble() >= declineRate;
+    }
+
+    @Override
+    public void refund(Payment payment) throws Exception {
+        simulateCall();
+    }
+
+    private void simulateCall() throws Exception {
+        if (!latency.isZero()) {
+            Thread.sleep(latency.toMillis());
+        }
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw new IOException("Gateway unavailable");
+        }
+    }
+}
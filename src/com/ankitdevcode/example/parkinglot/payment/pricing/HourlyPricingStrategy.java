@@ -3,25 +3,25 @@ package com.ankitdevcode.example.parkinglot.payment.pricing;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.ZoneOffset;
 
 public class HourlyPricingStrategy implements PricingStrategy {
 
-    private final Map<VehicleType, Double> hourlyRates;
+    // Indexed by VehicleType ordinal
+    private final double[] hourlyRates;
 
     public HourlyPricingStrategy() {
-        hourlyRates = new HashMap<>();
-        hourlyRates.put(VehicleType.MOTORCYCLE, 2.0);
-        hourlyRates.put(VehicleType.COMPACT, 5.0);
-        hourlyRates.put(VehicleType.LARGE, 8.0);
-        hourlyRates.put(VehicleType.ELECTRIC, 4.0);
+        hourlyRates = new double[VehicleType.values().length];
+        hourlyRates[VehicleType.MOTORCYCLE.ordinal()] = 2.0;
+        hourlyRates[VehicleType.COMPACT.ordinal()] = 5.0;
+        hourlyRates[VehicleType.LARGE.ordinal()] = 8.0;
+        hourlyRates[VehicleType.ELECTRIC.ordinal()] = 4.0;
     }
 
     @Override
     public double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, VehicleType vehicleType) {
-        long minutes = java.time.Duration.between(entryTime, exitTime).toMinutes();
+        long minutes = (exitTime.toEpochSecond(ZoneOffset.UTC) - entryTime.toEpochSecond(ZoneOffset.UTC)) / 60;
         double hours = Math.ceil(minutes / 60.0);
-        return hours * hourlyRates.get(vehicleType);
+        return hours * hourlyRates[vehicleType.ordinal()];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,266 @@
+package com.ankitdevcode.example.parkinglot.payment.pricing;
+
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Demand-responsive pricing: the base price is multiplied by a surge factor picked from the
+// smoothed utilization of the spot type the vehicle used. Utilization comes from the lot's free
+// and capacity counters, which every park and unpark already keeps current, and is folded into a
+// time-weighted exponentially weighted moving average whenever a count changes. Time is read from
+// the lot's clock, so a simulation that advances its own clock sees the same surge as the live lot.
+// Quotes read an immutable Snapshot, one volatile read, and only republish it once it is older than
+// the sample interval on that clock.
+public class OccupancyPricingStrategy implements PricingStrategy, AutoCloseable {
+    public static final Duration DEFAULT_WINDOW = Duration.ofMinutes(15);
+    public static final Duration DEFAULT_SAMPLE_INTERVAL = Duration.ofSeconds(10);
+
+    private static final ParkingSpotType[] SPOT_TYPES = ParkingSpotType.values();
+
+    private final PricingStrategy base;
+    private final AvailabilityCounters available;
+    private final AvailabilityCounters capacity;
+    // The lot's current matrix, for quotes that only know the vehicle type
+    private final Supplier<CompatibilityMatrix> compatibility;
+    // Ascending utilization thresholds and the multiplier that applies from each one up
+    private final double[] thresholds;
+    private final double[] multipliers;
+    private final Supplier<Clock> clock;
+    private final long windowMillis;
+    private final long sampleIntervalMillis;
+    private final AvailabilityCounters.Listener onCountChanged = this::countChanged;
+    // Per spot type: the average, the utilization in force since the last update, and when that was
+    private final double[] smoothed = new double[SPOT_TYPES.length];
+    private final double[] current = new double[SPOT_TYPES.length];
+    private final long[] updatedAt = new long[SPOT_TYPES.length];
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    private OccupancyPricingStrategy(Builder builder, AvailabilityCounters available, AvailabilityCounters capacity,
+                                     Supplier<CompatibilityMatrix> compatibility, Supplier<Clock> clock) {
+        this.base = builder.base;
+        this.available = available;
+        this.capacity = capacity;
+        this.compatibility = compatibility;
+        this.clock = clock;
+        this.thresholds = builder.tiers.keySet().stream().mapToDouble(Double::doubleValue).toArray();
+        this.multipliers = builder.tiers.values().stream().mapToDouble(Double::doubleValue).toArray();
+        this.windowMillis = builder.window.toMillis();
+        this.sampleIntervalMillis = builder.sampleInterval.toMillis();
+
+        // Start from the current occupancy rather than an empty lot
+        Instant now = clock.get().instant();
+        for (ParkingSpotType type : SPOT_TYPES) {
+            smoothed[type.ordinal()] = utilization(type);
+            current[type.ordinal()] = smoothed[type.ordinal()];
+        }
+        Arrays.fill(updatedAt, now.toEpochMilli());
+        this.snapshot = publish(now);
+        available.addListener(onCountChanged);
+    }
+
+    public static Builder builder(PricingStrategy base) {
+        return new Builder(base);
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime,
+                                 VehicleType vehicleType, ParkingSpotType spotType) {
+        double price = base.calculatePrice(entryTime, exitTime, vehicleType, spotType);
+        return Math.round(price * currentSnapshot().multiplier(spotType) * 100) / 100.0;
+    }
+
+    // Without the spot, price against the vehicle's preferred spot type
+    @Override
+    public double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, VehicleType vehicleType) {
+        List<ParkingSpotType> preferences = compatibility.get().preferences(vehicleType);
+        if (preferences.isEmpty()) {
+            return base.calculatePrice(entryTime, exitTime, vehicleType);
+        }
+        return calculatePrice(entryTime, exitTime, vehicleType, preferences.get(0));
+    }
+
+    // A lot whose counts have not moved still drifts towards its occupancy as time passes
+    private Snapshot currentSnapshot() {
+        Snapshot published = snapshot;
+        if (clock.get().millis() - published.takenAt.toEpochMilli() >= sampleIntervalMillis) {
+            sample();
+            published = snapshot;
+        }
+        return published;
+    }
+
+    // Brings every average up to the lot clock's now and publishes new rates
+    public void sample() {
+        sampleLock.lock();
+        try {
+            Instant now = clock.get().instant();
+            for (ParkingSpotType type : SPOT_TYPES) {
+                advance(type, now.toEpochMilli());
+            }
+            snapshot = publish(now);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    // Called on every park and unpark; the rates follow at the next publication
+    private void countChanged(ParkingSpotType type) {
+        long now = clock.get().millis();
+        sampleLock.lock();
+        try {
+            advance(type, now);
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    // Utilization is constant between two changes, so the average over that stretch is folded in
+    // exactly, whatever the spacing of the changes
+    private void advance(ParkingSpotType type, long now) {
+        int i = type.ordinal();
+        long elapsed = now - updatedAt[i];
+        if (elapsed > 0) {
+            smoothed[i] += (1 - Math.exp(-(double) elapsed / windowMillis)) * (current[i] - smoothed[i]);
+            updatedAt[i] = now;
+        }
+        current[i] = utilization(type);
+    }
+
+    private double utilization(ParkingSpotType type) {
+        int total = capacity.get(type);
+        if (total <= 0) {
+            return 0.0;
+        }
+        double occupied = total - available.get(type);
+        return Math.max(0.0, Math.min(1.0, occupied / total));
+    }
+
+    private Snapshot publish(Instant now) {
+        double[] rates = new double[SPOT_TYPES.length];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = multiplierFor(smoothed[i]);
+        }
+        return new Snapshot(smoothed.clone(), rates, now);
+    }
+
+    private double multiplierFor(double utilization) {
+        double multiplier = 1.0;
+        for (int i = 0; i < thresholds.length && thresholds[i] <= utilization; i++) {
+            multiplier = multipliers[i];
+        }
+        return multiplier;
+    }
+
+    @Override
+    public void close() {
+        available.removeListener(onCountChanged);
+    }
+
+    // Rates in force between two publications; never modified after publication
+    public static final class Snapshot {
+        private final double[] utilization;
+        private final double[] multipliers;
+        private final Instant takenAt;
+
+        private Snapshot(double[] utilization, double[] multipliers, Instant takenAt) {
+            this.utilization = utilization;
+            this.multipliers = multipliers;
+            this.takenAt = takenAt;
+        }
+
+        public double utilization(ParkingSpotType type) {
+            return utilization[type.ordinal()];
+        }
+
+        public double multiplier(ParkingSpotType type) {
+            return multipliers[type.ordinal()];
+        }
+
+        public Instant getTakenAt() {
+            return takenAt;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Snapshot{");
+            for (ParkingSpotType type : SPOT_TYPES) {
+                if (type.ordinal() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(type).append(String.format("=%.0f%%x%.2f",
+                        utilization[type.ordinal()] * 100, multipliers[type.ordinal()]));
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    public static final class Builder {
+        private final PricingStrategy base;
+        private final Map<Double, Double> tiers = new TreeMap<>();
+        private Duration window = DEFAULT_WINDOW;
+        private Duration sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+
+        private Builder(PricingStrategy base) {
+            if (base == null) {
+                throw new IllegalArgumentException("Base PricingStrategy cannot be null");
+            }
+            this.base = base;
+        }
+
+        // From this utilization (0..1) upwards the base price is multiplied by the given factor
+        public Builder tier(double utilization, double multiplier) {
+            if (utilization < 0 || utilization > 1) {
+                throw new IllegalArgumentException("Utilization must be between 0 and 1");
+            }
+            if (multiplier <= 0) {
+                throw new IllegalArgumentException("Multiplier must be positive");
+            }
+            tiers.put(utilization, multiplier);
+            return this;
+        }
+
+        // Time constant of the moving average; longer windows react more slowly to bursts
+        public Builder window(Duration window) {
+            if (window.toMillis() <= 0) {
+                throw new IllegalArgumentException("Window must be at least a millisecond");
+            }
+            this.window = window;
+            return this;
+        }
+
+        // How stale, on the lot clock, a quoted rate may be
+        public Builder sampleInterval(Duration sampleInterval) {
+            if (sampleInterval.toMillis() <= 0) {
+                throw new IllegalArgumentException("Sample interval must be at least a millisecond");
+            }
+            this.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        // Without explicit tiers: 1.25x from 70% full, 1.5x from 85%, 2x from 95%
+        public OccupancyPricingStrategy build(AvailabilityCounters available, AvailabilityCounters capacity,
+                                              Supplier<CompatibilityMatrix> compatibility, Supplier<Clock> clock) {
+            if (tiers.isEmpty()) {
+                tier(0.70, 1.25).tier(0.85, 1.5).tier(0.95, 2.0);
+            }
+            return new OccupancyPricingStrategy(this, available, capacity, compatibility, clock);
+        }
+    }
+}
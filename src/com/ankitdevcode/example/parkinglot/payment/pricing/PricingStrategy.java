@@ -1,5 +1,6 @@
 package com.ankitdevcode.example.parkinglot.payment.pricing;
 
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
 import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
 
 import java.time.LocalDateTime;
@@ -7,4 +8,10 @@ import java.time.LocalDateTime;
 public interface PricingStrategy {
 
     double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, VehicleType vehicleType);
-}
\ No newline at end of file
+
+    // The lot quotes exits with the type of spot the vehicle actually used
+    default double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime,
+                                  VehicleType vehicleType, ParkingSpotType spotType) {
+        return calculatePrice(entryTime, exitTime, vehicleType);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ankitdevcode.example.parkinglot.payment.pricing;
+
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Rule-based tariff: per-type off-peak and peak hourly rates, peak windows by day of week,
+// a cap per calendar day and a free grace period. The rules are compiled into one cumulative
+// per-minute cost table per vehicle type covering a week, so a quote is a few array reads per
+// day of stay. Instances are immutable; switch tariffs by installing a new one.
+public class TariffPricingStrategy implements PricingStrategy {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // prefixCost[type][m] = cost of parking from Monday 00:00 up to minute m of the week
+    private final double[][] prefixCost;
+    private final double[] dailyCap;
+    private final long graceMinutes;
+
+    private TariffPricingStrategy(double[][] prefixCost, double[] dailyCap, long graceMinutes) {
+        this.prefixCost = prefixCost;
+        this.dailyCap = dailyCap;
+        this.graceMinutes = graceMinutes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // The hourly rates, 1.5x on weekday rush hours, a day capped at ten off-peak hours
+    public static TariffPricingStrategy standard() {
+        Builder builder = builder()
+                .peakWindow(LocalTime.of(8, 0), LocalTime.of(10, 0))
+                .peakWindow(LocalTime.of(17, 0), LocalTime.of(19, 0))
+                .peakDays(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+                        DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)
+                .gracePeriod(Duration.ofMinutes(10));
+        for (VehicleType type : VehicleType.values()) {
+            double rate = switch (type) {
+                case MOTORCYCLE -> 2.0;
+                case COMPACT -> 5.0;
+                case LARGE -> 8.0;
+                case ELECTRIC -> 4.0;
+            };
+            builder.rate(type, rate, rate * 1.5).dailyCap(type, rate * 10);
+        }
+        return builder.build();
+    }
+
+    // Charged per started minute; stays within the grace period are free
+    @Override
+    public double calculatePrice(LocalDateTime entryTime, LocalDateTime exitTime, VehicleType vehicleType) {
+        long from = Math.floorDiv(entryTime.toEpochSecond(ZoneOffset.UTC), 60);
+        long to = -Math.floorDiv(-exitTime.toEpochSecond(ZoneOffset.UTC), 60);
+        if (to - from <= graceMinutes) {
+            return 0.0;
+        }
+
+        double[] prefix = prefixCost[vehicleType.ordinal()];
+        double cap = dailyCap[vehicleType.ordinal()];
+        double total = 0;
+        long minute = from;
+        while (minute < to) {
+            long day = Math.floorDiv(minute, MINUTES_PER_DAY);
+            long dayStart = day * MINUTES_PER_DAY;
+            long segmentEnd = Math.min(to, dayStart + MINUTES_PER_DAY);
+            // 1970-01-01 was a Thursday; the table starts on Monday
+            int weekOffset = Math.floorMod(day + 3, 7) * MINUTES_PER_DAY;
+            double dayCost = prefix[weekOffset + (int) (segmentEnd - dayStart)]
+                    - prefix[weekOffset + (int) (minute - dayStart)];
+            total += Math.min(cap, dayCost);
+            minute = segmentEnd;
+        }
+        return Math.round(total * 100) / 100.0;
+    }
+
+    public static final class Builder {
+        private final double[] offPeakRates = new double[VehicleType.values().length];
+        private final double[] peakRates = new double[VehicleType.values().length];
+        private final double[] dailyCaps = new double[VehicleType.values().length];
+        private final boolean[] rated = new boolean[VehicleType.values().length];
+        private final List<LocalTime[]> peakWindows = new ArrayList<>();
+        private final Set<DayOfWeek> peakDays = EnumSet.allOf(DayOfWeek.class);
+        private Duration gracePeriod = Duration.ZERO;
+
+        private Builder() {
+            Arrays.fill(dailyCaps, Double.MAX_VALUE);
+        }
+
+        public Builder rate(VehicleType type, double offPeakHourly, double peakHourly) {
+            if (offPeakHourly < 0 || peakHourly < 0) {
+                throw new IllegalArgumentException("Rates cannot be negative");
+            }
+            offPeakRates[type.ordinal()] = offPeakHourly;
+            peakRates[type.ordinal()] = peakHourly;
+            rated[type.ordinal()] = true;
+            return this;
+        }
+
+        // A window may wrap past midnight, e.g. 22:00 to 02:00
+        public Builder peakWindow(LocalTime start, LocalTime end) {
+            if (start.equals(end)) {
+                throw new IllegalArgumentException("Peak window cannot be empty");
+            }
+            peakWindows.add(new LocalTime[]{start, end});
+            return this;
+        }
+
+        // Days on which the peak windows start; every day by default
+        public Builder peakDays(DayOfWeek... days) {
+            peakDays.clear();
+            peakDays.addAll(List.of(days));
+            return this;
+        }
+
+        public Builder dailyCap(VehicleType type, double cap) {
+            if (cap <= 0) {
+                throw new IllegalArgumentException("Daily cap must be positive");
+            }
+            dailyCaps[type.ordinal()] = cap;
+            return this;
+        }
+
+        public Builder gracePeriod(Duration gracePeriod) {
+            if (gracePeriod.isNegative()) {
+                throw new IllegalArgumentException("Grace period cannot be negative");
+            }
+            this.gracePeriod = gracePeriod;
+            return this;
+        }
+
+        public TariffPricingStrategy build() {
+            boolean[] peak = peakMinutes();
+            double[][] prefixCost = new double[VehicleType.values().length][];
+            for (VehicleType type : VehicleType.values()) {
+                if (!rated[type.ordinal()]) {
+                    throw new IllegalStateException("No rate configured for " + type);
+                }
+                double offPeakPerMinute = offPeakRates[type.ordinal()] / 60.0;
+                double peakPerMinute = peakRates[type.ordinal()] / 60.0;
+                double[] prefix = new double[MINUTES_PER_WEEK + 1];
+                for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+                    prefix[minute + 1] = prefix[minute] + (peak[minute] ? peakPerMinute : offPeakPerMinute);
+                }
+                prefixCost[type.ordinal()] = prefix;
+            }
+            return new TariffPricingStrategy(prefixCost, dailyCaps.clone(), gracePeriod.toMinutes());
+        }
+
+        private boolean[] peakMinutes() {
+            boolean[] peak = new boolean[MINUTES_PER_WEEK];
+            for (DayOfWeek day : peakDays) {
+                int dayStart = (day.getValue() - 1) * MINUTES_PER_DAY;
+                for (LocalTime[] window : peakWindows) {
+                    int start = dayStart + window[0].toSecondOfDay() / 60;
+                    int length = Math.floorMod(window[1].toSecondOfDay() / 60 - window[0].toSecondOfDay() / 60,
+                            MINUTES_PER_DAY);
+                    for (int i = 0; i < length; i++) {
+                        peak[(start + i) % MINUTES_PER_WEEK] = true;
+                    }
+                }
+            }
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.ankitdevcode.example.parkinglot.payment.revenue;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Time-bucketed revenue totals. Payments are added to the bucket of their exit time,
+// so range queries cost O(buckets in range) rather than O(ticket history).
+// Recent payments sit in fine buckets (a minute by default); as they age they are rolled up into
+// hour buckets and then day buckets, so a year of traffic costs a few thousand buckets, not half
+// a million. Ranges are resolved to bucket granularity: the buckets holding start and end are
+// included, and older ranges resolve to the coarser buckets they were rolled into.
+public class RevenueLedger {
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+    private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+    private static final long HOUR = Duration.ofHours(1).getSeconds();
+    private static final long DAY = Duration.ofDays(1).getSeconds();
+
+    // Finest first; each tier holds the buckets its predecessor has rolled up
+    private final Tier[] tiers;
+    // Start of the newest bucket recorded so far; drives the rollups
+    private final AtomicLong newest = new AtomicLong(Long.MIN_VALUE);
+    // Shared by records and queries, exclusive for a rollup moving buckets between tiers
+    private final ReentrantReadWriteLock rollupLock = new ReentrantReadWriteLock();
+
+    public RevenueLedger() {
+        this(Duration.ofMinutes(1), Duration.ofDays(1), Duration.ofDays(90));
+    }
+
+    // bucketSize buckets are kept for bucketRetention, hour buckets for hourRetention, day buckets for good
+    public RevenueLedger(Duration bucketSize, Duration bucketRetention, Duration hourRetention) {
+        long bucketSeconds = bucketSize.getSeconds();
+        if (bucketSeconds <= 0 || HOUR % bucketSeconds != 0) {
+            throw new IllegalArgumentException("Bucket size must be a whole number of seconds dividing an hour");
+        }
+        if (bucketRetention.getSeconds() < HOUR || hourRetention.getSeconds() < DAY) {
+            throw new IllegalArgumentException("Buckets must be kept at least an hour and hour buckets at least a day");
+        }
+        this.tiers = new Tier[] {
+                new Tier(bucketSeconds, bucketRetention.getSeconds()),
+                new Tier(HOUR, hourRetention.getSeconds()),
+                new Tier(DAY, Long.MAX_VALUE)
+        };
+    }
+
+    public void record(LocalDateTime exitTime, double amount, VehicleType vehicleType, PaymentMethod method) {
+        long second = exitTime.toEpochSecond(ZoneOffset.UTC);
+        rollupLock.readLock().lock();
+        try {
+            // A late payment for a time already rolled up goes straight to the coarser tier
+            Tier tier = tiers[0];
+            for (int i = 0; i < tiers.length - 1 && tier.startOf(second) < tier.horizon; i++) {
+                tier = tiers[i + 1];
+            }
+            Bucket bucket = tier.buckets.computeIfAbsent(tier.startOf(second), key -> new Bucket());
+            bucket.total.add(amount);
+            bucket.byVehicleType[vehicleType.ordinal()].add(amount);
+            bucket.byPaymentMethod[method.ordinal()].add(amount);
+        } finally {
+            rollupLock.readLock().unlock();
+        }
+        long start = tiers[0].startOf(second);
+        if (newest.getAndAccumulate(start, Math::max) < start && rollupDue(start)) {
+            rollUp();
+        }
+    }
+
+    public double total(LocalDateTime startDate, LocalDateTime endDate) {
+        double sum = 0;
+        for (Bucket bucket : range(startDate, endDate)) {
+            sum += bucket.total.sum();
+        }
+        return sum;
+    }
+
+    public Map<VehicleType, Double> byVehicleType(LocalDateTime startDate, LocalDateTime endDate) {
+        double[] sums = new double[VEHICLE_TYPES.length];
+        for (Bucket bucket : range(startDate, endDate)) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += bucket.byVehicleType[i].sum();
+            }
+        }
+        Map<VehicleType, Double> result = new EnumMap<>(VehicleType.class);
+        for (VehicleType type : VEHICLE_TYPES) {
+            result.put(type, sums[type.ordinal()]);
+        }
+        return result;
+    }
+
+    public Map<PaymentMethod, Double> byPaymentMethod(LocalDateTime startDate, LocalDateTime endDate) {
+        double[] sums = new double[PAYMENT_METHODS.length];
+        for (Bucket bucket : range(startDate, endDate)) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += bucket.byPaymentMethod[i].sum();
+            }
+        }
+        Map<PaymentMethod, Double> result = new EnumMap<>(PaymentMethod.class);
+        for (PaymentMethod method : PAYMENT_METHODS) {
+            result.put(method, sums[method.ordinal()]);
+        }
+        return result;
+    }
+
+    // Buckets held across all tiers
+    public int getBucketCount() {
+        rollupLock.readLock().lock();
+        try {
+            int count = 0;
+            for (Tier tier : tiers) {
+                count += tier.buckets.size();
+            }
+            return count;
+        } finally {
+            rollupLock.readLock().unlock();
+        }
+    }
+
+    // Collected under the read lock so a concurrent rollup cannot count a bucket twice or not at all
+    private List<Bucket> range(LocalDateTime startDate, LocalDateTime endDate) {
+        long from = startDate.toEpochSecond(ZoneOffset.UTC);
+        long to = endDate.toEpochSecond(ZoneOffset.UTC);
+        if (to < from) {
+            return List.of();
+        }
+        List<Bucket> inRange = new ArrayList<>();
+        rollupLock.readLock().lock();
+        try {
+            for (Tier tier : tiers) {
+                inRange.addAll(tier.buckets.subMap(tier.startOf(from), true, tier.startOf(to), true).values());
+            }
+        } finally {
+            rollupLock.readLock().unlock();
+        }
+        return inRange;
+    }
+
+    // True once the finest tier holds a whole next-tier bucket that has aged out
+    private boolean rollupDue(long newestStart) {
+        for (int i = 0; i < tiers.length - 1; i++) {
+            if (horizonFor(i, newestStart) > tiers[i].horizon) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Aligned to the next tier's buckets, so each of those receives only whole rolled-up buckets
+    private long horizonFor(int tier, long newestStart) {
+        return tiers[tier + 1].startOf(newestStart - tiers[tier].retentionSeconds);
+    }
+
+    private void rollUp() {
+        rollupLock.writeLock().lock();
+        try {
+            long newestStart = newest.get();
+            for (int i = 0; i < tiers.length - 1; i++) {
+                long horizon = horizonFor(i, newestStart);
+                if (horizon <= tiers[i].horizon) {
+                    continue;
+                }
+                Tier next = tiers[i + 1];
+                Iterator<Map.Entry<Long, Bucket>> aged = tiers[i].buckets.headMap(horizon).entrySet().iterator();
+                while (aged.hasNext()) {
+                    Map.Entry<Long, Bucket> entry = aged.next();
+                    next.buckets.computeIfAbsent(next.startOf(entry.getKey()), key -> new Bucket()).addAll(entry.getValue());
+                    aged.remove();
+                }
+                tiers[i].horizon = horizon;
+            }
+        } finally {
+            rollupLock.writeLock().unlock();
+        }
+    }
+
+    private static final class Tier {
+        private final long seconds;
+        private final long retentionSeconds;
+        // Keyed by bucket start in epoch seconds (UTC)
+        private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+        // Buckets starting before this have been rolled into the next tier; written under the write lock
+        private volatile long horizon = Long.MIN_VALUE;
+
+        private Tier(long seconds, long retentionSeconds) {
+            this.seconds = seconds;
+            this.retentionSeconds = retentionSeconds;
+        }
+
+        private long startOf(long second) {
+            return Math.floorDiv(second, seconds) * seconds;
+        }
+    }
+
+    private static final class Bucket {
+        private final DoubleAdder total = new DoubleAdder();
+        private final DoubleAdder[] byVehicleType = newAdders(VEHICLE_TYPES.length);
+        private final DoubleAdder[] byPaymentMethod = newAdders(PAYMENT_METHODS.length);
+
+        private void addAll(Bucket other) {
+            total.add(other.total.sum());
+            for (int i = 0; i < byVehicleType.length; i++) {
+                byVehicleType[i].add(other.byVehicleType[i].sum());
+            }
+            for (int i = 0; i < byPaymentMethod.length; i++) {
+                byPaymentMethod[i].add(other.byPaymentMethod[i].sum());
+            }
+        }
+
+        private static DoubleAdder[] newAdders(int size) {
+            DoubleAdder[] adders = new DoubleAdder[size];
+            for (int i = 0; i < size; i++) {
+                adders[i] = new DoubleAdder();
+            }
+            return adders;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ankitdevcode.example.parkinglot.persistence;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.reservation.ReservationStatus;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.LocalDateTime;
+
+public sealed interface JournalEvent {
+
+    String SEPARATOR = "\t";
+
+    String encode();
+
+    record Parked(String ticketId, String licensePlate, VehicleType vehicleType, String color,
+                  int floor, String spotId, LocalDateTime entryTime) implements JournalEvent {
+        @Override
+        public String encode() {
+            return String.join(SEPARATOR, "PARK", ticketId, licensePlate, vehicleType.name(), color,
+                    String.valueOf(floor), spotId, entryTime.toString());
+        }
+    }
+
+    record PaymentSettled(String ticketId, String paymentId, double amount, PaymentMethod method,
+                          boolean successful) implements JournalEvent {
+        @Override
+        public String encode() {
+            return String.join(SEPARATOR, "PAYMENT", ticketId, paymentId, String.valueOf(amount),
+                    method.name(), String.valueOf(successful));
+        }
+    }
+
+    record Unparked(String ticketId, LocalDateTime exitTime) implements JournalEvent {
+        @Override
+        public String encode() {
+            return String.join(SEPARATOR, "UNPARK", ticketId, exitTime.toString());
+        }
+    }
+
+    // A held spot; replayed until the matching ReservationEnded
+    record Reserved(String reservationId, String licensePlate, VehicleType vehicleType, int floor, String spotId,
+                    LocalDateTime createdAt, LocalDateTime expiresAt) implements JournalEvent {
+        @Override
+        public String encode() {
+            return String.join(SEPARATOR, "RESERVE", reservationId, licensePlate, vehicleType.name(),
+                    String.valueOf(floor), spotId, createdAt.toString(), expiresAt.toString());
+        }
+    }
+
+    // Fulfilled, cancelled or expired; a fulfilled hold is followed by the Parked event of its ticket
+    record ReservationEnded(String reservationId, ReservationStatus status) implements JournalEvent {
+        @Override
+        public String encode() {
+            return String.join(SEPARATOR, "RESERVE_END", reservationId, status.name());
+        }
+    }
+
+    static JournalEvent decode(String line) {
+        String[] f = line.split(SEPARATOR);
+        return switch (f[0]) {
+            case "PARK" -> new Parked(f[1], f[2], VehicleType.valueOf(f[3]), f[4],
+                    Integer.parseInt(f[5]), f[6], LocalDateTime.parse(f[7]));
+            case "PAYMENT" -> new PaymentSettled(f[1], f[2], Double.parseDouble(f[3]),
+                    PaymentMethod.valueOf(f[4]), Boolean.parseBoolean(f[5]));
+            case "UNPARK" -> new Unparked(f[1], LocalDateTime.parse(f[2]));
+            case "RESERVE" -> new Reserved(f[1], f[2], VehicleType.valueOf(f[3]), Integer.parseInt(f[4]), f[5],
+                    LocalDateTime.parse(f[6]), LocalDateTime.parse(f[7]));
+            case "RESERVE_END" -> new ReservationEnded(f[1], ReservationStatus.valueOf(f[2]));
+            default -> throw new IllegalArgumentException("Unknown journal event: " + line);
+        };
+    }
+}
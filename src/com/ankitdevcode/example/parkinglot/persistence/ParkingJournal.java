@@ -0,0 +1,222 @@
+package com.ankitdevcode.example.parkinglot.persistence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Write-ahead journal of parking events with group commit.
+// Gate threads only enqueue; a single writer thread drains whatever has queued up,
+// writes it as one batch and fsyncs once per batch. The journal is split into
+// segments named after their first sequence number so that segments fully
+// covered by a snapshot can be deleted.
+public class ParkingJournal implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_BATCH = 1024;
+
+    private final Path directory;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile long lastWrittenSequence;
+    private FileOutputStream segmentStream;
+    private BufferedWriter segmentWriter;
+
+    // A pending entry with a null event is a request to roll over to a new segment
+    private record Pending(JournalEvent event, CompletableFuture<Long> written) {
+    }
+
+    public record Entry(long sequence, JournalEvent event) {
+    }
+
+    public ParkingJournal(Path directory, long lastSequence) {
+        this.directory = directory;
+        this.lastWrittenSequence = lastSequence;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+        this.writerThread = new Thread(this::runWriter, "parking-journal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    // Completes with the assigned sequence number once the event is durable
+    public CompletableFuture<Long> append(JournalEvent event) {
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        if (!running) {
+            written.completeExceptionally(new IllegalStateException("Journal is closed"));
+            return written;
+        }
+        queue.add(new Pending(event, written));
+        return written;
+    }
+
+    public long getLastWrittenSequence() {
+        return lastWrittenSequence;
+    }
+
+    // Rolls to a new segment and deletes segments whose entries are all <= sequence
+    public CompletableFuture<Void> compact(long sequence) {
+        CompletableFuture<Long> rolled = new CompletableFuture<>();
+        queue.add(new Pending(null, rolled));
+        return rolled.thenRun(() -> deleteSegmentsUpTo(sequence));
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+        closeSegment();
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        long sequence = lastWrittenSequence;
+        long[] assigned = new long[batch.size()];
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Pending pending = batch.get(i);
+                if (pending.event() == null) {
+                    closeSegment();
+                    assigned[i] = sequence;
+                    continue;
+                }
+                if (segmentWriter == null) {
+                    openSegment(sequence + 1);
+                }
+                sequence++;
+                segmentWriter.write(sequence + JournalEvent.SEPARATOR + pending.event().encode());
+                segmentWriter.newLine();
+                assigned[i] = sequence;
+            }
+            if (segmentWriter != null) {
+                segmentWriter.flush();
+                segmentStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Journal write failed", e);
+            batch.forEach(pending -> pending.written().completeExceptionally(failure));
+            return;
+        }
+        lastWrittenSequence = sequence;
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).written().complete(assigned[i]);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        segmentStream = new FileOutputStream(segment.toFile(), true);
+        segmentWriter = new BufferedWriter(new OutputStreamWriter(segmentStream, StandardCharsets.UTF_8));
+    }
+
+    private void closeSegment() {
+        if (segmentWriter == null) {
+            return;
+        }
+        try {
+            segmentWriter.flush();
+            segmentStream.getFD().sync();
+            segmentWriter.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close journal segment", e);
+        } finally {
+            segmentWriter = null;
+            segmentStream = null;
+        }
+    }
+
+    private void deleteSegmentsUpTo(long sequence) {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            // A segment ends right before the next one starts
+            if (firstSequenceOf(segments.get(i + 1)) - 1 <= sequence) {
+                try {
+                    Files.deleteIfExists(segments.get(i));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete journal segment " + segments.get(i), e);
+                }
+            }
+        }
+    }
+
+    public static List<Entry> readAll(Path directory) {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : listSegments(directory)) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int split = line.indexOf(JournalEvent.SEPARATOR);
+                    if (split < 0) {
+                        break; // torn write at the tail of the last batch
+                    }
+                    try {
+                        entries.add(new Entry(Long.parseLong(line.substring(0, split)),
+                                JournalEvent.decode(line.substring(split + 1))));
+                    } catch (RuntimeException e) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal segment " + segment, e);
+            }
+        }
+        return entries;
+    }
+
+    private static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list journal directory " + directory, e);
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
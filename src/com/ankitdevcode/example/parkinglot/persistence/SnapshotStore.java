@@ -0,0 +1,93 @@
+package com.ankitdevcode.example.parkinglot.persistence;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Compact snapshot of the active tickets and held reservations, tagged with the last journal sequence it covers.
+// Written to a temp file, fsynced and atomically moved into place; the directory is fsynced
+// after the move so the new snapshot survives a crash before the journal is compacted.
+public class SnapshotStore {
+    private static final String FILE_NAME = "snapshot.dat";
+    private static final String HEADER = "SEQ";
+
+    private final Path file;
+
+    public record Snapshot(long sequence, List<JournalEvent.Parked> activeTickets,
+                           List<JournalEvent.Reserved> reservations) {
+    }
+
+    public SnapshotStore(Path directory) {
+        this.file = directory.resolve(FILE_NAME);
+    }
+
+    public void write(long sequence, Collection<JournalEvent.Parked> activeTickets,
+                      Collection<JournalEvent.Reserved> reservations) {
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                writer.write(HEADER + JournalEvent.SEPARATOR + sequence);
+                writer.newLine();
+                for (JournalEvent.Parked parked : activeTickets) {
+                    writer.write(parked.encode());
+                    writer.newLine();
+                }
+                for (JournalEvent.Reserved reserved : reservations) {
+                    writer.write(reserved.encode());
+                    writer.newLine();
+                }
+                writer.flush();
+                // The contents must be durable before the rename can expose them
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // And the rename itself must be durable before the journal it replaces is compacted
+            try (FileChannel directory = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + file, e);
+        }
+    }
+
+    public Optional<Snapshot> load() {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(HEADER + JournalEvent.SEPARATOR)) {
+                throw new IllegalStateException("Corrupt snapshot header in " + file);
+            }
+            long sequence = Long.parseLong(header.substring(HEADER.length() + 1));
+            List<JournalEvent.Parked> active = new ArrayList<>();
+            List<JournalEvent.Reserved> reservations = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JournalEvent event = JournalEvent.decode(line);
+                if (event instanceof JournalEvent.Reserved reserved) {
+                    reservations.add(reserved);
+                } else {
+                    active.add((JournalEvent.Parked) event);
+                }
+            }
+            return Optional.of(new Snapshot(sequence, active, reservations));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + file, e);
+        }
+    }
+}
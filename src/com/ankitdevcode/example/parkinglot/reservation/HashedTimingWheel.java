@@ -0,0 +1,289 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Hashed timing wheel: timeouts hang off a ring of buckets, one bucket per tick, and a single
+// worker thread visits one bucket per tick. Scheduling and cancelling are O(1) queue offers, a
+// pending timeout costs one small node, and a tick only touches the timeouts in its bucket, so
+// hundreds of thousands of holds need no per-hold scheduled task and no scan. Deadlines further
+// out than one revolution wait in their bucket with a round count.
+// Deadlines and ticks are measured on the given clock, so under a simulated clock timeouts fall due
+// as the simulation moves it rather than as real time passes; the worker only looks at that clock
+// once per real tick. Due tasks are handed to the executor; without one they run on the worker
+// thread and must be short.
+public class HashedTimingWheel implements AutoCloseable {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong expired = new AtomicLong();
+    private final String name;
+    private final AtomicInteger state = new AtomicInteger();
+    private final Supplier<Clock> clock;
+    private final Executor executor;
+    // Only forward moves of the clock count, so a clock swapped in after construction that reads
+    // earlier (a simulation that starts in the past) does not stall the wheel
+    private final ReentrantLock clockLock = new ReentrantLock();
+    private long lastMillis;
+    private long elapsedMillis;
+    // Buckets and the tick count are only touched while holding this lock
+    private final ReentrantLock tickLock = new ReentrantLock();
+    private long tick;
+    private volatile Thread worker;
+
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize) {
+        this(name, tickDuration, wheelSize, Clock::systemUTC, Runnable::run);
+    }
+
+    // wheelSize is rounded up to a power of two
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize, Supplier<Clock> clock, Executor executor) {
+        if (tickDuration.toMillis() < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1ms and the wheel non-empty");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.name = name;
+        this.clock = clock;
+        this.executor = executor;
+        this.lastMillis = clock.get().millis();
+        this.tickMillis = tickDuration.toMillis();
+        this.wheel = new Bucket[Math.max(1, size)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+    }
+
+    // The worker thread starts with the first timeout
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task cannot be null");
+        }
+        start();
+        long deadline = elapsedMillis() + Math.max(0, delay.toMillis());
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        added.offer(timeout);
+        return timeout;
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    // Ticks count from construction; a late start skips straight past the empty buckets
+    private void start() {
+        if (state.get() == 0 && state.compareAndSet(0, 1)) {
+            Thread thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        } else if (state.get() == 2) {
+            throw new IllegalStateException("Timing wheel " + name + " is closed");
+        }
+    }
+
+    private long elapsedMillis() {
+        clockLock.lock();
+        try {
+            long now = clock.get().millis();
+            if (now > lastMillis) {
+                elapsedMillis += now - lastMillis;
+            }
+            lastMillis = now;
+            return elapsedMillis;
+        } finally {
+            clockLock.unlock();
+        }
+    }
+
+    private void run() {
+        while (state.get() == 1) {
+            long untilNextTick = advance();
+            // A clock that is not real time may jump at any moment, so look again after one real tick at most
+            LockSupport.parkNanos(this, Duration.ofMillis(Math.max(1, Math.min(tickMillis, untilNextTick))).toNanos());
+        }
+    }
+
+    // Hands every timeout that is due by the clock's current time to the executor and returns the
+    // milliseconds until the next tick. The worker calls this once per real tick; a simulation
+    // calls it right after moving its clock so that what fell due is handed over before it goes on.
+    public long advance() {
+        tickLock.lock();
+        try {
+            long elapsed = elapsedMillis();
+            removeCancelled();
+            // Nothing is waiting, so there is no bucket worth visiting on the way
+            if (pending.get() == 0 && added.isEmpty()) {
+                tick = Math.max(tick, elapsed / tickMillis);
+            }
+            while ((tick + 1) * tickMillis <= elapsed && state.get() != 2) {
+                transferAdded(tick);
+                wheel[(int) (tick & mask)].expire();
+                tick++;
+            }
+            return (tick + 1) * tickMillis - elapsed;
+        } finally {
+            tickLock.unlock();
+        }
+    }
+
+    // Moves newly scheduled timeouts into their buckets; anything already due goes in this tick's
+    private void transferAdded(long tick) {
+        // Bounded so a flood of schedules cannot stall the tick
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == CANCELLED) {
+                continue;
+            }
+            long dueTick = Math.max(tick, timeout.deadline / tickMillis);
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (state.getAndSet(2) == 1 && worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public static final class Timeout {
+        private final HashedTimingWheel wheel;
+        private final Runnable task;
+        // Milliseconds the wheel's clock has moved forward since the wheel was created
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Only touched under the tick lock
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(HashedTimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        // False if the task already ran or was cancelled
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    // Doubly linked so a cancelled timeout can be unlinked in O(1); tick lock only
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                        pending.decrementAndGet();
+                        expired.incrementAndGet();
+                        runTask(timeout);
+                    }
+                } else if (timeout.state.get() == CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+
+        private void runTask(Timeout timeout) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Timing wheel " + name + " task failed: " + e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                System.err.println("Timing wheel " + name + " task rejected: " + e.getMessage());
+            }
+        }
+    }
+}
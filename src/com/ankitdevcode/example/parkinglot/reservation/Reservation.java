@@ -0,0 +1,58 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+// A held spot. The status only ever moves out of HELD once, so an arrival racing the expiry
+// (or a cancellation) is decided by a single CAS.
+@Getter
+public class Reservation {
+    private final String reservationId;
+    private final String licensePlate;
+    private final VehicleType vehicleType;
+    private final ParkingSpot spot;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime expiresAt;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<ReservationStatus> status = new AtomicReference<>(ReservationStatus.HELD);
+    @Getter(AccessLevel.NONE)
+    private volatile HashedTimingWheel.Timeout expiry;
+
+    Reservation(String reservationId, String licensePlate, VehicleType vehicleType, ParkingSpot spot,
+                LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.reservationId = reservationId;
+        this.licensePlate = licensePlate;
+        this.vehicleType = vehicleType;
+        this.spot = spot;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public ReservationStatus getStatus() {
+        return status.get();
+    }
+
+    public boolean isHeld() {
+        return status.get() == ReservationStatus.HELD;
+    }
+
+    boolean close(ReservationStatus outcome) {
+        if (!status.compareAndSet(ReservationStatus.HELD, outcome)) {
+            return false;
+        }
+        HashedTimingWheel.Timeout pending = expiry;
+        if (pending != null && outcome != ReservationStatus.EXPIRED) {
+            pending.cancel();
+        }
+        return true;
+    }
+
+    void setExpiry(HashedTimingWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+}
@@ -0,0 +1,180 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.ticket.PlateIndex;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Pre-booked spots. The spot is claimed by the owning lot, through the same allocation strategy
+// and buffer as a park, as RESERVED and counted as taken; the hold is released when it is cancelled
+// or its expiry falls due on the timing wheel. An arriving vehicle turns the hold into an ordinary
+// occupied spot. Expiries run on their own executor, not on the wheel, since releasing a spot
+// admits waiting vehicles and journals the change.
+public class ReservationManager implements AutoCloseable {
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+    // At one-second ticks a revolution covers about 68 minutes
+    public static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final Function<VehicleType, ParkingSpot> holds;
+    private final List<ParkingFloor> floors;
+    private final AvailabilityCounters availability;
+    private final Supplier<String> reservationIds;
+    // The lot's clock, so hold times line up with ticket times (also under a simulated clock)
+    private final Supplier<Clock> clock;
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ExecutorService ownExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Executor expiryExecutor = ownExecutor;
+    private final HashedTimingWheel expiryWheel;
+    private volatile Consumer<Reservation> releaseListener = reservation -> { };
+
+    // holds claims a spot of the vehicle type as RESERVED and takes it off the lot's free count, or returns null
+    public ReservationManager(Function<VehicleType, ParkingSpot> holds, List<ParkingFloor> floors,
+                              AvailabilityCounters availability, Supplier<String> reservationIds, Supplier<Clock> clock) {
+        this(holds, floors, availability, reservationIds, clock, DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    public ReservationManager(Function<VehicleType, ParkingSpot> holds, List<ParkingFloor> floors,
+                              AvailabilityCounters availability, Supplier<String> reservationIds, Supplier<Clock> clock,
+                              Duration tick, int wheelSize) {
+        this.holds = holds;
+        this.floors = floors;
+        this.availability = availability;
+        this.reservationIds = reservationIds;
+        this.clock = clock;
+        this.expiryWheel = new HashedTimingWheel("reservation-expiry", tick, wheelSize, clock,
+                task -> expiryExecutor.execute(task));
+    }
+
+    // Called with the reservation after its held spot goes back to the free pool
+    public void setReleaseListener(Consumer<Reservation> releaseListener) {
+        this.releaseListener = releaseListener;
+    }
+
+    // Where expired holds are released; a simulation can queue them and run them in its own order
+    public void setExpiryExecutor(Executor expiryExecutor) {
+        this.expiryExecutor = expiryExecutor;
+    }
+
+    // Holds a compatible spot for holdFor; null if nothing is free
+    public Reservation reserve(VehicleType vehicleType, String licensePlate, Duration holdFor) {
+        if (vehicleType == null) {
+            throw new IllegalArgumentException("VehicleType cannot be null");
+        }
+        if (holdFor == null || holdFor.isNegative() || holdFor.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive");
+        }
+        PlateIndex.normalize(licensePlate);
+
+        ParkingSpot spot = holds.apply(vehicleType);
+        if (spot == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now(clock.get());
+        return track(new Reservation(reservationIds.get(), licensePlate, vehicleType, spot, now, now.plus(holdFor)));
+    }
+
+    // Recovery: the spot is already held and counted; a hold that ran out while the lot was down expires at once
+    public Reservation restore(String reservationId, String licensePlate, VehicleType vehicleType, ParkingSpot spot,
+                               LocalDateTime createdAt, LocalDateTime expiresAt) {
+        return track(new Reservation(reservationId, licensePlate, vehicleType, spot, createdAt, expiresAt));
+    }
+
+    private Reservation track(Reservation reservation) {
+        reservations.put(reservation.getReservationId(), reservation);
+        Duration remaining = Duration.between(LocalDateTime.now(clock.get()), reservation.getExpiresAt());
+        reservation.setExpiry(expiryWheel.schedule(() -> expire(reservation),
+                remaining.isNegative() ? Duration.ZERO : remaining));
+        return reservation;
+    }
+
+    // Reservations that are still held; fulfilled, cancelled and expired ones are dropped
+    public Reservation getReservation(String reservationId) {
+        return reservations.get(reservationId);
+    }
+
+    public Collection<Reservation> getHeld() {
+        return Collections.unmodifiableCollection(reservations.values());
+    }
+
+    public boolean cancel(String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.close(ReservationStatus.CANCELLED)) {
+            return false;
+        }
+        release(reservation);
+        return true;
+    }
+
+    // Parks the vehicle in its held spot and returns the spot
+    public ParkingSpot fulfill(String reservationId, Vehicle vehicle) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null) {
+            throw new IllegalStateException("No held reservation " + reservationId);
+        }
+        if (vehicle.getType() != reservation.getVehicleType()
+                || !PlateIndex.normalize(vehicle.getLicensePlate()).equals(PlateIndex.normalize(reservation.getLicensePlate()))) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " is for "
+                    + reservation.getVehicleType() + " " + reservation.getLicensePlate());
+        }
+        if (!reservation.close(ReservationStatus.FULFILLED)) {
+            throw new IllegalStateException("Reservation " + reservationId + " is " + reservation.getStatus());
+        }
+        reservations.remove(reservationId);
+
+        ParkingSpot spot = reservation.getSpot();
+        if (!floors.get(spot.getFloor()).occupyReservedSpot(spot, vehicle)) {
+            // Compatibility changed since the booking; give the spot back rather than strand it
+            release(reservation);
+            throw new IllegalStateException("Vehicle " + vehicle.getLicensePlate() + " no longer fits spot " + spot.getSpotId());
+        }
+        return spot;
+    }
+
+    // Releases the holds that have run out by the lot clock's current time. Normally the wheel does
+    // this on its own; a simulation calls it after moving its clock.
+    public void expireDue() {
+        expiryWheel.advance();
+    }
+
+    public int getHeldCount() {
+        return reservations.size();
+    }
+
+    private void expire(Reservation reservation) {
+        if (reservation.close(ReservationStatus.EXPIRED)) {
+            release(reservation);
+        }
+    }
+
+    private void release(Reservation reservation) {
+        reservations.remove(reservation.getReservationId());
+        ParkingSpot spot = reservation.getSpot();
+        if (floors.get(spot.getFloor()).releaseReservation(spot)) {
+            availability.increment(spot.getType());
+            releaseListener.accept(reservation);
+        }
+    }
+
+    @Override
+    public void close() {
+        expiryWheel.close();
+        ownExecutor.close();
+    }
+}
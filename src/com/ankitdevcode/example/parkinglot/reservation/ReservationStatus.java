@@ -0,0 +1,5 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+public enum ReservationStatus {
+    HELD, FULFILLED, CANCELLED, EXPIRED
+}
@@ -0,0 +1,92 @@
+package com.ankitdevcode.example.parkinglot.spot;
+
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Which spot types each vehicle type may use, in order of preference. Instances are immutable
+// and indexed by enum ordinals; each lot holds its own and reconfiguring swaps in a new one for
+// that lot only, so lookups never lock or allocate.
+public final class CompatibilityMatrix {
+    private static final VehicleType[] VEHICLE_TYPES = VehicleType.values();
+
+    private final boolean[][] allowed;
+    private final List<List<ParkingSpotType>> preferences;
+
+    private CompatibilityMatrix(List<List<ParkingSpotType>> preferences) {
+        this.preferences = List.copyOf(preferences);
+        this.allowed = new boolean[VEHICLE_TYPES.length][ParkingSpotType.values().length];
+        for (VehicleType vehicleType : VEHICLE_TYPES) {
+            for (ParkingSpotType spotType : preferences.get(vehicleType.ordinal())) {
+                allowed[vehicleType.ordinal()][spotType.ordinal()] = true;
+            }
+        }
+    }
+
+    public static CompatibilityMatrix defaults() {
+        return new Builder()
+                .allow(VehicleType.MOTORCYCLE, ParkingSpotType.MOTORCYCLE, ParkingSpotType.COMPACT, ParkingSpotType.LARGE)
+                .allow(VehicleType.COMPACT, ParkingSpotType.COMPACT, ParkingSpotType.LARGE)
+                .allow(VehicleType.LARGE, ParkingSpotType.LARGE)
+                .allow(VehicleType.ELECTRIC, ParkingSpotType.ELECTRIC, ParkingSpotType.COMPACT, ParkingSpotType.LARGE)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean canFit(VehicleType vehicleType, ParkingSpotType spotType) {
+        return allowed[vehicleType.ordinal()][spotType.ordinal()];
+    }
+
+    // Immutable; callers should iterate by index on hot paths
+    public List<ParkingSpotType> preferences(VehicleType vehicleType) {
+        return preferences.get(vehicleType.ordinal());
+    }
+
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        for (VehicleType vehicleType : VEHICLE_TYPES) {
+            builder.allow(vehicleType, preferences(vehicleType).toArray(new ParkingSpotType[0]));
+        }
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CompatibilityMatrix{");
+        for (VehicleType vehicleType : VEHICLE_TYPES) {
+            if (vehicleType.ordinal() > 0) {
+                sb.append(", ");
+            }
+            sb.append(vehicleType).append('=').append(preferences(vehicleType));
+        }
+        return sb.append('}').toString();
+    }
+
+    public static final class Builder {
+        private final List<List<ParkingSpotType>> preferences = new ArrayList<>();
+
+        private Builder() {
+            for (int i = 0; i < VEHICLE_TYPES.length; i++) {
+                preferences.add(List.of());
+            }
+        }
+
+        // Replaces the allowed spot types for the vehicle type; earlier types are tried first
+        public Builder allow(VehicleType vehicleType, ParkingSpotType... spotTypes) {
+            if (Arrays.stream(spotTypes).distinct().count() != spotTypes.length) {
+                throw new IllegalArgumentException("Duplicate spot type in " + Arrays.toString(spotTypes));
+            }
+            preferences.set(vehicleType.ordinal(), List.of(spotTypes));
+            return this;
+        }
+
+        public CompatibilityMatrix build() {
+            return new CompatibilityMatrix(preferences);
+        }
+    }
+}
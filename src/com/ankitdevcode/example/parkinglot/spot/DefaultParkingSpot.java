@@ -0,0 +1,84 @@
+package com.ankitdevcode.example.parkinglot.spot;
+
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+@Getter
+public class DefaultParkingSpot implements ParkingSpot {
+    private final String spotId;
+    private final ParkingSpotType type;
+    private final int floor;
+    private final int row;
+    private final int number;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<ParkingSpotStatus> status;
+    private volatile Vehicle parkedVehicle;
+
+    public DefaultParkingSpot(String spotId, ParkingSpotType type, int floor, int row, int number) {
+        this.spotId = spotId;
+        this.type = type;
+        this.floor = floor;
+        this.row = row;
+        this.number = number;
+        this.status = new AtomicReference<>(ParkingSpotStatus.AVAILABLE);
+    }
+
+    @Override
+    public ParkingSpotStatus getStatus() {
+        return status.get();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return status.get() == ParkingSpotStatus.AVAILABLE;
+    }
+
+    // CAS claim: only one caller can move the spot out of AVAILABLE
+    @Override
+    public boolean parkVehicle(Vehicle vehicle) {
+        if (!status.compareAndSet(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.OCCUPIED)) {
+            return false;
+        }
+        this.parkedVehicle = vehicle;
+        return true;
+    }
+
+    @Override
+    public Vehicle removeVehicle() {
+        if (status.get() != ParkingSpotStatus.OCCUPIED) {
+            return null;
+        }
+        // Clear the vehicle before publishing AVAILABLE so a new claimant is never overwritten
+        Vehicle vehicle = this.parkedVehicle;
+        this.parkedVehicle = null;
+        status.compareAndSet(ParkingSpotStatus.OCCUPIED, ParkingSpotStatus.AVAILABLE);
+        return vehicle;
+    }
+
+    @Override
+    public boolean tryReserve() {
+        return status.compareAndSet(ParkingSpotStatus.AVAILABLE, ParkingSpotStatus.RESERVED);
+    }
+
+    @Override
+    public boolean releaseReservation() {
+        return status.compareAndSet(ParkingSpotStatus.RESERVED, ParkingSpotStatus.AVAILABLE);
+    }
+
+    @Override
+    public boolean parkReservedVehicle(Vehicle vehicle) {
+        if (!status.compareAndSet(ParkingSpotStatus.RESERVED, ParkingSpotStatus.OCCUPIED)) {
+            return false;
+        }
+        this.parkedVehicle = vehicle;
+        return true;
+    }
+
+    @Override
+    public void setStatus(ParkingSpotStatus status) {
+        this.status.set(status);
+    }
+}
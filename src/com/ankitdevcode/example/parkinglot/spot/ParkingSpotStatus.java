@@ -1,5 +1,5 @@
 package com.ankitdevcode.example.parkinglot.spot;
 
-enum ParkingSpotStatus {
+public enum ParkingSpotStatus {
     AVAILABLE, OCCUPIED, RESERVED, OUT_OF_ORDER
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.ankitdevcode.example.parkinglot.spot;
+
+import java.util.Comparator;
+
+// Order in which a floor hands out its free spots of one type. Compares raw layout positions,
+// so array-backed floors can order their free index without creating spot objects.
+@FunctionalInterface
+public interface SpotOrdering {
+
+    int compare(int rowA, int numberA, int rowB, int numberB);
+
+    default Comparator<ParkingSpot> toComparator() {
+        return (a, b) -> compare(a.getRow(), a.getNumber(), b.getRow(), b.getNumber());
+    }
+}
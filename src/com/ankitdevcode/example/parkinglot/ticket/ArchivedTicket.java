@@ -0,0 +1,106 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public record ArchivedTicket(String ticketId, String licensePlate, int floor, String spotId,
+                             LocalDateTime entryTime, LocalDateTime exitTime,
+                             String paymentId, double amount, PaymentMethod paymentMethod) {
+
+    private static final char SEPARATOR = '\t';
+    private static final char ESCAPE = '\\';
+
+    public static ArchivedTicket of(ParkingTicket ticket) {
+        return new ArchivedTicket(
+                ticket.getTicketId(),
+                ticket.getLicensePlate(),
+                ticket.getAssignedSpot().getFloor(),
+                ticket.getAssignedSpot().getSpotId(),
+                ticket.getEntryTime(),
+                ticket.getExitTime(),
+                ticket.getPayment().getPaymentId(),
+                ticket.getPayment().getAmount(),
+                ticket.getPayment().getMethod()
+        );
+    }
+
+    // Tab-separated; tabs, line breaks and backslashes inside a field are backslash-escaped so a
+    // plate or ID typed with any of them cannot split or shift the line
+    public String toLine() {
+        StringBuilder line = new StringBuilder(128);
+        appendField(line, ticketId);
+        appendField(line, licensePlate);
+        appendField(line, String.valueOf(floor));
+        appendField(line, spotId);
+        appendField(line, entryTime.toString());
+        appendField(line, exitTime.toString());
+        appendField(line, paymentId);
+        appendField(line, String.valueOf(amount));
+        appendField(line, paymentMethod.name());
+        return line.substring(0, line.length() - 1);
+    }
+
+    public static ArchivedTicket fromLine(String line) {
+        List<String> fields = split(line);
+        if (fields.size() != 9) {
+            throw new IllegalArgumentException("Malformed archive line: " + line);
+        }
+        return new ArchivedTicket(
+                fields.get(0),
+                fields.get(1),
+                Integer.parseInt(fields.get(2)),
+                fields.get(3),
+                LocalDateTime.parse(fields.get(4)),
+                LocalDateTime.parse(fields.get(5)),
+                fields.get(6),
+                Double.parseDouble(fields.get(7)),
+                PaymentMethod.valueOf(fields.get(8))
+        );
+    }
+
+    private static void appendField(StringBuilder line, String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            switch (c) {
+                case SEPARATOR -> line.append(ESCAPE).append('t');
+                case '\n' -> line.append(ESCAPE).append('n');
+                case '\r' -> line.append(ESCAPE).append('r');
+                case ESCAPE -> line.append(ESCAPE).append(ESCAPE);
+                default -> line.append(c);
+            }
+        }
+        line.append(SEPARATOR);
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(9);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == ESCAPE && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                field.append(switch (escaped) {
+                    case 't' -> SEPARATOR;
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                });
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // The ticket ID as written at the start of an archive line
+    static String unescapeField(String field) {
+        return split(field).get(0);
+    }
+}
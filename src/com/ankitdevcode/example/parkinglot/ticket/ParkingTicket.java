@@ -1,31 +1,82 @@
 package com.ankitdevcode.example.parkinglot.ticket;
 
+import com.ankitdevcode.example.parkinglot.id.SnowflakeIdGenerator;
 import com.ankitdevcode.example.parkinglot.payment.Payment;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Getter
 public class ParkingTicket {
-    private final String ticketId;
+    public static final String ID_PREFIX = "TKT";
+
+    // Snowflake ID; lots key and compare tickets by it
+    private final long id;
+    // The external form, encoded the first time a caller asks for it
+    @Getter(AccessLevel.NONE)
+    private volatile String ticketId;
     private final String licensePlate;
     private final ParkingSpot assignedSpot;
     private final LocalDateTime entryTime;
     private LocalDateTime exitTime;
     private Payment payment;
-    private boolean isActive;
+    private volatile boolean isActive;
+    // Held from the start of an exit until it completes or its payment fails
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean exitReserved = new AtomicBoolean();
 
-    public ParkingTicket(String ticketId, String licensePlate, ParkingSpot spot) {
-        this.ticketId = ticketId;
+    public ParkingTicket(long id, String licensePlate, ParkingSpot spot, LocalDateTime entryTime) {
+        this.id = id;
         this.licensePlate = licensePlate;
         this.assignedSpot = spot;
-        this.entryTime = LocalDateTime.now();
+        this.entryTime = entryTime;
         this.isActive = true;
     }
 
-    public void completeParking(Payment payment) {
-        this.exitTime = LocalDateTime.now();
+    // Rebuilds a completed ticket, e.g. from the archive
+    public ParkingTicket(long id, String licensePlate, ParkingSpot spot,
+                         LocalDateTime entryTime, LocalDateTime exitTime, Payment payment) {
+        this.id = id;
+        this.licensePlate = licensePlate;
+        this.assignedSpot = spot;
+        this.entryTime = entryTime;
+        this.exitTime = exitTime;
+        this.payment = payment;
+        this.isActive = false;
+    }
+
+    public String getTicketId() {
+        String encoded = ticketId;
+        if (encoded == null) {
+            encoded = SnowflakeIdGenerator.format(ID_PREFIX, id);
+            ticketId = encoded;
+        }
+        return encoded;
+    }
+
+    // Throws IllegalArgumentException for a string that is not a ticket ID
+    public static long parseId(String ticketId) {
+        return SnowflakeIdGenerator.parse(ID_PREFIX, ticketId);
+    }
+
+    // Only one exit attempt can hold the reservation at a time
+    public boolean tryReserveExit() {
+        return isActive && exitReserved.compareAndSet(false, true);
+    }
+
+    public void releaseExit() {
+        exitReserved.set(false);
+    }
+
+    public boolean isExitPending() {
+        return isActive && exitReserved.get();
+    }
+
+    public void completeParking(Payment payment, LocalDateTime exitTime) {
+        this.exitTime = exitTime;
         this.payment = payment;
         this.isActive = false;
     }
@@ -0,0 +1,133 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Active tickets by license plate. A plate is reserved before its vehicle claims a spot and stays
+// reserved until the exit is paid, so the same vehicle cannot be inside twice. Exact lookups are a
+// single map read; partial and misread plates from cameras go through a trie of the normalized
+// plates. Parks and exits hold the trie lock only for the few node steps of an insert or removal.
+public class PlateIndex {
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final PlateTrie trie = new PlateTrie();
+    private final ReentrantLock trieLock = new ReentrantLock();
+
+    // Upper case, letters and digits only: "ka-01 ab 1234" and "KA01AB1234" are the same plate
+    public static String normalize(String plate) {
+        return normalize(plate, false);
+    }
+
+    // False if the plate is already parked or being parked
+    public boolean reserve(String plate) {
+        return slots.putIfAbsent(normalize(plate), new Slot()) == null;
+    }
+
+    // Drops a reservation that never got a ticket, e.g. because the lot was full
+    public void cancel(String plate) {
+        slots.computeIfPresent(normalize(plate), (key, slot) -> slot.ticket == null ? null : slot);
+    }
+
+    public void bind(ParkingTicket ticket) {
+        String plate = normalize(ticket.getLicensePlate());
+        // Map and trie change under the trie lock so a quick re-entry cannot be unindexed by the old exit
+        ParkingMetrics.lock(trieLock, "plate.index.lock");
+        try {
+            slots.computeIfAbsent(plate, key -> new Slot()).ticket = ticket;
+            trie.insert(plate);
+        } finally {
+            trieLock.unlock();
+        }
+    }
+
+    // Only removes the entry if it still belongs to this ticket
+    public void remove(ParkingTicket ticket) {
+        String plate = normalize(ticket.getLicensePlate());
+        ParkingMetrics.lock(trieLock, "plate.index.lock");
+        try {
+            Slot slot = slots.get(plate);
+            if (slot != null && slot.ticket == ticket && slots.remove(plate, slot)) {
+                trie.remove(plate);
+            }
+        } finally {
+            trieLock.unlock();
+        }
+    }
+
+    public ParkingTicket find(String plate) {
+        Slot slot = slots.get(normalize(plate));
+        return slot != null ? slot.ticket : null;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Active tickets whose plate starts with the prefix
+    public List<ParkingTicket> searchPrefix(String prefix, int limit) {
+        List<String> plates = new ArrayList<>();
+        ParkingMetrics.lock(trieLock, "plate.index.lock");
+        try {
+            trie.collectPrefix(normalize(prefix), limit, plates);
+        } finally {
+            trieLock.unlock();
+        }
+        return toTickets(plates);
+    }
+
+    // Active tickets whose plate has the pattern's length and differs in at most maxMismatches
+    // positions. '?' matches any character, and characters cameras commonly confuse
+    // (0/O/D/Q, 1/I/L, 2/Z, 5/S, 6/G, 8/B) match each other without counting as a mismatch.
+    public List<ParkingTicket> search(String pattern, int maxMismatches, int limit) {
+        if (maxMismatches < 0) {
+            throw new IllegalArgumentException("Mismatches cannot be negative");
+        }
+        String normalized = normalize(pattern, true);
+        List<String> plates = new ArrayList<>();
+        ParkingMetrics.lock(trieLock, "plate.index.lock");
+        try {
+            trie.collectSimilar(normalized, maxMismatches, limit, plates);
+        } finally {
+            trieLock.unlock();
+        }
+        return toTickets(plates);
+    }
+
+    private List<ParkingTicket> toTickets(List<String> plates) {
+        List<ParkingTicket> tickets = new ArrayList<>(plates.size());
+        for (String plate : plates) {
+            Slot slot = slots.get(plate);
+            ParkingTicket ticket = slot != null ? slot.ticket : null;
+            if (ticket != null) {
+                tickets.add(ticket);
+            }
+        }
+        return tickets;
+    }
+
+    private static String normalize(String plate, boolean wildcards) {
+        if (plate == null) {
+            throw new IllegalArgumentException("License plate cannot be null");
+        }
+        StringBuilder normalized = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = Character.toUpperCase(plate.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || (wildcards && c == PlateTrie.WILDCARD)) {
+                normalized.append(c);
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Invalid license plate: " + plate);
+        }
+        return normalized.toString();
+    }
+
+    private static final class Slot {
+        // Null while the vehicle is still being placed
+        private volatile ParkingTicket ticket;
+    }
+}
@@ -0,0 +1,159 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Set of normalized plates for partial and approximate matching. Each node keeps its children in
+// small parallel arrays sized to the characters actually seen, instead of a 36-slot table, so
+// a lot's worth of plates sharing state and district prefixes stays compact. Not thread-safe;
+// PlateIndex guards it.
+final class PlateTrie {
+    static final char WILDCARD = '?';
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    // Characters cameras confuse map to the same glyph class
+    private static final char[] GLYPH_CLASS = new char[128];
+
+    static {
+        for (char c = 0; c < GLYPH_CLASS.length; c++) {
+            GLYPH_CLASS[c] = c;
+        }
+        for (char c : "ODQ".toCharArray()) {
+            GLYPH_CLASS[c] = '0';
+        }
+        for (char c : "IL".toCharArray()) {
+            GLYPH_CLASS[c] = '1';
+        }
+        GLYPH_CLASS['Z'] = '2';
+        GLYPH_CLASS['S'] = '5';
+        GLYPH_CLASS['G'] = '6';
+        GLYPH_CLASS['B'] = '8';
+    }
+
+    private final Node root = new Node();
+
+    void insert(String plate) {
+        Node node = root;
+        for (int i = 0; i < plate.length(); i++) {
+            node = node.childOrCreate(plate.charAt(i));
+        }
+        node.plate = plate;
+    }
+
+    void remove(String plate) {
+        Node[] path = new Node[plate.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < plate.length(); i++) {
+            path[i + 1] = path[i].child(plate.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        path[plate.length()].plate = null;
+        // Prune the branch back up to the last node still in use
+        for (int i = plate.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(plate.charAt(i - 1));
+        }
+    }
+
+    void collectPrefix(String prefix, int limit, List<String> out) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node != null) {
+            collectAll(node, limit, out);
+        }
+    }
+
+    void collectSimilar(String pattern, int maxMismatches, int limit, List<String> out) {
+        collectSimilar(root, pattern, 0, maxMismatches, limit, out);
+    }
+
+    private static void collectSimilar(Node node, String pattern, int depth, int budget, int limit, List<String> out) {
+        if (out.size() >= limit) {
+            return;
+        }
+        if (depth == pattern.length()) {
+            if (node.plate != null) {
+                out.add(node.plate);
+            }
+            return;
+        }
+        char wanted = pattern.charAt(depth);
+        for (int i = 0; i < node.size; i++) {
+            int cost = matches(wanted, node.keys[i]) ? 0 : 1;
+            if (cost <= budget) {
+                collectSimilar(node.children[i], pattern, depth + 1, budget - cost, limit, out);
+            }
+        }
+    }
+
+    private static boolean matches(char wanted, char actual) {
+        return wanted == WILDCARD || GLYPH_CLASS[wanted] == GLYPH_CLASS[actual];
+    }
+
+    private static void collectAll(Node node, int limit, List<String> out) {
+        if (out.size() >= limit) {
+            return;
+        }
+        if (node.plate != null) {
+            out.add(node.plate);
+        }
+        for (int i = 0; i < node.size; i++) {
+            collectAll(node.children[i], limit, out);
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        // Set on the node that ends a plate
+        private String plate;
+
+        Node child(char key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char key) {
+            Node child = child(key);
+            if (child != null) {
+                return child;
+            }
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            child = new Node();
+            keys[size] = key;
+            children[size] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char key) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    // Order does not matter; move the last child into the gap
+                    size--;
+                    keys[i] = keys[size];
+                    children[i] = children[size];
+                    children[size] = null;
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0 && plate == null;
+        }
+    }
+}
@@ -0,0 +1,517 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Append-only on-disk store for tickets evicted from the in-memory history.
+// The offset index lives on disk too, so the heap cost stays flat however large the archive grows.
+// Offsets of the newest tickets are held in memory until there are flushThreshold of them, then
+// written out as an index segment: (hash of ticket ID, line offset) pairs sorted by hash. Segments
+// are merged pairwise as they pile up, like a binary counter, which keeps their number logarithmic
+// in the archive size. A lookup checks the in-memory offsets, then binary-searches each segment
+// with positional reads and confirms the ticket ID on the line it lands on.
+public class TicketArchive implements AutoCloseable {
+    public static final int DEFAULT_FLUSH_THRESHOLD = 4096;
+    private static final int READ_CHUNK = 256;
+    private static final long SEGMENT_MAGIC = 0x544b5449445831L;
+    // Magic, then the archive offset every segment up to and including this one covers
+    private static final int SEGMENT_HEADER = 16;
+    private static final int ENTRY_SIZE = 16;
+    private static final String SEGMENT_SUFFIX = ".idx";
+
+    private final Path file;
+    private final int flushThreshold;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Lines appended since the newest segment was written
+    private final Map<String, Long> recentOffsets = new ConcurrentHashMap<>();
+    // Oldest first; replaced as a whole under writeLock
+    private volatile List<IndexSegment> segments = List.of();
+    // Opened on first use; reopened after close
+    private volatile FileChannel channel;
+    // Bumped whenever offsets move between memory and segments, or the files are closed
+    private volatile long indexGeneration;
+    // Guarded by writeLock
+    private long end;
+    private long nextSegmentId;
+
+    public TicketArchive(Path file) {
+        this(file, DEFAULT_FLUSH_THRESHOLD, false);
+    }
+
+    public TicketArchive(Path file, int flushThreshold) {
+        this(file, flushThreshold, false);
+    }
+
+    private TicketArchive(Path file, int flushThreshold, boolean temporary) {
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush threshold must be positive");
+        }
+        this.file = file;
+        this.flushThreshold = flushThreshold;
+        if (temporary) {
+            // One hook for the archive and whatever segments exist at exit, rather than a
+            // deleteOnExit entry for every segment ever written; it holds the path, not the archive
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteFiles(file), "ticket-archive-cleanup"));
+        }
+    }
+
+    // An archive that, index included, is removed when the JVM exits
+    public static TicketArchive temporary(Path file) {
+        return new TicketArchive(file, DEFAULT_FLUSH_THRESHOLD, true);
+    }
+
+    public void append(ArchivedTicket ticket) {
+        ByteBuffer line = ByteBuffer.wrap((ticket.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+        ParkingMetrics.lock(writeLock, "ticket.archive.lock");
+        try {
+            FileChannel current = open();
+            long position = end;
+            while (line.hasRemaining()) {
+                position += current.write(line, position);
+            }
+            recentOffsets.put(ticket.ticketId(), end);
+            end = position;
+            if (recentOffsets.size() >= flushThreshold) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive ticket " + ticket.ticketId(), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Optional<ArchivedTicket> find(String ticketId) {
+        try {
+            if (channel == null && !Files.exists(file)) {
+                return Optional.empty();
+            }
+            while (true) {
+                long generation = indexGeneration;
+                try {
+                    Optional<ArchivedTicket> found = lookup(ticketId);
+                    // A miss only counts if no flush, merge or close moved the offsets meanwhile
+                    if (found.isPresent() || generation == indexGeneration) {
+                        return found;
+                    }
+                } catch (ClosedChannelException e) {
+                    // Closed by shutdown or replaced by a merge mid-read; the reopened files have the same content
+                }
+                openLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ticket archive " + file, e);
+        }
+    }
+
+    private Optional<ArchivedTicket> lookup(String ticketId) throws IOException {
+        FileChannel current = channel;
+        if (current == null) {
+            throw new ClosedChannelException();
+        }
+        Long offset = recentOffsets.get(ticketId);
+        if (offset != null) {
+            return Optional.of(ArchivedTicket.fromLine(readLine(current, offset)));
+        }
+        long hash = hash(ticketId);
+        List<IndexSegment> snapshot = segments;
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            IndexSegment segment = snapshot.get(i);
+            for (long entry = segment.firstWithHash(hash); entry < segment.count && segment.hashAt(entry) == hash; entry++) {
+                ArchivedTicket archived = ArchivedTicket.fromLine(readLine(current, segment.offsetAt(entry)));
+                // Another ID with the same hash just costs one more read
+                if (archived.ticketId().equals(ticketId)) {
+                    return Optional.of(archived);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void openLocked() throws IOException {
+        ParkingMetrics.lock(writeLock, "ticket.archive.lock");
+        try {
+            open();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock
+    private FileChannel open() throws IOException {
+        FileChannel current = channel;
+        if (current == null) {
+            current = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            List<IndexSegment> loaded = loadSegments(current.size());
+            long indexed = loaded.isEmpty() ? 0 : loaded.get(loaded.size() - 1).coveredEnd;
+            segments = loaded;
+            end = indexTail(current, indexed);
+            // A line cut short by a crash is overwritten by the next append
+            current.truncate(end);
+            channel = current;
+        }
+        return current;
+    }
+
+    // Segments that do not fit the archive (e.g. the archive was replaced) are dropped and rebuilt
+    private List<IndexSegment> loadSegments(long archiveSize) throws IOException {
+        // Left behind by a crash mid-write
+        for (Path leftover : segmentFiles(file, ".tmp")) {
+            Files.deleteIfExists(leftover);
+        }
+        List<Path> paths = segmentFiles(file, "");
+        paths.sort(Comparator.comparingLong(this::segmentId));
+        List<IndexSegment> loaded = new ArrayList<>(paths.size());
+        try {
+            for (Path path : paths) {
+                IndexSegment segment = IndexSegment.open(path, segmentId(path));
+                loaded.add(segment);
+                if (segment == null || segment.coveredEnd > archiveSize) {
+                    throw new IOException("Index segment " + path + " does not match " + file);
+                }
+            }
+        } catch (IOException e) {
+            for (IndexSegment segment : loaded) {
+                if (segment != null) {
+                    segment.channel.close();
+                }
+            }
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+            recentOffsets.clear();
+            nextSegmentId = 0;
+            return List.of();
+        }
+        nextSegmentId = paths.isEmpty() ? 0 : segmentId(paths.get(paths.size() - 1)) + 1;
+        return loaded;
+    }
+
+    // Indexes every complete line from the given offset and returns the end of the last one
+    private long indexTail(FileChannel current, long from) throws IOException {
+        InputStream in = new BufferedInputStream(Channels.newInputStream(current.position(from)));
+        ByteArrayOutputStream ticketId = new ByteArrayOutputStream();
+        boolean inTicketId = true;
+        long offset = from;
+        long lineStart = from;
+        int b;
+        while ((b = in.read()) != -1) {
+            offset++;
+            if (b == '\n') {
+                if (ticketId.size() > 0) {
+                    recentOffsets.put(ArchivedTicket.unescapeField(ticketId.toString(StandardCharsets.UTF_8)), lineStart);
+                }
+                ticketId.reset();
+                inTicketId = true;
+                lineStart = offset;
+                // An archive with no index yet is indexed in segments, not all in memory
+                if (recentOffsets.size() >= flushThreshold) {
+                    end = lineStart;
+                    flush();
+                }
+            } else if (b == '\t') {
+                inTicketId = false;
+            } else if (inTicketId) {
+                ticketId.write(b);
+            }
+        }
+        return lineStart;
+    }
+
+    // Caller holds writeLock. Writes the in-memory offsets as the newest segment, then merges
+    // while the newest segment is at least as large as the one before it.
+    private void flush() throws IOException {
+        if (recentOffsets.isEmpty()) {
+            return;
+        }
+        long[][] entries = new long[recentOffsets.size()][];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : recentOffsets.entrySet()) {
+            entries[i++] = new long[] {hash(entry.getKey()), entry.getValue()};
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        long id = nextSegmentId++;
+        Path path = segmentPath(id);
+        Path temp = writeSegment(path, end, out -> {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+        });
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        List<IndexSegment> updated = new ArrayList<>(segments);
+        updated.add(IndexSegment.open(path, id));
+        segments = List.copyOf(updated);
+        recentOffsets.clear();
+
+        while (updated.size() >= 2 && updated.get(updated.size() - 1).count >= updated.get(updated.size() - 2).count) {
+            IndexSegment newer = updated.remove(updated.size() - 1);
+            IndexSegment older = updated.remove(updated.size() - 1);
+            updated.add(merge(older, newer));
+            segments = List.copyOf(updated);
+            // A merge interrupted before this point leaves duplicate entries, which lookups tolerate
+            older.delete();
+            newer.delete();
+        }
+        indexGeneration++;
+    }
+
+    private IndexSegment merge(IndexSegment older, IndexSegment newer) throws IOException {
+        long id = nextSegmentId++;
+        Path path = segmentPath(id);
+        Path temp = writeSegment(path, newer.coveredEnd, out -> {
+            try (DataInputStream a = older.entries(); DataInputStream b = newer.entries()) {
+                long remainingA = older.count;
+                long remainingB = newer.count;
+                long hashA = 0, offsetA = 0, hashB = 0, offsetB = 0;
+                if (remainingA > 0) {
+                    hashA = a.readLong();
+                    offsetA = a.readLong();
+                }
+                if (remainingB > 0) {
+                    hashB = b.readLong();
+                    offsetB = b.readLong();
+                }
+                while (remainingA > 0 || remainingB > 0) {
+                    boolean takeA = remainingB == 0
+                            || (remainingA > 0 && (hashA != hashB ? hashA < hashB : offsetA <= offsetB));
+                    if (takeA) {
+                        out.writeLong(hashA);
+                        out.writeLong(offsetA);
+                        if (--remainingA > 0) {
+                            hashA = a.readLong();
+                            offsetA = a.readLong();
+                        }
+                    } else {
+                        out.writeLong(hashB);
+                        out.writeLong(offsetB);
+                        if (--remainingB > 0) {
+                            hashB = b.readLong();
+                            offsetB = b.readLong();
+                        }
+                    }
+                }
+            }
+        });
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        return IndexSegment.open(path, id);
+    }
+
+    private Path writeSegment(Path path, long coveredEnd, EntryWriter entries) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeLong(SEGMENT_MAGIC);
+            out.writeLong(coveredEnd);
+            entries.write(out);
+        }
+        return temp;
+    }
+
+    private Path segmentPath(long id) {
+        return file.resolveSibling(file.getFileName() + "." + id + SEGMENT_SUFFIX);
+    }
+
+    private long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        String id = name.substring(file.getFileName().toString().length() + 1, name.length() - SEGMENT_SUFFIX.length());
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // FNV-1a over the ID's chars; stable across runs, unlike String.hashCode it uses all 64 bits
+    static long hash(String ticketId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < ticketId.length(); i++) {
+            hash ^= ticketId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String readLine(FileChannel current, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK);
+        int scanned = 0;
+        while (true) {
+            if (current.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Archive line at offset " + offset + " is truncated");
+            }
+            for (; scanned < buffer.position(); scanned++) {
+                if (buffer.get(scanned) == '\n') {
+                    return new String(buffer.array(), 0, scanned, StandardCharsets.UTF_8);
+                }
+            }
+            if (!buffer.hasRemaining()) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+            }
+        }
+    }
+
+    public int size() {
+        long count = recentOffsets.size();
+        for (IndexSegment segment : segments) {
+            count += segment.count;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, count);
+    }
+
+    // Offsets held in memory; never more than the flush threshold
+    public int getUnflushedCount() {
+        return recentOffsets.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Writes out the in-memory offsets and releases the file handles; a later append or lookup reopens them
+    @Override
+    public void close() {
+        ParkingMetrics.lock(writeLock, "ticket.archive.lock");
+        try {
+            if (channel != null) {
+                flush();
+                for (IndexSegment segment : segments) {
+                    segment.channel.close();
+                }
+                segments = List.of();
+                channel.close();
+                channel = null;
+                indexGeneration++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close ticket archive " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void deleteFiles(Path file) {
+        try {
+            for (Path path : segmentFiles(file, "*")) {
+                Files.deleteIfExists(path);
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Best effort at exit
+        }
+    }
+
+    private static List<Path> segmentFiles(Path file, String suffixGlob) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        Path directory = file.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, file.getFileName() + ".*" + SEGMENT_SUFFIX + suffixGlob)) {
+            stream.forEach(paths::add);
+        }
+        return paths;
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class IndexSegment {
+        private final Path path;
+        private final FileChannel channel;
+        private final long count;
+        private final long coveredEnd;
+
+        private IndexSegment(Path path, FileChannel channel, long count, long coveredEnd) {
+            this.path = path;
+            this.channel = channel;
+            this.count = count;
+            this.coveredEnd = coveredEnd;
+        }
+
+        // Null for a file that is not a complete segment
+        static IndexSegment open(Path path, long id) throws IOException {
+            if (id < 0) {
+                return null;
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+            if (size < SEGMENT_HEADER || (size - SEGMENT_HEADER) % ENTRY_SIZE != 0
+                    || channel.read(header, 0) < SEGMENT_HEADER || header.getLong(0) != SEGMENT_MAGIC) {
+                channel.close();
+                return null;
+            }
+            return new IndexSegment(path, channel, (size - SEGMENT_HEADER) / ENTRY_SIZE, header.getLong(8));
+        }
+
+        // Index of the first entry whose hash is at least the given one
+        long firstWithHash(long hash) throws IOException {
+            long low = 0;
+            long high = count;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (hashAt(middle) < hash) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        long hashAt(long entry) throws IOException {
+            return readLong(SEGMENT_HEADER + entry * ENTRY_SIZE);
+        }
+
+        long offsetAt(long entry) throws IOException {
+            return readLong(SEGMENT_HEADER + entry * ENTRY_SIZE + 8);
+        }
+
+        private long readLong(long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Index segment " + path + " is truncated");
+                }
+            }
+            return buffer.getLong(0);
+        }
+
+        DataInputStream entries() throws IOException {
+            InputStream in = Files.newInputStream(path);
+            in.skipNBytes(SEGMENT_HEADER);
+            return new DataInputStream(new BufferedInputStream(in));
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded LRU cache of completed tickets; the least recently used ticket
+// is written to the archive when the cache is full.
+public class TicketHistory implements AutoCloseable {
+    private final int capacity;
+    private final TicketArchive archive;
+    // Keyed by ticket ID; the archive, being on disk, uses its string form
+    private final Map<Long, ParkingTicket> recent;
+    // Tickets evicted from the cache whose archive write is still in flight
+    private final Map<Long, ParkingTicket> evicting = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public TicketHistory(int capacity, TicketArchive archive) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.archive = archive;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public void put(ParkingTicket ticket) {
+        ParkingTicket evicted = null;
+        ParkingMetrics.lock(lock, "ticket.history.lock");
+        try {
+            recent.put(ticket.getId(), ticket);
+            if (recent.size() > capacity) {
+                var eldest = recent.entrySet().iterator().next();
+                evicted = eldest.getValue();
+                evicting.put(eldest.getKey(), evicted);
+                recent.remove(eldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Disk write happens outside the cache lock
+        if (evicted != null) {
+            try {
+                archive.append(ArchivedTicket.of(evicted));
+            } finally {
+                evicting.remove(evicted.getId());
+            }
+        }
+    }
+
+    public ParkingTicket get(long ticketId) {
+        ParkingMetrics.lock(lock, "ticket.history.lock");
+        try {
+            ParkingTicket ticket = recent.get(ticketId);
+            if (ticket != null) {
+                return ticket;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return evicting.get(ticketId);
+    }
+
+    public Optional<ArchivedTicket> findArchived(String ticketId) {
+        return archive.find(ticketId);
+    }
+
+    public int size() {
+        ParkingMetrics.lock(lock, "ticket.history.lock");
+        try {
+            return recent.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() {
+        archive.close();
+    }
+}
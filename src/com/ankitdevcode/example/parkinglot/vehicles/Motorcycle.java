@@ -1,18 +1,8 @@
 package com.ankitdevcode.example.parkinglot.vehicles;
 
-import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
-import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
-
 public final class Motorcycle extends Vehicle {
 
     public Motorcycle(String licensePlate, String color) {
         super(licensePlate, VehicleType.MOTORCYCLE, color);
     }
-
-    @Override
-    public boolean canFitInSpot(ParkingSpot spot) {
-        return spot.getType() == ParkingSpotType.MOTORCYCLE ||
-                spot.getType() == ParkingSpotType.COMPACT ||
-                spot.getType() == ParkingSpotType.LARGE;
-    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ankitdevcode.example.parkinglot.vehicles;
 
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
 import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
 import lombok.Getter;
 
@@ -17,6 +18,8 @@ public abstract sealed class Vehicle permits Motorcycle, Car, ElectricCar, Truck
         this.color = Objects.requireNonNull(color);
     }
 
-    public abstract boolean canFitInSpot(ParkingSpot spot);
+    public boolean canFitInSpot(ParkingSpot spot, CompatibilityMatrix compatibility) {
+        return compatibility.canFit(type, spot.getType());
+    }
 }
 
@@ -0,0 +1,23 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.Payment;
+import com.ankitdevcode.example.parkinglot.payment.PaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.PaymentStatus;
+
+// Approves every charge, so exits in tests never hit the default processor's random declines
+class ApprovingPaymentProcessor implements PaymentProcessor {
+
+    @Override
+    public boolean processPayment(Payment payment) {
+        return true;
+    }
+
+    @Override
+    public PaymentStatus checkStatus(String paymentId) {
+        return PaymentStatus.COMPLETED;
+    }
+
+    @Override
+    public void refund(String paymentId) {
+    }
+}
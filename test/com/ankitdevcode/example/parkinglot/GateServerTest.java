@@ -0,0 +1,164 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Requests go through the same parsing the socket uses; every malformed or failing request gets one
+// ERR line and leaves the connection open, and only QUIT or a runaway line ends it
+class GateServerTest {
+    private ParkingLot parkingLot;
+    private GateServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        parkingLot = new ParkingLotBuilder()
+                .setName("Gates")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 2)
+                .setPaymentProcessor(new ApprovingPaymentProcessor())
+                .build();
+        server = new GateServer(new ParkingLotService(parkingLot), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        parkingLot.shutdown();
+    }
+
+    @Test
+    void parkFindAndExit() {
+        String[] parked = server.handle("park compact AB123 Red").split(" ");
+        assertEquals("OK", parked[0]);
+        String ticketId = parked[1];
+        String spotId = parked[2];
+
+        assertEquals("OK " + ticketId + " " + spotId, server.handle("FIND AB123"));
+        assertEquals("OK AB123:" + spotId, server.handle("SEARCH AB12? 0"));
+        assertEquals("OK 1", server.handle("AVAIL COMPACT"));
+        assertTrue(server.handle("AVAIL").contains(" COMPACT=1"));
+        String ticket = server.handle("TICKET " + ticketId);
+        assertTrue(ticket.startsWith("OK " + ticketId + " AB123 " + spotId + " "), ticket);
+        assertTrue(ticket.endsWith(" - ACTIVE"), ticket);
+
+        assertEquals("OK", server.handle("EXIT " + ticketId + " cash"));
+        assertEquals("FAILED", server.handle("EXIT " + ticketId + " CASH"));
+        assertTrue(server.handle("TICKET " + ticketId).endsWith(" CLOSED"));
+        assertEquals("NOT_FOUND", server.handle("FIND AB123"));
+        assertEquals("FAILED", server.handle("LOST AB123 CASH"));
+
+        assertTrue(server.handle("PARK COMPACT LOST1").startsWith("OK "));
+        assertEquals("OK", server.handle("LOST LOST1 DEBIT_CARD"));
+        assertEquals("OK 2", server.handle("AVAIL COMPACT"));
+    }
+
+    @Test
+    void fullLotAnswersFullAndWaitHoldsTheReplyUntilAdmitted() throws Exception {
+        String first = server.handle("PARK COMPACT A1").split(" ")[1];
+        server.handle("PARK COMPACT A2");
+        assertEquals("FULL", server.handle("PARK COMPACT A3"));
+        assertEquals("FULL", server.handle("RESERVE COMPACT A4 30"));
+
+        CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> server.handle("WAIT COMPACT A5 60"));
+        ParkingLotService service = new ParkingLotService(parkingLot);
+        while (service.getWaitingVehicles(VehicleType.COMPACT) == 0) {
+            assertFalse(waiting.isDone(), waiting::join);
+            Thread.onSpinWait();
+        }
+        assertEquals("OK", server.handle("EXIT " + first + " CASH"));
+
+        String admitted = waiting.get(5, TimeUnit.SECONDS);
+        assertTrue(admitted.startsWith("OK "), admitted);
+        assertEquals(admitted, server.handle("FIND A5"));
+    }
+
+    @Test
+    void reservationsAreHeldTakenAndCancelled() {
+        String[] held = server.handle("RESERVE COMPACT BOOKED 30").split(" ");
+        assertEquals("OK", held[0]);
+        assertEquals("OK 1", server.handle("AVAIL COMPACT"));
+
+        String[] arrived = server.handle("ARRIVE " + held[1] + " Blue").split(" ");
+        assertEquals("OK", arrived[0]);
+        assertEquals(held[2], arrived[2]);
+        assertTrue(server.handle("ARRIVE " + held[1]).startsWith("ERR "));
+
+        String cancelled = server.handle("RESERVE COMPACT LATER 30").split(" ")[1];
+        assertEquals("OK", server.handle("CANCEL " + cancelled));
+        assertEquals("NOT_FOUND", server.handle("CANCEL " + cancelled));
+        assertEquals("OK 1", server.handle("AVAIL COMPACT"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "FLY AB1                   | ERR unknown command FLY",
+            "PARK COMPACT              | ERR usage: PARK <vehicle type> <plate> [color]",
+            "PARK BUS AB1              | ERR unknown vehicle type BUS",
+            "WAIT COMPACT AB1          | ERR usage: WAIT <vehicle type> <plate> <seconds> [color]",
+            "WAIT COMPACT AB1 soon     | ERR invalid seconds soon",
+            "EXIT TKT-1                | ERR usage: EXIT <ticket id> <payment method>",
+            "EXIT TKT-1 BITCOIN        | ERR unknown payment method BITCOIN",
+            "LOST AB1 IOU              | ERR unknown payment method IOU",
+            "RESERVE COMPACT AB1 later | ERR invalid minutes later",
+            "ARRIVE RES-404            | ERR No held reservation RES-404",
+            "CANCEL                    | ERR usage: CANCEL <reservation id>",
+            "TICKET                    | ERR usage: TICKET <ticket id>",
+            "TICKET nonsense           | NOT_FOUND",
+            "FIND                      | ERR usage: FIND <plate>",
+            "SEARCH AB1 many           | ERR invalid mismatches many",
+            "SEARCH AB1 -1             | ERR Mismatches cannot be negative",
+            "AVAIL TRUCK               | ERR unknown spot type TRUCK",
+    })
+    void badRequestsGetOneErrLine(String request, String response) {
+        assertEquals(response, server.handle(request));
+    }
+
+    @Test
+    void connectionOutlivesErrorsUntilQuit() throws Exception {
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out.write("\n  \nAVAIL COMPACT\r\nBOGUS\nMETRICS\nquit\nAVAIL\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            assertEquals("OK 2", in.readLine());
+            assertEquals("ERR unknown command BOGUS", in.readLine());
+            assertTrue(in.readLine().startsWith("OK "));
+            assertEquals("BYE", in.readLine());
+            assertNull(in.readLine());
+        }
+    }
+
+    @Test
+    void overlongLineClosesTheConnection() throws Exception {
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out.write(("PARK COMPACT " + "X".repeat(300) + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            assertNull(in.readLine());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.AsyncPaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.Payment;
+import com.ankitdevcode.example.parkinglot.payment.PaymentGateway;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// While an exit's payment is in flight the ticket stays active and holds its spot, and no second
+// exit can start; the spot is freed only once the payment is approved, and shutdown waits for it
+class ParkingLotAsyncExitTest {
+    private final CountDownLatch charging = new CountDownLatch(1);
+    private final CountDownLatch gatewayAnswers = new CountDownLatch(1);
+    private final AtomicBoolean approve = new AtomicBoolean(true);
+    private ParkingLot parkingLot;
+
+    @AfterEach
+    void tearDown() {
+        gatewayAnswers.countDown();
+        if (parkingLot != null) {
+            parkingLot.shutdown();
+        }
+    }
+
+    @Test
+    void ticketHoldsItsSpotUntilThePaymentSettles() throws Exception {
+        parkingLot = newLot();
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("ASYNC", "Grey"));
+
+        CompletableFuture<Boolean> exit = parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CREDIT_CARD);
+        assertTrue(charging.await(5, TimeUnit.SECONDS));
+        assertFalse(exit.isDone());
+        assertTrue(ticket.isActive());
+        assertSame(ticket, parkingLot.findTicketByPlate("ASYNC"));
+        assertEquals(0, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+        // The exit is already reserved by the payment in flight
+        assertFalse(parkingLot.unparkVehicle(ticket.getTicketId(), PaymentMethod.CASH));
+        assertFalse(parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CASH).join());
+
+        gatewayAnswers.countDown();
+        assertTrue(exit.get(5, TimeUnit.SECONDS));
+        assertFalse(ticket.isActive());
+        assertNull(parkingLot.findTicketByPlate("ASYNC"));
+        assertEquals(1, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void declinedPaymentKeepsTheVehicleParked() throws Exception {
+        approve.set(false);
+        gatewayAnswers.countDown();
+        parkingLot = newLot();
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("DECLINED", "Grey"));
+
+        assertFalse(parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CREDIT_CARD).get(5, TimeUnit.SECONDS));
+        assertTrue(ticket.isActive());
+        assertEquals(0, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+
+        approve.set(true);
+        assertTrue(parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CREDIT_CARD).get(5, TimeUnit.SECONDS));
+        assertEquals(1, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void shutdownFinishesExitsInFlight() throws Exception {
+        parkingLot = newLot();
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("DRAIN", "Grey"));
+        CompletableFuture<Boolean> exit = parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CREDIT_CARD);
+        assertTrue(charging.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(parkingLot::shutdown);
+        gatewayAnswers.countDown();
+        shutdown.get(10, TimeUnit.SECONDS);
+        parkingLot = null;
+
+        assertTrue(exit.isDone());
+        assertTrue(exit.join());
+        assertNotNull(ticket.getPayment());
+        assertFalse(ticket.isActive());
+    }
+
+    private ParkingLot newLot() {
+        PaymentGateway gateway = new PaymentGateway() {
+            @Override
+            public boolean charge(Payment payment) throws Exception {
+                charging.countDown();
+                gatewayAnswers.await();
+                return approve.get();
+            }
+
+            @Override
+            public void refund(Payment payment) {
+            }
+        };
+        return new ParkingLotBuilder()
+                .setName("Async")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 1)
+                .setPaymentProcessor(new AsyncPaymentProcessor(gateway, 2, Duration.ofSeconds(5), 1, Duration.ofMillis(10)))
+                .build();
+    }
+}
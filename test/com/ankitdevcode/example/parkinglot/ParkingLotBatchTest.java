@@ -0,0 +1,97 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.Payment;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Motorcycle;
+import com.ankitdevcode.example.parkinglot.vehicles.Truck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Batch results line up with the input: whatever cannot be placed or settled gets null or false in
+// its own position, and the rest of the batch goes through with the counters matching the floors
+class ParkingLotBatchTest {
+    private ParkingLot parkingLot;
+
+    @AfterEach
+    void tearDown() {
+        if (parkingLot != null) {
+            parkingLot.shutdown();
+        }
+    }
+
+    @Test
+    void parkBatchLinesUpWithItsInput() {
+        parkingLot = newLot(new ApprovingPaymentProcessor());
+        List<ParkingTicket> tickets = parkingLot.parkVehicles(List.of(
+                new Car("A", "Grey"),
+                new Truck("T", "White"),
+                new Car("B", "Grey"),
+                new Car("A", "Grey"),
+                new Motorcycle("M", "Red"),
+                new Car("C", "Grey"),
+                new Car("D", "Grey")));
+
+        // No LARGE spots for the truck, A is already inside, and D finds the compact spots gone
+        assertEquals(List.of("A", "-", "B", "-", "M", "C", "-"), tickets.stream()
+                .map(ticket -> ticket == null ? "-" : ticket.getLicensePlate())
+                .toList());
+        assertEquals(0, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(0, parkingLot.getAvailability().get(ParkingSpotType.MOTORCYCLE));
+        assertEquals(0, parkingLot.getFloors().get(0).getAvailableSpots(ParkingSpotType.COMPACT));
+        assertEquals(4, parkingLot.getActiveTickets().size());
+        assertEquals(ParkingSpotType.MOTORCYCLE, tickets.get(4).getAssignedSpot().getType());
+    }
+
+    @Test
+    void exitBatchSettlesEachTicketOnce() {
+        // Declines the second payment it is asked for
+        AtomicInteger calls = new AtomicInteger();
+        parkingLot = newLot(new ApprovingPaymentProcessor() {
+            @Override
+            public boolean processPayment(Payment payment) {
+                return calls.incrementAndGet() != 2;
+            }
+        });
+        List<ParkingTicket> tickets = parkingLot.parkVehicles(List.of(
+                new Car("A", "Grey"), new Car("B", "Grey"), new Car("C", "Grey")));
+        String a = tickets.get(0).getTicketId();
+        String b = tickets.get(1).getTicketId();
+        String c = tickets.get(2).getTicketId();
+
+        List<Boolean> exits = parkingLot.unparkVehicles(List.of(a, "TKT-UNKNOWN", b, a, c), PaymentMethod.CASH);
+
+        assertEquals(List.of(true, false, false, false, true), exits);
+        assertEquals(3, calls.get());
+        assertEquals(2, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(2, parkingLot.getFloors().get(0).getAvailableSpots(ParkingSpotType.COMPACT));
+        // The declined exit keeps its spot and can pay again
+        assertTrue(tickets.get(1).isActive());
+        assertNotNull(parkingLot.findTicketByPlate("B"));
+        assertNull(parkingLot.findTicketByPlate("A"));
+        assertTrue(parkingLot.unparkVehicle(b, PaymentMethod.CASH));
+        assertFalse(parkingLot.unparkVehicle(b, PaymentMethod.CASH));
+        assertEquals(3, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+    }
+
+    private static ParkingLot newLot(ApprovingPaymentProcessor paymentProcessor) {
+        return new ParkingLotBuilder()
+                .setName("Batch")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.MOTORCYCLE, 1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 3)
+                .setPaymentProcessor(paymentProcessor)
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Truck;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Cars may spill into LARGE spots but never into the last few held back for trucks, whether they
+// arrive one at a time, in batches or as bookings, and however many gates park at once
+class ParkingLotBufferTest {
+    private static final int FLOORS = 2;
+    private static final int BUFFER = 3;
+
+    private ParkingLot parkingLot;
+    private ExecutorService gates;
+
+    @AfterEach
+    void tearDown() {
+        if (gates != null) {
+            gates.shutdownNow();
+        }
+        if (parkingLot != null) {
+            parkingLot.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void batchesStopAtTheBuffer(boolean compactFloors) {
+        parkingLot = newLot(compactFloors, 2, 5);
+
+        // 4 compact spots, then 10 large less the 3 held back
+        assertEquals(11, parked(parkingLot.parkVehicles(cars("CAR", 20))));
+        assertEquals(BUFFER, parkingLot.getAvailability().get(ParkingSpotType.LARGE));
+        assertEquals(BUFFER, floorFree(ParkingSpotType.LARGE));
+
+        assertEquals(0, parked(parkingLot.parkVehicles(cars("MORE", 5))));
+        assertEquals(BUFFER, parkingLot.getAvailability().get(ParkingSpotType.LARGE));
+
+        List<Vehicle> trucks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            trucks.add(new Truck("TRUCK" + i, "White"));
+        }
+        assertEquals(BUFFER, parked(parkingLot.parkVehicles(trucks)));
+        assertEquals(0, parkingLot.getAvailability().get(ParkingSpotType.LARGE));
+        assertEquals(0, floorFree(ParkingSpotType.LARGE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void concurrentBatchesStopAtTheBuffer(boolean compactFloors) throws Exception {
+        parkingLot = newLot(compactFloors, 10, 20);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger plates = new AtomicInteger();
+        AtomicInteger placed = new AtomicInteger();
+
+        List<Future<?>> results = new ArrayList<>();
+        gates = Executors.newFixedThreadPool(threads);
+        for (int gate = 0; gate < threads; gate++) {
+            boolean batches = gate % 2 == 0;
+            results.add(gates.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    if (batches) {
+                        placed.addAndGet(parked(parkingLot.parkVehicles(cars("B" + plates.incrementAndGet() + "X", 4))));
+                    } else if (parkingLot.parkVehicle(new Car("S" + plates.incrementAndGet(), "Grey")) != null) {
+                        placed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        int capacity = FLOORS * (10 + 20);
+        assertEquals(capacity - BUFFER, placed.get());
+        assertEquals(0, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(BUFFER, parkingLot.getAvailability().get(ParkingSpotType.LARGE));
+        assertEquals(BUFFER, floorFree(ParkingSpotType.LARGE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void reservationsStopAtTheBuffer(boolean compactFloors) {
+        parkingLot = newLot(compactFloors, 1, 5);
+
+        int held = 0;
+        while (parkingLot.reserveSpot(VehicleType.COMPACT, "BOOK" + held, Duration.ofHours(1)) != null) {
+            held++;
+        }
+        // 2 compact spots, then 10 large less the 3 held back
+        assertEquals(9, held);
+        assertEquals(BUFFER, parkingLot.getAvailability().get(ParkingSpotType.LARGE));
+        assertEquals(BUFFER, floorFree(ParkingSpotType.LARGE));
+        assertNotNull(parkingLot.reserveSpot(VehicleType.LARGE, "TRUCK", Duration.ofHours(1)));
+    }
+
+    private ParkingLot newLot(boolean compactFloors, int compactPerFloor, int largePerFloor) {
+        return new ParkingLotBuilder()
+                .setName("Buffer")
+                .setFloors(FLOORS)
+                .setCompactFloors(compactFloors)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, compactPerFloor)
+                .addSpotConfiguration(ParkingSpotType.LARGE, largePerFloor)
+                .setLargeSpotBuffer(BUFFER)
+                .build();
+    }
+
+    private static List<Vehicle> cars(String prefix, int count) {
+        List<Vehicle> cars = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            cars.add(new Car(prefix + i, "Grey"));
+        }
+        return cars;
+    }
+
+    private static int parked(List<ParkingTicket> tickets) {
+        return (int) tickets.stream().filter(Objects::nonNull).count();
+    }
+
+    private int floorFree(ParkingSpotType type) {
+        int free = 0;
+        for (ParkingFloor floor : parkingLot.getFloors()) {
+            free += floor.getAvailableSpots(type);
+        }
+        return free;
+    }
+}
@@ -0,0 +1,160 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many gates parking into the same spots at once: every spot goes to exactly one vehicle and
+// the lot and floor counters agree with what was handed out
+class ParkingLotConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int FLOORS = 2;
+    private static final int SPOTS_PER_FLOOR = 50;
+
+    private ParkingLot parkingLot;
+    private ExecutorService gates;
+
+    @AfterEach
+    void tearDown() {
+        if (gates != null) {
+            gates.shutdownNow();
+        }
+        if (parkingLot != null) {
+            parkingLot.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void contendedParksNeverShareASpot(boolean compactFloors) throws Exception {
+        parkingLot = newLot(compactFloors);
+        int capacity = FLOORS * SPOTS_PER_FLOOR;
+        Issued tickets = new Issued();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger plates = new AtomicInteger();
+
+        List<Future<?>> results = new ArrayList<>();
+        gates = Executors.newFixedThreadPool(THREADS);
+        for (int gate = 0; gate < THREADS; gate++) {
+            boolean batches = gate % 2 == 0;
+            results.add(gates.submit(() -> {
+                start.await();
+                for (int i = 0; i < capacity / 4; i++) {
+                    if (batches) {
+                        List<Vehicle> batch = new ArrayList<>();
+                        for (int k = 0; k < 3; k++) {
+                            batch.add(new Car("C" + plates.incrementAndGet(), "Grey"));
+                        }
+                        parkingLot.parkVehicles(batch).forEach(tickets::addIfParked);
+                    } else {
+                        tickets.addIfParked(parkingLot.parkVehicle(new Car("C" + plates.incrementAndGet(), "Grey")));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(capacity, tickets.size());
+        assertEquals(capacity, tickets.distinctSpots());
+        assertEquals(0, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(0, floorFree(ParkingSpotType.COMPACT));
+        assertEquals(capacity, parkingLot.getActiveTickets().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void churnKeepsCountersInStep(boolean compactFloors) throws Exception {
+        parkingLot = newLot(compactFloors);
+        parkingLot.setPaymentProcessor(new ApprovingPaymentProcessor());
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger plates = new AtomicInteger();
+
+        List<Future<?>> results = new ArrayList<>();
+        gates = Executors.newFixedThreadPool(THREADS);
+        for (int gate = 0; gate < THREADS; gate++) {
+            results.add(gates.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    ParkingTicket ticket = parkingLot.parkVehicle(new Car("C" + plates.incrementAndGet(), "Grey"));
+                    if (ticket != null) {
+                        assertTrue(parkingLot.unparkVehicle(ticket.getTicketId(), PaymentMethod.CASH));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        int capacity = FLOORS * SPOTS_PER_FLOOR;
+        assertEquals(0, parkingLot.getActiveTickets().size());
+        assertEquals(capacity, parkingLot.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(capacity, floorFree(ParkingSpotType.COMPACT));
+    }
+
+    private static ParkingLot newLot(boolean compactFloors) {
+        return new ParkingLotBuilder()
+                .setName("Concurrency")
+                .setFloors(FLOORS)
+                .setCompactFloors(compactFloors)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, SPOTS_PER_FLOOR)
+                .build();
+    }
+
+    private int floorFree(ParkingSpotType type) {
+        int free = 0;
+        for (ParkingFloor floor : parkingLot.getFloors()) {
+            free += floor.getAvailableSpots(type);
+        }
+        return free;
+    }
+
+    private static final class Issued {
+        private final ConcurrentLinkedQueue<ParkingTicket> tickets = new ConcurrentLinkedQueue<>();
+
+        void addIfParked(ParkingTicket ticket) {
+            if (ticket != null) {
+                tickets.add(ticket);
+            }
+        }
+
+        int size() {
+            return tickets.size();
+        }
+
+        int distinctSpots() {
+            Set<String> spots = new HashSet<>();
+            for (ParkingTicket ticket : tickets) {
+                spots.add(ticket.getAssignedSpot().getSpotId());
+            }
+            return spots.size();
+        }
+    }
+}
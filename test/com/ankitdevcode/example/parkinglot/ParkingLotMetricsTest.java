@@ -0,0 +1,69 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.metrics.ParkingMetrics;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A lot's gauges show up whenever metrics are turned on, and leave the process-wide registry
+// with the lot, without taking a successor's gauges of the same name along
+class ParkingLotMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        ParkingMetrics.disable();
+    }
+
+    @Test
+    void gaugesAppearWhenMetricsAreEnabledAfterTheLotIsBuilt() {
+        ParkingMetrics.disable();
+        ParkingLot parkingLot = newLot("GAUGE1");
+        try {
+            parkingLot.parkVehicle(new Car("G1", "Grey"));
+            assertTrue(ParkingMetrics.get().getGauges().isEmpty());
+
+            ParkingMetrics.enable();
+            Map<String, Long> gauges = ParkingMetrics.get().getGauges();
+            assertEquals(1L, gauges.get("lot.GAUGE1.tickets.active"));
+            assertEquals(2L, gauges.get("lot.GAUGE1.free.COMPACT"));
+            assertEquals(2L, gauges.get("lot.GAUGE1.floor.0.free.COMPACT"));
+        } finally {
+            parkingLot.shutdown();
+        }
+    }
+
+    @Test
+    void shutdownRemovesOnlyThatLotsGauges() {
+        ParkingMetrics.enable();
+        ParkingLot first = newLot("GAUGE2");
+        first.shutdown();
+        assertFalse(ParkingMetrics.get().getGauges().keySet().stream().anyMatch(name -> name.startsWith("lot.GAUGE2.")));
+
+        ParkingLot stale = newLot("GAUGE3");
+        ParkingLot successor = newLot("GAUGE3");
+        try {
+            successor.parkVehicle(new Car("G3", "Grey"));
+            stale.shutdown();
+            assertEquals(1L, ParkingMetrics.get().getGauges().get("lot.GAUGE3.tickets.active"));
+        } finally {
+            successor.shutdown();
+        }
+        assertFalse(ParkingMetrics.get().getGauges().containsKey("lot.GAUGE3.tickets.active"));
+    }
+
+    private static ParkingLot newLot(String lotId) {
+        return new ParkingLotBuilder()
+                .setLotId(lotId)
+                .setName(lotId)
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 3)
+                .build();
+    }
+}
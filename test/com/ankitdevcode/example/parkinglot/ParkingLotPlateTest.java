@@ -0,0 +1,92 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.ticket.PlateIndex;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A plate can only be inside once: a second arrival is turned away with null like on a full lot,
+// without using a spot, and the plate is free again once the exit is paid
+class ParkingLotPlateTest {
+    private ParkingLot parkingLot;
+
+    @BeforeEach
+    void setUp() {
+        parkingLot = new ParkingLotBuilder()
+                .setLotId("PLATES")
+                .setName("Plates")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 4)
+                .setPaymentProcessor(new ApprovingPaymentProcessor())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        parkingLot.shutdown();
+    }
+
+    @Test
+    void duplicatePlateIsTurnedAwayWithoutTakingASpot() {
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("KA01AB1234", "Grey"));
+        assertNotNull(ticket);
+        int free = parkingLot.getAvailableSpots(ParkingSpotType.COMPACT);
+
+        // The same plate as the camera or an attendant might type it
+        assertNull(parkingLot.parkVehicle(new Car("ka-01 ab 1234", "Grey")));
+        assertNull(parkingLot.parkVehicleOrWait(new Car("KA01AB1234", "Grey"), Duration.ofSeconds(5)).join());
+        List<ParkingTicket> batch = parkingLot.parkVehicles(List.of(new Car("KA01AB1234", "Grey"), new Car("NEW1", "Grey")));
+        assertNull(batch.get(0));
+        assertNotNull(batch.get(1));
+        assertEquals(free - 1, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+        assertSame(ticket, parkingLot.findTicketByPlate("KA 01 AB 1234"));
+
+        assertTrue(parkingLot.unparkVehicle(ticket.getTicketId(), PaymentMethod.CASH));
+        assertNull(parkingLot.findTicketByPlate("KA01AB1234"));
+        assertNotNull(parkingLot.parkVehicle(new Car("KA01AB1234", "Grey")));
+    }
+
+    @Test
+    void lostTicketExitGoesByPlate() {
+        parkingLot.parkVehicle(new Car("MH12XY9876", "Grey"));
+        assertTrue(parkingLot.unparkVehicleByPlate("mh12 xy 9876", PaymentMethod.CASH));
+        assertEquals(4, parkingLot.getAvailableSpots(ParkingSpotType.COMPACT));
+        assertFalse(parkingLot.unparkVehicleByPlate("MH12XY9876", PaymentMethod.CASH));
+    }
+
+    @Test
+    void misreadPlatesAreFoundBySimilarity() {
+        for (String plate : new String[] {"KA01AB1234", "KA01AB1235", "DL05CD0001"}) {
+            parkingLot.parkVehicle(new Car(plate, "Grey"));
+        }
+        PlateIndex index = parkingLot.getPlateIndex();
+
+        assertEquals(List.of("KA01AB1234", "KA01AB1235"), plates(index.searchPrefix("ka01", 10)));
+        // O for 0 and I for 1 are camera confusions, not mismatches; '?' matches anything
+        assertEquals(List.of("KA01AB1234"), plates(index.search("KAO1AB I234", 0, 10)));
+        assertEquals(List.of("KA01AB1234", "KA01AB1235"), plates(index.search("KA01AB123?", 0, 10)));
+        assertEquals(List.of("KA01AB1234", "KA01AB1235"), plates(index.search("KA01AB1230", 1, 10)));
+        assertEquals(List.of(), plates(index.search("KA01AB12", 1, 10)));
+    }
+
+    private static List<String> plates(List<ParkingTicket> tickets) {
+        return tickets.stream()
+                .map(ParkingTicket::getLicensePlate)
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,193 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.persistence.JournalEvent;
+import com.ankitdevcode.example.parkinglot.persistence.ParkingJournal;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Motorcycle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A restarted lot comes back from its latest snapshot plus the journal written after it
+class ParkingLotRecoveryTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    private final List<ParkingLot> lots = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        lots.forEach(ParkingLot::shutdown);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void restoresSnapshotAndJournalTail(boolean compactFloors) {
+        ParkingLot before = newLot(compactFloors);
+        List<ParkingTicket> parked = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            parked.add(before.parkVehicle(new Car("SNAP" + i, "Grey")));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(before.unparkVehicle(parked.get(i).getTicketId(), PaymentMethod.CASH));
+        }
+        before.takeSnapshot();
+
+        // Journal tail after the snapshot: two more parks and one more exit
+        parked.add(before.parkVehicle(new Motorcycle("TAIL0", "Red")));
+        parked.add(before.parkVehicle(new Car("TAIL1", "Red")));
+        assertTrue(before.unparkVehicle(parked.get(3).getTicketId(), PaymentMethod.CASH));
+        Map<String, String> expected = spotsByTicket(before);
+        Map<ParkingSpotType, Integer> expectedFree = before.getAvailability().toMap();
+        String archivedTicket = parked.get(0).getTicketId();
+        before.shutdown();
+        lots.remove(before);
+
+        ParkingLot after = newLot(compactFloors);
+        assertEquals(8, after.getActiveTickets().size());
+        assertEquals(expected, spotsByTicket(after));
+        assertEquals(expectedFree, after.getAvailability().toMap());
+        assertNotNull(after.getPlateIndex().find("TAIL1"));
+        assertNull(after.getPlateIndex().find("SNAP0"));
+        assertNotNull(new ParkingLotService(after).getTicketInfo(archivedTicket));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void restoredSpotsAreNotHandedOutAgain(boolean compactFloors) {
+        ParkingLot before = newLot(compactFloors);
+        for (int i = 0; i < 4; i++) {
+            before.parkVehicle(new Car("KEEP" + i, "Grey"));
+        }
+        before.shutdown();
+        lots.remove(before);
+
+        ParkingLot after = newLot(compactFloors);
+        List<String> taken = new ArrayList<>(spotsByTicket(after).values());
+        ParkingTicket next;
+        while ((next = after.parkVehicle(new Car("NEW" + taken.size(), "Grey"))) != null) {
+            assertFalse(taken.contains(next.getAssignedSpot().getSpotId()));
+            taken.add(next.getAssignedSpot().getSpotId());
+        }
+        assertEquals(0, after.getAvailability().get(ParkingSpotType.COMPACT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void heldReservationsSurviveARestart(boolean compactFloors) {
+        ParkingLot before = newLot(compactFloors);
+        Reservation snapshotted = before.reserveSpot(VehicleType.COMPACT, "HOLD0", Duration.ofHours(1));
+        Reservation fulfilled = before.reserveSpot(VehicleType.COMPACT, "HOLD1", Duration.ofHours(1));
+        before.takeSnapshot();
+        Reservation cancelled = before.reserveSpot(VehicleType.COMPACT, "HOLD2", Duration.ofHours(1));
+        Reservation tail = before.reserveSpot(VehicleType.COMPACT, "HOLD3", Duration.ofHours(1));
+        assertTrue(before.cancelReservation(cancelled.getReservationId()));
+        ParkingTicket arrived = before.parkReservedVehicle(fulfilled.getReservationId(), new Car("HOLD1", "Grey"));
+        Map<ParkingSpotType, Integer> expectedFree = before.getAvailability().toMap();
+        before.shutdown();
+        lots.remove(before);
+
+        ParkingLot after = newLot(compactFloors);
+        assertEquals(2, after.getReservations().getHeldCount());
+        assertNull(after.getReservations().getReservation(cancelled.getReservationId()));
+        assertNull(after.getReservations().getReservation(fulfilled.getReservationId()));
+        assertEquals(expectedFree, after.getAvailability().toMap());
+        assertEquals(arrived.getAssignedSpot().getSpotId(), spotsByTicket(after).get(arrived.getTicketId()));
+
+        // The held spots are not handed out, and the booked vehicles still get them
+        List<String> held = List.of(snapshotted.getSpot().getSpotId(), tail.getSpot().getSpotId());
+        ParkingTicket next;
+        int walkUps = 0;
+        while ((next = after.parkVehicle(new Car("NEW" + walkUps++, "Grey"))) != null) {
+            assertFalse(held.contains(next.getAssignedSpot().getSpotId()));
+        }
+        assertEquals(held.get(1), after.parkReservedVehicle(tail.getReservationId(), new Car("HOLD3", "Grey"))
+                .getAssignedSpot().getSpotId());
+        assertTrue(after.cancelReservation(snapshotted.getReservationId()));
+        assertNotNull(after.parkVehicle(new Car("LAST", "Grey")));
+    }
+
+    @Test
+    void operationsReturnOnlyOnceJournaled() throws Exception {
+        ParkingLot parkingLot = newLot(false);
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("DURABLE", "Grey"));
+        assertEquals(1, journaled(JournalEvent.Parked.class));
+
+        List<ParkingTicket> batch = parkingLot.parkVehicles(List.of(new Car("BATCH0", "Grey"), new Car("BATCH1", "Grey")));
+        assertEquals(3, journaled(JournalEvent.Parked.class));
+
+        assertTrue(parkingLot.unparkVehicle(ticket.getTicketId(), PaymentMethod.CASH));
+        assertEquals(1, journaled(JournalEvent.Unparked.class));
+        assertEquals(List.of(true, true), parkingLot.unparkVehicles(
+                List.of(batch.get(0).getTicketId(), batch.get(1).getTicketId()), PaymentMethod.CASH));
+        assertEquals(3, journaled(JournalEvent.PaymentSettled.class));
+        assertEquals(3, journaled(JournalEvent.Unparked.class));
+
+        ParkingTicket async = parkingLot.parkVehicle(new Car("ASYNC", "Grey"));
+        assertTrue(parkingLot.unparkVehicleAsync(async.getTicketId(), PaymentMethod.CASH).get(5, TimeUnit.SECONDS));
+        assertEquals(4, journaled(JournalEvent.Unparked.class));
+    }
+
+    @Test
+    void failedJournalWriteIsSurfaced() {
+        ParkingLot parkingLot = newLot(false);
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("BEFORE", "Grey"));
+        parkingLot.getJournal().close();
+
+        assertThrows(IllegalStateException.class, () -> parkingLot.parkVehicle(new Car("AFTER", "Grey")));
+        ExecutionException failure = assertThrows(ExecutionException.class, () ->
+                parkingLot.unparkVehicleAsync(ticket.getTicketId(), PaymentMethod.CASH).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    private long journaled(Class<? extends JournalEvent> type) {
+        return ParkingJournal.readAll(journalDirectory).stream().filter(entry -> type.isInstance(entry.event())).count();
+    }
+
+    private ParkingLot newLot(boolean compactFloors) {
+        ParkingLot parkingLot = new ParkingLotBuilder()
+                .setName("Recovery")
+                .setFloors(2)
+                .setCompactFloors(compactFloors)
+                .addSpotConfiguration(ParkingSpotType.MOTORCYCLE, 2)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 8)
+                .setPaymentProcessor(new ApprovingPaymentProcessor())
+                .enableJournal(journalDirectory)
+                // Older closed tickets go to the archive, which lives next to the journal
+                .setHistoryCapacity(1)
+                .build();
+        lots.add(parkingLot);
+        return parkingLot;
+    }
+
+    private static Map<String, String> spotsByTicket(ParkingLot parkingLot) {
+        Map<String, String> spots = new TreeMap<>();
+        parkingLot.getActiveTickets().values().forEach(ticket -> spots.put(ticket.getTicketId(), ticket.getAssignedSpot().getSpotId()));
+        return spots;
+    }
+}
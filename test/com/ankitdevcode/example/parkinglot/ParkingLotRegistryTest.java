@@ -0,0 +1,214 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.id.SnowflakeIdGenerator;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Requests reach exactly the lot they name and lots share no state: not plates, not counters and
+// never a Snowflake node ID, so no two of them can mint the same ticket ID. Cross-lot queries see
+// each lot's own counters and compatibility.
+class ParkingLotRegistryTest {
+    private final ParkingLotRegistry registry = new ParkingLotRegistry(4);
+    private ExecutorService registrars;
+
+    @AfterEach
+    void tearDown() {
+        if (registrars != null) {
+            registrars.shutdownNow();
+        }
+        registry.shutdown();
+    }
+
+    @Test
+    void requestsReachOnlyTheLotTheyName() {
+        for (String lotId : List.of("NORTH", "SOUTH", "EAST")) {
+            registry.register(newLot(lotId, null));
+        }
+        ParkingTicket north = registry.route("NORTH").parkVehicle(VehicleType.COMPACT, "SAME", "Grey");
+        // The same plate is a different vehicle as far as another lot is concerned
+        ParkingTicket south = registry.route("SOUTH").parkVehicle(VehicleType.COMPACT, "SAME", "Grey");
+        assertNotNull(north);
+        assertNotNull(south);
+        assertNull(registry.route("NORTH").parkVehicle(VehicleType.COMPACT, "SAME", "Grey"));
+
+        assertEquals(1, registry.route("NORTH").getAvailability(ParkingSpotType.COMPACT));
+        assertEquals(2, registry.route("EAST").getAvailability(ParkingSpotType.COMPACT));
+        assertNull(registry.route("EAST").findVehicle("SAME"));
+        assertNull(registry.route("SOUTH").getTicketInfo(north.getTicketId()));
+        assertFalse(registry.route("SOUTH").exitVehicle(north.getTicketId(), PaymentMethod.CASH));
+        assertSame(north, registry.route("NORTH").findVehicle("SAME"));
+
+        assertEquals(3, registry.size());
+        assertThrows(IllegalArgumentException.class, () -> registry.route("WEST"));
+        assertThrows(IllegalArgumentException.class, () -> registry.route(null));
+        ParkingLot duplicate = newLot("EAST", null);
+        assertThrows(IllegalStateException.class, () -> registry.register(duplicate));
+        duplicate.shutdown();
+
+        ParkingLot east = registry.unregister("EAST");
+        east.shutdown();
+        assertNull(registry.unregister("EAST"));
+        assertThrows(IllegalArgumentException.class, () -> registry.route("EAST"));
+        assertEquals(2, registry.getLots().size());
+    }
+
+    @Test
+    void crossLotQueriesReadEachLotsCounters() {
+        GeoLocation here = new GeoLocation(51.5007, -0.1246);
+        ParkingLot near = newLot("NEAR", 51.5014, -0.1419, ParkingSpotType.COMPACT, null);
+        ParkingLot middle = newLot("MIDDLE", 51.5194, -0.1270, ParkingSpotType.ELECTRIC,
+                CompatibilityMatrix.defaults().toBuilder()
+                        .allow(VehicleType.COMPACT, ParkingSpotType.COMPACT, ParkingSpotType.ELECTRIC)
+                        .build());
+        ParkingLot far = newLot("FAR", 51.4700, -0.4543, ParkingSpotType.LARGE, null);
+        for (ParkingLot parkingLot : List.of(near, middle, far)) {
+            registry.register(parkingLot);
+        }
+
+        assertSame(near, registry.findNearest(here, ParkingSpotType.COMPACT));
+        assertSame(middle, registry.findNearest(here, ParkingSpotType.ELECTRIC));
+        assertSame(far, registry.findNearest(here, VehicleType.LARGE));
+        assertEquals(Integer.valueOf(2), registry.getAvailability().get(ParkingSpotType.COMPACT));
+        assertEquals(Integer.valueOf(6), registry.getAvailability().values().stream().mapToInt(Integer::intValue).sum());
+
+        // Once the nearest lot is full, cars go to the one whose matrix lets them use its chargers
+        near.parkVehicle(new Car("N1", "Grey"));
+        near.parkVehicle(new Car("N2", "Grey"));
+        assertSame(middle, registry.findNearest(here, VehicleType.COMPACT));
+        assertNull(registry.findNearest(here, ParkingSpotType.COMPACT));
+        assertEquals(Integer.valueOf(0), registry.getAvailability().get(ParkingSpotType.COMPACT));
+        middle.parkVehicle(new Car("M1", "Grey"));
+        middle.parkVehicle(new Car("M2", "Grey"));
+        assertSame(far, registry.findNearest(here, VehicleType.COMPACT));
+        assertNull(registry.findNearest(here, ParkingSpotType.ELECTRIC));
+    }
+
+    @Test
+    void concurrentRegistrationsAllRoute() throws Exception {
+        int threads = 8;
+        int perThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        registrars = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            results.add(registrars.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    registry.register(newLot("T" + thread + "L" + i, null));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(threads * perThread, registry.size());
+        Set<Integer> nodeIds = new HashSet<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                ParkingLot parkingLot = registry.route("T" + t + "L" + i).parkingLot();
+                assertEquals("T" + t + "L" + i, parkingLot.getLotId());
+                assertTrue(nodeIds.add(parkingLot.getNodeId()));
+            }
+        }
+    }
+
+    @Test
+    void registeredLotsGetDistinctNodeIds() {
+        Set<Integer> nodeIds = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            ParkingLot parkingLot = newLot("LOT" + i, null);
+            registry.register(parkingLot);
+            nodeIds.add(parkingLot.getNodeId());
+        }
+        assertEquals(20, nodeIds.size());
+
+        ParkingTicket first = registry.getLot("LOT0").parkVehicle(new Car("SAME", "Grey"));
+        ParkingTicket second = registry.getLot("LOT1").parkVehicle(new Car("SAME", "Grey"));
+        assertNotEquals(first.getTicketId(), second.getTicketId());
+        assertEquals(registry.getLot("LOT0").getNodeId(), SnowflakeIdGenerator.nodeOf(first.getId()));
+    }
+
+    @Test
+    void pinnedNodeIdMustBeFree() {
+        registry.register(newLot("PINNED", 3));
+        assertEquals(3, registry.getLot("PINNED").getNodeId());
+        ParkingLot clash = newLot("CLASH", 3);
+        assertThrows(IllegalStateException.class, () -> registry.register(clash));
+        assertNull(registry.getLot("CLASH"));
+
+        // Freed again once the first lot leaves
+        registry.unregister("PINNED").shutdown();
+        registry.register(clash);
+        assertSame(clash, registry.getLot("CLASH"));
+    }
+
+    @Test
+    void ticketIdsAreDecodedAtTheEdge() {
+        ParkingLot parkingLot = newLot("EDGE", null);
+        registry.register(parkingLot);
+        ParkingTicket ticket = parkingLot.parkVehicle(new Car("EDGE1", "Grey"));
+
+        assertSame(ticket, parkingLot.getTicket(ticket.getTicketId()));
+        assertSame(ticket, parkingLot.getActiveTickets().get(ticket.getId()));
+        assertEquals(ticket.getId(), ParkingTicket.parseId(ticket.getTicketId()));
+        for (String malformed : new String[] {null, "", "TKT", "TKT-1", "PAY" + ticket.getTicketId().substring(3), "TKT#?"}) {
+            assertNull(parkingLot.getTicket(malformed));
+            assertFalse(parkingLot.unparkVehicle(malformed, PaymentMethod.CASH));
+        }
+    }
+
+    private static ParkingLot newLot(String lotId, Integer nodeId) {
+        ParkingLotBuilder builder = new ParkingLotBuilder()
+                .setLotId(lotId)
+                .setName(lotId)
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 2);
+        if (nodeId != null) {
+            builder.setNodeId(nodeId);
+        }
+        return builder.build();
+    }
+
+    private static ParkingLot newLot(String lotId, double latitude, double longitude, ParkingSpotType spotType,
+                                     CompatibilityMatrix compatibility) {
+        ParkingLotBuilder builder = new ParkingLotBuilder()
+                .setLotId(lotId)
+                .setName(lotId)
+                .setLocation(latitude, longitude)
+                .setFloors(1)
+                .addSpotConfiguration(spotType, 2);
+        if (compatibility != null) {
+            builder.setCompatibility(compatibility);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.DefaultPaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.payment.PaymentProcessor;
+import com.ankitdevcode.example.parkinglot.payment.pricing.OccupancyPricingStrategy;
+import com.ankitdevcode.example.parkinglot.payment.pricing.TariffPricingStrategy;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Everything the simulation touches runs on its clock: the same traffic gives the same report,
+// and holds and waits run out at simulated times without the test waiting for them
+class ParkingLotSimulatorTest {
+    private static final Instant START = Instant.parse("2025-01-06T08:00:00Z");
+
+    private final List<ParkingLot> lots = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        lots.forEach(ParkingLot::shutdown);
+    }
+
+    @Test
+    void sameTrafficGivesTheSameReport() {
+        Instant end = START.plus(Duration.ofDays(2));
+        List<ParkingLotSimulator.Arrival> traffic = new TrafficModel(7)
+                .setBookings(0.2, 0.3)
+                .setWaiting(0.5, Duration.ofMinutes(20))
+                .generate(START, end, ZoneOffset.UTC);
+
+        ParkingLotSimulator.Report first = simulate(traffic, end);
+        ParkingLotSimulator.Report second = simulate(traffic, end);
+
+        assertTrue(first.bookings() > 0 && first.missedBookings() > 0);
+        assertTrue(first.queued() > 0 && first.waitTimeouts() > 0);
+        assertEquals(outcome(first), outcome(second));
+    }
+
+    @Test
+    void holdRunsOutOnSimulatedTime() {
+        SimulatedClock clock = new SimulatedClock(START, ZoneOffset.UTC);
+        ParkingLot parkingLot = newLot(clock, 1, new ApprovingPaymentProcessor());
+        ParkingLotSimulator simulator = new ParkingLotSimulator(parkingLot, clock);
+        // Booked for 30 minutes but an hour late; the walk-up at 40 minutes gets the freed spot
+        simulator.addArrival(new ParkingLotSimulator.Arrival(START.plus(Duration.ofHours(1)), VehicleType.COMPACT,
+                "LATE", Duration.ofHours(1), PaymentMethod.CASH,
+                new ParkingLotSimulator.Booking(START, Duration.ofMinutes(30)), Duration.ZERO));
+        simulator.addArrival(new ParkingLotSimulator.Arrival(START.plus(Duration.ofMinutes(40)), VehicleType.COMPACT,
+                "WALKUP", Duration.ofHours(5), PaymentMethod.CASH));
+
+        ParkingLotSimulator.Report report = simulator.run(START.plus(Duration.ofHours(4)));
+
+        assertEquals(1, report.bookings());
+        assertEquals(1, report.missedBookings());
+        assertEquals(1, report.parked());
+        assertEquals(1, report.rejected());
+        assertEquals(0, parkingLot.getReservations().getHeldCount());
+        assertEquals(at(Duration.ofMinutes(40)), parkingLot.findTicketByPlate("WALKUP").getEntryTime());
+    }
+
+    @Test
+    void waitsAreAdmittedOrRunOutOnSimulatedTime() {
+        SimulatedClock clock = new SimulatedClock(START, ZoneOffset.UTC);
+        ParkingLot parkingLot = newLot(clock, 1, new ApprovingPaymentProcessor());
+        ParkingLotSimulator simulator = new ParkingLotSimulator(parkingLot, clock);
+        simulator.addArrival(new ParkingLotSimulator.Arrival(START, VehicleType.COMPACT,
+                "FIRST", Duration.ofHours(1), PaymentMethod.CASH));
+        simulator.addArrival(new ParkingLotSimulator.Arrival(START.plus(Duration.ofMinutes(10)), VehicleType.COMPACT,
+                "PATIENT", Duration.ofHours(5), PaymentMethod.CASH, null, Duration.ofHours(2)));
+        simulator.addArrival(new ParkingLotSimulator.Arrival(START.plus(Duration.ofMinutes(20)), VehicleType.COMPACT,
+                "HURRIED", Duration.ofHours(1), PaymentMethod.CASH, null, Duration.ofMinutes(10)));
+
+        ParkingLotSimulator.Report report = simulator.run(START.plus(Duration.ofHours(3)));
+
+        assertEquals(2, report.queued());
+        assertEquals(1, report.waitTimeouts());
+        assertEquals(2, report.parked());
+        assertEquals(1, report.rejected());
+        assertEquals(0, parkingLot.getAdmissions().getWaitingCount());
+        // Admitted the moment FIRST left, by the simulated clock
+        assertEquals(at(Duration.ofHours(1)), parkingLot.findTicketByPlate("PATIENT").getEntryTime());
+    }
+
+    private ParkingLotSimulator.Report simulate(List<ParkingLotSimulator.Arrival> traffic, Instant end) {
+        SimulatedClock clock = new SimulatedClock(START, ZoneOffset.UTC);
+        ParkingLot parkingLot = newLot(clock, 15, new DefaultPaymentProcessor(new Random(7)));
+        new ParkingLotService(parkingLot).enableOccupancyPricing(
+                OccupancyPricingStrategy.builder(TariffPricingStrategy.standard()));
+        ParkingLotSimulator simulator = new ParkingLotSimulator(parkingLot, clock);
+        simulator.addArrivals(traffic);
+        return simulator.run(end);
+    }
+
+    private ParkingLot newLot(SimulatedClock clock, int compactSpots, PaymentProcessor paymentProcessor) {
+        ParkingLot parkingLot = new ParkingLotBuilder()
+                .setName("Simulated")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.MOTORCYCLE, compactSpots / 3)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, compactSpots)
+                .addSpotConfiguration(ParkingSpotType.LARGE, compactSpots / 5)
+                .addSpotConfiguration(ParkingSpotType.ELECTRIC, compactSpots / 5)
+                .setPaymentProcessor(paymentProcessor)
+                .setClock(clock)
+                .build();
+        lots.add(parkingLot);
+        return parkingLot;
+    }
+
+    private static LocalDateTime at(Duration sinceStart) {
+        return LocalDateTime.ofInstant(START.plus(sinceStart), ZoneOffset.UTC);
+    }
+
+    // Everything but the wall time the run took
+    private static List<Object> outcome(ParkingLotSimulator.Report report) {
+        return List.of(report.events(), report.arrivals(), report.parked(), report.rejected(), report.bookings(),
+                report.missedBookings(), report.queued(), report.waitTimeouts(), report.exits(),
+                report.declinedPayments(), report.peakOccupied(), report.revenue());
+    }
+}
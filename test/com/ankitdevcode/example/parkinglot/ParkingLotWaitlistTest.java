@@ -0,0 +1,124 @@
+package com.ankitdevcode.example.parkinglot;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.reservation.Reservation;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.ticket.ParkingTicket;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A full lot queues arrivals per vehicle type: exits admit them oldest first, and a wait that runs
+// out or finds the waitlist full completes with null and frees the plate
+class ParkingLotWaitlistTest {
+    private static final Duration LONG_WAIT = Duration.ofSeconds(30);
+
+    private ParkingLot parkingLot;
+
+    @AfterEach
+    void tearDown() {
+        if (parkingLot != null) {
+            parkingLot.shutdown();
+        }
+    }
+
+    @Test
+    void exitsAdmitWaitersInArrivalOrder() throws Exception {
+        parkingLot = newLot(10);
+        ParkingTicket occupant = parkingLot.parkVehicle(new Car("FIRST", "Grey"));
+        assertNotNull(occupant);
+
+        List<CompletableFuture<ParkingTicket>> waits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waits.add(parkingLot.parkVehicleOrWait(new Car("WAIT" + i, "Grey"), LONG_WAIT));
+        }
+        assertEquals(4, parkingLot.getAdmissions().getWaitingCount(VehicleType.COMPACT));
+        // A walk-up arrival does not jump the queue
+        assertNull(parkingLot.parkVehicle(new Car("WALKUP", "Grey")));
+
+        for (int i = 0; i < waits.size(); i++) {
+            assertTrue(parkingLot.unparkVehicle(occupant.getTicketId(), PaymentMethod.CASH));
+            occupant = waits.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals("WAIT" + i, occupant.getLicensePlate());
+            for (int later = i + 1; later < waits.size(); later++) {
+                assertFalse(waits.get(later).isDone());
+            }
+        }
+        assertEquals(0, parkingLot.getAdmissions().getWaitingCount());
+    }
+
+    @Test
+    void waitThatRunsOutLeavesTheQueue() throws Exception {
+        parkingLot = newLot(10);
+        ParkingTicket occupant = parkingLot.parkVehicle(new Car("FIRST", "Grey"));
+        CompletableFuture<ParkingTicket> shortWait = parkingLot.parkVehicleOrWait(new Car("SHORT", "Grey"), Duration.ofMillis(200));
+        CompletableFuture<ParkingTicket> longWait = parkingLot.parkVehicleOrWait(new Car("LONG", "Grey"), LONG_WAIT);
+
+        assertNull(shortWait.get(5, TimeUnit.SECONDS));
+        assertEquals(1, parkingLot.getAdmissions().getWaitingCount(VehicleType.COMPACT));
+        // Only FIRST and LONG still hold their plates; SHORT's is dropped by a callback on the wheel thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (parkingLot.getPlateIndex().size() > 2 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(2, parkingLot.getPlateIndex().size());
+
+        // The freed spot skips the expired waiter and goes to the one behind it
+        assertTrue(parkingLot.unparkVehicle(occupant.getTicketId(), PaymentMethod.CASH));
+        assertEquals("LONG", longWait.get(5, TimeUnit.SECONDS).getLicensePlate());
+        assertEquals(0, parkingLot.getAdmissions().getWaitingCount());
+    }
+
+    @Test
+    void fullWaitlistTurnsArrivalsAway() throws Exception {
+        parkingLot = newLot(2);
+        parkingLot.parkVehicle(new Car("FIRST", "Grey"));
+        CompletableFuture<ParkingTicket> first = parkingLot.parkVehicleOrWait(new Car("WAIT0", "Grey"), LONG_WAIT);
+        CompletableFuture<ParkingTicket> second = parkingLot.parkVehicleOrWait(new Car("WAIT1", "Grey"), LONG_WAIT);
+        CompletableFuture<ParkingTicket> overflow = parkingLot.parkVehicleOrWait(new Car("WAIT2", "Grey"), LONG_WAIT);
+
+        assertTrue(overflow.isDone());
+        assertNull(overflow.get());
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(2, parkingLot.getAdmissions().getWaitingCount(VehicleType.COMPACT));
+        // The turned-away plate is released so it can try again
+        assertEquals(3, parkingLot.getPlateIndex().size());
+    }
+
+    @Test
+    void reservationsDoNotJumpTheQueueAndCancelledHoldsAdmitIt() throws Exception {
+        parkingLot = newLot(10);
+        Reservation hold = parkingLot.reserveSpot(VehicleType.COMPACT, "BOOKED", LONG_WAIT);
+        assertNotNull(hold);
+        CompletableFuture<ParkingTicket> wait = parkingLot.parkVehicleOrWait(new Car("WAIT0", "Grey"), LONG_WAIT);
+        assertNull(parkingLot.reserveSpot(VehicleType.COMPACT, "LATE", LONG_WAIT));
+
+        assertTrue(parkingLot.cancelReservation(hold.getReservationId()));
+        assertEquals("WAIT0", wait.get(5, TimeUnit.SECONDS).getLicensePlate());
+        assertEquals(0, parkingLot.getReservations().getHeldCount());
+    }
+
+    private static ParkingLot newLot(int waitlistDepth) {
+        return new ParkingLotBuilder()
+                .setName("Waitlist")
+                .setFloors(1)
+                .addSpotConfiguration(ParkingSpotType.COMPACT, 1)
+                .setPaymentProcessor(new ApprovingPaymentProcessor())
+                .setWaitlistDepth(waitlistDepth)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ankitdevcode.example.parkinglot.allocation;
+
+import com.ankitdevcode.example.parkinglot.floor.CompactParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Motorcycle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The floor ranking follows every claim and release, whether they go through the strategy or
+// straight to a floor, and settles on the true counts after concurrent traffic
+class LeastLoadedStrategyTest {
+    private static final List<ParkingSpotType> COMPACT = List.of(ParkingSpotType.COMPACT);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void vehiclesGoToTheFloorWithTheMostFreeSpots(boolean compactFloors) {
+        List<ParkingFloor> floors = floors(compactFloors, 3, 4);
+        LeastLoadedStrategy strategy = new LeastLoadedStrategy();
+
+        // Ties go to the lower floor, so six arrivals spread two per floor in floor order
+        List<ParkingSpot> parked = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ParkingSpot spot = strategy.allocate(floors, new Car("LL" + i, "Grey"), COMPACT);
+            assertEquals(i % 3, spot.getFloor());
+            parked.add(spot);
+        }
+
+        // Two exits on floor 1, made on the floor directly, move it to the top
+        floors.get(1).removeVehicle(parked.get(1));
+        floors.get(1).removeVehicle(parked.get(4));
+        assertEquals(1, strategy.allocate(floors, new Car("AFTER0", "Grey"), COMPACT).getFloor());
+        assertEquals(1, strategy.allocate(floors, new Car("AFTER1", "Grey"), COMPACT).getFloor());
+        assertEquals(0, strategy.allocate(floors, new Car("AFTER2", "Grey"), COMPACT).getFloor());
+    }
+
+    @Test
+    void lessPreferredTypesOnlyOnceThePreferredIsFull() {
+        List<ParkingFloor> floors = floors(false, 2, 1);
+        floors.get(1).addParkingSpot(ParkingSpotType.MOTORCYCLE, 1, 0);
+        LeastLoadedStrategy strategy = new LeastLoadedStrategy();
+        List<ParkingSpotType> preferences = List.of(ParkingSpotType.MOTORCYCLE, ParkingSpotType.COMPACT);
+
+        assertEquals(ParkingSpotType.MOTORCYCLE, strategy.allocate(floors, new Motorcycle("M0", "Red"), preferences).getType());
+        assertEquals(ParkingSpotType.COMPACT, strategy.allocate(floors, new Motorcycle("M1", "Red"), preferences).getType());
+        assertEquals(ParkingSpotType.COMPACT, strategy.allocate(floors, new Motorcycle("M2", "Red"), preferences).getType());
+        assertNull(strategy.allocate(floors, new Motorcycle("M3", "Red"), preferences));
+    }
+
+    @Test
+    void rankingSettlesAfterConcurrentTraffic() throws Exception {
+        List<ParkingFloor> floors = floors(false, 4, 50);
+        LeastLoadedStrategy strategy = new LeastLoadedStrategy();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService gates = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int gate = 0; gate < threads; gate++) {
+                int id = gate;
+                results.add(gates.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        ParkingSpot spot = strategy.allocate(floors, new Car("G" + id + "X" + i, "Grey"), COMPACT);
+                        if (spot != null && i % 3 != 0) {
+                            floors.get(spot.getFloor()).removeVehicle(spot);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            gates.shutdownNow();
+        }
+
+        // Quiescent now: every further arrival must land on a floor with the most free spots
+        while (true) {
+            int most = 0;
+            for (ParkingFloor floor : floors) {
+                most = Math.max(most, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+            }
+            ParkingSpot spot = strategy.allocate(floors, new Car("LAST", "Grey"), COMPACT);
+            if (most == 0) {
+                assertNull(spot);
+                break;
+            }
+            assertNotNull(spot);
+            assertEquals(most, floors.get(spot.getFloor()).getAvailableSpots(ParkingSpotType.COMPACT) + 1);
+        }
+    }
+
+    @Test
+    void oneInstancePerLot() {
+        LeastLoadedStrategy strategy = new LeastLoadedStrategy();
+        strategy.allocate(floors(false, 1, 1), new Car("A", "Grey"), COMPACT);
+        assertThrows(IllegalStateException.class,
+                () -> strategy.allocate(floors(false, 1, 1), new Car("B", "Grey"), COMPACT));
+    }
+
+    private static List<ParkingFloor> floors(boolean compactFloors, int count, int spotsPerFloor) {
+        List<ParkingFloor> floors = new ArrayList<>();
+        for (int f = 0; f < count; f++) {
+            ParkingFloor floor = compactFloors
+                    ? new CompactParkingFloor(f, spotsPerFloor + 1, null)
+                    : new DefaultParkingFloor(f);
+            for (int n = 0; n < spotsPerFloor; n++) {
+                floor.addParkingSpot(ParkingSpotType.COMPACT, 0, n);
+            }
+            floors.add(floor);
+        }
+        return floors;
+    }
+}
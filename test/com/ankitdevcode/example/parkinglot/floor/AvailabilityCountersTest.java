@@ -0,0 +1,52 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AvailabilityCountersTest {
+
+    @Test
+    void viewIsSharedAndFollowsTheCounters() {
+        AvailabilityCounters counters = new AvailabilityCounters();
+        Map<ParkingSpotType, Integer> view = counters.asMap();
+        assertSame(view, counters.asMap());
+
+        counters.add(ParkingSpotType.COMPACT, 5);
+        counters.decrement(ParkingSpotType.COMPACT);
+        counters.increment(ParkingSpotType.LARGE);
+
+        assertEquals(4, view.get(ParkingSpotType.COMPACT));
+        assertEquals(1, view.get(ParkingSpotType.LARGE));
+        assertEquals(0, view.get(ParkingSpotType.ELECTRIC));
+        assertNull(view.get("COMPACT"));
+        assertEquals(ParkingSpotType.values().length, view.size());
+        assertEquals(counters.toMap(), view);
+    }
+
+    @Test
+    void viewIsReadOnly() {
+        Map<ParkingSpotType, Integer> view = new AvailabilityCounters().asMap();
+
+        assertThrows(UnsupportedOperationException.class, () -> view.put(ParkingSpotType.COMPACT, 1));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(ParkingSpotType.COMPACT));
+        assertThrows(UnsupportedOperationException.class, () -> view.entrySet().iterator().next().setValue(1));
+    }
+
+    @Test
+    void snapshotDoesNotMoveWithTheCounters() {
+        AvailabilityCounters counters = new AvailabilityCounters();
+        counters.add(ParkingSpotType.MOTORCYCLE, 2);
+        Map<ParkingSpotType, Integer> snapshot = counters.toMap();
+        counters.decrement(ParkingSpotType.MOTORCYCLE);
+
+        assertEquals(2, snapshot.get(ParkingSpotType.MOTORCYCLE));
+        assertEquals(1, counters.get(ParkingSpotType.MOTORCYCLE));
+    }
+}
@@ -0,0 +1,155 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotStatus;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.spot.SpotOrdering;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleFactory;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The array-backed floor is a drop-in for the object floor: the same operations hand out the same
+// spots in the same order and leave the same statuses and counts behind
+class CompactParkingFloorTest {
+    private static final int[] SPOTS_PER_TYPE = {5, 10, 4, 3, 0};
+    private static final SpotOrdering NEAREST_ROW_FIRST = (rowA, numberA, rowB, numberB) ->
+            rowA != rowB ? Integer.compare(rowA, rowB) : Integer.compare(numberA, numberB);
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void behavesLikeTheObjectFloor(boolean ordered) {
+        SpotOrdering ordering = ordered ? NEAREST_ROW_FIRST : null;
+        ParkingFloor expected = layout(new DefaultParkingFloor(1, ordering));
+        ParkingFloor actual = layout(new CompactParkingFloor(1, 22, ordering));
+        Random random = new Random(11);
+        List<String> parked = new ArrayList<>();
+        List<String> reserved = new ArrayList<>();
+        List<VehicleType> reservedFor = new ArrayList<>();
+        int plates = 0;
+
+        for (int step = 0; step < 3000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                Vehicle vehicle = vehicle(random, plates++);
+                String spot = idOf(expected.parkVehicle(vehicle));
+                assertEquals(spot, idOf(actual.parkVehicle(vehicle)), "park at step " + step);
+                if (spot != null) {
+                    parked.add(spot);
+                }
+            } else if (operation < 6 && !parked.isEmpty()) {
+                String spot = parked.remove(random.nextInt(parked.size()));
+                assertEquals(expected.removeVehicle(expected.getSpotById(spot)).getLicensePlate(),
+                        actual.removeVehicle(actual.getSpotById(spot)).getLicensePlate(), "remove at step " + step);
+            } else if (operation == 6) {
+                VehicleType vehicleType = VehicleType.values()[random.nextInt(VehicleType.values().length)];
+                String spot = idOf(expected.reserveSpot(vehicleType));
+                assertEquals(spot, idOf(actual.reserveSpot(vehicleType)), "reserve at step " + step);
+                if (spot != null) {
+                    reserved.add(spot);
+                    reservedFor.add(vehicleType);
+                }
+            } else if (operation == 7 && !reserved.isEmpty()) {
+                int hold = random.nextInt(reserved.size());
+                String spot = reserved.remove(hold);
+                VehicleType vehicleType = reservedFor.remove(hold);
+                if (random.nextBoolean()) {
+                    assertTrue(expected.releaseReservation(expected.getSpotById(spot)));
+                    assertTrue(actual.releaseReservation(actual.getSpotById(spot)));
+                } else {
+                    Vehicle vehicle = VehicleFactory.createVehicle(vehicleType, "HELD" + plates++, "Grey");
+                    assertTrue(expected.occupyReservedSpot(expected.getSpotById(spot), vehicle));
+                    assertTrue(actual.occupyReservedSpot(actual.getSpotById(spot), vehicle));
+                    parked.add(spot);
+                }
+            } else if (operation >= 8) {
+                List<Vehicle> batch = List.of(vehicle(random, plates++), vehicle(random, plates++), vehicle(random, plates++));
+                ParkingSpot[] expectedSpots = new ParkingSpot[batch.size()];
+                ParkingSpot[] actualSpots = new ParkingSpot[batch.size()];
+                assertEquals(expected.parkVehicles(batch, expectedSpots), actual.parkVehicles(batch, actualSpots));
+                for (int i = 0; i < batch.size(); i++) {
+                    assertEquals(idOf(expectedSpots[i]), idOf(actualSpots[i]), "batch at step " + step);
+                    if (expectedSpots[i] != null) {
+                        parked.add(expectedSpots[i].getSpotId());
+                    }
+                }
+            }
+            for (ParkingSpotType type : ParkingSpotType.values()) {
+                assertEquals(expected.getAvailableSpots(type), actual.getAvailableSpots(type), type + " at step " + step);
+            }
+        }
+        for (int row = 0; row < 2; row++) {
+            for (int number = 0; number < 22; number++) {
+                ParkingSpot spot = expected.getSpotById(ParkingSpot.formatId(1, row, number));
+                if (spot != null) {
+                    ParkingSpot view = actual.getSpotById(spot.getSpotId());
+                    assertEquals(spot.getStatus(), view.getStatus());
+                    assertSame(spot.getParkedVehicle(), view.getParkedVehicle());
+                }
+            }
+        }
+    }
+
+    @Test
+    void viewsReadAndWriteTheArrays() {
+        CompactParkingFloor floor = new CompactParkingFloor(0, 2);
+        ParkingSpot spot = floor.addParkingSpot(ParkingSpotType.COMPACT, 3, 7);
+        assertEquals(ParkingSpot.formatId(0, 3, 7), spot.getSpotId());
+        assertEquals(spot, floor.getSpotById(spot.getSpotId()));
+        assertNull(floor.getSpotById(ParkingSpot.formatId(0, 4, 7)));
+        assertNull(floor.getSpotById("nonsense"));
+
+        Car car = new Car("VIEW", "Grey");
+        assertTrue(spot.parkVehicle(car));
+        assertFalse(floor.getSpotById(spot.getSpotId()).isAvailable());
+        assertSame(car, floor.getSpotById(spot.getSpotId()).getParkedVehicle());
+        assertSame(car, floor.removeVehicle(spot));
+        assertEquals(ParkingSpotStatus.AVAILABLE, spot.getStatus());
+    }
+
+    @Test
+    void capacityIsFixed() {
+        CompactParkingFloor floor = new CompactParkingFloor(0, 1);
+        floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 0);
+        assertEquals(1, floor.getCapacity());
+        assertThrows(IllegalStateException.class, () -> floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 1));
+    }
+
+    // Two rows, added far row first so that FIFO and nearest-first hand spots out differently
+    private static ParkingFloor layout(ParkingFloor floor) {
+        int number = 0;
+        for (int row = 1; row >= 0; row--) {
+            for (ParkingSpotType type : ParkingSpotType.values()) {
+                int count = SPOTS_PER_TYPE[type.ordinal()];
+                int onThisRow = row == 1 ? count / 2 : count - count / 2;
+                for (int i = 0; i < onThisRow; i++) {
+                    floor.addParkingSpot(type, row, number++);
+                }
+            }
+        }
+        return floor;
+    }
+
+    private static Vehicle vehicle(Random random, int plate) {
+        return VehicleFactory.createVehicle(VehicleType.values()[random.nextInt(VehicleType.values().length)],
+                "V" + plate, "Grey");
+    }
+
+    private static String idOf(ParkingSpot spot) {
+        return spot == null ? null : spot.getSpotId();
+    }
+}
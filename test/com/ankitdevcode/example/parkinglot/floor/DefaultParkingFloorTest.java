@@ -0,0 +1,153 @@
+package com.ankitdevcode.example.parkinglot.floor;
+
+import com.ankitdevcode.example.parkinglot.spot.DefaultParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotStatus;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Motorcycle;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The free index hands each spot out once, falls through to the next preferred type only when a
+// type is used up, and takes freed spots back, also with many gates parking at once
+class DefaultParkingFloorTest {
+    private ExecutorService gates;
+
+    @AfterEach
+    void tearDown() {
+        if (gates != null) {
+            gates.shutdownNow();
+        }
+    }
+
+    @Test
+    void spotsComeFromTheIndexByPreference() {
+        DefaultParkingFloor floor = new DefaultParkingFloor(0);
+        ParkingSpot compact = floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 0);
+        ParkingSpot large = floor.addParkingSpot(ParkingSpotType.LARGE, 0, 1);
+
+        assertSame(compact, floor.findAvailableSpot(VehicleType.COMPACT));
+        assertSame(compact, floor.parkVehicle(new Car("A", "Grey")));
+        assertSame(large, floor.parkVehicle(new Car("B", "Grey")));
+        assertNull(floor.parkVehicle(new Car("C", "Grey")));
+        assertEquals(0, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+        assertEquals(0, floor.getAvailableSpots(ParkingSpotType.LARGE));
+
+        assertEquals("A", floor.removeVehicle(compact).getLicensePlate());
+        assertEquals(1, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+        assertSame(compact, floor.parkVehicle(new Motorcycle("D", "Red")));
+    }
+
+    @Test
+    void orderedFloorHandsOutTheBestFreeSpotFirst() {
+        // Nearest row first, then lowest number
+        DefaultParkingFloor floor = new DefaultParkingFloor(0,
+                (rowA, numberA, rowB, numberB) -> rowA != rowB ? Integer.compare(rowA, rowB) : Integer.compare(numberA, numberB));
+        for (int number = 3; number >= 0; number--) {
+            floor.addParkingSpot(ParkingSpotType.COMPACT, 1, number);
+            floor.addParkingSpot(ParkingSpotType.COMPACT, 0, number);
+        }
+        List<ParkingSpot> taken = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            taken.add(floor.parkVehicle(new Car("CAR" + i, "Grey")));
+        }
+        assertEquals(ParkingSpot.formatId(0, 0, 0), taken.get(0).getSpotId());
+        assertEquals(ParkingSpot.formatId(0, 1, 0), taken.get(4).getSpotId());
+
+        floor.removeVehicle(taken.get(6));
+        floor.removeVehicle(taken.get(2));
+        assertSame(taken.get(2), floor.parkVehicle(new Car("NEXT", "Grey")));
+    }
+
+    @Test
+    void batchFillsOnlyTheUnassignedPositions() {
+        DefaultParkingFloor floor = new DefaultParkingFloor(0);
+        ParkingSpot first = floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 0);
+        ParkingSpot second = floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 1);
+        ParkingSpot elsewhere = new DefaultParkingSpot(ParkingSpot.formatId(1, 0, 0), ParkingSpotType.COMPACT, 1, 0, 0);
+        List<Vehicle> vehicles = List.of(new Car("A", "Grey"), new Car("B", "Grey"), new Car("C", "Grey"), new Car("D", "Grey"));
+        ParkingSpot[] assigned = {null, elsewhere, null, null};
+
+        assertEquals(2, floor.parkVehicles(vehicles, assigned));
+        assertSame(first, assigned[0]);
+        assertSame(elsewhere, assigned[1]);
+        assertSame(second, assigned[2]);
+        assertNull(assigned[3]);
+        assertEquals(0, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+
+        floor.removeVehicles(List.of(first, second));
+        assertEquals(2, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void spotTakenOutOfServiceIsSkipped() {
+        DefaultParkingFloor floor = new DefaultParkingFloor(0);
+        ParkingSpot broken = floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 0);
+        ParkingSpot working = floor.addParkingSpot(ParkingSpotType.COMPACT, 0, 1);
+        broken.setStatus(ParkingSpotStatus.OUT_OF_ORDER);
+
+        assertSame(working, floor.parkVehicle(new Car("A", "Grey")));
+        assertNull(floor.parkVehicle(new Car("B", "Grey")));
+    }
+
+    @Test
+    void concurrentParksNeverShareASpot() throws Exception {
+        int spots = 400;
+        int threads = 8;
+        DefaultParkingFloor floor = new DefaultParkingFloor(0);
+        for (int i = 0; i < spots; i++) {
+            floor.addParkingSpot(ParkingSpotType.COMPACT, i / 20, i % 20);
+        }
+        Set<String> claimed = ConcurrentHashMap.newKeySet();
+        List<ParkingSpot> parked = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        gates = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int gate = 0; gate < threads; gate++) {
+            int g = gate;
+            results.add(gates.submit(() -> {
+                start.await();
+                for (int i = 0; i < spots / threads + 10; i++) {
+                    Vehicle car = new Car("G" + g + "C" + i, "Grey");
+                    ParkingSpot spot = floor.parkVehicle(car);
+                    if (spot != null) {
+                        assertTrue(claimed.add(spot.getSpotId()));
+                        assertSame(car, spot.getParkedVehicle());
+                        parked.add(spot);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(spots, claimed.size());
+        assertEquals(0, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+
+        floor.removeVehicles(parked);
+        assertEquals(spots, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+        assertNotNull(floor.parkVehicle(new Car("AGAIN", "Grey")));
+    }
+}
@@ -0,0 +1,158 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+import com.ankitdevcode.example.parkinglot.spot.DefaultParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A slow or failing observer costs the publishing gate nothing: the default policy sheds, COALESCE
+// keeps only the newest state per spot, and callbacks that throw are counted rather than printed.
+// Floor-scoped subscribers are only handed their own floor's events.
+class ParkingEventBusTest {
+    private static final ParkingSpot SPOT = new DefaultParkingSpot("F0R0S0", ParkingSpotType.COMPACT, 0, 0, 0);
+    private static final ParkingSpot OTHER = new DefaultParkingSpot("F0R0S1", ParkingSpotType.COMPACT, 0, 0, 1);
+    private static final Vehicle CAR = new Car("BUS1", "Grey");
+
+    private ParkingEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void defaultPolicyShedsInsteadOfBlockingThePublisher() throws Exception {
+        bus = new ParkingEventBus();
+        RecordingObserver slow = new RecordingObserver(false);
+        bus.subscribe(slow);
+        publishUntilDelivered(slow);
+
+        for (int i = 0; i < ParkingEventBus.DEFAULT_CAPACITY + 100; i++) {
+            bus.publish(new ParkingEvent.SpotFreed(SPOT));
+        }
+        // The consumer is parked in the first callback, so the queue fills and the rest are shed
+        assertEquals(100, bus.getDroppedEvents());
+        slow.release.countDown();
+        bus.close();
+        assertEquals(ParkingEventBus.DEFAULT_CAPACITY + 1, slow.events.size());
+    }
+
+    @Test
+    void coalescePolicyKeepsTheNewestEventPerSpot() throws Exception {
+        bus = new ParkingEventBus(16, 8, BackpressurePolicy.COALESCE);
+        RecordingObserver slow = new RecordingObserver(false);
+        bus.subscribe(slow);
+        publishUntilDelivered(slow);
+
+        bus.publish(new ParkingEvent.SpotOccupied(SPOT, CAR));
+        bus.publish(new ParkingEvent.SpotOccupied(OTHER, CAR));
+        bus.publish(new ParkingEvent.SpotFreed(SPOT));
+        slow.release.countDown();
+        bus.close();
+
+        // The newer SPOT event takes the place of the one it supersedes
+        assertEquals(List.of("freed F0R0S0", "freed F0R0S0", "occupied F0R0S1"), slow.events);
+        assertEquals(0, bus.getDroppedEvents());
+    }
+
+    @Test
+    void failingCallbacksAreCountedAsDropped() {
+        bus = new ParkingEventBus();
+        RecordingObserver failing = new RecordingObserver(true);
+        failing.release.countDown();
+        bus.subscribe(failing);
+        for (int i = 0; i < 5; i++) {
+            bus.publish(new ParkingEvent.SpotFreed(SPOT));
+        }
+        bus.close();
+
+        assertEquals(5, failing.events.size());
+        assertEquals(5, bus.getFailedEvents());
+        assertEquals(5, bus.getDroppedEvents());
+        assertTrue(failing.virtual);
+    }
+
+    @Test
+    void floorSubscribersOnlySeeTheirFloorAndLotWideEvents() {
+        bus = new ParkingEventBus();
+        RecordingObserver floor0 = new RecordingObserver(false);
+        RecordingObserver floor1 = new RecordingObserver(false);
+        RecordingObserver lot = new RecordingObserver(false);
+        for (RecordingObserver observer : List.of(floor0, floor1, lot)) {
+            observer.release.countDown();
+        }
+        bus.subscribe(0, floor0);
+        bus.subscribe(1, floor1);
+        bus.subscribe(lot);
+
+        ParkingSpot upstairs = new DefaultParkingSpot("F1R0S0", ParkingSpotType.COMPACT, 1, 0, 0);
+        bus.publish(new ParkingEvent.SpotOccupied(SPOT, CAR));
+        bus.publish(new ParkingEvent.SpotFreed(upstairs));
+        bus.publish(ParkingEvent.lotFull());
+        bus.close();
+
+        assertEquals(List.of("occupied F0R0S0", "full"), floor0.events);
+        assertEquals(List.of("freed F1R0S0", "full"), floor1.events);
+        assertEquals(List.of("occupied F0R0S0", "freed F1R0S0", "full"), lot.events);
+    }
+
+    // Waits for the consumer to be inside its first callback
+    private void publishUntilDelivered(RecordingObserver observer) throws InterruptedException {
+        bus.publish(new ParkingEvent.SpotFreed(SPOT));
+        assertTrue(observer.entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private static final class RecordingObserver implements ParkingObserver {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final boolean failing;
+        volatile boolean virtual;
+
+        RecordingObserver(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public void onSpotOccupied(ParkingSpot spot, Vehicle vehicle) {
+            record("occupied " + spot.getSpotId());
+        }
+
+        @Override
+        public void onSpotFreed(ParkingSpot spot) {
+            record("freed " + spot.getSpotId());
+        }
+
+        @Override
+        public void onParkingLotFull() {
+            record("full");
+        }
+
+        private void record(String event) {
+            events.add(event);
+            virtual = Thread.currentThread().isVirtual();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing) {
+                throw new IllegalStateException("Board offline");
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ankitdevcode.example.parkinglot.observer;
+
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// However many events arrive between refreshes, the board renders its floor's current counts once,
+// and a board with nothing new renders nothing. The interval is long enough that only close renders.
+class RefreshingDisplayBoardTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private PrintStream original;
+    private ParkingFloor floor;
+
+    @BeforeEach
+    void setUp() {
+        original = System.out;
+        System.setOut(new PrintStream(output, true));
+        floor = new DefaultParkingFloor(2);
+        for (int i = 0; i < 4; i++) {
+            floor.addParkingSpot(ParkingSpotType.COMPACT, 0, i);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(original);
+    }
+
+    @Test
+    void burstOfEventsRendersOnceWithTheLatestCounts() {
+        RefreshingDisplayBoard board = new RefreshingDisplayBoard(floor, NEVER);
+        List<ParkingSpot> taken = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Car car = new Car("BOARD" + i, "Grey");
+            ParkingSpot spot = floor.parkVehicle(car);
+            taken.add(spot);
+            board.onSpotOccupied(spot, car);
+        }
+        floor.removeVehicle(taken.get(0));
+        board.onSpotFreed(taken.get(0));
+        board.close();
+
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("Display Board Floor 2:"));
+        assertTrue(lines.get(0).contains("COMPACT=2"));
+    }
+
+    @Test
+    void lotFullIsShownUntilASpotIsFreed() {
+        RefreshingDisplayBoard full = new RefreshingDisplayBoard(floor, NEVER);
+        full.onParkingLotFull();
+        full.close();
+        RefreshingDisplayBoard freed = new RefreshingDisplayBoard(floor, NEVER);
+        freed.onParkingLotFull();
+        freed.onSpotFreed(floor.getSpotById(ParkingSpot.formatId(2, 0, 0)));
+        freed.close();
+
+        List<String> lines = lines();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith("| PARKING LOT FULL"));
+        assertFalse(lines.get(1).contains("FULL"));
+    }
+
+    @Test
+    void cleanBoardRendersNothing() {
+        new RefreshingDisplayBoard(floor, NEVER).close();
+        assertEquals(List.of(), lines());
+    }
+
+    private List<String> lines() {
+        return output.toString().lines().toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.ankitdevcode.example.parkinglot.payment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Unknown outcomes (errors, timeouts) are retried under the same payment ID, declines are final,
+// and closing lets payments in flight finish while turning new ones away
+class AsyncPaymentProcessorTest {
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+    private static final Duration BACKOFF = Duration.ofMillis(10);
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private AsyncPaymentProcessor processor;
+
+    @AfterEach
+    void tearDown() {
+        if (processor != null) {
+            processor.close();
+        }
+    }
+
+    @Test
+    void gatewayErrorsAreRetriedWithTheSamePaymentId() {
+        processor = newProcessor((payment, attempt) -> {
+            if (attempt < 3) {
+                throw new IOException("gateway unavailable");
+            }
+            return true;
+        });
+        Payment payment = payment("PAY-RETRY");
+
+        assertTrue(processor.processPaymentAsync(payment).join());
+        assertEquals(List.of("PAY-RETRY", "PAY-RETRY", "PAY-RETRY"), calls);
+        assertEquals(PaymentStatus.COMPLETED, processor.checkStatus("PAY-RETRY"));
+    }
+
+    @Test
+    void declinesAreNotRetried() {
+        processor = newProcessor((payment, attempt) -> false);
+
+        assertFalse(processor.processPayment(payment("PAY-DECLINED")));
+        assertEquals(1, calls.size());
+        assertEquals(PaymentStatus.FAILED, processor.checkStatus("PAY-DECLINED"));
+        assertThrows(IllegalStateException.class, () -> processor.refund("PAY-DECLINED"));
+    }
+
+    @Test
+    void paymentFailsOnceEveryAttemptTimesOut() {
+        processor = newProcessor((payment, attempt) -> {
+            Thread.sleep(TIMEOUT.toMillis() * 10);
+            return true;
+        });
+
+        assertFalse(processor.processPaymentAsync(payment("PAY-SLOW")).join());
+        assertEquals(3, calls.size());
+        assertEquals(PaymentStatus.FAILED, processor.checkStatus("PAY-SLOW"));
+    }
+
+    @Test
+    void settledPaymentsCanBeRefunded() {
+        processor = newProcessor((payment, attempt) -> true);
+
+        assertTrue(processor.processPayment(payment("PAY-REFUND")));
+        processor.refund("PAY-REFUND");
+        assertEquals(PaymentStatus.REFUNDED, processor.checkStatus("PAY-REFUND"));
+        assertThrows(IllegalArgumentException.class, () -> processor.checkStatus("PAY-UNKNOWN"));
+    }
+
+    @Test
+    void closeWaitsForPaymentsInFlightAndTurnsNewOnesAway() throws Exception {
+        CountDownLatch charging = new CountDownLatch(1);
+        processor = newProcessor((payment, attempt) -> {
+            charging.countDown();
+            Thread.sleep(TIMEOUT.toMillis() / 2);
+            return true;
+        });
+        CompletableFuture<Boolean> inFlight = processor.processPaymentAsync(payment("PAY-IN-FLIGHT"));
+        assertTrue(charging.await(5, TimeUnit.SECONDS));
+
+        processor.close();
+
+        assertTrue(inFlight.isDone());
+        assertTrue(inFlight.join());
+        Payment late = payment("PAY-LATE");
+        assertFalse(processor.processPaymentAsync(late).join());
+        assertEquals(PaymentStatus.FAILED, late.getStatus());
+        assertEquals(List.of("PAY-IN-FLIGHT"), calls);
+    }
+
+    private AsyncPaymentProcessor newProcessor(ScriptedCharge charge) {
+        return new AsyncPaymentProcessor(new PaymentGateway() {
+            @Override
+            public boolean charge(Payment payment) throws Exception {
+                calls.add(payment.getPaymentId());
+                return charge.charge(payment, calls.size());
+            }
+
+            @Override
+            public void refund(Payment payment) {
+            }
+        }, 2, TIMEOUT, 3, BACKOFF);
+    }
+
+    private static Payment payment(String paymentId) {
+        return new Payment(paymentId, 10.0, PaymentMethod.CREDIT_CARD);
+    }
+
+    private interface ScriptedCharge {
+        boolean charge(Payment payment, int attempt) throws Exception;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ankitdevcode.example.parkinglot.payment.pricing;
+
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
+import com.ankitdevcode.example.parkinglot.spot.CompatibilityMatrix;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// The surge follows a time-weighted average of occupancy measured on the lot's clock, not on
+// how often anyone happens to sample it
+class OccupancyPricingStrategyTest {
+    private static final Instant START = Instant.parse("2026-03-02T08:00:00Z");
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2026, 3, 2, 8, 0);
+    private static final Duration WINDOW = Duration.ofMinutes(15);
+    private static final double EPSILON = 1e-9;
+
+    private final AtomicReference<Clock> clock = new AtomicReference<>(Clock.fixed(START, ZoneOffset.UTC));
+    private final AvailabilityCounters available = new AvailabilityCounters();
+    private final AvailabilityCounters capacity = new AvailabilityCounters();
+    private OccupancyPricingStrategy pricing;
+
+    @BeforeEach
+    void setUp() {
+        capacity.add(ParkingSpotType.COMPACT, 10);
+        available.add(ParkingSpotType.COMPACT, 10);
+        pricing = newPricing();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pricing.close();
+    }
+
+    @Test
+    void surgeBuildsUpWhileTheLotStaysFull() {
+        available.add(ParkingSpotType.COMPACT, -10);
+        assertEquals(0.0, pricing.getSnapshot().utilization(ParkingSpotType.COMPACT));
+
+        // Nothing parks or leaves from here on; the passing of lot time alone moves the rate
+        advance(WINDOW);
+        assertEquals(5.0, quote());
+        assertEquals(1 - Math.exp(-1), pricing.getSnapshot().utilization(ParkingSpotType.COMPACT), EPSILON);
+
+        advance(WINDOW);
+        assertEquals(7.5, quote());
+        assertEquals(1 - Math.exp(-2), pricing.getSnapshot().utilization(ParkingSpotType.COMPACT), EPSILON);
+
+        advance(WINDOW.multipliedBy(4));
+        assertEquals(10.0, quote());
+    }
+
+    @Test
+    void changesAreWeightedByHowLongTheyHeld() {
+        OccupancyPricingStrategy sampledOften = newPricing();
+        try {
+            available.add(ParkingSpotType.COMPACT, -10);
+            for (int second = 0; second < 300; second++) {
+                advance(Duration.ofSeconds(1));
+                sampledOften.sample();
+            }
+            available.add(ParkingSpotType.COMPACT, 5);
+            for (int second = 0; second < 1200; second++) {
+                advance(Duration.ofSeconds(1));
+                sampledOften.sample();
+            }
+            pricing.sample();
+
+            // Full for a third of a window, then half full for four thirds of one
+            double afterFull = 1 - Math.exp(-1.0 / 3);
+            double expected = 0.5 + (afterFull - 0.5) * Math.exp(-4.0 / 3);
+            assertEquals(expected, pricing.getSnapshot().utilization(ParkingSpotType.COMPACT), EPSILON);
+            assertEquals(expected, sampledOften.getSnapshot().utilization(ParkingSpotType.COMPACT), EPSILON);
+        } finally {
+            sampledOften.close();
+        }
+    }
+
+    @Test
+    void quotesReuseTheSnapshotWithinTheSampleInterval() {
+        OccupancyPricingStrategy.Snapshot first = pricing.getSnapshot();
+        assertEquals(START, first.getTakenAt());
+        available.add(ParkingSpotType.COMPACT, -10);
+
+        quote();
+        assertSame(first, pricing.getSnapshot());
+        advance(OccupancyPricingStrategy.DEFAULT_SAMPLE_INTERVAL.minusSeconds(1));
+        quote();
+        assertSame(first, pricing.getSnapshot());
+
+        advance(Duration.ofSeconds(1));
+        quote();
+        assertNotSame(first, pricing.getSnapshot());
+        assertEquals(clock.get().instant(), pricing.getSnapshot().getTakenAt());
+    }
+
+    private OccupancyPricingStrategy newPricing() {
+        return OccupancyPricingStrategy.builder(new HourlyPricingStrategy())
+                .window(WINDOW)
+                .build(available, capacity, CompatibilityMatrix::defaults, clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.set(Clock.offset(clock.get(), duration));
+    }
+
+    // One hour in a compact spot: 5.0 before any surge
+    private double quote() {
+        return pricing.calculatePrice(ENTRY, ENTRY.plusHours(1), VehicleType.COMPACT, ParkingSpotType.COMPACT);
+    }
+}
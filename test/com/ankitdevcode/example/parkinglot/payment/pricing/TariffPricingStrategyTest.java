@@ -0,0 +1,142 @@
+package com.ankitdevcode.example.parkinglot.payment.pricing;
+
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Quotes read off the weekly prefix table must match charging minute by minute: per started minute,
+// free within the grace period, peak windows that cross midnight and the end of the week, and a cap
+// that applies to each calendar day separately
+class TariffPricingStrategyTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+    private static final double EPSILON = 1e-9;
+
+    private final TariffPricingStrategy standard = TariffPricingStrategy.standard();
+
+    @Test
+    void graceCoversShortStaysOnly() {
+        LocalDateTime noon = MONDAY.withHour(12);
+        assertEquals(0.0, standard.calculatePrice(noon, noon.plusMinutes(10), VehicleType.COMPACT), EPSILON);
+        // Past the grace period the whole stay is charged
+        assertEquals(0.92, standard.calculatePrice(noon, noon.plusMinutes(11), VehicleType.COMPACT), EPSILON);
+        // Started minutes count: 12:00:30 to 12:20:10 is 21 minutes
+        assertEquals(1.75, standard.calculatePrice(noon.plusSeconds(30), noon.plusMinutes(20).plusSeconds(10),
+                VehicleType.COMPACT), EPSILON);
+    }
+
+    @Test
+    void peakRatesApplyInsideTheWindowOnPeakDays() {
+        LocalDateTime monday = MONDAY.withHour(7).withMinute(30);
+        // 30 off-peak minutes at 5.00 and 30 peak minutes at 7.50
+        assertEquals(6.25, standard.calculatePrice(monday, monday.plusHours(1), VehicleType.COMPACT), EPSILON);
+        assertEquals(15.0, standard.calculatePrice(MONDAY.withHour(17), MONDAY.withHour(19), VehicleType.COMPACT), EPSILON);
+        LocalDateTime saturday = MONDAY.plusDays(5).withHour(8);
+        assertEquals(10.0, standard.calculatePrice(saturday, saturday.plusHours(2), VehicleType.COMPACT), EPSILON);
+        assertEquals(4.0, standard.calculatePrice(saturday, saturday.plusHours(2), VehicleType.MOTORCYCLE), EPSILON);
+    }
+
+    @Test
+    void capAppliesToEachCalendarDay() {
+        assertEquals(50.0, standard.calculatePrice(MONDAY, MONDAY.withHour(23).withMinute(59), VehicleType.COMPACT), EPSILON);
+        // Monday 20:00 to Wednesday 04:00: four hours, a capped Tuesday, four hours
+        assertEquals(90.0, standard.calculatePrice(MONDAY.withHour(20), MONDAY.plusDays(2).withHour(4),
+                VehicleType.COMPACT), EPSILON);
+        assertEquals(14 * 50.0, standard.calculatePrice(MONDAY, MONDAY.plusWeeks(2), VehicleType.COMPACT), EPSILON);
+        assertEquals(14 * 80.0, standard.calculatePrice(MONDAY, MONDAY.plusWeeks(2), VehicleType.LARGE), EPSILON);
+    }
+
+    @Test
+    void windowStartingSundayNightRunsIntoMonday() {
+        TariffPricingStrategy lateSunday = allTypes(TariffPricingStrategy.builder()
+                .peakWindow(LocalTime.of(22, 0), LocalTime.of(2, 0))
+                .peakDays(DayOfWeek.SUNDAY), 6.0, 12.0)
+                .build();
+        LocalDateTime sunday = MONDAY.plusDays(6);
+
+        assertEquals(24.0, lateSunday.calculatePrice(sunday.withHour(23), MONDAY.plusWeeks(1).withHour(1),
+                VehicleType.COMPACT), EPSILON);
+        // Sunday's window spills into Monday 00:00-02:00; Monday's own night is off-peak
+        assertEquals(18.0, lateSunday.calculatePrice(MONDAY.withHour(1), MONDAY.withHour(3), VehicleType.COMPACT), EPSILON);
+        assertEquals(12.0, lateSunday.calculatePrice(MONDAY.withHour(22), MONDAY.plusDays(1), VehicleType.COMPACT), EPSILON);
+    }
+
+    @Test
+    void quotesMatchMinuteByMinuteCharging() {
+        TariffPricingStrategy tariff = allTypes(TariffPricingStrategy.builder()
+                .peakWindow(LocalTime.of(7, 15), LocalTime.of(9, 45))
+                .peakWindow(LocalTime.of(23, 30), LocalTime.of(1, 30))
+                .peakDays(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)
+                .gracePeriod(Duration.ofMinutes(5)), 3.0, 9.0)
+                .dailyCap(VehicleType.COMPACT, 40.0)
+                .build();
+        Random random = new Random(18);
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime entry = MONDAY.plusSeconds(random.nextInt(21 * 24 * 3600));
+            LocalDateTime exit = entry.plusSeconds(random.nextInt(random.nextBoolean() ? 3 * 3600 : 4 * 24 * 3600));
+            assertEquals(chargeByMinute(entry, exit), tariff.calculatePrice(entry, exit, VehicleType.COMPACT), 0.011,
+                    entry + " to " + exit);
+        }
+    }
+
+    @Test
+    void builderRejectsBadRules() {
+        TariffPricingStrategy.Builder builder = TariffPricingStrategy.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.rate(VehicleType.COMPACT, -1.0, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.peakWindow(LocalTime.NOON, LocalTime.NOON));
+        assertThrows(IllegalArgumentException.class, () -> builder.dailyCap(VehicleType.COMPACT, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> builder.gracePeriod(Duration.ofMinutes(-1)));
+        assertThrows(IllegalStateException.class, () -> builder.rate(VehicleType.COMPACT, 1.0, 2.0).build());
+    }
+
+    // Same rules as the tariff in quotesMatchMinuteByMinuteCharging, applied one minute at a time
+    private static double chargeByMinute(LocalDateTime entry, LocalDateTime exit) {
+        LocalDateTime from = entry.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime to = exit.truncatedTo(ChronoUnit.MINUTES);
+        if (to.isBefore(exit)) {
+            to = to.plusMinutes(1);
+        }
+        if (ChronoUnit.MINUTES.between(from, to) <= 5) {
+            return 0.0;
+        }
+        double total = 0;
+        double day = 0;
+        for (LocalDateTime minute = from; minute.isBefore(to); minute = minute.plusMinutes(1)) {
+            if (minute.toLocalTime().equals(LocalTime.MIDNIGHT) && !minute.equals(from)) {
+                total += Math.min(40.0, day);
+                day = 0;
+            }
+            day += (isPeak(minute) ? 9.0 : 3.0) / 60.0;
+        }
+        total += Math.min(40.0, day);
+        return Math.round(total * 100) / 100.0;
+    }
+
+    private static boolean isPeak(LocalDateTime minute) {
+        int time = minute.getHour() * 60 + minute.getMinute();
+        boolean today = isPeakDay(minute.getDayOfWeek());
+        boolean yesterday = isPeakDay(minute.getDayOfWeek().minus(1));
+        return today && (time >= 7 * 60 + 15 && time < 9 * 60 + 45 || time >= 23 * 60 + 30)
+                || yesterday && time < 90;
+    }
+
+    private static boolean isPeakDay(DayOfWeek day) {
+        return day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    private static TariffPricingStrategy.Builder allTypes(TariffPricingStrategy.Builder builder,
+                                                          double offPeak, double peak) {
+        for (VehicleType type : VehicleType.values()) {
+            builder.rate(type, offPeak, peak);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,89 @@
+package com.ankitdevcode.example.parkinglot.payment.revenue;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevenueLedgerTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Test
+    void rangesIncludeTheBucketsHoldingTheirEnds() {
+        RevenueLedger ledger = new RevenueLedger();
+        ledger.record(MONDAY.plusHours(9).plusSeconds(10), 5, VehicleType.COMPACT, PaymentMethod.CASH);
+        ledger.record(MONDAY.plusHours(9).plusMinutes(1), 7, VehicleType.LARGE, PaymentMethod.CREDIT_CARD);
+        ledger.record(MONDAY.plusHours(10), 11, VehicleType.COMPACT, PaymentMethod.CREDIT_CARD);
+
+        // 09:00:30 falls in the 09:00 minute, so the payment at 09:00:10 counts
+        assertEquals(12, ledger.total(MONDAY.plusHours(9).plusSeconds(30), MONDAY.plusHours(9).plusMinutes(1)));
+        assertEquals(23, ledger.total(MONDAY, MONDAY.plusDays(1)));
+        assertEquals(11, ledger.total(MONDAY.plusHours(10), MONDAY.plusHours(10)));
+        assertEquals(0, ledger.total(MONDAY.plusHours(11), MONDAY.plusHours(12)));
+        assertEquals(0, ledger.total(MONDAY.plusDays(1), MONDAY));
+    }
+
+    @Test
+    void breaksDownByVehicleTypeAndPaymentMethod() {
+        RevenueLedger ledger = new RevenueLedger();
+        ledger.record(MONDAY.plusHours(8), 5, VehicleType.COMPACT, PaymentMethod.CASH);
+        ledger.record(MONDAY.plusHours(8), 7, VehicleType.LARGE, PaymentMethod.CREDIT_CARD);
+        ledger.record(MONDAY.plusHours(9), 3, VehicleType.COMPACT, PaymentMethod.CREDIT_CARD);
+
+        Map<VehicleType, Double> byType = ledger.byVehicleType(MONDAY, MONDAY.plusDays(1));
+        assertEquals(8, byType.get(VehicleType.COMPACT));
+        assertEquals(7, byType.get(VehicleType.LARGE));
+        assertEquals(0, byType.get(VehicleType.MOTORCYCLE));
+        Map<PaymentMethod, Double> byMethod = ledger.byPaymentMethod(MONDAY, MONDAY.plusHours(8));
+        assertEquals(5, byMethod.get(PaymentMethod.CASH));
+        assertEquals(7, byMethod.get(PaymentMethod.CREDIT_CARD));
+    }
+
+    @Test
+    void agedBucketsRollUpWithoutLosingRevenue() {
+        RevenueLedger ledger = new RevenueLedger(Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofDays(1));
+        // A payment every minute for a week
+        int minutes = 7 * 24 * 60;
+        for (int i = 0; i < minutes; i++) {
+            ledger.record(MONDAY.plusMinutes(i), 1, VehicleType.COMPACT, PaymentMethod.CASH);
+        }
+
+        assertEquals(minutes, ledger.total(MONDAY, MONDAY.plusDays(7)));
+        assertEquals(minutes, ledger.byPaymentMethod(MONDAY, MONDAY.plusDays(7)).get(PaymentMethod.CASH));
+        // Older days resolve to day buckets, yesterday to hours, the last hour to minutes
+        assertEquals(24 * 60, ledger.total(MONDAY.plusDays(1), MONDAY.plusDays(1)));
+        assertEquals(60, ledger.total(MONDAY.plusDays(6).plusHours(12), MONDAY.plusDays(6).plusHours(12)));
+        assertEquals(1, ledger.total(MONDAY.plusDays(7).minusMinutes(1), MONDAY.plusDays(7).minusMinutes(1)));
+        // Rollups move whole hours and days, so at most two hours of minutes, two days of hours and
+        // the older days remain, against about ten thousand minute buckets without them
+        assertTrue(ledger.getBucketCount() <= 2 * 60 + 2 * 24 + 7, "buckets: " + ledger.getBucketCount());
+    }
+
+    @Test
+    void latePaymentsForRolledUpTimesStillCount() {
+        RevenueLedger ledger = new RevenueLedger(Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofDays(1));
+        ledger.record(MONDAY.plusDays(3), 10, VehicleType.COMPACT, PaymentMethod.CASH);
+        // Long past both retention windows, so it goes straight into a day bucket
+        ledger.record(MONDAY.plusMinutes(5), 4, VehicleType.LARGE, PaymentMethod.CASH);
+        ledger.record(MONDAY.plusDays(3).minusMinutes(30), 2, VehicleType.LARGE, PaymentMethod.CASH);
+
+        assertEquals(4, ledger.total(MONDAY, MONDAY));
+        assertEquals(16, ledger.total(MONDAY, MONDAY.plusDays(3)));
+        assertEquals(6, ledger.byVehicleType(MONDAY, MONDAY.plusDays(3)).get(VehicleType.LARGE));
+    }
+
+    @Test
+    void rejectsBucketsThatDoNotDivideAnHour() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RevenueLedger(Duration.ofSeconds(7 * 60), Duration.ofDays(1), Duration.ofDays(90)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RevenueLedger(Duration.ofMinutes(1), Duration.ofMinutes(30), Duration.ofDays(90)));
+    }
+}
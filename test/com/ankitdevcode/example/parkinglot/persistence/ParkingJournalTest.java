@@ -0,0 +1,89 @@
+package com.ankitdevcode.example.parkinglot.persistence;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Appends complete only once their batch is on disk, come back in order after a restart, and a
+// snapshot lets compaction drop every segment it covers
+class ParkingJournalTest {
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2024, 3, 1, 8, 30);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedEventsComeBackInOrderAfterARestart() throws Exception {
+        List<JournalEvent> events = List.of(parked("T1"),
+                new JournalEvent.PaymentSettled("T1", "P1", 7.5, PaymentMethod.CASH, true),
+                new JournalEvent.Unparked("T1", ENTRY.plusHours(2)));
+        try (ParkingJournal journal = new ParkingJournal(directory, 0)) {
+            List<CompletableFuture<Long>> writes = new ArrayList<>();
+            for (JournalEvent event : events) {
+                writes.add(journal.append(event));
+            }
+            for (int i = 0; i < writes.size(); i++) {
+                assertEquals(i + 1, writes.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(3, journal.getLastWrittenSequence());
+        }
+
+        List<ParkingJournal.Entry> entries = ParkingJournal.readAll(directory);
+        assertEquals(events, entries.stream().map(ParkingJournal.Entry::event).toList());
+        try (ParkingJournal reopened = new ParkingJournal(directory, 3)) {
+            assertEquals(4, reopened.append(parked("T2")).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(4, ParkingJournal.readAll(directory).size());
+    }
+
+    @Test
+    void snapshotCoversTheCompactedSegments() throws Exception {
+        SnapshotStore snapshots = new SnapshotStore(directory);
+        try (ParkingJournal journal = new ParkingJournal(directory, 0)) {
+            journal.append(parked("T1"));
+            journal.append(parked("T2")).get(5, TimeUnit.SECONDS);
+            snapshots.write(2, List.of(parked("T1"), parked("T2")), List.of());
+            journal.compact(2).get(5, TimeUnit.SECONDS);
+            journal.append(new JournalEvent.Unparked("T1", ENTRY.plusHours(1))).get(5, TimeUnit.SECONDS);
+
+            // The segment holding 1..2 is only dropped once a later segment follows it
+            snapshots.write(3, List.of(parked("T2")), List.of());
+            journal.compact(3).get(5, TimeUnit.SECONDS);
+            journal.append(parked("T3")).get(5, TimeUnit.SECONDS);
+        }
+
+        SnapshotStore.Snapshot snapshot = snapshots.load().orElseThrow();
+        assertEquals(3, snapshot.sequence());
+        assertEquals(List.of(parked("T2")), snapshot.activeTickets());
+        assertEquals(List.of(3L, 4L), ParkingJournal.readAll(directory).stream()
+                .map(ParkingJournal.Entry::sequence).toList());
+    }
+
+    @Test
+    void appendAfterCloseFails() {
+        ParkingJournal journal = new ParkingJournal(directory, 0);
+        journal.close();
+
+        CompletionException failure = assertThrows(CompletionException.class, () -> journal.append(parked("T1")).join());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertTrue(ParkingJournal.readAll(directory).isEmpty());
+    }
+
+    private static JournalEvent.Parked parked(String ticketId) {
+        return new JournalEvent.Parked(ticketId, "PLATE-" + ticketId, VehicleType.COMPACT, "Grey", 0, "F0R0S1", ENTRY);
+    }
+}
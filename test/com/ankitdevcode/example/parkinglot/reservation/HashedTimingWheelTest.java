@@ -0,0 +1,118 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private HashedTimingWheel wheel;
+
+    @AfterEach
+    void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+        }
+    }
+
+    @Test
+    void firesNoEarlierThanItsDelay() throws Exception {
+        wheel = new HashedTimingWheel("test-wheel", TICK, 64);
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, Duration.ofMillis(50));
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(firedAt.get() - scheduledAt >= Duration.ofMillis(50).toNanos());
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.getPendingCount());
+        assertEquals(1, wheel.getExpiredCount());
+    }
+
+    @Test
+    void deadlinesBeyondOneRevolutionWaitTheirRounds() throws Exception {
+        // Four 10ms buckets: a 100ms deadline goes round the wheel twice before it is due
+        wheel = new HashedTimingWheel("test-wheel", TICK, 4);
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+        wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, Duration.ofMillis(100));
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(firedAt.get() - scheduledAt >= Duration.ofMillis(100).toNanos());
+    }
+
+    @Test
+    void cancelledTimeoutNeverRuns() throws Exception {
+        wheel = new HashedTimingWheel("test-wheel", TICK, 64);
+        AtomicInteger runs = new AtomicInteger();
+        HashedTimingWheel.Timeout cancelled = wheel.schedule(runs::incrementAndGet, Duration.ofMillis(30));
+        CountDownLatch later = new CountDownLatch(1);
+        wheel.schedule(later::countDown, Duration.ofMillis(150));
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, wheel.getPendingCount());
+
+        // Once a later timeout has fired, the wheel has swept past the cancelled one's bucket
+        assertTrue(later.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertFalse(cancelled.isExpired());
+        assertEquals(0, wheel.getPendingCount());
+        assertEquals(1, wheel.getExpiredCount());
+    }
+
+    @Test
+    void manyTimeoutsExpireInDeadlineOrder() throws Exception {
+        wheel = new HashedTimingWheel("test-wheel", TICK, 8);
+        int count = 40;
+        List<Integer> order = new ArrayList<>();
+        CountDownLatch fired = new CountDownLatch(count);
+        // Scheduled latest first; deadlines are a full tick apart, so bucket order is deadline order
+        for (int i = count - 1; i >= 0; i--) {
+            int slot = i;
+            wheel.schedule(() -> {
+                order.add(slot);
+                fired.countDown();
+            }, TICK.multipliedBy(2L * (i + 1)));
+        }
+
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+        // Tasks all run on the single worker thread, so the list needs no locking
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, order.get(i));
+        }
+        assertEquals(count, wheel.getExpiredCount());
+    }
+
+    @Test
+    void schedulingAfterCloseIsRejected() {
+        wheel = new HashedTimingWheel("test-wheel", TICK, 64);
+        wheel.schedule(() -> { }, Duration.ofSeconds(10));
+        wheel.close();
+
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, Duration.ofMillis(1)));
+    }
+}
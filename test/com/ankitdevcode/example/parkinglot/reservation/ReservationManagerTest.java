@@ -0,0 +1,148 @@
+package com.ankitdevcode.example.parkinglot.reservation;
+
+import com.ankitdevcode.example.parkinglot.floor.AvailabilityCounters;
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
+import com.ankitdevcode.example.parkinglot.floor.ParkingFloor;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpot;
+import com.ankitdevcode.example.parkinglot.spot.ParkingSpotType;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Holds come off the free pool and go back exactly once, whether they expire or are cancelled.
+// Expiry follows the lot's clock, so these tests move a clock of their own instead of sleeping.
+class ReservationManagerTest {
+    private static final int SPOTS = 2;
+
+    private final AvailabilityCounters availability = new AvailabilityCounters();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final AtomicReference<Clock> clock = new AtomicReference<>(
+            Clock.fixed(Instant.parse("2026-03-02T08:00:00Z"), ZoneOffset.UTC));
+    private ParkingFloor floor;
+    private ReservationManager reservations;
+
+    @BeforeEach
+    void setUp() {
+        floor = new DefaultParkingFloor(0);
+        for (int i = 0; i < SPOTS; i++) {
+            floor.addParkingSpot(ParkingSpotType.COMPACT, 0, i);
+        }
+        availability.add(ParkingSpotType.COMPACT, SPOTS);
+        reservations = new ReservationManager(this::hold, List.of(floor), availability,
+                () -> "RSV" + ids.incrementAndGet(), clock::get, Duration.ofMillis(10), 64);
+        // Released on the thread that finds them due, so each expireDue has finished its releases
+        reservations.setExpiryExecutor(Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservations.close();
+    }
+
+    @Test
+    void expiredHoldReturnsItsSpot() {
+        AtomicInteger released = new AtomicInteger();
+        reservations.setReleaseListener(reservation -> released.incrementAndGet());
+        Reservation reservation = reservations.reserve(VehicleType.COMPACT, "HOLD1", Duration.ofMillis(50));
+        assertNotNull(reservation);
+        assertEquals(SPOTS - 1, availability.get(ParkingSpotType.COMPACT));
+        assertEquals(SPOTS - 1, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+
+        advance(Duration.ofMillis(40));
+        assertTrue(reservation.isHeld());
+        advance(Duration.ofMillis(20));
+        assertEquals(1, released.get());
+        assertEquals(ReservationStatus.EXPIRED, reservation.getStatus());
+        assertNull(reservations.getReservation(reservation.getReservationId()));
+        assertFalse(reservations.cancel(reservation.getReservationId()));
+        assertEquals(0, reservations.getHeldCount());
+        assertEquals(SPOTS, availability.get(ParkingSpotType.COMPACT));
+        assertEquals(SPOTS, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void cancelledHoldIsReleasedOnceAndNeverExpires() {
+        AtomicInteger releases = new AtomicInteger();
+        reservations.setReleaseListener(reservation -> releases.incrementAndGet());
+        Reservation cancelled = reservations.reserve(VehicleType.COMPACT, "HOLD1", Duration.ofMillis(30));
+        Reservation later = reservations.reserve(VehicleType.COMPACT, "HOLD2", Duration.ofMillis(150));
+        assertNull(reservations.reserve(VehicleType.COMPACT, "HOLD3", Duration.ofMillis(150)));
+
+        assertTrue(reservations.cancel(cancelled.getReservationId()));
+        assertFalse(reservations.cancel(cancelled.getReservationId()));
+        assertEquals(ReservationStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(1, releases.get());
+
+        advance(Duration.ofMillis(200));
+        assertEquals(ReservationStatus.EXPIRED, later.getStatus());
+        assertEquals(ReservationStatus.CANCELLED, cancelled.getStatus());
+        assertEquals(2, releases.get());
+        assertEquals(SPOTS, availability.get(ParkingSpotType.COMPACT));
+        assertEquals(SPOTS, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void restoredHoldThatRanOutExpiresAtOnce() {
+        ParkingSpot spot = floor.getSpotById(ParkingSpot.formatId(0, 0, 1));
+        assertEquals(1, floor.reserveSpots(List.of(spot)));
+        availability.decrement(ParkingSpotType.COMPACT);
+        Reservation restored = reservations.restore("RSV-OLD", "HOLD1", VehicleType.COMPACT, spot,
+                LocalDateTime.now(clock.get()).minusHours(2), LocalDateTime.now(clock.get()).minusHours(1));
+        assertTrue(restored.isHeld());
+
+        advance(Duration.ofMillis(10));
+        assertEquals(ReservationStatus.EXPIRED, restored.getStatus());
+        assertEquals(SPOTS, floor.getAvailableSpots(ParkingSpotType.COMPACT));
+    }
+
+    @Test
+    void expiriesRunOffTheWheelThread() throws Exception {
+        reservations.close();
+        reservations = new ReservationManager(this::hold, List.of(floor), availability,
+                () -> "RSV" + ids.incrementAndGet(), clock::get, Duration.ofMillis(10), 64);
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicBoolean offWheel = new AtomicBoolean();
+        reservations.setReleaseListener(reservation -> {
+            offWheel.set(!Thread.currentThread().getName().equals("reservation-expiry"));
+            released.countDown();
+        });
+        reservations.reserve(VehicleType.COMPACT, "HOLD1", Duration.ofMillis(20));
+
+        // The wheel's own thread notices the clock has moved; no expireDue here
+        clock.set(Clock.offset(clock.get(), Duration.ofMillis(50)));
+        assertTrue(released.await(5, TimeUnit.SECONDS));
+        assertTrue(offWheel.get());
+    }
+
+    private ParkingSpot hold(VehicleType vehicleType) {
+        ParkingSpot spot = floor.reserveSpot(vehicleType);
+        if (spot != null) {
+            availability.decrement(spot.getType());
+        }
+        return spot;
+    }
+
+    private void advance(Duration duration) {
+        clock.set(Clock.offset(clock.get(), duration));
+        reservations.expireDue();
+    }
+}
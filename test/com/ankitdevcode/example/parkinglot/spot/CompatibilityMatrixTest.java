@@ -0,0 +1,95 @@
+package com.ankitdevcode.example.parkinglot.spot;
+
+import com.ankitdevcode.example.parkinglot.floor.DefaultParkingFloor;
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.ElectricCar;
+import com.ankitdevcode.example.parkinglot.vehicles.Motorcycle;
+import com.ankitdevcode.example.parkinglot.vehicles.Truck;
+import com.ankitdevcode.example.parkinglot.vehicles.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// One table answers both "may this vehicle use this spot" and "which spots does it try, in what
+// order", and a floor places vehicles by whichever matrix it was given
+class CompatibilityMatrixTest {
+    private static final ParkingSpotType M = ParkingSpotType.MOTORCYCLE;
+    private static final ParkingSpotType C = ParkingSpotType.COMPACT;
+    private static final ParkingSpotType L = ParkingSpotType.LARGE;
+    private static final ParkingSpotType E = ParkingSpotType.ELECTRIC;
+
+    @Test
+    void defaultsMatchTheTable() {
+        CompatibilityMatrix matrix = CompatibilityMatrix.defaults();
+
+        assertEquals(List.of(M, C, L), matrix.preferences(VehicleType.MOTORCYCLE));
+        assertEquals(List.of(C, L), matrix.preferences(VehicleType.COMPACT));
+        assertEquals(List.of(L), matrix.preferences(VehicleType.LARGE));
+        assertEquals(List.of(E, C, L), matrix.preferences(VehicleType.ELECTRIC));
+        for (VehicleType vehicleType : VehicleType.values()) {
+            for (ParkingSpotType spotType : ParkingSpotType.values()) {
+                assertEquals(matrix.preferences(vehicleType).contains(spotType), matrix.canFit(vehicleType, spotType),
+                        vehicleType + " in " + spotType);
+            }
+        }
+        assertFalse(matrix.canFit(VehicleType.COMPACT, ParkingSpotType.HANDICAPPED));
+    }
+
+    @Test
+    void vehiclesAskTheMatrixTheyAreGiven() {
+        CompatibilityMatrix matrix = CompatibilityMatrix.defaults();
+        ParkingSpot large = new DefaultParkingSpot("F0R0S0", L, 0, 0, 0);
+        ParkingSpot electric = new DefaultParkingSpot("F0R0S1", E, 0, 0, 1);
+
+        assertTrue(new Motorcycle("M", "Red").canFitInSpot(large, matrix));
+        assertTrue(new Truck("T", "White").canFitInSpot(large, matrix));
+        assertFalse(new Car("C", "Grey").canFitInSpot(electric, matrix));
+        assertTrue(new ElectricCar("E", "Blue").canFitInSpot(electric, matrix));
+
+        CompatibilityMatrix carsCharge = matrix.toBuilder().allow(VehicleType.COMPACT, C, E).build();
+        assertTrue(new Car("C", "Grey").canFitInSpot(electric, carsCharge));
+        assertFalse(new Car("C", "Grey").canFitInSpot(large, carsCharge));
+    }
+
+    @Test
+    void builderReplacesOneRowAndLeavesTheOriginalAlone() {
+        CompatibilityMatrix defaults = CompatibilityMatrix.defaults();
+        CompatibilityMatrix trucksOnlyInLarge = defaults.toBuilder()
+                .allow(VehicleType.MOTORCYCLE, M)
+                .allow(VehicleType.COMPACT, C)
+                .build();
+
+        assertEquals(List.of(M), trucksOnlyInLarge.preferences(VehicleType.MOTORCYCLE));
+        assertEquals(defaults.preferences(VehicleType.ELECTRIC), trucksOnlyInLarge.preferences(VehicleType.ELECTRIC));
+        assertEquals(List.of(M, C, L), defaults.preferences(VehicleType.MOTORCYCLE));
+        assertEquals(defaults.toString(), defaults.toBuilder().build().toString());
+        assertThrows(IllegalArgumentException.class, () -> CompatibilityMatrix.builder().allow(VehicleType.COMPACT, C, C));
+        assertThrows(UnsupportedOperationException.class, () -> defaults.preferences(VehicleType.COMPACT).add(E));
+    }
+
+    @Test
+    void floorPlacesByItsMatrix() {
+        DefaultParkingFloor floor = new DefaultParkingFloor(0);
+        ParkingSpot large = floor.addParkingSpot(L, 0, 0);
+        ParkingSpot electric = floor.addParkingSpot(E, 0, 1);
+
+        // By default a car skips the charger and takes the large spot
+        assertSame(large, floor.parkVehicle(new Car("FIRST", "Grey")));
+        assertNull(floor.parkVehicle(new Car("SECOND", "Grey")));
+
+        floor.setCompatibility(CompatibilityMatrix.defaults().toBuilder().allow(VehicleType.COMPACT, C, E).build());
+        assertSame(electric, floor.parkVehicle(new Car("SECOND", "Grey")));
+        // The matrix also decides where a reserved spot may be used
+        floor.removeVehicle(electric);
+        assertSame(electric, floor.reserveSpot(VehicleType.COMPACT));
+        floor.setCompatibility(CompatibilityMatrix.defaults());
+        assertFalse(floor.occupyReservedSpot(electric, new Car("THIRD", "Grey")));
+    }
+}
@@ -0,0 +1,94 @@
+package com.ankitdevcode.example.parkinglot.spot;
+
+import com.ankitdevcode.example.parkinglot.vehicles.Car;
+import com.ankitdevcode.example.parkinglot.vehicles.Vehicle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The claim is the spot's own compare-and-set: however many gates race for a spot, exactly one
+// vehicle gets it, and a freed spot can be claimed again
+class DefaultParkingSpotTest {
+    private ExecutorService gates;
+
+    @AfterEach
+    void tearDown() {
+        if (gates != null) {
+            gates.shutdownNow();
+        }
+    }
+
+    @Test
+    void contendedClaimsHaveOneWinnerPerSpot() throws Exception {
+        int threads = 16;
+        List<DefaultParkingSpot> spots = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            spots.add(new DefaultParkingSpot("F0R0S" + i, ParkingSpotType.COMPACT, 0, 0, i));
+        }
+        AtomicInteger[] winners = new AtomicInteger[spots.size()];
+        for (int i = 0; i < winners.length; i++) {
+            winners[i] = new AtomicInteger();
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        gates = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int gate = 0; gate < threads; gate++) {
+            int g = gate;
+            results.add(gates.submit(() -> {
+                start.await();
+                for (int i = 0; i < spots.size(); i++) {
+                    Vehicle car = new Car("G" + g + "C" + i, "Grey");
+                    if (spots.get(i).parkVehicle(car)) {
+                        winners[i].incrementAndGet();
+                        assertSame(car, spots.get(i).getParkedVehicle());
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+
+        for (int i = 0; i < spots.size(); i++) {
+            assertEquals(1, winners[i].get(), spots.get(i).getSpotId());
+            assertEquals(ParkingSpotStatus.OCCUPIED, spots.get(i).getStatus());
+        }
+    }
+
+    @Test
+    void freedSpotCanBeClaimedAgain() {
+        DefaultParkingSpot spot = new DefaultParkingSpot("F0R0S0", ParkingSpotType.COMPACT, 0, 0, 0);
+        Car first = new Car("FIRST", "Grey");
+        assertTrue(spot.parkVehicle(first));
+        assertFalse(spot.parkVehicle(new Car("SECOND", "Grey")));
+
+        assertSame(first, spot.removeVehicle());
+        assertNull(spot.removeVehicle());
+        assertTrue(spot.isAvailable());
+        assertTrue(spot.parkVehicle(new Car("SECOND", "Grey")));
+    }
+
+    @Test
+    void onlyAvailableSpotsCanBeClaimed() {
+        DefaultParkingSpot spot = new DefaultParkingSpot("F0R0S0", ParkingSpotType.COMPACT, 0, 0, 0);
+        spot.setStatus(ParkingSpotStatus.OUT_OF_ORDER);
+        assertFalse(spot.parkVehicle(new Car("CAR", "Grey")));
+        assertNull(spot.getParkedVehicle());
+    }
+}
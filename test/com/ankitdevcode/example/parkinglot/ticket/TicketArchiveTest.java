@@ -0,0 +1,118 @@
+package com.ankitdevcode.example.parkinglot.ticket;
+
+import com.ankitdevcode.example.parkinglot.payment.PaymentMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Archived tickets come back field for field, however many index segments they have been
+// flushed and merged into, and across a restart that finds the index partly or wholly missing
+class TicketArchiveTest {
+    private static final LocalDateTime ENTRY = LocalDateTime.of(2024, 3, 1, 8, 30);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fieldsSurviveTabsAndLineBreaks() {
+        ArchivedTicket ticket = new ArchivedTicket("T\t1", "AB\\C\n12\r", 2, "F2-S\t7",
+                ENTRY, ENTRY.plusHours(3), "PAY\\t", 12.5, PaymentMethod.MOBILE_PAYMENT);
+        String line = ticket.toLine();
+        assertEquals(-1, line.indexOf('\n'));
+        assertEquals(8, line.chars().filter(c -> c == '\t').count());
+        assertEquals(ticket, ArchivedTicket.fromLine(line));
+
+        try (TicketArchive archive = new TicketArchive(directory.resolve("archive.log"))) {
+            archive.append(ticket);
+            archive.append(ticket("T2"));
+            assertEquals(ticket, archive.find("T\t1").orElseThrow());
+            assertEquals(ticket("T2"), archive.find("T2").orElseThrow());
+        }
+    }
+
+    @Test
+    void lookupsSpanFlushedAndMergedSegments() throws IOException {
+        Path file = directory.resolve("archive.log");
+        try (TicketArchive archive = new TicketArchive(file, 4)) {
+            for (int i = 0; i < 103; i++) {
+                archive.append(ticket("T" + i));
+                // Offsets held on the heap never outgrow the threshold
+                assertTrue(archive.getUnflushedCount() < 4);
+            }
+            assertEquals(103, archive.size());
+            assertEquals(3, archive.getUnflushedCount());
+            // 100 flushed offsets merge down to one segment per set bit of 100 / 4
+            assertEquals(Integer.bitCount(25), segmentFiles(file));
+
+            for (int i = 0; i < 103; i++) {
+                assertEquals(ticket("T" + i), archive.find("T" + i).orElseThrow());
+            }
+            assertTrue(archive.find("T103").isEmpty());
+        }
+    }
+
+    @Test
+    void reopenedArchiveKeepsItsIndex() {
+        Path file = directory.resolve("archive.log");
+        try (TicketArchive archive = new TicketArchive(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                archive.append(ticket("T" + i));
+            }
+        }
+        try (TicketArchive archive = new TicketArchive(file, 4)) {
+            assertEquals(ticket("T9"), archive.find("T9").orElseThrow());
+            assertEquals(10, archive.size());
+            archive.append(ticket("T10"));
+            assertEquals(ticket("T0"), archive.find("T0").orElseThrow());
+            assertEquals(ticket("T10"), archive.find("T10").orElseThrow());
+        }
+    }
+
+    @Test
+    void missingIndexAndTornLineAreRecovered() throws IOException {
+        Path file = directory.resolve("archive.log");
+        try (TicketArchive archive = new TicketArchive(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                archive.append(ticket("T" + i));
+            }
+        }
+        try (Stream<Path> segments = Files.list(directory)) {
+            for (Path segment : segments.filter(path -> !path.equals(file)).toList()) {
+                Files.delete(segment);
+            }
+        }
+        // A crash part way through writing a line
+        Files.writeString(file, "T10\tPLATE", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (TicketArchive archive = new TicketArchive(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(ticket("T" + i), archive.find("T" + i).orElseThrow());
+            }
+            assertTrue(archive.find("T10").isEmpty());
+            assertTrue(archive.getUnflushedCount() < 4);
+            archive.append(ticket("T10"));
+            assertEquals(ticket("T10"), archive.find("T10").orElseThrow());
+        }
+    }
+
+    private long segmentFiles(Path file) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> !path.equals(file)).count();
+        }
+    }
+
+    private static ArchivedTicket ticket(String ticketId) {
+        return new ArchivedTicket(ticketId, "PLATE-" + ticketId, 1, "F1-S" + ticketId.length(),
+                ENTRY, ENTRY.plusMinutes(ticketId.length() * 10L), "PAY-" + ticketId, 4.0, PaymentMethod.CASH);
+    }
+}